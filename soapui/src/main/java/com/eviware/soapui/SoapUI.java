@@ -165,6 +165,7 @@ import java.util.List;
 import java.util.Properties;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -202,6 +203,7 @@ public class SoapUI {
     private static final int DEFAULT_DESKTOP_ACTIONS_COUNT = 3;
     private static final int DEFAULT_MAX_THREADPOOL_SIZE = 200;
     private static final String BROWSER_DISABLED_SYSTEM_PROPERTY = "soapui.browser.disabled";
+    public static final String VIRTUAL_THREADS_SYSTEM_PROPERTY = "soapui.threadpool.virtual";
 
 
     // ------------------------------ FIELDS ------------------------------
@@ -242,6 +244,7 @@ public class SoapUI {
 
     private final static ThreadPoolExecutor threadPool = (ThreadPoolExecutor) Executors.newFixedThreadPool(
             getMaxThreadpoolSize(), new SoapUIThreadCreator());
+    private static ExecutorService blockingTaskExecutor;
     private JTextField searchField;
     private static JToggleButton applyProxyButton;
     private static Logger groovyLogger;
@@ -416,6 +419,29 @@ public class SoapUI {
         return threadPool;
     }
 
+    /**
+     * Returns the executor for long-running tasks that spend most of their time blocked, like LoadTest virtual
+     * users. If enabled with -Dsoapui.threadpool.virtual=true on a JDK that supports virtual threads each task
+     * gets its own virtual thread, otherwise the standard thread pool is returned.
+     */
+
+    public static synchronized ExecutorService getBlockingTaskExecutor() {
+        if (blockingTaskExecutor == null) {
+            if (Boolean.getBoolean(VIRTUAL_THREADS_SYSTEM_PROPERTY)) {
+                blockingTaskExecutor = SoapUIVirtualThreadCreator.createThreadPerTaskExecutor();
+                if (blockingTaskExecutor == null) {
+                    log.warn("Virtual threads are not available in this JDK, using standard thread pool");
+                }
+            }
+
+            if (blockingTaskExecutor == null) {
+                blockingTaskExecutor = threadPool;
+            }
+        }
+
+        return blockingTaskExecutor;
+    }
+
     public static Workspace getWorkspace() {
         return workspace;
     }
@@ -759,6 +785,10 @@ public class SoapUI {
 
         @Override
         public void windowClosed(WindowEvent event) {
+            if (blockingTaskExecutor != null && blockingTaskExecutor != threadPool) {
+                blockingTaskExecutor.shutdownNow();
+            }
+
             threadPool.shutdown();
             try {
                 threadPool.awaitTermination(1500, TimeUnit.MILLISECONDS);
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Creates virtual threads for SoapUI internal usage on JDKs that support them, with the extensionClassLoader as
+ * context classloader. The JDK api is accessed by reflection so SoapUI still runs on older JDKs, where this
+ * falls back to creating platform threads.
+ */
+
+public class SoapUIVirtualThreadCreator implements ThreadFactory {
+    private final static Logger log = Logger.getLogger(SoapUIVirtualThreadCreator.class);
+
+    private static ThreadFactory virtualThreadFactory;
+    private static boolean initialized;
+
+    public Thread newThread(Runnable r) {
+        ThreadFactory factory = getVirtualThreadFactory();
+        Thread thread = factory == null ? new Thread(r) : factory.newThread(r);
+        thread.setContextClassLoader(SoapUI.getSoapUICore().getExtensionClassLoader());
+        return thread;
+    }
+
+    public static boolean isSupported() {
+        return getVirtualThreadFactory() != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task, or returns null if virtual threads
+     * are not supported by the running JDK
+     */
+
+    public static ExecutorService createThreadPerTaskExecutor() {
+        if (!isSupported()) {
+            return null;
+        }
+
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, new SoapUIVirtualThreadCreator());
+        } catch (Exception e) {
+            log.warn("Failed to create virtual thread executor: " + e);
+            return null;
+        }
+    }
+
+    private static synchronized ThreadFactory getVirtualThreadFactory() {
+        if (!initialized) {
+            initialized = true;
+
+            try {
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "SoapUI Virtual Thread ", 0L);
+                virtualThreadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            } catch (Exception e) {
+                log.debug("Virtual threads are not supported by this JDK");
+            }
+        }
+
+        return virtualThreadFactory;
+    }
+}
@@ -18,6 +18,8 @@ package com.eviware.soapui.actions;
 
 import com.eviware.soapui.impl.wsdl.support.CompressionSupport;
 import com.eviware.soapui.model.settings.Settings;
+import com.eviware.soapui.monitor.JettyMockEngine;
+import com.eviware.soapui.monitor.MockEngineThreadPool;
 import com.eviware.soapui.settings.HttpSettings;
 import com.eviware.soapui.support.components.SimpleForm;
 import com.eviware.soapui.support.types.StringToStringMap;
@@ -41,14 +43,23 @@ public class HttpPrefs implements Prefs {
     public static final String USER_AGENT_HEADER = "User-Agent Header";
     public static final String SOCKET_TIMEOUT = "Socket Timeout";
     public static final String MAX_RESPONSE_SIZE = "Max response size";
+    public static final String RESPONSE_STREAMING_THRESHOLD = "Response Streaming Threshold";
     public static final String ENCODED_URLS = "Pre-encoded Endpoints";
     public static final String MAX_CONNECTIONS_PER_HOST = "Max Connections Per Host";
     public static final String MAX_TOTAL_CONNECTIONS = "Max Total Connections";
+    public static final String ROUTE_CONNECTION_POLICIES = "Route Connection Policies";
     public static final String BIND_ADDRESS = "Bind Address";
     public static final String LEAVE_MOCKENGINE = "Leave MockEngine";
     public static final String CHUNKING_THRESHOLD = "Chunking Threshold";
     public static final String HTTP_VERSION = "HTTP Version";
     public static final String ENABLE_MOCK_WIRE_LOG = "Enable Mock HTTP Log";
+    public static final String MOCK_MIN_THREADS = "Mock Min Threads";
+    public static final String MOCK_MAX_THREADS = "Mock Max Threads";
+    public static final String MOCK_MAX_QUEUED = "Mock Max Queued";
+    public static final String MOCK_OVERLOAD_RESPONSE = "Mock Overload Response";
+    public static final String MOCK_ACCEPTORS = "Mock Acceptors";
+    public static final String MOCK_BODY_SPILL_THRESHOLD = "Mock Body Spill Threshold";
+    public static final String MOCK_RESULT_SAMPLE_PERCENTAGE = "Mock Result Sample Percentage";
     public static final String DISABLE_RESPONSE_DECOMPRESSION = "Disable Response Decompression";
     public static final String FORWARD_SLASHES = "Normalize Forward Slashes";
 
@@ -99,12 +110,28 @@ public class HttpPrefs implements Prefs {
                     "Includes the time it took to read the entire response in time-taken", true);
             httpForm.appendTextField(HttpPrefs.SOCKET_TIMEOUT, "Socket timeout in milliseconds");
             httpForm.appendTextField(HttpPrefs.MAX_RESPONSE_SIZE, "Maximum size to read from response (0 = no limit)");
+            httpForm.appendTextField(HttpPrefs.RESPONSE_STREAMING_THRESHOLD,
+                    "Keeps response bodies larger than this many bytes in a temporary file (0 = disabled)");
             httpForm.appendTextField(HttpPrefs.MAX_CONNECTIONS_PER_HOST, "Maximum number of Connections Per Host");
             httpForm.appendTextField(HttpPrefs.MAX_TOTAL_CONNECTIONS, "Maximum number of Total Connections");
+            httpForm.appendTextField(HttpPrefs.ROUTE_CONNECTION_POLICIES,
+                    "Per-route limits as host[:port]=maxConnections[/keepAliveSeconds], separated by ';'");
             httpForm.appendSeparator();
             httpForm.appendCheckBox(HttpPrefs.LEAVE_MOCKENGINE, "Leave MockEngine running when stopping MockServices",
                     false);
             httpForm.appendCheckBox(HttpPrefs.ENABLE_MOCK_WIRE_LOG, "Logs wire content of all mock requests", false);
+            httpForm.appendTextField(HttpPrefs.MOCK_MIN_THREADS, "Minimum number of request threads per MockEngine port");
+            httpForm.appendTextField(HttpPrefs.MOCK_MAX_THREADS, "Maximum number of request threads per MockEngine port");
+            httpForm.appendTextField(HttpPrefs.MOCK_MAX_QUEUED,
+                    "Maximum number of queued mock requests per port, further requests get a 503 (0 = no limit)");
+            httpForm.appendCheckBox(HttpPrefs.MOCK_OVERLOAD_RESPONSE,
+                    "Responds with 503 Service Unavailable while a MockEngine port is out of threads", false);
+            httpForm.appendTextField(HttpPrefs.MOCK_ACCEPTORS,
+                    "Number of acceptor and selector threads per MockEngine port");
+            httpForm.appendTextField(HttpPrefs.MOCK_BODY_SPILL_THRESHOLD,
+                    "Keeps mock request bodies larger than this many bytes in a temporary file (0 = never)");
+            httpForm.appendTextField(HttpPrefs.MOCK_RESULT_SAMPLE_PERCENTAGE,
+                    "Percentage of logged mock results that keep their request and response content");
             httpForm.addSpace(5);
         }
 
@@ -132,14 +159,23 @@ public class HttpPrefs implements Prefs {
         settings.setString(HttpSettings.ENCODED_URLS, httpValues.get(ENCODED_URLS));
         settings.setString(HttpSettings.FORWARD_SLASHES, httpValues.get(FORWARD_SLASHES));
         settings.setString(HttpSettings.MAX_RESPONSE_SIZE, httpValues.get(MAX_RESPONSE_SIZE));
+        settings.setString(HttpSettings.RESPONSE_STREAMING_THRESHOLD, httpValues.get(RESPONSE_STREAMING_THRESHOLD));
         settings.setString(HttpSettings.INCLUDE_REQUEST_IN_TIME_TAKEN, httpValues.get(INCLUDE_REQUEST_IN_TIME_TAKEN));
         settings
                 .setString(HttpSettings.INCLUDE_RESPONSE_IN_TIME_TAKEN, httpValues.get(INCLUDE_RESPONSE_IN_TIME_TAKEN));
         settings.setString(HttpSettings.MAX_CONNECTIONS_PER_HOST, httpValues.get(MAX_CONNECTIONS_PER_HOST));
         settings.setString(HttpSettings.MAX_TOTAL_CONNECTIONS, httpValues.get(MAX_TOTAL_CONNECTIONS));
+        settings.setString(HttpSettings.ROUTE_CONNECTION_POLICIES, httpValues.get(ROUTE_CONNECTION_POLICIES));
         settings.setString(HttpSettings.BIND_ADDRESS, httpValues.get(BIND_ADDRESS));
         settings.setString(HttpSettings.LEAVE_MOCKENGINE, httpValues.get(LEAVE_MOCKENGINE));
         settings.setString(HttpSettings.ENABLE_MOCK_WIRE_LOG, httpValues.get(ENABLE_MOCK_WIRE_LOG));
+        settings.setString(HttpSettings.MOCK_MIN_THREADS, httpValues.get(MOCK_MIN_THREADS));
+        settings.setString(HttpSettings.MOCK_MAX_THREADS, httpValues.get(MOCK_MAX_THREADS));
+        settings.setString(HttpSettings.MOCK_MAX_QUEUED, httpValues.get(MOCK_MAX_QUEUED));
+        settings.setString(HttpSettings.MOCK_OVERLOAD_RESPONSE, httpValues.get(MOCK_OVERLOAD_RESPONSE));
+        settings.setString(HttpSettings.MOCK_ACCEPTORS, httpValues.get(MOCK_ACCEPTORS));
+        settings.setString(HttpSettings.MOCK_BODY_SPILL_THRESHOLD, httpValues.get(MOCK_BODY_SPILL_THRESHOLD));
+        settings.setString(HttpSettings.MOCK_RESULT_SAMPLE_PERCENTAGE, httpValues.get(MOCK_RESULT_SAMPLE_PERCENTAGE));
     }
 
     public void setFormValues(Settings settings) {
@@ -166,12 +202,26 @@ public class HttpPrefs implements Prefs {
         httpValues.put(SOCKET_TIMEOUT, settings.getString(HttpSettings.SOCKET_TIMEOUT, null));
         httpValues.put(ENCODED_URLS, settings.getString(HttpSettings.ENCODED_URLS, null));
         httpValues.put(MAX_RESPONSE_SIZE, settings.getString(HttpSettings.MAX_RESPONSE_SIZE, "0"));
+        httpValues.put(RESPONSE_STREAMING_THRESHOLD,
+                settings.getString(HttpSettings.RESPONSE_STREAMING_THRESHOLD, "0"));
         httpValues.put(MAX_CONNECTIONS_PER_HOST, settings.getString(HttpSettings.MAX_CONNECTIONS_PER_HOST, "500"));
         httpValues.put(MAX_TOTAL_CONNECTIONS, settings.getString(HttpSettings.MAX_TOTAL_CONNECTIONS, "2000"));
+        httpValues.put(ROUTE_CONNECTION_POLICIES, settings.getString(HttpSettings.ROUTE_CONNECTION_POLICIES, ""));
         httpValues.put(BIND_ADDRESS, settings.getString(HttpSettings.BIND_ADDRESS, ""));
         httpValues.put(FORWARD_SLASHES, settings.getString(HttpSettings.FORWARD_SLASHES, ""));
         httpValues.put(LEAVE_MOCKENGINE, settings.getString(HttpSettings.LEAVE_MOCKENGINE, null));
         httpValues.put(ENABLE_MOCK_WIRE_LOG, settings.getString(HttpSettings.ENABLE_MOCK_WIRE_LOG, null));
+        httpValues.put(MOCK_MIN_THREADS, settings.getString(HttpSettings.MOCK_MIN_THREADS,
+                String.valueOf(MockEngineThreadPool.DEFAULT_MIN_THREADS)));
+        httpValues.put(MOCK_MAX_THREADS, settings.getString(HttpSettings.MOCK_MAX_THREADS,
+                String.valueOf(MockEngineThreadPool.DEFAULT_MAX_THREADS)));
+        httpValues.put(MOCK_MAX_QUEUED, settings.getString(HttpSettings.MOCK_MAX_QUEUED, "0"));
+        httpValues.put(MOCK_OVERLOAD_RESPONSE, settings.getString(HttpSettings.MOCK_OVERLOAD_RESPONSE, null));
+        httpValues.put(MOCK_ACCEPTORS, settings.getString(HttpSettings.MOCK_ACCEPTORS, "1"));
+        httpValues.put(MOCK_BODY_SPILL_THRESHOLD, settings.getString(HttpSettings.MOCK_BODY_SPILL_THRESHOLD,
+                String.valueOf(JettyMockEngine.DEFAULT_BODY_SPILL_THRESHOLD)));
+        httpValues.put(MOCK_RESULT_SAMPLE_PERCENTAGE,
+                settings.getString(HttpSettings.MOCK_RESULT_SAMPLE_PERCENTAGE, "100"));
         return httpValues;
     }
 
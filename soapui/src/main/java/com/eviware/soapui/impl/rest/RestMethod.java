@@ -358,6 +358,15 @@ public class RestMethod extends AbstractWsdlModelItem<RestMethodConfig> implemen
         return resource.getInterface();
     }
 
+    @Override
+    public void setName(String name) {
+        // test steps refer to the method by name and update their configs when it changes
+        if (resource != null && resource.getService() != null && resource.getService().getProject() != null) {
+            resource.getService().getProject().loadAllTestCases();
+        }
+        super.setName(name);
+    }
+
     public List<? extends ModelItem> getChildren() {
         return getRequestList();
     }
@@ -125,6 +125,19 @@ public class RestResource extends AbstractWsdlModelItem<RestResourceConfig> impl
         return (RestService) getParent();
     }
 
+    @Override
+    public void setName(String name) {
+        loadAllTestCases();
+        super.setName(name);
+    }
+
+    // test steps refer to the resource by path and update their configs when it changes
+    private void loadAllTestCases() {
+        if (getService() != null && getService().getProject() != null) {
+            getService().getProject().loadAllTestCases();
+        }
+    }
+
     public String[] getRequestMediaTypes() {
         return new String[0];
     }
@@ -233,6 +246,7 @@ public class RestResource extends AbstractWsdlModelItem<RestResourceConfig> impl
     }
 
     public void setPath(String path) {
+        loadAllTestCases();
         String old = getPath();
         getConfig().setPath(path);
         notifyPropertyChanged("path", old, path);
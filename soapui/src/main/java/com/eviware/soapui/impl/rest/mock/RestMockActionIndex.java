@@ -0,0 +1,327 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.rest.mock;
+
+import com.eviware.soapui.model.mock.MockOperation;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.eviware.soapui.impl.rest.RestRequestInterface.HttpMethod;
+
+/**
+ * Index of the RestMockActions of a RestMockService, with a segment trie per HTTP method for finding the
+ * action with the longest matching resource path.
+ * <p/>
+ * Resource path segments are either literals, templates like <code>{id}</code> or the <code>*</code>
+ * wildcard, which both match any single segment. When several actions match equally deep, literal segments
+ * are preferred over templates and templates over wildcards; actions with the same method and path are
+ * ordered as in the mock service.
+ */
+
+public class RestMockActionIndex {
+    private static final String WILDCARD = "*";
+
+    private final List<MockOperation> mockOperations;
+    private final Map<HttpMethod, Node> roots = new EnumMap<HttpMethod, Node>(HttpMethod.class);
+    private final Map<HttpMethod, Map<String, List<RestMockAction>>> exactPaths = new EnumMap<HttpMethod, Map<String, List<RestMockAction>>>(
+            HttpMethod.class);
+    private final Map<RestMockAction, Route> routes = new HashMap<RestMockAction, Route>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param mockOperations the live list of operations of the mock service, used for ordering actions
+     *                       that share method and path
+     */
+
+    public RestMockActionIndex(List<MockOperation> mockOperations) {
+        this.mockOperations = mockOperations;
+    }
+
+    public void add(RestMockAction action) {
+        lock.writeLock().lock();
+        try {
+            removeRoute(action);
+
+            Route route = new Route(action.getMethod(), action.getResourcePath());
+            if (route.method == null || route.path == null) {
+                return;
+            }
+
+            Map<String, List<RestMockAction>> paths = exactPaths.get(route.method);
+            if (paths == null) {
+                paths = new HashMap<String, List<RestMockAction>>();
+                exactPaths.put(route.method, paths);
+            }
+
+            List<RestMockAction> actions = paths.get(route.path);
+            if (actions == null) {
+                actions = new ArrayList<RestMockAction>(1);
+                paths.put(route.path, actions);
+            }
+            insertOrdered(actions, action);
+
+            Node node = roots.get(route.method);
+            if (node == null) {
+                node = new Node();
+                roots.put(route.method, node);
+            }
+
+            for (String segment : splitPath(route.path)) {
+                node = node.getOrCreateChild(segment);
+            }
+            insertOrdered(node.actions, action);
+
+            routes.put(action, route);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(RestMockAction action) {
+        lock.writeLock().lock();
+        try {
+            removeRoute(action);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            roots.clear();
+            exactPaths.clear();
+            routes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the first action with exactly the specified method and resource path, or null
+     */
+
+    public RestMockAction findExactMatch(String path, HttpMethod method) {
+        lock.readLock().lock();
+        try {
+            Map<String, List<RestMockAction>> paths = exactPaths.get(method);
+            List<RestMockAction> actions = paths == null ? null : paths.get(path);
+            return actions == null || actions.isEmpty() ? null : actions.get(0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the action with the specified method whose resource path matches the most leading segments
+     * of the specified path, or null if no action matches
+     */
+
+    public RestMockAction findBestMatch(String path, HttpMethod method) {
+        lock.readLock().lock();
+        try {
+            RestMockAction exactMatch = findExactMatch(path, method);
+            if (exactMatch != null) {
+                return exactMatch;
+            }
+
+            Node root = roots.get(method);
+            if (root == null) {
+                return null;
+            }
+
+            Match match = new Match();
+            root.match(splitPath(path), 0, match);
+            return match.action;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeRoute(RestMockAction action) {
+        Route route = routes.remove(action);
+        if (route == null) {
+            return;
+        }
+
+        Map<String, List<RestMockAction>> paths = exactPaths.get(route.method);
+        List<RestMockAction> actions = paths.get(route.path);
+        actions.remove(action);
+        if (actions.isEmpty()) {
+            paths.remove(route.path);
+        }
+
+        String[] segments = splitPath(route.path);
+        Node[] trail = new Node[segments.length + 1];
+        trail[0] = roots.get(route.method);
+        for (int c = 0; c < segments.length; c++) {
+            trail[c + 1] = trail[c].getChild(segments[c]);
+        }
+
+        trail[segments.length].actions.remove(action);
+
+        // prune branches that no longer lead to any action
+        for (int c = segments.length; c > 0 && trail[c].isEmpty(); c--) {
+            trail[c - 1].removeChild(segments[c - 1]);
+        }
+    }
+
+    private void insertOrdered(List<RestMockAction> actions, RestMockAction action) {
+        int position = mockOperations.indexOf(action);
+        int ix = actions.size();
+        while (ix > 0 && mockOperations.indexOf(actions.get(ix - 1)) > position) {
+            ix--;
+        }
+
+        actions.add(ix, action);
+    }
+
+    static String[] splitPath(String path) {
+        List<String> segments = new ArrayList<String>();
+        int start = 0;
+        int length = path.length();
+
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end == -1) {
+                end = length;
+            }
+
+            if (end > start) {
+                segments.add(path.substring(start, end));
+            }
+            start = end + 1;
+        }
+
+        return segments.toArray(new String[segments.size()]);
+    }
+
+    static boolean isTemplate(String segment) {
+        return segment.length() > 1 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    private static class Route {
+        private final HttpMethod method;
+        private final String path;
+
+        private Route(HttpMethod method, String path) {
+            this.method = method;
+            this.path = path;
+        }
+    }
+
+    private static class Match {
+        private RestMockAction action;
+        private int depth = -1;
+    }
+
+    private static class Node {
+        private final List<RestMockAction> actions = new ArrayList<RestMockAction>(1);
+        private Map<String, Node> literals;
+        private Map<String, Node> templates;
+        private Node wildcard;
+
+        private Node getChild(String segment) {
+            if (WILDCARD.equals(segment)) {
+                return wildcard;
+            }
+
+            Map<String, Node> children = isTemplate(segment) ? templates : literals;
+            return children == null ? null : children.get(segment);
+        }
+
+        private Node getOrCreateChild(String segment) {
+            Node child = getChild(segment);
+            if (child != null) {
+                return child;
+            }
+
+            child = new Node();
+            if (WILDCARD.equals(segment)) {
+                wildcard = child;
+            } else if (isTemplate(segment)) {
+                if (templates == null) {
+                    templates = new LinkedHashMap<String, Node>();
+                }
+                templates.put(segment, child);
+            } else {
+                if (literals == null) {
+                    literals = new HashMap<String, Node>();
+                }
+                literals.put(segment, child);
+            }
+
+            return child;
+        }
+
+        private void removeChild(String segment) {
+            if (WILDCARD.equals(segment)) {
+                wildcard = null;
+            } else if (isTemplate(segment)) {
+                templates.remove(segment);
+            } else {
+                literals.remove(segment);
+            }
+        }
+
+        private boolean isEmpty() {
+            return actions.isEmpty() && (literals == null || literals.isEmpty())
+                    && (templates == null || templates.isEmpty()) && wildcard == null;
+        }
+
+        /**
+         * Depth-first search visiting literal children before templates and wildcards, so that only a strictly
+         * deeper match replaces the current one
+         */
+
+        private void match(String[] segments, int depth, Match match) {
+            if (!actions.isEmpty() && depth > match.depth) {
+                match.action = actions.get(0);
+                match.depth = depth;
+            }
+
+            if (depth == segments.length) {
+                return;
+            }
+
+            String segment = segments[depth];
+            if (literals != null) {
+                Node child = literals.get(segment);
+                if (child != null) {
+                    child.match(segments, depth + 1, match);
+                }
+            }
+
+            if (templates != null) {
+                for (Node child : templates.values()) {
+                    child.match(segments, depth + 1, match);
+                }
+            }
+
+            if (wildcard != null) {
+                wildcard.match(segments, depth + 1, match);
+            }
+        }
+    }
+}
@@ -29,6 +29,8 @@ import com.eviware.soapui.model.mock.MockDispatcher;
 import com.eviware.soapui.model.mock.MockOperation;
 import com.eviware.soapui.model.project.Project;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,6 +41,9 @@ public class RestMockService extends AbstractMockService<RestMockAction, RESTMoc
     public final static String ICON_NAME = "/restMockService.gif";
     public static final String STRING_ID = "REST";
 
+    private final RestMockActionIndex actionIndex = new RestMockActionIndex(getMockOperations());
+    private final PropertyChangeListener actionRouteListener = new ActionRouteListener();
+
     public String getStringID() {
         return STRING_ID;
     }
@@ -65,6 +70,20 @@ public class RestMockService extends AbstractMockService<RestMockAction, RESTMoc
         return ICON_NAME;
     }
 
+    @Override
+    public void addMockOperation(RestMockAction mockOperation) {
+        super.addMockOperation(mockOperation);
+        actionIndex.add(mockOperation);
+        mockOperation.addPropertyChangeListener(actionRouteListener);
+    }
+
+    @Override
+    public void removeMockOperation(MockOperation mockOperation) {
+        mockOperation.removePropertyChangeListener(actionRouteListener);
+        actionIndex.remove((RestMockAction) mockOperation);
+        super.removeMockOperation(mockOperation);
+    }
+
     @Override
     public MockDispatcher createDispatcher(WsdlMockRunContext mockContext) {
         return new RestMockDispatcher(this, mockContext);
@@ -119,37 +138,11 @@ public class RestMockService extends AbstractMockService<RestMockAction, RESTMoc
     }
 
     private MockOperation findMatchedOperation(String pathToFind, HttpMethod verbToFind, boolean includePartialMatch) {
-        MockOperation bestMatchedOperation = null;
-
-        for (MockOperation operation : getMockOperationList()) {
-            String operationPath = ((RestMockAction) operation).getResourcePath();
-            HttpMethod operationVerb = ((RestMockAction) operation).getMethod();
-
-            boolean matchesPath = operationPath.equals(pathToFind);
-            boolean matchesVerb = verbToFind == operationVerb;
-            boolean matchesPathPartially = pathToFind.startsWith(operationPath);
-
-            if (matchesPath && matchesVerb) {
-                return operation;
-            } else if (includePartialMatch && matchesPathPartially && matchesVerb) {
-                bestMatchedOperation = getBestMatchedOperation(bestMatchedOperation, operation, operationPath);
-            }
+        if (includePartialMatch) {
+            return actionIndex.findBestMatch(pathToFind, verbToFind);
+        } else {
+            return actionIndex.findExactMatch(pathToFind, verbToFind);
         }
-
-        return bestMatchedOperation;
-    }
-
-    private MockOperation getBestMatchedOperation(MockOperation currentBestMatchedOperation, MockOperation operation, String operationPath) {
-        MockOperation bestMatchedOperation = currentBestMatchedOperation;
-
-        if (bestMatchedOperation == null || foundBetterMatch((RestMockAction) bestMatchedOperation, operationPath)) {
-            bestMatchedOperation = operation;
-        }
-        return bestMatchedOperation;
-    }
-
-    private boolean foundBetterMatch(RestMockAction bestMatchedOperation, String operationPath) {
-        return bestMatchedOperation.getResourcePath().length() < operationPath.length();
     }
 
     public boolean canIAddAMockOperation(RestMockAction mockOperation) {
@@ -189,4 +182,23 @@ public class RestMockService extends AbstractMockService<RestMockAction, RESTMoc
         return HelpUrls.REST_MOCKSERVICE_HELP_URL;
     }
 
+    @Override
+    public void release() {
+        for (MockOperation operation : getMockOperations()) {
+            operation.removePropertyChangeListener(actionRouteListener);
+        }
+        actionIndex.clear();
+
+        super.release();
+    }
+
+    private class ActionRouteListener implements PropertyChangeListener {
+        public void propertyChange(PropertyChangeEvent evt) {
+            String propertyName = evt.getPropertyName();
+            if ("resourcePath".equals(propertyName) || "httpMethod".equals(propertyName)) {
+                actionIndex.add((RestMockAction) evt.getSource());
+            }
+        }
+    }
+
 }
@@ -25,6 +25,7 @@ import com.eviware.soapui.impl.rest.RestRequestInterface;
 import com.eviware.soapui.impl.wsdl.AbstractWsdlModelItem;
 import com.eviware.soapui.impl.wsdl.HttpAttachmentPart;
 import com.eviware.soapui.impl.wsdl.WsdlRequest;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.BaseHttpResponse;
 import com.eviware.soapui.impl.wsdl.submit.transports.http.HttpResponse;
 import com.eviware.soapui.impl.wsdl.submit.transports.http.support.methods.IAfterRequestInjection;
 import com.eviware.soapui.impl.wsdl.support.CompressedStringSupport;
@@ -36,6 +37,7 @@ import com.eviware.soapui.impl.wsdl.support.jms.header.JMSHeaderContainer;
 import com.eviware.soapui.impl.wsdl.support.jms.property.JMSPropertyContainer;
 import com.eviware.soapui.impl.wsdl.teststeps.HttpTestRequestStep.RequestHeaderHolder;
 import com.eviware.soapui.impl.wsdl.teststeps.SettingPathPropertySupport;
+import com.eviware.soapui.impl.wsdl.teststeps.TestRequest;
 import com.eviware.soapui.model.iface.Attachment;
 import com.eviware.soapui.model.iface.Request;
 import com.eviware.soapui.model.iface.Submit;
@@ -255,6 +257,10 @@ public abstract class AbstractHttpRequest<T extends AbstractRequestConfig> exten
     public void release() {
         submitListeners.clear();
 
+        if (response instanceof BaseHttpResponse) {
+            ((BaseHttpResponse) response).release();
+        }
+
         super.release();
     }
 
@@ -790,6 +796,11 @@ public abstract class AbstractHttpRequest<T extends AbstractRequestConfig> exten
         this.response = response;
 
         notifyPropertyChanged(RESPONSE_PROPERTY, oldResponse, response);
+
+        // responses of test requests are kept by their TestStepResults, which release them when discarded
+        if (oldResponse instanceof BaseHttpResponse && oldResponse != response && !(this instanceof TestRequest)) {
+            ((BaseHttpResponse) oldResponse).release();
+        }
     }
 
     public void resolve(ResolveContext<?> context) {
@@ -58,6 +58,15 @@ public abstract class AbstractInterface<T extends InterfaceConfig> extends Abstr
         return (WsdlProject) getParent();
     }
 
+    @Override
+    public void setName(String name) {
+        // test steps refer to the interface by name and update their configs when it changes
+        if (getProject() != null) {
+            getProject().loadAllTestCases();
+        }
+        super.setName(name);
+    }
+
     public T getConfig() {
         return super.getConfig();
     }
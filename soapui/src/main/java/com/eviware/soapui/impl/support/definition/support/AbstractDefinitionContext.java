@@ -17,6 +17,7 @@
 package com.eviware.soapui.impl.support.definition.support;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -57,7 +58,9 @@ public abstract class AbstractDefinitionContext<T extends AbstractInterface<?>,
     private T2 currentLoader;
     private T iface;
 
-    private static Map<String, InterfaceDefinition<?>> definitionCache = new HashMap<String, InterfaceDefinition<?>>();
+    // definitions may be loaded concurrently by the DefinitionPreloader
+    private static Map<String, InterfaceDefinition<?>> definitionCache = Collections
+            .synchronizedMap(new HashMap<String, InterfaceDefinition<?>>());
     private static Map<String, Integer> urlReferences = new HashMap<String, Integer>();
 
     public AbstractDefinitionContext(String url, T iface) {
@@ -164,6 +167,36 @@ public abstract class AbstractDefinitionContext<T extends AbstractInterface<?>,
         return loaded;
     }
 
+    /**
+     * Loads the definition from the cache in the interface config without downloading anything or showing
+     * progress, returns false if there is no valid cache or loading fails. Errors are left for a later call to
+     * load to report.
+     */
+
+    public synchronized boolean preload() {
+        if (!loaded && iface != null) {
+            loaded = definitionCache.containsKey(url);
+        }
+
+        if (loaded || iface == null) {
+            return loaded;
+        }
+
+        try {
+            DefinitionCache cache = new InterfaceConfigDefinitionCache<T>(iface);
+            if (cache.validate()) {
+                cacheDefinition(cache);
+            }
+        } catch (Throwable e) {
+            log.debug("Failed to preload definition from " + url + ": " + e);
+            loaded = false;
+        } finally {
+            currentLoader = null;
+        }
+
+        return loaded;
+    }
+
     public SchemaTypeLoader getSchemaTypeLoader() throws Exception {
         loadIfNecessary();
         return iface != null && definitionCache.containsKey(url) ? definitionCache.get(url).getSchemaTypeLoader()
@@ -252,10 +285,12 @@ public abstract class AbstractDefinitionContext<T extends AbstractInterface<?>,
 
         if (!currentLoader.isAborted() && iface != null && iface.isDefinitionShareble()) {
             definitionCache.put(url, definition);
-            if (urlReferences.containsKey(url)) {
-                urlReferences.put(url, urlReferences.get(url) + 1);
-            } else {
-                urlReferences.put(url, 1);
+            synchronized (urlReferences) {
+                if (urlReferences.containsKey(url)) {
+                    urlReferences.put(url, urlReferences.get(url) + 1);
+                } else {
+                    urlReferences.put(url, 1);
+                }
             }
         }
 
@@ -273,13 +308,15 @@ public abstract class AbstractDefinitionContext<T extends AbstractInterface<?>,
     protected abstract T3 loadDefinition(T2 loader) throws Exception;
 
     public void release() {
-        if (iface != null && urlReferences.containsKey(url)) {
-            Integer i = urlReferences.get(url);
-            if (i.intValue() <= 1) {
-                urlReferences.remove(url);
-                definitionCache.remove(url);
-            } else {
-                urlReferences.put(url, i - 1);
+        synchronized (urlReferences) {
+            if (iface != null && urlReferences.containsKey(url)) {
+                Integer i = urlReferences.get(url);
+                if (i.intValue() <= 1) {
+                    urlReferences.remove(url);
+                    definitionCache.remove(url);
+                } else {
+                    urlReferences.put(url, i - 1);
+                }
             }
         }
     }
@@ -337,8 +374,10 @@ public abstract class AbstractDefinitionContext<T extends AbstractInterface<?>,
     }
 
     public static void uncache(String url) {
-        definitionCache.remove(url);
-        urlReferences.remove(url);
+        synchronized (urlReferences) {
+            definitionCache.remove(url);
+            urlReferences.remove(url);
+        }
     }
 
     public void reload() throws Exception {
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.support.definition.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.eviware.soapui.impl.support.AbstractInterface;
+
+/**
+ * Loads the cached definitions of a set of interfaces in the background on a bounded number of threads, so that
+ * their schemas are compiled in parallel instead of one at a time when first used. Only definitions cached in
+ * the interface config are loaded, nothing is downloaded.
+ */
+
+public class DefinitionPreloader {
+    private final static Logger log = Logger.getLogger(DefinitionPreloader.class);
+    private final static AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Starts loading the definitions of the specified interfaces and returns immediately; a caller that needs
+     * a definition before it has been preloaded just blocks in the definition context until it is done.
+     */
+
+    public static void preload(List<? extends AbstractInterface<?>> interfaces) {
+        List<AbstractDefinitionContext<?, ?, ?>> contexts = new ArrayList<AbstractDefinitionContext<?, ?, ?>>();
+        for (AbstractInterface<?> iface : interfaces) {
+            // unshareable definitions are generated from the model and can change while it is being edited
+            if (iface.isDefinitionShareble()) {
+                // create the contexts here so that the interfaces are not accessed from the loading threads
+                AbstractDefinitionContext<?, ?, ?> context = iface.getDefinitionContext();
+                if (context != null && !context.isLoaded()) {
+                    contexts.add(context);
+                }
+            }
+        }
+
+        if (contexts.isEmpty()) {
+            return;
+        }
+
+        int threads = Math.min(contexts.size(), Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new PreloaderThreadFactory());
+
+        for (final AbstractDefinitionContext<?, ?, ?> context : contexts) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    long start = System.currentTimeMillis();
+                    if (context.preload()) {
+                        log.debug("Preloaded definition [" + context.getUrl() + "] in "
+                                + (System.currentTimeMillis() - start) + "ms");
+                    }
+                }
+            });
+        }
+
+        // lets the threads exit once all queued contexts have been loaded
+        executor.shutdown();
+    }
+
+    private static class PreloaderThreadFactory implements ThreadFactory {
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r);
+            thread.setName("DefinitionPreloader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -149,6 +149,15 @@ public class WsdlOperation extends AbstractWsdlModelItem<OperationConfig> implem
         return iface;
     }
 
+    @Override
+    public void setName(String name) {
+        // test steps refer to the operation by name and update their configs when it changes
+        if (iface != null && iface.getProject() != null) {
+            iface.getProject().loadAllTestCases();
+        }
+        super.setName(name);
+    }
+
     public void setAction(String soapAction) {
         String old = getAction();
         getConfig().setAction(soapAction);
@@ -41,6 +41,7 @@ import com.eviware.soapui.impl.rest.support.RestRequestConverter.RestConversionE
 import com.eviware.soapui.impl.settings.XmlBeansSettingsImpl;
 import com.eviware.soapui.impl.support.AbstractInterface;
 import com.eviware.soapui.impl.support.EndpointSupport;
+import com.eviware.soapui.impl.support.definition.support.DefinitionPreloader;
 import com.eviware.soapui.impl.wsdl.endpoint.DefaultEndpointStrategy;
 import com.eviware.soapui.impl.wsdl.mock.WsdlMockService;
 import com.eviware.soapui.impl.wsdl.support.ExternalDependency;
@@ -412,6 +413,10 @@ public class WsdlProject extends AbstractTestPropertyHolderWsdlModelItem<Project
 
         afterLoad();
 
+        if (getSettings().getBoolean(WsdlSettings.PRELOAD_DEFINITIONS)) {
+            DefinitionPreloader.preload(interfaces);
+        }
+
         return projectDocument;
     }
 
@@ -1109,6 +1114,17 @@ public class WsdlProject extends AbstractTestPropertyHolderWsdlModelItem<Project
         return testSuites.size();
     }
 
+    /**
+     * Creates the test cases of all test suites not loaded yet, so that their test steps see changes that must be
+     * propagated to their configs, like the renaming of the interfaces and operations they refer to.
+     */
+
+    public void loadAllTestCases() {
+        for (WsdlTestSuite testSuite : testSuites) {
+            testSuite.loadTestCases();
+        }
+    }
+
     public WsdlTestSuite getTestSuiteAt(int index) {
         return testSuites.get(index);
     }
@@ -1139,6 +1155,14 @@ public class WsdlProject extends AbstractTestPropertyHolderWsdlModelItem<Project
         getSettings().setBoolean(WsdlSettings.CACHE_WSDLS, cacheDefinitions);
     }
 
+    public boolean isAsyncHttpTransport() {
+        return getSettings().getBoolean(ProjectSettings.ASYNC_HTTP_TRANSPORT);
+    }
+
+    public void setAsyncHttpTransport(boolean asyncHttpTransport) {
+        getSettings().setBoolean(ProjectSettings.ASYNC_HTTP_TRANSPORT, asyncHttpTransport);
+    }
+
     public SaveStatus saveAs(String fileName) throws IOException {
         if (!isOpen() || isDisabled()) {
             return SaveStatus.FAILED;
@@ -1875,6 +1899,19 @@ public class WsdlProject extends AbstractTestPropertyHolderWsdlModelItem<Project
         getConfig().setAbortOnError(arg0);
     }
 
+    /**
+     * Maximum number of TestCases running at the same time across all TestSuites of a parallel run, 0 for no
+     * limit
+     */
+
+    public long getMaxParallelTestCases() {
+        return getSettings().getLong(ProjectSettings.MAX_PARALLEL_TEST_CASES, 0);
+    }
+
+    public void setMaxParallelTestCases(long maxParallelTestCases) {
+        getSettings().setLong(ProjectSettings.MAX_PARALLEL_TEST_CASES, maxParallelTestCases);
+    }
+
     public long getTimeout() {
         return getConfig().getTimeout();
     }
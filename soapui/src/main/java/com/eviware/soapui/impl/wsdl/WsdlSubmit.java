@@ -162,7 +162,9 @@ public final class WsdlSubmit<T extends AbstractHttpRequestInterface<?>> impleme
         return error;
     }
 
-    public synchronized Status waitUntilFinished() {
+    public Status waitUntilFinished() {
+        // not synchronized, blocking on the future while holding a monitor would pin a virtual thread
+        Future<?> future = this.future;
         if (future != null) {
             if (!future.isDone()) {
                 try {
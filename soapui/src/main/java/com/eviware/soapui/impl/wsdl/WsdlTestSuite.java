@@ -65,10 +65,16 @@ import java.util.UUID;
 public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestSuiteConfig> implements TestSuite {
     public final static String SETUP_SCRIPT_PROPERTY = WsdlTestSuite.class.getName() + "@setupScript";
     public final static String TEARDOWN_SCRIPT_PROPERTY = WsdlTestSuite.class.getName() + "@tearDownScript";
+    public final static String MAX_PARALLEL_TEST_CASES_PROPERTY = WsdlTestSuite.class.getName()
+            + "@maxParallelTestCases";
+    public final static String RUN_LONGEST_FIRST_PROPERTY = WsdlTestSuite.class.getName() + "@runLongestFirst";
     public static final String ICON_NAME = "/testSuite.gif";
 
     private final WsdlProject project;
-    private List<WsdlTestCase> testCases = new ArrayList<WsdlTestCase>();
+    private final List<WsdlTestCase> testCases = new ArrayList<WsdlTestCase>();
+    private volatile boolean testCasesLoaded;
+    private boolean loadingTestCases;
+    private boolean afterLoadCalled;
     private Set<TestSuiteListener> testSuiteListeners = new HashSet<TestSuiteListener>();
     private Set<TestSuiteRunListener> testSuiteRunListeners = new HashSet<TestSuiteRunListener>();
     private SoapUIScriptEngine setupScriptEngine;
@@ -84,11 +90,6 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
 
         setPropertiesConfig(config.getProperties());
 
-        List<TestCaseConfig> testCaseConfigs = config.getTestCaseList();
-        for (int i = 0; i < testCaseConfigs.size(); i++) {
-            testCases.add(buildTestCase(testCaseConfigs.get(i), false));
-        }
-
         if (!config.isSetRunType()) {
             config.setRunType(TestSuiteRunTypesConfig.SEQUENTIAL);
         }
@@ -103,6 +104,62 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
 
     }
 
+    /**
+     * Creates the test cases from their configs on first access, so that opening a project only pays for the
+     * test suites that are actually used.
+     */
+
+    void loadTestCases() {
+        if (testCasesLoaded) {
+            return;
+        }
+
+        // a single lock for all suites, since building a test case can load test cases of other suites
+        synchronized (WsdlTestSuite.class) {
+            // test steps being built may look up test cases of this suite and just see the ones built so far
+            if (testCasesLoaded || loadingTestCases) {
+                return;
+            }
+
+            loadingTestCases = true;
+            try {
+                for (TestCaseConfig testCaseConfig : getConfig().getTestCaseList()) {
+                    testCases.add(buildTestCase(testCaseConfig, false));
+                }
+            } finally {
+                loadingTestCases = false;
+                testCasesLoaded = true;
+            }
+
+            if (afterLoadCalled) {
+                for (WsdlTestCase testCase : testCases) {
+                    testCase.afterLoad();
+                }
+            }
+        }
+    }
+
+    public boolean isTestCasesLoaded() {
+        return testCasesLoaded;
+    }
+
+    @Override
+    public void afterLoad() {
+        afterLoadCalled = true;
+
+        if (testCasesLoaded) {
+            super.afterLoad();
+        }
+    }
+
+    @Override
+    public void beforeSave() {
+        // configs of test cases that have not been created yet are unchanged
+        if (testCasesLoaded) {
+            super.beforeSave();
+        }
+    }
+
     public WsdlTestCase buildTestCase(TestCaseConfig testCaseConfig, boolean forLoadTest) {
         return new WsdlTestCase(this, testCaseConfig, forLoadTest);
     }
@@ -134,23 +191,46 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     }
 
     public int getTestCaseCount() {
+        loadTestCases();
         return testCases.size();
     }
 
     public WsdlTestCase getTestCaseAt(int index) {
+        loadTestCases();
         return testCases.get(index);
     }
 
     public WsdlTestCase getTestCaseByName(String testCaseName) {
+        loadTestCases();
         return (WsdlTestCase) getWsdlModelItemByName(testCases, testCaseName);
     }
 
+    /**
+     * Checks for a TestCase with the specified name without creating the TestCases if not loaded yet
+     */
+
+    public boolean containsTestCase(String testCaseName) {
+        if (testCasesLoaded) {
+            return getTestCaseByName(testCaseName) != null;
+        }
+
+        for (TestCaseConfig testCaseConfig : getConfig().getTestCaseList()) {
+            if (testCaseConfig.getName().equals(testCaseName)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     @Override
     public TestCase getTestCaseById(UUID testCaseId) {
+        loadTestCases();
         return (WsdlTestCase) getWsdlModelItemById(testCases, testCaseId);
     }
 
     public WsdlTestCase cloneTestCase(WsdlTestCase testCase, String name) {
+        loadTestCases();
         testCase.beforeSave();
         TestCaseConfig newTestCase = getConfig().addNewTestCase();
         newTestCase.set(testCase.getConfig());
@@ -166,6 +246,7 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     }
 
     public WsdlTestCase addNewTestCase(String name) {
+        loadTestCases();
         WsdlTestCase testCase = buildTestCase(getConfig().addNewTestCase(), false);
         testCase.setName(name);
         testCase.setFailOnError(true);
@@ -178,6 +259,7 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
 
     public WsdlTestCase importTestCase(WsdlTestCase testCase, String name, int index, boolean includeLoadTests,
                                        boolean includeSecurityTests, boolean createCopy) {
+        loadTestCases();
         testCase.beforeSave();
 
         if (index >= testCases.size()) {
@@ -227,6 +309,7 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     }
 
     public void removeTestCase(WsdlTestCase testCase) {
+        loadTestCases();
         int ix = testCases.indexOf(testCase);
 
         testCases.remove(ix);
@@ -319,6 +402,7 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     }
 
     public int getTestCaseIndex(TestCase testCase) {
+        loadTestCases();
         return testCases.indexOf(testCase);
     }
 
@@ -326,8 +410,10 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     public void release() {
         super.release();
 
-        for (WsdlTestCase testCase : testCases) {
-            testCase.release();
+        if (testCasesLoaded) {
+            for (WsdlTestCase testCase : testCases) {
+                testCase.release();
+            }
         }
 
         testSuiteListeners.clear();
@@ -342,6 +428,7 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     }
 
     public List<TestCase> getTestCaseList() {
+        loadTestCases();
         List<TestCase> result = new ArrayList<TestCase>();
         for (WsdlTestCase testCase : testCases) {
             result.add(testCase);
@@ -351,6 +438,7 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     }
 
     public Map<String, TestCase> getTestCases() {
+        loadTestCases();
         Map<String, TestCase> result = new HashMap<String, TestCase>();
         for (TestCase testCase : testCases) {
             result.put(testCase.getName(), testCase);
@@ -369,6 +457,7 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
      */
 
     public WsdlTestCase moveTestCase(int ix, int offset) {
+        loadTestCases();
         WsdlTestCase testCase = testCases.get(ix);
 
         if (offset == 0) {
@@ -414,6 +503,7 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     }
 
     public int getIndexOfTestCase(TestCase testCase) {
+        loadTestCases();
         return testCases.indexOf(testCase);
     }
 
@@ -532,6 +622,38 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
         getConfig().setAbortOnError(abortOnError);
     }
 
+    /**
+     * Maximum number of TestCases running at the same time in a parallel run, 0 for no limit
+     */
+
+    public long getMaxParallelTestCases() {
+        return getSettings().getLong(MAX_PARALLEL_TEST_CASES_PROPERTY, 0);
+    }
+
+    public void setMaxParallelTestCases(long maxParallelTestCases) {
+        long old = getMaxParallelTestCases();
+        if (old != maxParallelTestCases) {
+            getSettings().setLong(MAX_PARALLEL_TEST_CASES_PROPERTY, maxParallelTestCases);
+            notifyPropertyChanged(MAX_PARALLEL_TEST_CASES_PROPERTY, old, maxParallelTestCases);
+        }
+    }
+
+    /**
+     * Starts the TestCases of a parallel run in order of the time taken by their last run, longest first
+     */
+
+    public boolean isRunLongestFirst() {
+        return getSettings().getBoolean(RUN_LONGEST_FIRST_PROPERTY);
+    }
+
+    public void setRunLongestFirst(boolean runLongestFirst) {
+        boolean old = isRunLongestFirst();
+        if (old != runLongestFirst) {
+            getSettings().setBoolean(RUN_LONGEST_FIRST_PROPERTY, runLongestFirst);
+            notifyPropertyChanged(RUN_LONGEST_FIRST_PROPERTY, old, runLongestFirst);
+        }
+    }
+
     public long getTimeout() {
         return getConfig().getTimeout();
     }
@@ -567,6 +689,7 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     }
 
     public void replace(WsdlTestCase testCase, TestCaseConfig newTestCase) {
+        loadTestCases();
 
         int ix = testCases.indexOf(testCase);
 
@@ -589,6 +712,8 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     }
 
     public void importTestCase(File file) {
+        loadTestCases();
+
         TestCaseConfig importTestCaseConfig = null;
 
         if (!file.exists()) {
@@ -655,6 +780,7 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     }
 
     public void afterCopy(WsdlTestSuite oldTestSuite) {
+        loadTestCases();
 
         for (int i = 0; i < testCases.size(); i++) {
             WsdlTestCase testCase = getTestCaseAt(i);
@@ -679,9 +805,11 @@ public class WsdlTestSuite extends AbstractTestPropertyHolderWsdlModelItem<TestS
     public void resetConfigOnMove(TestSuiteConfig testSuiteConfig) {
         setConfig(testSuiteConfig);
 
-        List<TestCaseConfig> configs = getConfig().getTestCaseList();
-        for (int c = 0; c < configs.size(); c++) {
-            testCases.get(c).resetConfigOnMove(configs.get(c));
+        if (testCasesLoaded) {
+            List<TestCaseConfig> configs = getConfig().getTestCaseList();
+            for (int c = 0; c < configs.size(); c++) {
+                testCases.get(c).resetConfigOnMove(configs.get(c));
+            }
         }
 
         setPropertiesConfig(testSuiteConfig.getProperties());
@@ -727,7 +727,7 @@ public class WsdlLoadTest extends AbstractWsdlModelItem<LoadTestConfig> implemen
         }
 
         private void addHeaders(PrintWriter writer) {
-            writer.print("date,threads,elapsed,min,max,avg,last,cnt,tps,bytes,bps,err,reason\n");
+            writer.print("date,threads,elapsed,min,max,avg,last,cnt,tps,bytes,bps,err,rat,p50,p90,p99,p99.9,dns,conn,ttfb,read,reason\n");
         }
 
         public void finish() {
@@ -24,6 +24,10 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.xmlbeans.XmlException;
 
@@ -33,6 +37,8 @@ import com.eviware.soapui.config.LoadTestLimitTypesConfig;
 import com.eviware.soapui.config.SecurityTestConfig;
 import com.eviware.soapui.config.TestCaseConfig;
 import com.eviware.soapui.impl.wsdl.loadtest.log.LoadTestLogMessageEntry;
+import com.eviware.soapui.impl.wsdl.loadtest.strategy.LoadStrategy;
+import com.eviware.soapui.impl.wsdl.loadtest.strategy.ScheduledLoadStrategy;
 import com.eviware.soapui.impl.wsdl.testcase.WsdlTestCase;
 import com.eviware.soapui.impl.wsdl.testcase.WsdlTestCaseRunner;
 import com.eviware.soapui.model.settings.Settings;
@@ -62,6 +68,9 @@ import com.eviware.x.dialogs.XProgressMonitor;
  */
 
 public class WsdlLoadTestRunner implements LoadTestRunner {
+    public static final String MAX_QUEUED_ARRIVALS_SYSTEM_PROPERTY = "soapui.loadtest.arrivals.max";
+    private static final int DEFAULT_MAX_QUEUED_ARRIVALS = 10000;
+
     private final WsdlLoadTest loadTest;
     private Set<InternalTestCaseRunner> runners = new HashSet<InternalTestCaseRunner>();
     private long startTime = 0;
@@ -79,6 +88,15 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
     private boolean stopped;
     private TestCaseConfig blueprintConfig;
 
+    // state for ScheduledLoadStrategies, where runners take intended start times from the arrivals queue
+    private ScheduledLoadStrategy scheduledStrategy;
+    private final BlockingQueue<Long> arrivals = new LinkedBlockingQueue<Long>(Math.max(1, Integer.getInteger(
+            MAX_QUEUED_ARRIVALS_SYSTEM_PROPERTY, DEFAULT_MAX_QUEUED_ARRIVALS)));
+    private final AtomicInteger busyRunners = new AtomicInteger();
+    private long scheduledCount;
+    private volatile long droppedArrivalCount;
+    private volatile boolean schedulingDone;
+
     public WsdlLoadTestRunner(WsdlLoadTest test) {
         this.loadTest = test;
         status = Status.INITIALIZED;
@@ -98,6 +116,14 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
         startedCount = 0;
         context = new WsdlLoadTestContext(this);
 
+        LoadStrategy loadStrategy = loadTest.getLoadStrategy();
+        scheduledStrategy = loadStrategy instanceof ScheduledLoadStrategy ? (ScheduledLoadStrategy) loadStrategy : null;
+        arrivals.clear();
+        busyRunners.set(0);
+        scheduledCount = 0;
+        droppedArrivalCount = 0;
+        schedulingDone = false;
+
         try {
             loadTest.runSetupScript(context, this);
         } catch (Exception e1) {
@@ -116,13 +142,20 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
 
         loadTest.addPropertyChangeListener(WsdlLoadTest.THREADCOUNT_PROPERTY, internalPropertyChangeListener);
 
-        XProgressDialog progressDialog = UISupport.getDialogs().createProgressDialog("Starting threads",
-                (int) loadTest.getThreadCount(), "", true);
-        try {
-            testCaseStarter = new TestCaseStarter();
-            progressDialog.run(testCaseStarter);
-        } catch (Exception e) {
-            SoapUI.logError(e);
+        if (scheduledStrategy != null) {
+            // runners are started on demand by the arrival scheduler
+            startTime = System.currentTimeMillis();
+            loadTest.getLoadTestLog().addEntry(
+                    new LoadTestLogMessageEntry("LoadTest started at " + new Date(startTime)));
+        } else {
+            XProgressDialog progressDialog = UISupport.getDialogs().createProgressDialog("Starting threads",
+                    (int) loadTest.getThreadCount(), "", true);
+            try {
+                testCaseStarter = new TestCaseStarter();
+                progressDialog.run(testCaseStarter);
+            } catch (Exception e) {
+                SoapUI.logError(e);
+            }
         }
 
         if (status == Status.RUNNING) {
@@ -131,6 +164,10 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
             }
 
             startStrategyThread();
+
+            if (scheduledStrategy != null) {
+                startArrivalScheduler();
+            }
         } else {
             stop();
         }
@@ -161,10 +198,80 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
         }).start();
     }
 
+    /**
+     * Starts thread that queues TestCase runs at the intended start times given by the current
+     * ScheduledLoadStrategy. Runners are added when no idle runner is available, up to the configured thread
+     * count; if all are busy the arrivals wait in the queue but keep their intended start time, so the time
+     * spent waiting is included in the statistics. Arrivals exceeding the capacity of the queue are dropped and
+     * counted, since the target system can not keep up with the schedule anyway.
+     */
+
+    private void startArrivalScheduler() {
+        new Thread(new Runnable() {
+            public void run() {
+                double nextArrival = startTime;
+
+                try {
+                    while (getStatus() == Status.RUNNING && !isSchedulingLimitReached()) {
+                        long now = System.currentTimeMillis();
+                        if (now < (long) nextArrival) {
+                            Thread.sleep(Math.min((long) nextArrival - now, 100));
+                            continue;
+                        }
+
+                        scheduleArrival((long) nextArrival);
+                        nextArrival += scheduledStrategy.getNextArrivalInterval((long) nextArrival - startTime);
+                    }
+                } catch (InterruptedException e) {
+                    SoapUI.logError(e);
+                } finally {
+                    finishScheduling();
+                }
+            }
+        }, loadTest.getName() + " Arrival Scheduler").start();
+    }
+
+    private boolean isSchedulingLimitReached() {
+        long testLimit = loadTest.getTestLimit();
+        if (testLimit < 1) {
+            return false;
+        }
+
+        if (loadTest.getLimitType() == LoadTestLimitTypesConfig.COUNT) {
+            return scheduledCount >= testLimit;
+        }
+
+        if (loadTest.getLimitType() == LoadTestLimitTypesConfig.COUNT_PER_THREAD) {
+            return scheduledCount >= testLimit * loadTest.getThreadCount();
+        }
+
+        return getProgress() >= 1;
+    }
+
+    private synchronized void scheduleArrival(long intendedStartTime) {
+        scheduledCount++;
+        if (!arrivals.offer(intendedStartTime)) {
+            droppedArrivalCount++;
+        }
+
+        int idleRunners = runners.size() - busyRunners.get();
+        if (idleRunners < arrivals.size() && runners.size() < loadTest.getThreadCount()) {
+            startTestCase(createTestCase());
+        }
+    }
+
+    private synchronized void finishScheduling() {
+        schedulingDone = true;
+
+        if (runners.isEmpty()) {
+            stop();
+        }
+    }
+
     private InternalTestCaseRunner startTestCase(WsdlTestCase testCase) {
         InternalTestCaseRunner testCaseRunner = new InternalTestCaseRunner(testCase, threadCount++);
 
-        SoapUI.getThreadPool().submit(testCaseRunner);
+        SoapUI.getBlockingTaskExecutor().submit(testCaseRunner);
         runners.add(testCaseRunner);
         return testCaseRunner;
     }
@@ -285,7 +392,8 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
 
         runners.remove(runner);
 
-        if (getProgress() >= 1 || status != Status.RUNNING) {
+        if (getProgress() >= 1 || status != Status.RUNNING
+                || (scheduledStrategy != null && schedulingDone && runners.isEmpty())) {
             stop();
         }
     }
@@ -305,6 +413,12 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
             status = Status.FINISHED;
         }
 
+        if (droppedArrivalCount > 0) {
+            loadTest.getLoadTestLog().addEntry(
+                    new LoadTestLogMessageEntry("Dropped " + droppedArrivalCount
+                            + " scheduled runs since all threads were busy and the arrival queue was full"));
+        }
+
         loadTest.getLoadTestLog().addEntry(
                 new LoadTestLogMessageEntry("LoadTest ended at " + new Date(System.currentTimeMillis())));
 
@@ -331,6 +445,14 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
         return stopped;
     }
 
+    /**
+     * The number of runs scheduled by a ScheduledLoadStrategy that were dropped because the arrival queue was full
+     */
+
+    public long getDroppedArrivalCount() {
+        return droppedArrivalCount;
+    }
+
     public int getRunningThreadCount() {
         return runners.size();
     }
@@ -367,6 +489,11 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
             return true;
         }
 
+        // count limits are enforced by the arrival scheduler
+        if (scheduledStrategy != null && loadTest.getLimitType() != LoadTestLimitTypesConfig.TIME) {
+            return true;
+        }
+
         if (loadTest.getLimitType() == LoadTestLimitTypesConfig.COUNT_PER_THREAD) {
             return runner.getRunCount() < loadTest.getTestLimit();
         }
@@ -477,6 +604,14 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
                 runner = new WsdlTestCaseRunner(testCase, new StringToObjectMap());
 
                 while (!canceled) {
+                    Long intendedStartTime = null;
+                    if (scheduledStrategy != null) {
+                        intendedStartTime = nextArrival();
+                        if (intendedStartTime == null) {
+                            break;
+                        }
+                    }
+
                     try {
                         runner.getRunContext().reset();
                         runner.getRunContext().setProperty(TestCaseRunContext.THREAD_INDEX, threadIndex);
@@ -487,10 +622,18 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
                             runner.getRunContext().setProperty(TestCaseRunContext.TOTAL_RUN_COUNT, startedCount++);
                         }
 
+                        if (intendedStartTime != null) {
+                            runner.getRunContext().setProperty(TestCaseRunContext.INTENDED_START_TIME, intendedStartTime);
+                        }
+
                         runner.run();
                     } catch (Throwable e) {
                         System.err.println("Error running testcase: " + e);
                         SoapUI.logError(e);
+                    } finally {
+                        if (intendedStartTime != null) {
+                            busyRunners.decrementAndGet();
+                        }
                     }
 
                     runCount++;
@@ -500,12 +643,40 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
                     }
                 }
             } finally {
+                if (runner != null) {
+                    loadTest.getStatisticsModel().runnerFinished(runner);
+                }
+
                 finishRunner(this);
                 testCase.release();
                 testCase.removeTestRunListener(testRunListener);
             }
         }
 
+        /**
+         * Waits for the next scheduled arrival, returns null if this runner should stop
+         */
+
+        private Long nextArrival() {
+            while (!canceled && status == Status.RUNNING) {
+                try {
+                    Long arrival = arrivals.poll(100, TimeUnit.MILLISECONDS);
+                    if (arrival != null) {
+                        busyRunners.incrementAndGet();
+                        return arrival;
+                    }
+
+                    if (schedulingDone) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+
+            return null;
+        }
+
         public void cancel(String reason, boolean cancelRunner) {
             if (runner != null && cancelRunner) {
                 runner.cancel(reason);
@@ -538,7 +709,8 @@ public class WsdlLoadTestRunner implements LoadTestRunner {
     }
 
     public synchronized void updateThreadCount() {
-        if (status != Status.RUNNING) {
+        // the thread count is the maximum number of runners for scheduled strategies
+        if (status != Status.RUNNING || scheduledStrategy != null) {
             return;
         }
 
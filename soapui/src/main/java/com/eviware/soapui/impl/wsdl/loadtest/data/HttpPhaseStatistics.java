@@ -0,0 +1,310 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.loadtest.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+
+import com.eviware.soapui.impl.support.http.HttpRequestTestStep;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.BaseHttpRequestTransport;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.ExtendedHttpMethod;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.support.metrics.SoapUIMetrics;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.support.metrics.Stopwatch;
+import com.eviware.soapui.model.testsuite.TestCaseRunContext;
+import com.eviware.soapui.model.testsuite.TestStepResult;
+
+/**
+ * Per-TestStep histograms of the HTTP phase timings captured in SoapUIMetrics, used to tell whether a
+ * slow request spent its time resolving, connecting, waiting for the server or reading the response.
+ */
+
+public class HttpPhaseStatistics {
+    public static final int TOTAL = -1;
+
+    public static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private volatile LatencyHistogram[][] histograms;
+
+    // full and resumed TLS handshakes of each step, at stepIndex * 2 and stepIndex * 2 + 1
+    private volatile AtomicLongArray handshakes;
+
+    public HttpPhaseStatistics(int stepCount) {
+        histograms = createHistograms(stepCount);
+        handshakes = new AtomicLongArray(stepCount * 2);
+    }
+
+    private static LatencyHistogram[][] createHistograms(int stepCount) {
+        LatencyHistogram[][] result = new LatencyHistogram[stepCount][Phase.values().length];
+        for (int c = 0; c < stepCount; c++) {
+            for (int i = 0; i < result[c].length; i++) {
+                result[c][i] = new LatencyHistogram();
+            }
+        }
+
+        return result;
+    }
+
+    public int getStepCount() {
+        return histograms.length;
+    }
+
+    /**
+     * Records the phase timings of the request sent by the specified TestStep
+     */
+
+    public void record(int stepIndex, SoapUIMetrics metrics) {
+        LatencyHistogram[][] current = histograms;
+        if (metrics == null || stepIndex < 0 || stepIndex >= current.length || !metrics.getTotalTimer().isStopped()) {
+            return;
+        }
+
+        for (Phase phase : Phase.values()) {
+            current[stepIndex][phase.ordinal()].recordValue(phase.getDuration(metrics));
+        }
+
+        AtomicLongArray currentHandshakes = handshakes;
+        if (metrics.getTlsHandshake() != SoapUIMetrics.NO_HANDSHAKE && stepIndex * 2 + 1 < currentHandshakes.length()) {
+            boolean resumed = metrics.getTlsHandshake() == SoapUIMetrics.RESUMED_HANDSHAKE;
+            currentHandshakes.incrementAndGet(stepIndex * 2 + (resumed ? 1 : 0));
+        }
+    }
+
+    /**
+     * Returns the number of full or resumed TLS handshakes made by the specified step, or by all steps for
+     * TOTAL
+     */
+
+    public long getHandshakeCount(int stepIndex, boolean resumed) {
+        AtomicLongArray current = handshakes;
+        int offset = resumed ? 1 : 0;
+        if (stepIndex != TOTAL) {
+            return stepIndex * 2 + offset < current.length() ? current.get(stepIndex * 2 + offset) : 0;
+        }
+
+        long total = 0;
+        for (int c = offset; c < current.length(); c += 2) {
+            total += current.get(c);
+        }
+
+        return total;
+    }
+
+    /**
+     * Returns the histogram for the specified step and phase, or a merged histogram of all steps for
+     * TOTAL
+     */
+
+    public LatencyHistogram getHistogram(int stepIndex, Phase phase) {
+        LatencyHistogram[][] current = histograms;
+        if (stepIndex != TOTAL) {
+            return stepIndex < current.length ? current[stepIndex][phase.ordinal()] : new LatencyHistogram();
+        }
+
+        LatencyHistogram merged = new LatencyHistogram();
+        for (LatencyHistogram[] step : current) {
+            merged.add(step[phase.ordinal()]);
+        }
+
+        return merged;
+    }
+
+    public long getValueAtPercentile(int stepIndex, Phase phase, double percentile) {
+        return getHistogram(stepIndex, phase).getValueAtPercentile(percentile);
+    }
+
+    public long getCount(int stepIndex) {
+        return getHistogram(stepIndex, Phase.TOTAL).getTotalCount();
+    }
+
+    public void reset() {
+        for (LatencyHistogram[] step : histograms) {
+            for (LatencyHistogram histogram : step) {
+                histogram.reset();
+            }
+        }
+
+        AtomicLongArray current = handshakes;
+        for (int c = 0; c < current.length(); c++) {
+            current.set(c, 0);
+        }
+    }
+
+    public void reset(int stepCount) {
+        histograms = createHistograms(stepCount);
+        handshakes = new AtomicLongArray(stepCount * 2);
+    }
+
+    /**
+     * Returns the metrics of the request sent by the TestStep of the specified result, or null if it was
+     * not an HTTP request
+     */
+
+    public static SoapUIMetrics getMetrics(TestCaseRunContext runContext, TestStepResult result) {
+        if (result == null || !(result.getTestStep() instanceof HttpRequestTestStep)) {
+            return null;
+        }
+
+        Object httpMethod = runContext.getProperty(BaseHttpRequestTransport.HTTP_METHOD);
+        return httpMethod instanceof ExtendedHttpMethod ? ((ExtendedHttpMethod) httpMethod).getMetrics() : null;
+    }
+
+    /**
+     * Writes one row per step and phase with the sample count and percentiles; the last rows hold the
+     * totals for all steps
+     */
+
+    public int exportToCsv(File file, List<String> stepNames) throws IOException {
+        PrintWriter writer = new PrintWriter(file);
+        writer.print("Test Step,phase,cnt");
+        for (double percentile : PERCENTILES) {
+            writer.print(",p" + formatPercentile(percentile));
+        }
+        writer.print(",max");
+        writer.println();
+
+        int cnt = 0;
+        for (int c = 0; c <= histograms.length; c++) {
+            int stepIndex = c == histograms.length ? TOTAL : c;
+            String name = getStepName(stepIndex, stepNames);
+
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram histogram = getHistogram(stepIndex, phase);
+
+                writer.print(name);
+                writer.print(',');
+                writer.print(phase.getName());
+                writer.print(',');
+                writer.print(histogram.getTotalCount());
+                for (double percentile : PERCENTILES) {
+                    writer.print(',');
+                    writer.print(histogram.getValueAtPercentile(percentile));
+                }
+                writer.print(',');
+                writer.print(histogram.getMaxValue());
+                writer.println();
+
+                cnt++;
+            }
+        }
+
+        writer.flush();
+        writer.close();
+        return cnt;
+    }
+
+    public int exportToJson(File file, List<String> stepNames) throws IOException {
+        JSONArray steps = new JSONArray();
+        for (int c = 0; c <= histograms.length; c++) {
+            int stepIndex = c == histograms.length ? TOTAL : c;
+
+            JSONObject step = new JSONObject();
+            step.put("name", getStepName(stepIndex, stepNames));
+            step.put("count", getCount(stepIndex));
+
+            JSONObject phases = new JSONObject();
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram histogram = getHistogram(stepIndex, phase);
+
+                JSONObject values = new JSONObject();
+                for (double percentile : PERCENTILES) {
+                    values.put("p" + formatPercentile(percentile), histogram.getValueAtPercentile(percentile));
+                }
+                values.put("max", histogram.getMaxValue());
+
+                phases.put(phase.getName(), values);
+            }
+
+            step.put("phases", phases);
+
+            JSONObject tls = new JSONObject();
+            tls.put("full", getHandshakeCount(stepIndex, false));
+            tls.put("resumed", getHandshakeCount(stepIndex, true));
+            step.put("handshakes", tls);
+
+            steps.add(step);
+        }
+
+        PrintWriter writer = new PrintWriter(file);
+        writer.print(steps.toString(2));
+        writer.println();
+        writer.flush();
+        writer.close();
+
+        return steps.size();
+    }
+
+    private static String getStepName(int stepIndex, List<String> stepNames) {
+        if (stepIndex == TOTAL) {
+            return "TestCase:";
+        }
+
+        return stepIndex < stepNames.size() ? stepNames.get(stepIndex) : String.valueOf(stepIndex);
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.floor(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    public enum Phase {
+        DNS("dns", "the time spent resolving the host name"), CONNECT("connect",
+                "the time spent establishing the connection"), TIME_TO_FIRST_BYTE("ttfb",
+                "the time from sending the request until the first response byte"), READ("read",
+                "the time spent reading the response"), TOTAL("total", "the total request time");
+
+        private final String name;
+        private final String description;
+
+        Phase(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public long getDuration(SoapUIMetrics metrics) {
+            switch (this) {
+                case DNS:
+                    return getDuration(metrics.getDNSTimer());
+                case CONNECT:
+                    return getDuration(metrics.getConnectTimer());
+                case TIME_TO_FIRST_BYTE:
+                    return getDuration(metrics.getTimeToFirstByteTimer());
+                case READ:
+                    return getDuration(metrics.getReadTimer());
+                default:
+                    return getDuration(metrics.getTotalTimer());
+            }
+        }
+
+        private static long getDuration(Stopwatch stopwatch) {
+            // phases that did not happen, like connecting on a reused connection, count as zero
+            return stopwatch.isStarted() && stopwatch.isStopped() ? Math.max(0, stopwatch.getDuration()) : 0;
+        }
+    }
+}
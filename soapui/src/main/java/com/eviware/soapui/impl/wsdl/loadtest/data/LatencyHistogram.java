@@ -0,0 +1,171 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.loadtest.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * High dynamic range histogram of non-negative long values (typically millisecond timings). Values below
+ * 64 are counted exactly, larger values are counted in log-linear buckets with a relative error below 1.6%.
+ * <p/>
+ * Recording is lock-free, so a histogram can be written by one or more threads while being read or merged
+ * into another histogram by a different thread.
+ */
+
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+    /**
+     * Default upper limit of 2^24 ms, i.e. roughly four and a half hours
+     */
+
+    public static final int DEFAULT_MAGNITUDE = 24;
+
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    public LatencyHistogram() {
+        this(DEFAULT_MAGNITUDE);
+    }
+
+    /**
+     * Creates a histogram tracking values up to 2^magnitude - 1; larger values are clamped.
+     */
+
+    public LatencyHistogram(int magnitude) {
+        if (magnitude < SUB_BUCKET_BITS || magnitude > 62) {
+            throw new IllegalArgumentException("Magnitude must be between " + SUB_BUCKET_BITS + " and 62");
+        }
+
+        highestTrackableValue = (1L << magnitude) - 1;
+        counts = new AtomicLongArray(indexFor(highestTrackableValue) + 1);
+    }
+
+    public void recordValue(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > highestTrackableValue) {
+            value = highestTrackableValue;
+        }
+
+        counts.incrementAndGet(indexFor(value));
+        totalCount.incrementAndGet();
+
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    /**
+     * Returns the highest value that the given percentage of recorded values are less than or equal to, or 0
+     * if nothing has been recorded.
+     */
+
+    public long getValueAtPercentile(double percentile) {
+        long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        double requested = Math.min(Math.max(percentile, 0), 100);
+        long countAtPercentile = Math.max(1, (long) Math.ceil((requested / 100) * total));
+
+        long sum = 0;
+        for (int c = 0; c < counts.length(); c++) {
+            sum += counts.get(c);
+            if (sum >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(c), maxValue.get());
+            }
+        }
+
+        return maxValue.get();
+    }
+
+    /**
+     * Adds all counts of the specified histogram to this one; both must have been created with the same
+     * magnitude.
+     */
+
+    public void add(LatencyHistogram other) {
+        if (other.counts.length() != counts.length()) {
+            throw new IllegalArgumentException("Histograms have different magnitudes");
+        }
+
+        long added = 0;
+        for (int c = 0; c < counts.length(); c++) {
+            long count = other.counts.get(c);
+            if (count > 0) {
+                counts.addAndGet(c, count);
+                added += count;
+            }
+        }
+
+        totalCount.addAndGet(added);
+
+        long otherMax = other.maxValue.get();
+        long max = maxValue.get();
+        while (otherMax > max && !maxValue.compareAndSet(max, otherMax)) {
+            max = maxValue.get();
+        }
+    }
+
+    public void reset() {
+        for (int c = 0; c < counts.length(); c++) {
+            counts.set(c, 0);
+        }
+
+        totalCount.set(0);
+        maxValue.set(0);
+    }
+
+    static int indexFor(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + (subBucket - SUB_BUCKET_HALF_COUNT);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int offset = index - SUB_BUCKET_COUNT;
+        int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = offset % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+}
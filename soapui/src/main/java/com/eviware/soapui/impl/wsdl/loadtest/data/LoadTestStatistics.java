@@ -19,11 +19,13 @@ package com.eviware.soapui.impl.wsdl.loadtest.data;
 import java.awt.Color;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.EmptyStackException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.swing.table.AbstractTableModel;
@@ -33,6 +35,7 @@ import org.apache.log4j.Logger;
 import com.eviware.soapui.SoapUI;
 import com.eviware.soapui.impl.wsdl.loadtest.ColorPalette;
 import com.eviware.soapui.impl.wsdl.loadtest.WsdlLoadTest;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.support.metrics.SoapUIMetrics;
 import com.eviware.soapui.impl.wsdl.testcase.WsdlTestCase;
 import com.eviware.soapui.model.support.LoadTestRunListenerAdapter;
 import com.eviware.soapui.model.support.TestSuiteListenerAdapter;
@@ -41,6 +44,7 @@ import com.eviware.soapui.model.testsuite.LoadTestRunner;
 import com.eviware.soapui.model.testsuite.TestCase;
 import com.eviware.soapui.model.testsuite.TestCaseRunContext;
 import com.eviware.soapui.model.testsuite.TestCaseRunner;
+import com.eviware.soapui.model.testsuite.TestRunContext;
 import com.eviware.soapui.model.testsuite.TestRunner;
 import com.eviware.soapui.model.testsuite.TestStep;
 import com.eviware.soapui.model.testsuite.TestStepResult;
@@ -72,6 +76,16 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
     private final static int SUM_COLUMN = 9;
     private final static int CURRENT_CNT_COLUMN = 10;
     private final static int RATIO_COLUMN = 11;
+    private final static int P50_COLUMN = 12;
+    private final static int P90_COLUMN = 13;
+    private final static int P99_COLUMN = 14;
+    private final static int P999_COLUMN = 15;
+    private final static int DNS_COLUMN = 16;
+    private final static int CONNECT_COLUMN = 17;
+    private final static int TTFB_COLUMN = 18;
+    private final static int READ_COLUMN = 19;
+
+    private final static double[] PERCENTILES = {50, 90, 99, 99.9};
 
     public static final int TOTAL = -1;
 
@@ -92,6 +106,14 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
     private boolean running;
     private boolean adding;
 
+    // one set of per-step histograms for each TestCaseRunner, written only by that runners thread
+    private final Map<TestCaseRunner, LatencyHistogram[]> recorders = new ConcurrentHashMap<TestCaseRunner, LatencyHistogram[]>();
+    // histograms of runners that have finished, so recorders only holds the runners still active
+    private LatencyHistogram[] finishedRecorder;
+    private long[][] percentiles;
+    private volatile boolean recorded;
+    private final HttpPhaseStatistics phaseStatistics = new HttpPhaseStatistics(0);
+
     public LoadTestStatistics(WsdlLoadTest loadTest) {
         this.loadTest = loadTest;
 
@@ -115,6 +137,10 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
 
     private void init() {
         data = new long[getRowCount()][11];
+        percentiles = new long[getRowCount()][PERCENTILES.length];
+        recorders.clear();
+        finishedRecorder = null;
+        phaseStatistics.reset(getStepCount());
     }
 
     public StatisticsHistory getHistory() {
@@ -130,7 +156,7 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
     }
 
     public int getColumnCount() {
-        return 12;
+        return 20;
     }
 
     public String getColumnName(int columnIndex) {
@@ -159,6 +185,22 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
                 return Statistic.ERRORS.getName();
             case 11:
                 return Statistic.ERRORRATIO.getName();
+            case 12:
+                return Statistic.PERCENTILE_50.getName();
+            case 13:
+                return Statistic.PERCENTILE_90.getName();
+            case 14:
+                return Statistic.PERCENTILE_99.getName();
+            case 15:
+                return Statistic.PERCENTILE_999.getName();
+            case 16:
+                return Statistic.DNS_TIME.getName();
+            case 17:
+                return Statistic.CONNECT_TIME.getName();
+            case 18:
+                return Statistic.TTFB_TIME.getName();
+            case 19:
+                return Statistic.READ_TIME.getName();
         }
         return null;
     }
@@ -194,6 +236,16 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
                 return data[stepIndex][Statistic.COUNT.getIndex()] == 0 ? 0
                         : (long) ((((float) data[stepIndex][Statistic.ERRORS.getIndex()] / (float) data[stepIndex][Statistic.COUNT
                         .getIndex()]) + 0.5) * 100);
+            case PERCENTILE_50:
+            case PERCENTILE_90:
+            case PERCENTILE_99:
+            case PERCENTILE_999:
+                return percentiles[stepIndex][statistic.getIndex() - P50_COLUMN];
+            case DNS_TIME:
+            case CONNECT_TIME:
+            case TTFB_TIME:
+            case READ_TIME:
+                return getPhaseMedian(stepIndex, statistic.getIndex());
             default:
                 return data[stepIndex][statistic.getIndex()];
         }
@@ -220,12 +272,51 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
                 return data[rowIndex][Statistic.COUNT.getIndex()] == 0 ? 0
                         : (long) (((float) data[rowIndex][Statistic.ERRORS.getIndex()] / (float) data[rowIndex][Statistic.COUNT
                         .getIndex()]) * 100);
+            case 12:
+            case 13:
+            case 14:
+            case 15:
+                return percentiles == null || rowIndex >= percentiles.length ? new Long(0) : new Long(
+                        percentiles[rowIndex][columnIndex - P50_COLUMN]);
+            case 16:
+            case 17:
+            case 18:
+            case 19:
+                return new Long(getPhaseMedian(rowIndex, columnIndex));
             default: {
                 return data == null || rowIndex >= data.length ? new Long(0) : new Long(data[rowIndex][columnIndex - 2]);
             }
         }
     }
 
+    private long getPhaseMedian(int rowIndex, int columnIndex) {
+        HttpPhaseStatistics.Phase phase;
+        switch (columnIndex) {
+            case DNS_COLUMN:
+                phase = HttpPhaseStatistics.Phase.DNS;
+                break;
+            case CONNECT_COLUMN:
+                phase = HttpPhaseStatistics.Phase.CONNECT;
+                break;
+            case TTFB_COLUMN:
+                phase = HttpPhaseStatistics.Phase.TIME_TO_FIRST_BYTE;
+                break;
+            default:
+                phase = HttpPhaseStatistics.Phase.READ;
+        }
+
+        int stepIndex = rowIndex >= phaseStatistics.getStepCount() ? HttpPhaseStatistics.TOTAL : rowIndex;
+        return phaseStatistics.getValueAtPercentile(stepIndex, phase, 50);
+    }
+
+    /**
+     * Returns the HTTP phase timing histograms collected for each TestStep during the current run
+     */
+
+    public HttpPhaseStatistics getPhaseStatistics() {
+        return phaseStatistics;
+    }
+
     public void pushSamples(long[] samples, long[] sizes, long[] sampleCounts, long startTime, long timeTaken,
                             boolean complete) {
         if (!running || samples.length == 0 || sizes.length == 0) {
@@ -247,6 +338,10 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
                     }
                 }
 
+                if (recorded) {
+                    mergeRecorders();
+                }
+
                 Thread.sleep(200);
             } catch (EmptyStackException e) {
             } catch (Exception e) {
@@ -289,6 +384,16 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
 
             totalAverageSum = 0;
             resetStatistics = false;
+
+            for (LatencyHistogram[] recorder : recorders.values()) {
+                for (LatencyHistogram histogram : recorder) {
+                    histogram.reset();
+                }
+            }
+
+            finishedRecorder = null;
+
+            phaseStatistics.reset();
         }
 
         long totalMin = 0;
@@ -389,6 +494,96 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
         adding = false;
     }
 
+    /**
+     * Records a sample in the histograms of the specified runner; called from the runners own thread so
+     * recording never contends with other runners
+     */
+
+    private void recordSample(TestCaseRunner testRunner, int index, long timeTaken) {
+        if (!running || testRunner.getStartTime() < currentThreadCountStartTime) {
+            return;
+        }
+
+        LatencyHistogram[] recorder = recorders.get(testRunner);
+        if (recorder == null || recorder.length != data.length) {
+            recorder = new LatencyHistogram[data.length];
+            for (int c = 0; c < recorder.length; c++) {
+                recorder[c] = new LatencyHistogram();
+            }
+
+            recorders.put(testRunner, recorder);
+        }
+
+        if (index >= 0 && index < recorder.length) {
+            recorder[index].recordValue(timeTaken);
+            recorded = true;
+        }
+    }
+
+    /**
+     * Folds the histograms of a runner that will not run any more into the retained histograms of finished
+     * runners; called by the runners own thread after its last run
+     */
+
+    public synchronized void runnerFinished(TestCaseRunner testRunner) {
+        LatencyHistogram[] recorder = recorders.remove(testRunner);
+        if (recorder == null || recorder.length != data.length) {
+            return;
+        }
+
+        if (finishedRecorder == null || finishedRecorder.length != recorder.length) {
+            finishedRecorder = recorder;
+        } else {
+            for (int c = 0; c < recorder.length; c++) {
+                finishedRecorder[c].add(recorder[c]);
+            }
+        }
+
+        recorded = true;
+    }
+
+    /**
+     * Merges the histograms of all runners and updates the percentile columns
+     */
+
+    private synchronized void mergeRecorders() {
+        recorded = false;
+
+        int rowCount = data.length;
+        LatencyHistogram[] merged = new LatencyHistogram[rowCount];
+        for (int c = 0; c < rowCount; c++) {
+            merged[c] = new LatencyHistogram();
+        }
+
+        List<LatencyHistogram[]> sources = new ArrayList<LatencyHistogram[]>(recorders.values());
+        if (finishedRecorder != null) {
+            sources.add(finishedRecorder);
+        }
+
+        for (LatencyHistogram[] recorder : sources) {
+            if (recorder.length == rowCount) {
+                for (int c = 0; c < rowCount; c++) {
+                    merged[c].add(recorder[c]);
+                }
+            }
+        }
+
+        long[][] values = new long[rowCount][PERCENTILES.length];
+        for (int c = 0; c < rowCount; c++) {
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                values[c][i] = merged[c].getValueAtPercentile(PERCENTILES[i]);
+            }
+        }
+
+        percentiles = values;
+
+        if (updateFrequency == 0) {
+            fireTableDataChanged();
+        } else {
+            changed = true;
+        }
+    }
+
     private final class Updater implements Runnable {
         public void run() {
             Thread.currentThread().setName(loadTest.getName() + " LoadTestStatistics Updater");
@@ -426,6 +621,11 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
     private class InternalTestRunListener extends LoadTestRunListenerAdapter {
         public void beforeLoadTest(LoadTestRunner loadTestRunner, LoadTestRunContext context) {
             samplesStack.clear();
+            synchronized (LoadTestStatistics.this) {
+                recorders.clear();
+                finishedRecorder = null;
+            }
+            phaseStatistics.reset(getStepCount());
 
             running = true;
             SoapUI.getThreadPool().submit(updater);
@@ -438,6 +638,16 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
         @Override
         public void afterTestStep(LoadTestRunner loadTestRunner, LoadTestRunContext context, TestCaseRunner testRunner,
                                   TestCaseRunContext runContext, TestStepResult testStepResult) {
+            // the metrics of the request are only available until the next step sends its own
+            if (running && testStepResult != null && testRunner.getStartTime() >= currentThreadCountStartTime) {
+                SoapUIMetrics metrics = HttpPhaseStatistics.getMetrics(runContext, testStepResult);
+                if (metrics != null) {
+                    phaseStatistics.record(testRunner.getTestCase().getIndexOfTestStep(testStepResult.getTestStep()),
+                            metrics);
+                    changed = true;
+                }
+            }
+
             if (loadTest.getUpdateStatisticsPerTestStep()) {
                 TestCase testCase = testRunner.getTestCase();
 
@@ -456,6 +666,7 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
                 samples[index] += testStepResult.getTimeTaken();
                 sizes[index] += testStepResult.getSize();
 
+                recordSample(testRunner, index, testStepResult.getTimeTaken());
                 pushSamples(samples, sizes, sampleCounts, testRunner.getStartTime(), testRunner.getTimeTaken(), false);
             }
         }
@@ -473,6 +684,8 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
             long[] samples = new long[testCase.getTestStepCount()];
             long[] sizes = new long[samples.length];
             long[] sampleCounts = new long[samples.length];
+            boolean recordSteps = !loadTest.getUpdateStatisticsPerTestStep();
+            long totalTimeTaken = 0;
 
             for (int c = 0; c < results.size(); c++) {
                 TestStepResult testStepResult = results.get(c);
@@ -487,9 +700,21 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
 
                     samples[index] += testStepResult.getTimeTaken();
                     sizes[index] += testStepResult.getSize();
+                    totalTimeTaken += testStepResult.getTimeTaken();
+
+                    if (recordSteps) {
+                        recordSample(testRunner, index, testStepResult.getTimeTaken());
+                    }
                 }
             }
 
+            // include the time a scheduled run waited to be started, to avoid coordinated omission
+            Object intendedStartTime = runContext.getProperty(TestRunContext.INTENDED_START_TIME);
+            if (intendedStartTime instanceof Long) {
+                totalTimeTaken += Math.max(0, testRunner.getStartTime() - (Long) intendedStartTime);
+            }
+
+            recordSample(testRunner, samples.length, totalTimeTaken);
             pushSamples(samples, sizes, sampleCounts, testRunner.getStartTime(), testRunner.getTimeTaken(), true);
         }
 
@@ -600,6 +825,17 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
                     case 7:
                         values.add(String.valueOf((float) data[c][columnIndex - 2] / 100));
                         break;
+                    case 11:
+                    case 12:
+                    case 13:
+                    case 14:
+                    case 15:
+                    case 16:
+                    case 17:
+                    case 18:
+                    case 19:
+                        values.add(String.valueOf(getValueAt(c, columnIndex)));
+                        break;
                     default:
                         values.add(String.valueOf(data[c][columnIndex - 2]));
                 }
@@ -625,7 +861,15 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
                 "the number of bytes per second returned by this teststep"), ERRORS(ERR_COLUMN, "err",
                 "the total number of assertion errors for this teststep"), SUM(SUM_COLUMN, "sum", "internal sum"), CURRENT_CNT(
                 CURRENT_CNT_COLUMN, "ccnt", "internal cnt"), ERRORRATIO(RATIO_COLUMN, "rat",
-                "the ratio between exections and failures");
+                "the ratio between exections and failures"), PERCENTILE_50(P50_COLUMN, "p50",
+                "the median measured teststep time"), PERCENTILE_90(P90_COLUMN, "p90",
+                "the 90th percentile of measured teststep times"), PERCENTILE_99(P99_COLUMN, "p99",
+                "the 99th percentile of measured teststep times"), PERCENTILE_999(P999_COLUMN, "p99.9",
+                "the 99.9th percentile of measured teststep times"), DNS_TIME(DNS_COLUMN, "dns",
+                "the median DNS lookup time of this teststep"), CONNECT_TIME(CONNECT_COLUMN, "conn",
+                "the median connect time of this teststep"), TTFB_TIME(TTFB_COLUMN, "ttfb",
+                "the median time to first byte of this teststep"), READ_TIME(READ_COLUMN, "read",
+                "the median response read time of this teststep");
 
         private final String description;
         private final String name;
@@ -690,5 +934,7 @@ public final class LoadTestStatistics extends AbstractTableModel implements Runn
                 addSamples(holder);
             }
         }
+
+        mergeRecorders();
     }
 }
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.loadtest.strategy;
+
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
+import java.util.Random;
+
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.text.Document;
+
+import org.apache.xmlbeans.XmlObject;
+
+import com.eviware.soapui.impl.wsdl.loadtest.WsdlLoadTest;
+import com.eviware.soapui.model.testsuite.LoadTestRunContext;
+import com.eviware.soapui.model.testsuite.LoadTestRunner;
+import com.eviware.soapui.support.DocumentListenerAdapter;
+import com.eviware.soapui.support.UISupport;
+import com.eviware.soapui.support.swing.ComponentBag;
+import com.eviware.soapui.support.xml.XmlObjectConfigurationBuilder;
+import com.eviware.soapui.support.xml.XmlObjectConfigurationReader;
+import com.jgoodies.forms.builder.ButtonBarBuilder;
+
+/**
+ * ScheduledLoadStrategy that starts TestCases at a target arrival rate, independent of how long each TestCase
+ * takes to run. The rate can be constant, ramp up linearly, increase in steps or follow a Poisson process.
+ */
+
+public class ArrivalRateLoadStrategy extends AbstractLoadStrategy implements ScheduledLoadStrategy {
+    public static final String STRATEGY_TYPE = "Arrival Rate";
+
+    public static final String CONSTANT_MODE = "Constant";
+    public static final String RAMP_MODE = "Ramp";
+    public static final String STEP_MODE = "Step";
+    public static final String POISSON_MODE = "Poisson";
+
+    private static final String MODE_ELEMENT = "mode";
+    private static final String RATE_ELEMENT = "rate";
+    private static final String TARGET_RATE_ELEMENT = "targetRate";
+    private static final String INTERVAL_ELEMENT = "interval";
+
+    private static final float DEFAULT_RATE = 10;
+    private static final float DEFAULT_TARGET_RATE = 100;
+    private static final int DEFAULT_INTERVAL = 60000;
+
+    // interval to use while the rate is 0, so the rate is checked again later
+    private static final double IDLE_INTERVAL = 100;
+
+    private String mode = CONSTANT_MODE;
+    private float rate = DEFAULT_RATE;
+    private float targetRate = DEFAULT_TARGET_RATE;
+    private long interval = DEFAULT_INTERVAL;
+
+    private final Random random = new Random();
+    private JPanel configPanel;
+    private JLabel infoLabel;
+    private ComponentBag stateDependantComponents = new ComponentBag();
+
+    public ArrivalRateLoadStrategy(WsdlLoadTest loadTest) {
+        super(STRATEGY_TYPE, loadTest);
+    }
+
+    public ArrivalRateLoadStrategy(XmlObject config, WsdlLoadTest loadTest) {
+        super(STRATEGY_TYPE, loadTest);
+
+        XmlObjectConfigurationReader reader = new XmlObjectConfigurationReader(config);
+        mode = reader.readString(MODE_ELEMENT, CONSTANT_MODE);
+        rate = reader.readFloat(RATE_ELEMENT, DEFAULT_RATE);
+        targetRate = reader.readFloat(TARGET_RATE_ELEMENT, DEFAULT_TARGET_RATE);
+        interval = reader.readLong(INTERVAL_ELEMENT, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Returns the number of arrivals per second at the specified point in time
+     */
+
+    public double getArrivalRate(long timePassed) {
+        if (RAMP_MODE.equals(mode)) {
+            if (interval <= 0 || timePassed >= interval) {
+                return targetRate;
+            }
+
+            return rate + (targetRate - rate) * ((double) timePassed / interval);
+        } else if (STEP_MODE.equals(mode)) {
+            if (interval <= 0) {
+                return targetRate;
+            }
+
+            double stepRate = rate * (timePassed / interval + 1);
+            return rate < targetRate ? Math.min(stepRate, targetRate) : rate;
+        }
+
+        return rate;
+    }
+
+    public double getNextArrivalInterval(long timePassed) {
+        double currentRate = getArrivalRate(timePassed);
+        if (currentRate <= 0) {
+            return IDLE_INTERVAL;
+        }
+
+        double meanInterval = 1000 / currentRate;
+        if (POISSON_MODE.equals(mode)) {
+            // exponentially distributed interval between arrivals
+            return -meanInterval * Math.log(1 - random.nextDouble());
+        }
+
+        return meanInterval;
+    }
+
+    public void beforeLoadTest(LoadTestRunner loadTestRunner, LoadTestRunContext context) {
+        super.beforeLoadTest(loadTestRunner, context);
+        stateDependantComponents.setEnabled(false);
+    }
+
+    public void recalculate(LoadTestRunner loadTestRunner, LoadTestRunContext context) {
+        if (infoLabel != null) {
+            String label = Math.round(getArrivalRate(loadTestRunner.getTimeTaken()) * 10) / 10.0 + "/s";
+            if (!infoLabel.getText().equals(label)) {
+                infoLabel.setText(label);
+            }
+        }
+    }
+
+    public void afterLoadTest(LoadTestRunner loadTestRunner, LoadTestRunContext context) {
+        if (infoLabel != null) {
+            infoLabel.setText("");
+        }
+
+        stateDependantComponents.setEnabled(true);
+    }
+
+    public JComponent getConfigurationPanel() {
+        if (configPanel == null) {
+            ButtonBarBuilder builder = new ButtonBarBuilder();
+
+            final JComboBox modeCombo = new JComboBox(new String[]{CONSTANT_MODE, RAMP_MODE, STEP_MODE, POISSON_MODE});
+            modeCombo.setSelectedItem(mode);
+            modeCombo.setToolTipText("Selects how the arrival rate changes over time");
+            modeCombo.addItemListener(new ItemListener() {
+
+                public void itemStateChanged(ItemEvent e) {
+                    if (e.getStateChange() == ItemEvent.SELECTED) {
+                        mode = String.valueOf(modeCombo.getSelectedItem());
+                        notifyConfigurationChanged();
+                    }
+                }
+            });
+
+            builder.addFixed(new JLabel("Mode"));
+            builder.addRelatedGap();
+            builder.addFixed(modeCombo);
+            builder.addRelatedGap();
+
+            final JTextField rateField = new JTextField(4);
+            UISupport.setPreferredHeight(rateField, 18);
+            rateField.setHorizontalAlignment(JTextField.RIGHT);
+            rateField.setText(String.valueOf(rate));
+            rateField.setToolTipText("Sets the number of TestCases started per second (also the step size in Step mode)");
+            rateField.getDocument().addDocumentListener(new DocumentListenerAdapter() {
+
+                public void update(Document doc) {
+                    try {
+                        rate = Float.parseFloat(rateField.getText());
+                        notifyConfigurationChanged();
+                    } catch (NumberFormatException e) {
+                    }
+                }
+            });
+
+            builder.addFixed(new JLabel("Rate"));
+            builder.addRelatedGap();
+            builder.addFixed(rateField);
+            builder.addRelatedGap();
+
+            final JTextField targetRateField = new JTextField(4);
+            UISupport.setPreferredHeight(targetRateField, 18);
+            targetRateField.setHorizontalAlignment(JTextField.RIGHT);
+            targetRateField.setText(String.valueOf(targetRate));
+            targetRateField.setToolTipText("Sets the rate to reach in Ramp and Step mode");
+            targetRateField.getDocument().addDocumentListener(new DocumentListenerAdapter() {
+
+                public void update(Document doc) {
+                    try {
+                        targetRate = Float.parseFloat(targetRateField.getText());
+                        notifyConfigurationChanged();
+                    } catch (NumberFormatException e) {
+                    }
+                }
+            });
+
+            builder.addFixed(new JLabel("Target"));
+            builder.addRelatedGap();
+            builder.addFixed(targetRateField);
+            builder.addRelatedGap();
+
+            final JTextField intervalField = new JTextField(4);
+            UISupport.setPreferredHeight(intervalField, 18);
+            intervalField.setHorizontalAlignment(JTextField.RIGHT);
+            intervalField.setText(String.valueOf(interval / 1000));
+            intervalField.setToolTipText("Sets the ramp duration or the interval between steps in seconds");
+            intervalField.getDocument().addDocumentListener(new DocumentListenerAdapter() {
+
+                public void update(Document doc) {
+                    try {
+                        interval = Long.parseLong(intervalField.getText()) * 1000;
+                        notifyConfigurationChanged();
+                    } catch (NumberFormatException e) {
+                    }
+                }
+            });
+
+            builder.addFixed(new JLabel("Interval"));
+            builder.addRelatedGap();
+            builder.addFixed(intervalField);
+            builder.addRelatedGap();
+
+            infoLabel = new JLabel();
+            builder.addFixed(infoLabel);
+
+            configPanel = builder.getPanel();
+
+            stateDependantComponents.add(modeCombo);
+            stateDependantComponents.add(rateField);
+            stateDependantComponents.add(targetRateField);
+            stateDependantComponents.add(intervalField);
+        }
+
+        return configPanel;
+    }
+
+    public XmlObject getConfig() {
+        XmlObjectConfigurationBuilder builder = new XmlObjectConfigurationBuilder();
+        builder.add(MODE_ELEMENT, mode);
+        builder.add(RATE_ELEMENT, rate);
+        builder.add(TARGET_RATE_ELEMENT, targetRate);
+        builder.add(INTERVAL_ELEMENT, interval);
+        return builder.finish();
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public float getRate() {
+        return rate;
+    }
+
+    public float getTargetRate() {
+        return targetRate;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Factory for ArrivalRateLoadStrategy class
+     */
+
+    public static class Factory implements LoadStrategyFactory {
+        public String getType() {
+            return STRATEGY_TYPE;
+        }
+
+        public LoadStrategy build(XmlObject config, WsdlLoadTest loadTest) {
+            return new ArrivalRateLoadStrategy(config, loadTest);
+        }
+
+        public LoadStrategy create(WsdlLoadTest loadTest) {
+            return new ArrivalRateLoadStrategy(loadTest);
+        }
+    }
+}
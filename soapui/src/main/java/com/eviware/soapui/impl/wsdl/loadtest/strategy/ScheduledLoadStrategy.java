@@ -0,0 +1,35 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.loadtest.strategy;
+
+/**
+ * LoadStrategy that starts TestCases at scheduled points in time instead of looping a fixed number of threads
+ * (an "open" load model). The LoadTest thread count is used as the maximum number of concurrent TestCase runs.
+ *
+ * @see com.eviware.soapui.impl.wsdl.loadtest.WsdlLoadTestRunner
+ */
+
+public interface ScheduledLoadStrategy extends LoadStrategy {
+    /**
+     * Returns the number of milliseconds between an arrival and the next one
+     *
+     * @param timePassed the number of milliseconds passed since the LoadTest was started
+     */
+
+    public double getNextArrivalInterval(long timePassed);
+}
@@ -21,13 +21,18 @@ import com.eviware.soapui.impl.rest.RestRequestInterface;
 import com.eviware.soapui.impl.support.definition.export.WsdlDefinitionExporter;
 import com.eviware.soapui.impl.wsdl.WsdlInterface;
 import com.eviware.soapui.impl.wsdl.WsdlOperation;
+import com.eviware.soapui.impl.wsdl.support.soap.SoapEnvelopeScan;
 import com.eviware.soapui.impl.wsdl.support.soap.SoapUtils;
 import com.eviware.soapui.impl.wsdl.support.soap.SoapVersion;
 import com.eviware.soapui.impl.wsdl.support.wsdl.WsdlUtils;
+import com.eviware.soapui.model.ModelItem;
 import com.eviware.soapui.model.iface.Interface;
+import com.eviware.soapui.model.iface.Operation;
+import com.eviware.soapui.model.mock.MockOperation;
 import com.eviware.soapui.model.mock.MockResult;
 import com.eviware.soapui.model.propertyexpansion.PropertyExpander;
 import com.eviware.soapui.model.support.AbstractMockDispatcher;
+import com.eviware.soapui.model.support.MockServiceListenerAdapter;
 import com.eviware.soapui.model.support.ModelSupport;
 import com.eviware.soapui.support.StringUtils;
 import com.eviware.soapui.support.Tools;
@@ -43,13 +48,17 @@ import javax.wsdl.Definition;
 import javax.wsdl.Import;
 import javax.wsdl.factory.WSDLFactory;
 import javax.wsdl.xml.WSDLWriter;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class WsdlMockDispatcher extends AbstractMockDispatcher {
@@ -60,6 +69,13 @@ public class WsdlMockDispatcher extends AbstractMockDispatcher {
     private final Map<String, StringToStringMap> wsdlCache = new HashMap<String, StringToStringMap>();
     private final static Logger log = Logger.getLogger(WsdlMockDispatcher.class);
 
+    private volatile WsdlMockOperationIndex operationIndex;
+    private volatile boolean indexing;
+    private int indexVersion;
+    private final InternalMockServiceListener mockServiceListener = new InternalMockServiceListener();
+    private final IndexedItemListener indexedItemListener = new IndexedItemListener();
+    private final List<ModelItem> indexedItems = new ArrayList<ModelItem>();
+
 
     public WsdlMockDispatcher(WsdlMockService mockService, WsdlMockRunContext mockContext) {
         this.mockService = mockService;
@@ -67,6 +83,88 @@ public class WsdlMockDispatcher extends AbstractMockDispatcher {
         initWsdlCache();
     }
 
+    /**
+     * Indexes the mocked operations for routing requests and keeps the index up to date until
+     * releaseOperationIndex is called
+     */
+
+    public void buildOperationIndex() {
+        mockService.removeMockServiceListener(mockServiceListener);
+        mockService.addMockServiceListener(mockServiceListener);
+        watchIndexedItems();
+        operationIndex = new WsdlMockOperationIndex(mockService.getMockedOperations());
+        indexing = true;
+    }
+
+    public void releaseOperationIndex() {
+        indexing = false;
+        mockService.removeMockServiceListener(mockServiceListener);
+        unwatchIndexedItems();
+        invalidateOperationIndex();
+    }
+
+    /**
+     * Listens to the mock operations, operations and interfaces whose changes affect the index
+     */
+
+    private synchronized void watchIndexedItems() {
+        unwatchIndexedItems();
+
+        for (MockOperation mockOperation : mockService.getMockOperationList()) {
+            watch(mockOperation);
+        }
+
+        for (WsdlOperation operation : mockService.getMockedOperations()) {
+            if (operation != null) {
+                watch(operation);
+            }
+        }
+
+        for (WsdlInterface iface : mockService.getMockedInterfaces()) {
+            watch(iface);
+        }
+    }
+
+    private void watch(ModelItem modelItem) {
+        modelItem.addPropertyChangeListener(indexedItemListener);
+        indexedItems.add(modelItem);
+    }
+
+    private synchronized void unwatchIndexedItems() {
+        for (ModelItem modelItem : indexedItems) {
+            modelItem.removePropertyChangeListener(indexedItemListener);
+        }
+
+        indexedItems.clear();
+    }
+
+    WsdlMockOperationIndex getOperationIndex() {
+        WsdlMockOperationIndex index = operationIndex;
+        if (index == null) {
+            int version;
+            synchronized (this) {
+                version = indexVersion;
+            }
+
+            index = new WsdlMockOperationIndex(mockService.getMockedOperations());
+
+            // without the listeners a cached index could miss changed operations, and an index built while
+            // something changed may already be stale
+            synchronized (this) {
+                if (indexing && version == indexVersion) {
+                    operationIndex = index;
+                }
+            }
+        }
+
+        return index;
+    }
+
+    private synchronized void invalidateOperationIndex() {
+        indexVersion++;
+        operationIndex = null;
+    }
+
     private void initWsdlCache() {
         for (Interface iface : mockService.getMockedInterfaces()) {
             if (!iface.getInterfaceType().equals(WsdlInterfaceFactory.WSDL_TYPE)) {
@@ -179,7 +277,12 @@ public class WsdlMockDispatcher extends AbstractMockDispatcher {
             String soapAction = mockRequest.getSoapAction();
             WsdlOperation operation = null;
 
-            if (SoapUtils.isSoapFault(mockRequest.getRequestContent(), soapVersion)) {
+            // the scan is null for content that is not well-formed, which the full parse below will report
+            SoapEnvelopeScan scan = mockRequest.getEnvelopeScan();
+            boolean routable = scan != null && scan.hasBody() && scan.getSoapVersion() == soapVersion;
+
+            if (routable ? scan.isFault(soapVersion) : SoapUtils.isSoapFault(mockRequest.getRequestContent(),
+                    soapVersion)) {
                 // we should inspect fault detail and try to find matching operation
                 // but not for now..
                 WsdlMockOperation faultMockOperation = mockService.getFaultMockOperation();
@@ -188,10 +291,15 @@ public class WsdlMockDispatcher extends AbstractMockDispatcher {
                 }
             } else {
                 try {
-                    operation = SoapUtils.findOperationForRequest(soapVersion, soapAction,
-                            mockRequest.getRequestXmlObject(), mockService.getMockedOperations(),
-                            mockService.isRequireSoapVersion(), mockService.isRequireSoapAction(),
-                            mockRequest.getRequestAttachments());
+                    if (routable) {
+                        operation = getOperationIndex().findOperationForRequest(scan, soapVersion, soapAction,
+                                mockRequest, mockService.isRequireSoapVersion(), mockService.isRequireSoapAction());
+                    } else {
+                        operation = SoapUtils.findOperationForRequest(soapVersion, soapAction,
+                                mockRequest.getRequestXmlObject(), mockService.getMockedOperations(),
+                                mockService.isRequireSoapVersion(), mockService.isRequireSoapAction(),
+                                mockRequest.getRequestAttachments());
+                    }
                 } catch (Exception e) {
                     if (mockService.isDispatchResponseMessages()) {
                         try {
@@ -277,10 +385,44 @@ public class WsdlMockDispatcher extends AbstractMockDispatcher {
 
 
     public void release() {
+        releaseOperationIndex();
         clearResults();
         mockContext.clear();
     }
 
+    private class InternalMockServiceListener extends MockServiceListenerAdapter {
+        @Override
+        public void mockOperationAdded(MockOperation operation) {
+            watchIndexedItems();
+            invalidateOperationIndex();
+        }
+
+        @Override
+        public void mockOperationRemoved(MockOperation operation) {
+            watchIndexedItems();
+            invalidateOperationIndex();
+        }
+    }
+
+    /**
+     * Drops the index when an indexed action or interface definition changes, so it is rebuilt for the next
+     * request
+     */
+
+    private class IndexedItemListener implements PropertyChangeListener {
+        public void propertyChange(PropertyChangeEvent evt) {
+            String propertyName = evt.getPropertyName();
+            if (WsdlMockOperation.OPERATION_PROPERTY.equals(propertyName)) {
+                watchIndexedItems();
+                invalidateOperationIndex();
+            } else if (Operation.ACTION_PROPERTY.equals(propertyName)
+                    || Interface.DEFINITION_PROPERTY.equals(propertyName)
+                    || Interface.UPDATING_PROPERTY.equals(propertyName)) {
+                invalidateOperationIndex();
+            }
+        }
+    }
+
     public void printWsdl(HttpServletResponse response) throws IOException {
         WsdlInterface[] mockedInterfaces = mockService.getMockedInterfaces();
         if (mockedInterfaces.length == 1) {
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+import org.apache.log4j.Logger;
+
+import com.eviware.soapui.impl.wsdl.WsdlOperation;
+import com.eviware.soapui.impl.wsdl.support.soap.SoapEnvelopeScan;
+import com.eviware.soapui.impl.wsdl.support.soap.SoapUtils;
+import com.eviware.soapui.impl.wsdl.support.soap.SoapVersion;
+import com.eviware.soapui.model.iface.Attachment;
+
+/**
+ * Lookup of the mocked operations of a WsdlMockService by request body element and SOAPAction, built when
+ * the MockService is started so that requests do not have to be compared with every operation. The
+ * WsdlMockDispatcher builds a new index when mocked operations, their actions or interface definitions change.
+ * <p/>
+ * Candidates are kept in the order of the mocked operations, so the first matching operation is the same
+ * one that SoapUtils.findOperationForRequest would return.
+ */
+
+public class WsdlMockOperationIndex {
+    private final static Logger log = Logger.getLogger(WsdlMockOperationIndex.class);
+
+    private final Map<QName, List<WsdlOperation>> operationsByBodyElement = new HashMap<QName, List<WsdlOperation>>();
+    private final Map<String, List<WsdlOperation>> operationsBySoapAction = new HashMap<String, List<WsdlOperation>>();
+
+    public WsdlMockOperationIndex(List<WsdlOperation> operations) {
+        for (WsdlOperation operation : operations) {
+            if (operation == null) {
+                continue;
+            }
+
+            try {
+                QName bodyElement = operation.getRequestBodyElementQName();
+                if (bodyElement != null) {
+                    add(operationsByBodyElement, bodyElement, operation);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to get request body element of operation [" + operation.getName() + "]: " + e);
+            }
+
+            if (operation.getAction() != null) {
+                add(operationsBySoapAction, operation.getAction(), operation);
+            }
+        }
+    }
+
+    private static <K> void add(Map<K, List<WsdlOperation>> map, K key, WsdlOperation operation) {
+        List<WsdlOperation> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<WsdlOperation>(1);
+            map.put(key, list);
+        }
+
+        list.add(operation);
+    }
+
+    public List<WsdlOperation> getOperationsForBodyElement(QName bodyElement) {
+        List<WsdlOperation> result = operationsByBodyElement.get(bodyElement);
+        return result == null ? Collections.<WsdlOperation>emptyList() : result;
+    }
+
+    public List<WsdlOperation> getOperationsForSoapAction(String soapAction) {
+        List<WsdlOperation> result = operationsBySoapAction.get(soapAction);
+        return result == null ? Collections.<WsdlOperation>emptyList() : result;
+    }
+
+    /**
+     * Finds the operation for a request that has been scanned as a SOAP Envelope of the specified version. Only
+     * RPC style candidates need the parsed request to compare their parts, which is then requested from the
+     * mockRequest.
+     */
+
+    public WsdlOperation findOperationForRequest(SoapEnvelopeScan scan, SoapVersion soapVersion, String soapAction,
+                                                 WsdlMockRequest mockRequest, boolean requireSoapVersionMatch, boolean requireSoapActionMatch)
+            throws Exception {
+        QName contentElementName = scan.getContentElementName();
+        if (contentElementName == null) {
+            for (WsdlOperation operation : getOperationsForSoapAction(soapAction)) {
+                if (operation.getBindingOperation().getOperation().getInput().getMessage().getParts().size() == 0) {
+                    return operation;
+                }
+            }
+
+            return null;
+        }
+
+        List<WsdlOperation> candidates = getOperationsForBodyElement(contentElementName);
+        Attachment[] attachments = mockRequest.getRequestAttachments();
+
+        for (int c = 0; c < candidates.size(); c++) {
+            WsdlOperation operation = candidates.get(c);
+
+            if (operation.getStyle().equals(WsdlOperation.STYLE_RPC)) {
+                // parts have to be compared with the content, leave the rest to the full check
+                return SoapUtils.findOperationForRequest(soapVersion, soapAction, mockRequest.getRequestXmlObject(),
+                        candidates.subList(c, candidates.size()), requireSoapVersionMatch, requireSoapActionMatch,
+                        attachments);
+            }
+
+            if (SoapUtils.matchesSoapActionAndVersion(operation, soapVersion, soapAction, requireSoapVersionMatch,
+                    requireSoapActionMatch) && operation.getStyle().equals(WsdlOperation.STYLE_DOCUMENT)
+                    && SoapUtils.hasAllAttachmentParts(operation, attachments)) {
+                return operation;
+            }
+        }
+
+        return null;
+    }
+}
@@ -19,6 +19,7 @@ package com.eviware.soapui.impl.wsdl.mock;
 import com.eviware.soapui.SoapUI;
 import com.eviware.soapui.impl.support.AbstractMockRequest;
 import com.eviware.soapui.impl.wsdl.WsdlProject;
+import com.eviware.soapui.impl.wsdl.support.soap.SoapEnvelopeScan;
 import com.eviware.soapui.impl.wsdl.support.soap.SoapUtils;
 import com.eviware.soapui.impl.wsdl.support.soap.SoapVersion;
 import com.eviware.soapui.impl.wsdl.support.wss.IncomingWss;
@@ -44,6 +45,8 @@ public class WsdlMockRequest extends AbstractMockRequest {
     private SoapVersion soapVersion;
     private String soapAction;
     private Vector<Object> wssResult;
+    private SoapEnvelopeScan envelopeScan;
+    private String scannedContent;
 
     public WsdlMockRequest(HttpServletRequest request, HttpServletResponse response, WsdlMockRunContext context)
             throws Exception {
@@ -69,9 +72,11 @@ public class WsdlMockRequest extends AbstractMockRequest {
     public void setRequestContent(String requestContent) {
         super.setRequestContent(requestContent);
         setRequestXmlObject(null);
+        envelopeScan = null;
+        scannedContent = null;
 
         try {
-            soapVersion = SoapUtils.deduceSoapVersion(getRequest().getContentType(), getRequestXmlObject());
+            soapVersion = deduceSoapVersion(getRequest().getContentType());
         } catch (XmlException e) {
             SoapUI.logError(e);
         }
@@ -81,6 +86,31 @@ public class WsdlMockRequest extends AbstractMockRequest {
         }
     }
 
+    /**
+     * Returns the result of a streaming scan of the envelope up to the first Body child, or null if the
+     * request content is not well-formed xml
+     */
+
+    public SoapEnvelopeScan getEnvelopeScan() {
+        String content = getRequestContent();
+        if (content != scannedContent) {
+            envelopeScan = SoapEnvelopeScan.scan(content);
+            scannedContent = content;
+        }
+
+        return envelopeScan;
+    }
+
+    private SoapVersion deduceSoapVersion(String contentType) throws XmlException {
+        SoapEnvelopeScan scan = getEnvelopeScan();
+        if (scan == null) {
+            return SoapUtils.deduceSoapVersion(contentType, getRequestXmlObject());
+        }
+
+        return scan.getSoapVersion() != null ? scan.getSoapVersion() : SoapUtils.deduceSoapVersion(contentType,
+                (XmlObject) null);
+    }
+
 
     public XmlObject getContentElement() throws XmlException {
         return SoapUtils.getContentElement(getRequestXmlObject(), soapVersion);
@@ -130,7 +160,7 @@ public class WsdlMockRequest extends AbstractMockRequest {
 
     private void initSoapVersion(String contentType) {
         try {
-            soapVersion = SoapUtils.deduceSoapVersion(contentType, getRequestXmlObject());
+            soapVersion = deduceSoapVersion(contentType);
         } catch (Exception e) {
             // ignore non xml requests
         }
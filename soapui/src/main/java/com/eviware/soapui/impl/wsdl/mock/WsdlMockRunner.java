@@ -26,6 +26,9 @@ import com.eviware.soapui.model.mock.MockResult;
 import com.eviware.soapui.model.mock.MockRunListener;
 import com.eviware.soapui.model.mock.MockRunner;
 import com.eviware.soapui.model.mock.MockService;
+import com.eviware.soapui.model.support.AbstractMockDispatcher;
+import com.eviware.soapui.model.support.MockResultStatistics;
+import com.eviware.soapui.settings.HttpSettings;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -96,6 +99,17 @@ public class WsdlMockRunner implements MockRunner {
             listener.onMockRunnerStop(this);
         }
 
+        if (dispatcher instanceof WsdlMockDispatcher) {
+            ((WsdlMockDispatcher) dispatcher).releaseOperationIndex();
+        }
+
+        if (dispatcher instanceof AbstractMockDispatcher) {
+            MockResultStatistics statistics = ((AbstractMockDispatcher) dispatcher).getStatistics();
+            if (statistics.getRequestCount() > 0) {
+                SoapUI.log.info("MockService [" + getMockService().getName() + "] handled " + statistics);
+            }
+        }
+
         try {
             getMockService().runStopScript(mockContext, this);
             running = false;
@@ -198,6 +212,17 @@ public class WsdlMockRunner implements MockRunner {
         mockContext.reset();
         getMockService().runStartScript(mockContext, this);
 
+        if (dispatcher instanceof WsdlMockDispatcher) {
+            ((WsdlMockDispatcher) dispatcher).buildOperationIndex();
+        }
+
+        if (dispatcher instanceof AbstractMockDispatcher) {
+            AbstractMockDispatcher mockDispatcher = (AbstractMockDispatcher) dispatcher;
+            mockDispatcher.setResultSamplePercentage((int) SoapUI.getSettings().getLong(
+                    HttpSettings.MOCK_RESULT_SAMPLE_PERCENTAGE, 100));
+            mockDispatcher.getStatistics().reset();
+        }
+
         SoapUI.getMockEngine().startMockService(this);
         running = true;
 
@@ -32,6 +32,7 @@ import com.eviware.soapui.model.settings.Settings;
 import com.eviware.soapui.support.StringUtils;
 import com.eviware.soapui.support.UISupport;
 import com.eviware.soapui.support.components.JXToolBar;
+import com.eviware.soapui.support.xml.XPathExpressionCache;
 import com.eviware.soapui.support.xml.XmlUtils;
 import com.eviware.soapui.ui.support.ModelItemDesktopPanel;
 import org.apache.xmlbeans.XmlException;
@@ -63,7 +64,7 @@ public class XPathMockOperationDispatcher extends AbstractMockOperationDispatche
             throw new DispatchException("Missing dispatch XPath expression");
         }
 
-        String[] values = XmlUtils.selectNodeValues(xmlObject, path);
+        String[] values = XmlUtils.selectNodeValues(xmlObject, path, XPathExpressionCache.getInstance().getOptions());
         for (String value : values) {
             MockResponse mockResponse = getMockOperation().getMockResponseByName(value);
             if (mockResponse != null) {
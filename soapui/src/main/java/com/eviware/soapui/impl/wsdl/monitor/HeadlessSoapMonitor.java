@@ -0,0 +1,175 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.monitor;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+
+import com.eviware.soapui.impl.wsdl.WsdlProject;
+import com.eviware.soapui.impl.wsdl.actions.monitor.SoapMonitorAction;
+
+/**
+ * HTTP Monitor without a user interface. Exchanges captured by the proxy/tunnel are handed over through a bounded
+ * MonitorCaptureQueue to a background processor that streams them to a monitor log (if specified) and notifies
+ * the registered MonitorListeners; when the processor falls behind, exchanges are dropped and counted instead of
+ * piling up in memory.
+ */
+
+public class HeadlessSoapMonitor {
+    private final static Logger log = Logger.getLogger(HeadlessSoapMonitor.class);
+
+    private final WsdlProject project;
+    private final int localPort;
+    private final String sslEndpoint;
+    private final File logFile;
+    private final MonitorCaptureQueue queue;
+    private SoapMonitorListenerCallBack listenerCallBack = new SoapMonitorListenerCallBack() {
+        @Override
+        public void fireAddMessageExchange(WsdlMonitorMessageExchange messageExchange) {
+            if (!processor.offer(messageExchange)) {
+                messageExchange.discard();
+            }
+        }
+    };
+    private SoapMonitorEngine monitorEngine;
+    private volatile MonitorCaptureProcessor processor;
+    private MonitorLogWriter logWriter;
+
+    /**
+     * @param sslEndpoint the endpoint to tunnel to, or null to run as HTTP proxy
+     * @param logFile     the file to write captured exchanges to, or null to only notify listeners
+     */
+
+    public HeadlessSoapMonitor(WsdlProject project, int localPort, String sslEndpoint, File logFile,
+                               MonitorCaptureQueue queue) {
+        this.project = project;
+        this.localPort = localPort;
+        this.sslEndpoint = sslEndpoint;
+        this.logFile = logFile;
+        this.queue = queue;
+    }
+
+    public synchronized void start() throws IOException {
+        if (isRunning()) {
+            return;
+        }
+
+        logWriter = logFile == null ? null : new MonitorLogWriter(logFile);
+        processor = new MonitorCaptureProcessor(queue, "SoapMonitor processor for project [" + project.getName()
+                + "]") {
+            @Override
+            protected void processMessageExchange(WsdlMonitorMessageExchange messageExchange) throws Exception {
+                HeadlessSoapMonitor.this.processMessageExchange(messageExchange);
+            }
+
+            @Override
+            protected void onFlush() throws Exception {
+                if (logWriter != null) {
+                    logWriter.flush();
+                }
+            }
+
+            @Override
+            protected void onStop() {
+                closeLogWriter();
+            }
+        };
+        processor.start();
+
+        monitorEngine = new SoapMonitorEngineImpl(sslEndpoint);
+        monitorEngine.setIncludedContentTypes(ContentTypes.of(project.getSettings().getString(
+                SoapMonitorAction.LaunchForm.SET_CONTENT_TYPES, SoapMonitorAction.defaultContentTypes().toString())));
+        monitorEngine.start(project, localPort, listenerCallBack);
+
+        if (monitorEngine.isRunning()) {
+            log.info("Started " + (monitorEngine.isProxy() ? "HTTP Proxy" : "SSL Tunnel") + " on port " + localPort
+                    + (logFile == null ? "" : ", logging to [" + logFile.getAbsolutePath() + "]"));
+        } else {
+            processor.stop();
+            throw new IOException("Could not start HTTP Monitor on local port " + localPort);
+        }
+    }
+
+    private void processMessageExchange(WsdlMonitorMessageExchange messageExchange) throws IOException {
+        try {
+            if (logWriter != null) {
+                logWriter.write(messageExchange);
+            }
+
+            if (listenerCallBack.hasListeners()) {
+                messageExchange.prepare(null, null);
+                listenerCallBack.fireOnMessageExchange(messageExchange);
+            }
+        } finally {
+            messageExchange.discard();
+        }
+    }
+
+    private void closeLogWriter() {
+        if (logWriter != null) {
+            try {
+                logWriter.close();
+            } catch (IOException e) {
+                log.error("Failed to close monitor log", e);
+            }
+        }
+    }
+
+    /**
+     * Stops capturing and waits for the exchanges already captured to be processed
+     */
+
+    public synchronized void stop() {
+        if (monitorEngine != null) {
+            monitorEngine.stop();
+            monitorEngine = null;
+        }
+
+        if (processor != null) {
+            processor.stop();
+            log.info("Stopped HTTP Monitor on port " + localPort + "; captured " + queue.getAddedCount()
+                    + " exchanges, dropped " + queue.getDroppedCount() + ", processed " + processor.getProcessedCount());
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return monitorEngine != null && monitorEngine.isRunning();
+    }
+
+    public void addSoapMonitorListener(MonitorListener listener) {
+        listenerCallBack.addSoapMonitorListener(listener);
+    }
+
+    public void removeSoapMonitorListener(MonitorListener listener) {
+        listenerCallBack.removeSoapMonitorListener(listener);
+    }
+
+    public MonitorCaptureQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * Returns the number of exchanges written to the monitor log so far
+     */
+
+    public long getLoggedCount() {
+        return logWriter == null ? 0 : logWriter.getRecordCount();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.monitor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Background thread processing the exchanges added to a MonitorCaptureQueue in the order they were captured, so
+ * that decoding, WSS processing and logging never hold up the proxy threads.
+ */
+
+public abstract class MonitorCaptureProcessor implements Runnable {
+    private final static Logger log = Logger.getLogger(MonitorCaptureProcessor.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MonitorCaptureQueue queue;
+    private final String name;
+    private volatile Thread thread;
+    private volatile boolean canceled;
+    private volatile boolean idle;
+    private volatile long processedCount;
+
+    public MonitorCaptureProcessor(MonitorCaptureQueue queue, String name) {
+        this.queue = queue;
+        this.name = name;
+    }
+
+    public MonitorCaptureQueue getQueue() {
+        return queue;
+    }
+
+    public synchronized void start() {
+        if (thread == null) {
+            canceled = false;
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Adds an exchange to the queue and wakes up the processor if it is waiting
+     *
+     * @return false if the exchange was dropped
+     */
+
+    public boolean offer(WsdlMonitorMessageExchange messageExchange) {
+        boolean added = queue.offer(messageExchange);
+
+        Thread current = thread;
+        if (added && idle && current != null) {
+            LockSupport.unpark(current);
+        }
+
+        return added;
+    }
+
+    /**
+     * Stops the processor after the exchanges already queued have been processed
+     */
+
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            current = thread;
+            thread = null;
+            canceled = true;
+        }
+
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    public void run() {
+        log.debug("Started " + name);
+
+        long flushedCount = 0;
+        long lastFlush = System.nanoTime();
+        while (true) {
+            WsdlMonitorMessageExchange messageExchange = queue.poll();
+            if (messageExchange != null) {
+                process(messageExchange);
+
+                // a monitor that is never idle still flushes regularly
+                if (System.nanoTime() - lastFlush > FLUSH_INTERVAL_NANOS) {
+                    flush();
+                    flushedCount = processedCount;
+                    lastFlush = System.nanoTime();
+                }
+            } else if (canceled && queue.isEmpty()) {
+                break;
+            } else {
+                if (flushedCount != processedCount) {
+                    flush();
+                    flushedCount = processedCount;
+                    lastFlush = System.nanoTime();
+                }
+
+                idle = true;
+                // re-check after announcing that we are idle so that no wake-up gets lost
+                if (queue.isEmpty() && !canceled) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                } else {
+                    Thread.yield();
+                }
+                idle = false;
+            }
+        }
+
+        onStop();
+        log.debug("Stopped " + name + " after processing " + processedCount + " exchanges");
+    }
+
+    private void process(WsdlMonitorMessageExchange messageExchange) {
+        processedCount++;
+        try {
+            processMessageExchange(messageExchange);
+        } catch (Throwable t) {
+            log.error("Failed to process captured exchange", t);
+        }
+    }
+
+    private void flush() {
+        try {
+            onFlush();
+        } catch (Throwable t) {
+            log.error("Failed to flush processed exchanges", t);
+        }
+    }
+
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    protected abstract void processMessageExchange(WsdlMonitorMessageExchange messageExchange) throws Exception;
+
+    /**
+     * Called by the processor thread when it runs out of exchanges after processing some, and at least once a
+     * second while it is busy, so that results can be flushed
+     */
+
+    protected void onFlush() throws Exception {
+    }
+
+    /**
+     * Called by the processor thread when it stops, after all queued exchanges have been processed
+     */
+
+    protected void onStop() {
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free queue of captured message exchanges between the proxy threads adding them and the single
+ * thread processing them. Exchanges that would exceed the maximum number of entries or the approximate maximum
+ * size of their captured data are dropped and counted instead of blocking the proxy.
+ */
+
+public class MonitorCaptureQueue {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final AtomicReferenceArray<WsdlMonitorMessageExchange> slots;
+    private final int mask;
+    private final long maxBytes;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public MonitorCaptureQueue() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param capacity maximum number of queued exchanges, rounded up to a power of two
+     * @param maxBytes maximum size of the captured data of all queued exchanges, 0 for no limit
+     */
+
+    public MonitorCaptureQueue(int capacity, long maxBytes) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        slots = new AtomicReferenceArray<WsdlMonitorMessageExchange>(size);
+        mask = size - 1;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Adds an exchange, may be called by any number of threads
+     *
+     * @return false if the exchange was dropped because the queue is full
+     */
+
+    public boolean offer(WsdlMonitorMessageExchange messageExchange) {
+        long size = sizeOf(messageExchange);
+        long pending = maxBytes > 0 ? pendingBytes.addAndGet(size) : 0;
+        if (pending > maxBytes && pending > size) {
+            // always let a single exchange through, however large, so that an empty queue accepts anything
+            pendingBytes.addAndGet(-size);
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        while (true) {
+            long index = tail.get();
+            if (index - head.get() >= slots.length()) {
+                if (maxBytes > 0) {
+                    pendingBytes.addAndGet(-size);
+                }
+                dropped.incrementAndGet();
+                return false;
+            }
+
+            if (tail.compareAndSet(index, index + 1)) {
+                slots.set((int) (index & mask), messageExchange);
+                added.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest exchange, must only be called by the processing thread
+     *
+     * @return the exchange or null if there is none ready
+     */
+
+    public WsdlMonitorMessageExchange poll() {
+        long index = head.get();
+        int slot = (int) (index & mask);
+
+        // a claimed slot is null until its producer has stored the exchange
+        WsdlMonitorMessageExchange messageExchange = slots.get(slot);
+        if (messageExchange != null) {
+            slots.lazySet(slot, null);
+            head.lazySet(index + 1);
+
+            if (maxBytes > 0) {
+                pendingBytes.addAndGet(-sizeOf(messageExchange));
+            }
+        }
+
+        return messageExchange;
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    public long getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    /**
+     * Returns the number of exchanges accepted since creation
+     */
+
+    public long getAddedCount() {
+        return added.get();
+    }
+
+    /**
+     * Returns the number of exchanges dropped since creation
+     */
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    static long sizeOf(WsdlMonitorMessageExchange messageExchange) {
+        return Math.max(0, messageExchange.getRequestContentLength())
+                + Math.max(0, messageExchange.getResponseContentLength()) + length(messageExchange.getRawRequestData())
+                + length(messageExchange.getRawResponseData());
+    }
+
+    private static long length(byte[] data) {
+        return data == null ? 0 : data.length;
+    }
+}
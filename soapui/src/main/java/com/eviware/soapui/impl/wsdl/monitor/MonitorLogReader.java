@@ -0,0 +1,102 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.monitor;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the records of a monitor log written by the MonitorLogWriter one at a time. A log that was not closed
+ * properly is read up to the last complete record.
+ */
+
+public class MonitorLogReader implements Closeable {
+    private final DataInputStream in;
+    private boolean finished;
+
+    public MonitorLogReader(File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    public MonitorLogReader(InputStream inputStream) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(inputStream, 64 * 1024)));
+        if (in.readInt() != MonitorLogWriter.MAGIC) {
+            in.close();
+            throw new IOException("Not a monitor log");
+        }
+    }
+
+    /**
+     * Returns the next record, or null at the end of the log
+     */
+
+    public MonitorLogRecord next() throws IOException {
+        if (finished) {
+            return null;
+        }
+
+        try {
+            if (in.readByte() != MonitorLogWriter.RECORD) {
+                finished = true;
+                return null;
+            }
+
+            long timestamp = in.readLong();
+            long timeTaken = in.readLong();
+            String requestMethod = readString();
+            String targetUrl = readString();
+            String requestHost = readString();
+            int responseStatusCode = in.readInt();
+            byte[] rawRequestData = readBytes();
+            byte[] rawResponseData = readBytes();
+
+            return new MonitorLogRecord(timestamp, timeTaken, requestMethod, targetUrl, requestHost,
+                    responseStatusCode, rawRequestData, rawResponseData);
+        } catch (EOFException e) {
+            finished = true;
+            return null;
+        }
+    }
+
+    private String readString() throws IOException {
+        byte[] data = readBytes();
+        return data == null ? null : new String(data, "UTF-8");
+    }
+
+    private byte[] readBytes() throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return data;
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.monitor;
+
+/**
+ * A message exchange as stored in a monitor log by the MonitorLogWriter
+ */
+
+public class MonitorLogRecord {
+    private final long timestamp;
+    private final long timeTaken;
+    private final String requestMethod;
+    private final String targetUrl;
+    private final String requestHost;
+    private final int responseStatusCode;
+    private final byte[] rawRequestData;
+    private final byte[] rawResponseData;
+
+    public MonitorLogRecord(long timestamp, long timeTaken, String requestMethod, String targetUrl,
+                            String requestHost, int responseStatusCode, byte[] rawRequestData, byte[] rawResponseData) {
+        this.timestamp = timestamp;
+        this.timeTaken = timeTaken;
+        this.requestMethod = requestMethod;
+        this.targetUrl = targetUrl;
+        this.requestHost = requestHost;
+        this.responseStatusCode = responseStatusCode;
+        this.rawRequestData = rawRequestData;
+        this.rawResponseData = rawResponseData;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getTimeTaken() {
+        return timeTaken;
+    }
+
+    public String getRequestMethod() {
+        return requestMethod;
+    }
+
+    public String getTargetUrl() {
+        return targetUrl;
+    }
+
+    public String getRequestHost() {
+        return requestHost;
+    }
+
+    public int getResponseStatusCode() {
+        return responseStatusCode;
+    }
+
+    /**
+     * The request as captured, including request line and headers
+     */
+
+    public byte[] getRawRequestData() {
+        return rawRequestData;
+    }
+
+    /**
+     * The response as captured, including status line and headers
+     */
+
+    public byte[] getRawResponseData() {
+        return rawResponseData;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.monitor;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams captured message exchanges to a compact, gzipped binary log as they are processed, so that a monitor
+ * can run for a long time without keeping the exchanges in memory. Logs are read back with the MonitorLogReader.
+ * <p/>
+ * Not thread-safe; meant to be used by the MonitorCaptureProcessor thread only, which flushes the log whenever
+ * it runs out of exchanges so a log is readable up to the last flush even if the monitor is killed.
+ */
+
+public class MonitorLogWriter implements Closeable {
+    static final int MAGIC = 0x534d4c31;
+    static final int RECORD = 1;
+    static final int END = 0;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataOutputStream out;
+    private volatile long recordCount;
+    private boolean closed;
+
+    public MonitorLogWriter(File file) throws IOException {
+        this(new FileOutputStream(file));
+    }
+
+    public MonitorLogWriter(OutputStream outputStream) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(createGZIPOutputStream(outputStream), BUFFER_SIZE));
+        out.writeInt(MAGIC);
+    }
+
+    /**
+     * Creates a stream that compresses all pending data on flush where the JRE supports it (Java 7 and later);
+     * older JREs only write out what the compressor has produced so far
+     */
+
+    private static GZIPOutputStream createGZIPOutputStream(OutputStream outputStream) throws IOException {
+        try {
+            Constructor<GZIPOutputStream> constructor = GZIPOutputStream.class.getConstructor(OutputStream.class,
+                    int.class, boolean.class);
+            return constructor.newInstance(outputStream, BUFFER_SIZE, true);
+        } catch (NoSuchMethodException e) {
+            return new GZIPOutputStream(outputStream, BUFFER_SIZE);
+        } catch (Exception e) {
+            throw new IOException("Failed to create monitor log stream: " + e);
+        }
+    }
+
+    public void write(WsdlMonitorMessageExchange messageExchange) throws IOException {
+        int statusCode = messageExchange instanceof JProxyServletWsdlMonitorMessageExchange ? ((JProxyServletWsdlMonitorMessageExchange) messageExchange)
+                .getResponseStatusCode() : 0;
+
+        write(new MonitorLogRecord(messageExchange.getTimestamp(), messageExchange.getTimeTaken(),
+                messageExchange.getRequestMethod(), messageExchange.getTargetUrl() == null ? null : messageExchange
+                .getTargetUrl().toString(), messageExchange.getRequestHost(), statusCode,
+                messageExchange.getRawRequestData(), messageExchange.getRawResponseData()));
+    }
+
+    public void write(MonitorLogRecord record) throws IOException {
+        out.writeByte(RECORD);
+        out.writeLong(record.getTimestamp());
+        out.writeLong(record.getTimeTaken());
+        writeString(record.getRequestMethod());
+        writeString(record.getTargetUrl());
+        writeString(record.getRequestHost());
+        out.writeInt(record.getResponseStatusCode());
+        writeBytes(record.getRawRequestData());
+        writeBytes(record.getRawResponseData());
+
+        recordCount++;
+    }
+
+    private void writeString(String value) throws IOException {
+        writeBytes(value == null ? null : value.getBytes("UTF-8"));
+    }
+
+    private void writeBytes(byte[] data) throws IOException {
+        if (data == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(data.length);
+            out.write(data);
+        }
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes the records buffered so far to the underlying stream
+     */
+
+    public void flush() throws IOException {
+        if (!closed) {
+            out.flush();
+        }
+    }
+
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                out.writeByte(END);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
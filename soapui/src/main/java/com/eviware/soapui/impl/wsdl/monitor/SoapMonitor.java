@@ -92,7 +92,6 @@ import java.net.URL;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 /**
  * A SOAP Monitor..
@@ -125,8 +124,7 @@ public class SoapMonitor extends JPanel {
     // private JButton addToRestTestCaseButton;
     private JButton createRequestButton;
     private JButton addToMockServiceButton;
-    private Stack<WsdlMonitorMessageExchange> messageExchangeStack = new Stack<WsdlMonitorMessageExchange>();
-    private StackProcessor stackProcessor = new StackProcessor();
+    private MonitorCaptureProcessor captureProcessor;
     private PatternFilter operationFilter;
     private PatternFilter interfaceFilter;
     private PatternFilter targetHostFilter;
@@ -364,7 +362,9 @@ public class SoapMonitor extends JPanel {
     }
 
     protected void updateRowCountLabel() {
-        rowCountLabel.setText(logTable.getRowCount() + "/" + tableModel.getRowCount() + " entries");
+        long dropped = captureProcessor == null ? 0 : captureProcessor.getQueue().getDroppedCount();
+        rowCountLabel.setText(logTable.getRowCount() + "/" + tableModel.getRowCount() + " entries"
+                + (dropped > 0 ? ", " + dropped + " dropped" : ""));
     }
 
     private JComponent buildViewer() {
@@ -463,6 +463,18 @@ public class SoapMonitor extends JPanel {
                 addMessageExchange(messageExchange);
             }
         };
+        if (captureProcessor == null) {
+            // exchanges are processed in capture order on a single thread, decoupled from the proxy threads
+            captureProcessor = new MonitorCaptureProcessor(new MonitorCaptureQueue(), "SoapMonitor processor for project ["
+                    + getProject().getName() + "]") {
+                @Override
+                protected void processMessageExchange(WsdlMonitorMessageExchange messageExchange) {
+                    processMessage(messageExchange);
+                }
+            };
+        }
+        captureProcessor.start();
+
         monitorEngine = new SoapMonitorEngineImpl(sslEndpoint);
         monitorEngine.setIncludedContentTypes(ContentTypes.of(project.getSettings()
                 .getString(SoapMonitorAction.LaunchForm.SET_CONTENT_TYPES, SoapMonitorAction.defaultContentTypes().toString())));
@@ -512,6 +524,9 @@ public class SoapMonitor extends JPanel {
      */
     public void stop() {
         monitorEngine.stop();
+        if (captureProcessor != null) {
+            captureProcessor.stop();
+        }
         if (addedEndpoints != null) {
             for (Interface iface : addedEndpoints.keySet()) {
                 iface.removeEndpoint(addedEndpoints.get(iface));
@@ -1028,59 +1043,24 @@ public class SoapMonitor extends JPanel {
         return listenPort;
     }
 
-    public synchronized void addMessageExchange(WsdlMonitorMessageExchange messageExchange) {
-        messageExchangeStack.push(messageExchange);
+    /**
+     * Queues a captured exchange for processing, called by the proxy threads
+     */
 
-        if (!stackProcessor.isRunning()) {
-            new Thread(stackProcessor, "SoapMonitor StackProcessor for project [" + getProject().getName() + "]")
-                    .start();
+    public void addMessageExchange(WsdlMonitorMessageExchange messageExchange) {
+        MonitorCaptureProcessor processor = captureProcessor;
+        if (processor == null || !processor.offer(messageExchange)) {
+            messageExchange.discard();
         }
     }
 
-    private class StackProcessor implements Runnable {
-        private boolean canceled;
-        private boolean running;
-
-        public void run() {
-            running = true;
-            SoapUI.log.info("Started stackprocessor for soapmonitor in project [" + getProject().getName() + "]");
-            while (!canceled && messageExchangeStack.size() > 0) {
-                WsdlMonitorMessageExchange messageExchange = messageExchangeStack.pop();
-                if (messageExchange != null) {
-                    processMessage(messageExchange);
-                }
-
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-            running = false;
-        }
+    private void processMessage(WsdlMonitorMessageExchange messageExchange) {
+        messageExchange.prepare(project.getWssContainer().getIncomingWssByName(incomingRequestWss), project
+                .getWssContainer().getIncomingWssByName(incomingResponseWss));
 
-        private synchronized void processMessage(WsdlMonitorMessageExchange messageExchange) {
-            messageExchange.prepare(project.getWssContainer().getIncomingWssByName(incomingRequestWss), project
-                    .getWssContainer().getIncomingWssByName(incomingResponseWss));
-
-            tableModel.addMessageExchange(messageExchange);
-
-            listenerCallBack.fireOnMessageExchange(messageExchange);
-        }
+        tableModel.addMessageExchange(messageExchange);
 
-        @SuppressWarnings("unused")
-        public void cancel() {
-            canceled = true;
-        }
-
-        @SuppressWarnings("unused")
-        protected boolean isCanceled() {
-            return canceled;
-        }
-
-        protected boolean isRunning() {
-            return running;
-        }
+        listenerCallBack.fireOnMessageExchange(messageExchange);
     }
 
     public MonitorLogTableModel getLogModel() {
@@ -77,6 +77,10 @@ public class SoapMonitorListenerCallBack {
         }
     }
 
+    public boolean hasListeners() {
+        return !listeners.get().isEmpty();
+    }
+
     public void addSoapMonitorListener(MonitorListener listener) {
         listeners.add(listener);
     }
@@ -265,10 +265,9 @@ public class ProxyServlet implements Servlet {
             }
         }
 
-        synchronized (this) {
-            if (contentTypeMatches(method)) {
-                listenerCallBack.fireAddMessageExchange(capturedData);
-            }
+        // only queues the exchange, no need to serialize the proxy threads
+        if (contentTypeMatches(method)) {
+            listenerCallBack.fireAddMessageExchange(capturedData);
         }
     }
 
@@ -215,9 +215,7 @@ public class TunnelServlet extends ProxyServlet {
 
         IO.copy(new ByteArrayInputStream(capturedData.getRawResponseBody()), httpServletResponse.getOutputStream());
 
-        synchronized (this) {
-            listenerCallBack.fireAddMessageExchange(capturedData);
-        }
+        listenerCallBack.fireAddMessageExchange(capturedData);
 
     }
 
@@ -78,6 +78,14 @@ public class JStatisticsTable extends JPanel {
         columnModel.getColumn(9).setPreferredWidth(20);
         columnModel.getColumn(10).setPreferredWidth(20);
         columnModel.getColumn(11).setPreferredWidth(20);
+        columnModel.getColumn(12).setPreferredWidth(20);
+        columnModel.getColumn(13).setPreferredWidth(20);
+        columnModel.getColumn(14).setPreferredWidth(20);
+        columnModel.getColumn(15).setPreferredWidth(20);
+        columnModel.getColumn(16).setPreferredWidth(20);
+        columnModel.getColumn(17).setPreferredWidth(20);
+        columnModel.getColumn(18).setPreferredWidth(20);
+        columnModel.getColumn(19).setPreferredWidth(20);
 
         JScrollPane scrollPane = new JScrollPane(statisticsTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(3, 3, 3, 3));
@@ -46,6 +46,8 @@ public class WsdlProjectPanelBuilder extends EmptyPanelBuilder<WsdlProject> {
                 table.addProperty("Resource Root", "resourceRoot",
                         new String[]{null, "${projectDir}", "${workspaceDir}"});
                 table.addProperty("Cache Definitions", "cacheDefinitions", JPropertiesTable.BOOLEAN_OPTIONS);
+                table.addProperty("Async HTTP Transport", "asyncHttpTransport", JPropertiesTable.BOOLEAN_OPTIONS);
+                table.addProperty("Max Parallel TestCases", "maxParallelTestCases", true);
                 table.addPropertyShadow("Project Password", "shadowPassword", true);
                 table.addProperty("Script Language", "defaultScriptLanguage",
                         SoapUIScriptEngineRegistry.getAvailableEngineIds());
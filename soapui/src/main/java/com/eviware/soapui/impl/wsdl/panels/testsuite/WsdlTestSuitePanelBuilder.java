@@ -45,6 +45,8 @@ public class WsdlTestSuitePanelBuilder<T extends WsdlTestSuite> extends EmptyPan
         JPropertiesTable<WsdlTestSuite> table = new JPropertiesTable<WsdlTestSuite>("TestSuite Properties", modelItem);
 
         table.addProperty("Name", "name", true);
+        table.addProperty("Max Parallel TestCases", "maxParallelTestCases", true);
+        table.addProperty("Run Longest First", "runLongestFirst", JPropertiesTable.BOOLEAN_OPTIONS);
 
         table.setPropertyObject(modelItem);
 
@@ -17,10 +17,14 @@
 package com.eviware.soapui.impl.wsdl.submit;
 
 import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.impl.wsdl.WsdlProject;
 import com.eviware.soapui.impl.wsdl.submit.filters.*;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.HttpAsyncRequestTransport;
 import com.eviware.soapui.impl.wsdl.submit.transports.http.HttpClientRequestTransport;
 import com.eviware.soapui.impl.wsdl.submit.transports.jms.HermesJmsRequestTransport;
 import com.eviware.soapui.model.iface.SubmitContext;
+import com.eviware.soapui.model.project.Project;
+import com.eviware.soapui.model.support.ModelSupport;
 import com.eviware.soapui.support.factory.SoapUIFactoryRegistryListener;
 
 import java.util.ArrayList;
@@ -45,6 +49,9 @@ public class RequestTransportRegistry {
 
     private static WsdlPackagingRequestFilter wsdlPackagingRequestFilter;
 
+    // not in the transports map since it shares its filters with the http transport
+    private static HttpAsyncRequestTransport asyncHttpTransport;
+
     static {
         HttpClientRequestTransport httpTransport = new HttpClientRequestTransport();
         HermesJmsRequestTransport jmsTransport = new HermesJmsRequestTransport();
@@ -86,6 +93,7 @@ public class RequestTransportRegistry {
 
         transports.put(HTTP, httpTransport);
         transports.put(HTTPS, httpTransport);
+        asyncHttpTransport = new HttpAsyncRequestTransport(httpTransport);
 
         jmsTransport.addRequestFilter(new WssAuthenticationRequestFilter());
         jmsTransport.addRequestFilter(new PropertyExpansionRequestFilter());
@@ -196,6 +204,11 @@ public class RequestTransportRegistry {
 
         String protocol = endpoint.substring(0, ix).toLowerCase();
 
+        if ((protocol.equals(HTTP) || protocol.equals(HTTPS)) && isAsyncHttpTransport(submitContext)
+                && transports.get(protocol) instanceof HttpClientRequestTransport) {
+            return asyncHttpTransport;
+        }
+
         RequestTransport transport = transports.get(protocol);
 
         if (transport == null) {
@@ -205,6 +218,15 @@ public class RequestTransportRegistry {
         return transport;
     }
 
+    private static boolean isAsyncHttpTransport(SubmitContext submitContext) {
+        if (submitContext == null || submitContext.getModelItem() == null) {
+            return false;
+        }
+
+        Project project = ModelSupport.getModelItemProject(submitContext.getModelItem());
+        return project instanceof WsdlProject && ((WsdlProject) project).isAsyncHttpTransport();
+    }
+
     public static synchronized RequestTransport getTransport(String protocol) throws MissingTransportException {
         RequestTransport transport = transports.get(protocol);
 
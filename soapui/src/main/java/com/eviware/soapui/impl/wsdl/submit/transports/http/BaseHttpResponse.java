@@ -57,6 +57,8 @@ public abstract class BaseHttpResponse implements HttpResponse {
     private byte[] rawRequestData;
     private byte[] rawResponseData;
     private byte[] rawResponseBody;
+    private ResponseBodyBuffer responseBodyBuffer;
+    private boolean rawResponseDataHasBody;
     private int requestContentPos = -1;
     private String xmlContent;
     private Attachment[] attachments = new Attachment[0];
@@ -82,7 +84,11 @@ public abstract class BaseHttpResponse implements HttpResponse {
             Settings settings = httpRequest.getSettings();
 
             try {
-                rawResponseBody = httpMethod.getResponseBody();
+                // streamed bodies stay in their buffer until someone asks for them
+                responseBodyBuffer = httpMethod.getResponseBodyBuffer();
+                if (responseBodyBuffer == null) {
+                    rawResponseBody = httpMethod.getResponseBody();
+                }
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -154,7 +160,7 @@ public abstract class BaseHttpResponse implements HttpResponse {
         } catch (ClassCastException cce) {
             attachments = new Attachment[1];
             try {
-                attachments[0] = downloader.createAttachment(rawResponseData, url, httpRequest.get());
+                attachments[0] = downloader.createAttachment(getRawResponseData(), url, httpRequest.get());
             } catch (IOException e) {
                 SoapUI.log.error(e);
             }
@@ -211,9 +217,14 @@ public abstract class BaseHttpResponse implements HttpResponse {
                 }
             }
 
-            if (!httpMethod.isFailed() && httpMethod.hasHttpResponse() && httpMethod.getResponseBody() != null) {
-                rawResponse.write("\r\n".getBytes());
-                rawResponse.write(httpMethod.getResponseBody());
+            if (!httpMethod.isFailed() && httpMethod.hasHttpResponse()) {
+                if (responseBodyBuffer != null) {
+                    rawResponse.write("\r\n".getBytes());
+                    rawResponseDataHasBody = true;
+                } else if (httpMethod.getResponseBody() != null) {
+                    rawResponse.write("\r\n".getBytes());
+                    rawResponse.write(httpMethod.getResponseBody());
+                }
             }
 
             rawResponseData = rawResponse.toByteArray();
@@ -340,13 +351,55 @@ public abstract class BaseHttpResponse implements HttpResponse {
     }
 
     public byte[] getRawResponseData() {
-        return rawResponseData;
+        if (!rawResponseDataHasBody || rawResponseData == null) {
+            return rawResponseData;
+        }
+
+        try {
+            ByteArrayOutputStream rawResponse = new ByteArrayOutputStream();
+            rawResponse.write(rawResponseData);
+            responseBodyBuffer.writeTo(rawResponse);
+            return rawResponse.toByteArray();
+        } catch (IOException e) {
+            SoapUI.logError(e);
+            return rawResponseData;
+        }
     }
 
     public byte[] getRawResponseBody() {
+        if (responseBodyBuffer != null) {
+            try {
+                return responseBodyBuffer.toByteArray();
+            } catch (IOException e) {
+                SoapUI.logError(e);
+            }
+        }
+
         return rawResponseBody;
     }
 
+    /**
+     * Returns the buffer holding the response body if response streaming is enabled, otherwise null
+     */
+
+    public ResponseBodyBuffer getResponseBodyBuffer() {
+        return responseBodyBuffer;
+    }
+
+    /**
+     * Releases the buffer of a streamed response body and deletes its temporary file, the body is not
+     * available afterwards
+     */
+
+    public void release() {
+        ResponseBodyBuffer buffer = responseBodyBuffer;
+        responseBodyBuffer = null;
+
+        if (buffer != null) {
+            buffer.release();
+        }
+    }
+
     public String getMethod() {
         return method;
     }
@@ -75,6 +75,12 @@ public interface ExtendedHttpMethod extends HttpRequest, HttpUriRequest {
 
     byte[] getResponseBody() throws IOException;
 
+    /**
+     * Returns the buffered response body if response streaming is enabled, otherwise null
+     */
+
+    ResponseBodyBuffer getResponseBodyBuffer() throws IOException;
+
     String getResponseBodyAsString() throws IOException;
 
     HttpEntity getRequestEntity();
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.submit.transports.http;
+
+import com.eviware.soapui.impl.wsdl.support.http.SoapUIAsyncHttpClient;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+
+/**
+ * HTTP transport sending requests over the non-blocking SoapUIAsyncHttpClient, enabled per project. It
+ * shares the RequestFilters of the blocking HttpClientRequestTransport and falls back to it for requests
+ * the async client can not handle (proxies, authentication challenges, per-request client certificates).
+ */
+
+public class HttpAsyncRequestTransport extends HttpClientRequestTransport {
+    public HttpAsyncRequestTransport(HttpClientRequestTransport httpTransport) {
+        super(httpTransport.getRequestFilters());
+    }
+
+    @Override
+    protected org.apache.http.HttpResponse submitRequest(ExtendedHttpMethod httpMethod, HttpContext httpContext)
+            throws IOException {
+        if (!SoapUIAsyncHttpClient.canExecute(httpMethod, httpContext)) {
+            return super.submitRequest(httpMethod, httpContext);
+        }
+
+        return SoapUIAsyncHttpClient.getInstance().execute(httpMethod, httpContext);
+    }
+}
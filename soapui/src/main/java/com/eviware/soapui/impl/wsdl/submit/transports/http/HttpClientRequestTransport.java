@@ -61,9 +61,22 @@ import java.util.List;
  */
 
 public class HttpClientRequestTransport implements BaseHttpRequestTransport {
-    private List<RequestFilter> filters = new ArrayList<RequestFilter>();
+    private final List<RequestFilter> filters;
 
     public HttpClientRequestTransport() {
+        this(new ArrayList<RequestFilter>());
+    }
+
+    /**
+     * Creates a transport using the specified list of filters, which may be shared with other transports
+     */
+
+    protected HttpClientRequestTransport(List<RequestFilter> filters) {
+        this.filters = filters;
+    }
+
+    protected List<RequestFilter> getRequestFilters() {
+        return filters;
     }
 
     public void addRequestFilter(RequestFilter filter) {
@@ -52,6 +52,8 @@ public class HttpMethodSupport {
     private long responseReadTime;
 
     private byte[] responseBody;
+    private long streamingThreshold;
+    private ResponseBodyBuffer responseBodyBuffer;
 
     private SSLInfo sslInfo;
     private String dumpFile;
@@ -63,6 +65,7 @@ public class HttpMethodSupport {
 
     public HttpMethodSupport() {
         decompress = !SoapUI.getSettings().getBoolean(HttpSettings.DISABLE_RESPONSE_DECOMPRESSION);
+        streamingThreshold = SoapUI.getSettings().getLong(HttpSettings.RESPONSE_STREAMING_THRESHOLD, 0);
         metrics = new SoapUIMetrics(new HttpTransportMetricsImpl(), new HttpTransportMetricsImpl());
     }
 
@@ -74,6 +77,14 @@ public class HttpMethodSupport {
         this.decompress = decompress;
     }
 
+    public long getStreamingThreshold() {
+        return streamingThreshold;
+    }
+
+    public void setStreamingThreshold(long streamingThreshold) {
+        this.streamingThreshold = streamingThreshold;
+    }
+
     public String getDumpFile() {
         return dumpFile;
     }
@@ -142,11 +153,21 @@ public class HttpMethodSupport {
     }
 
     public byte[] getDecompressedResponseBody() throws IOException {
+        byte[] body = responseBody;
+        if (responseBodyBuffer != null) {
+            // streamed bodies are decompressed while they are read
+            if (decompress) {
+                return responseBodyBuffer.toByteArray();
+            }
+
+            body = responseBodyBuffer.toByteArray();
+        }
+
         if (hasHttpResponse()) {
             String compressionAlg = HttpClientSupport.getResponseCompressionType(httpResponse);
             if (compressionAlg != null) {
                 try {
-                    return CompressionSupport.decompress(compressionAlg, responseBody);
+                    return CompressionSupport.decompress(compressionAlg, body);
                 } catch (Exception e) {
                     IOException ioe = new IOException("Decompression of response failed");
                     ioe.initCause(e);
@@ -155,7 +176,7 @@ public class HttpMethodSupport {
             }
         }
 
-        return responseBody;
+        return body;
     }
 
     /**
@@ -212,7 +233,7 @@ public class HttpMethodSupport {
     }
 
     public boolean hasResponse() {
-        return responseBody != null;
+        return responseBody != null || responseBodyBuffer != null;
     }
 
     public org.apache.http.HttpResponse getHttpResponse() {
@@ -232,6 +253,10 @@ public class HttpMethodSupport {
             return responseBody;
         }
 
+        if (getResponseBodyBuffer() != null) {
+            return responseBodyBuffer.toByteArray();
+        }
+
         if (hasHttpResponse() && httpResponse.getEntity() != null) {
             long now = System.nanoTime();
             HttpEntity bufferedEntity = new BufferedHttpEntity(httpResponse.getEntity());
@@ -302,6 +327,87 @@ public class HttpMethodSupport {
         return responseBody;
     }
 
+    /**
+     * Returns the response body buffered in memory up to the streaming threshold and in a temporary file
+     * beyond it, reading it from the response on first access, or null if response streaming is disabled
+     */
+
+    public ResponseBodyBuffer getResponseBodyBuffer() throws IOException {
+        if (responseBodyBuffer != null || responseBody != null || streamingThreshold <= 0) {
+            return responseBodyBuffer;
+        }
+
+        if (hasHttpResponse() && httpResponse.getEntity() != null) {
+            long now = System.nanoTime();
+            HttpEntity entity = httpResponse.getEntity();
+            if (metrics != null) {
+                metrics.setContentLength(entity.getContentLength());
+            }
+
+            String compressionAlg = decompress ? HttpClientSupport.getResponseCompressionType(httpResponse) : null;
+
+            // already buffered by the async client, take it over unless it has to be decompressed or truncated
+            if (entity instanceof ResponseBodyBufferEntity && compressionAlg == null) {
+                ResponseBodyBuffer buffer = ((ResponseBodyBufferEntity) entity).getBuffer();
+                if (maxSize == 0 || buffer.size() <= maxSize) {
+                    responseBodyBuffer = buffer;
+                    dumpResponseBody(buffer);
+                    return responseBodyBuffer;
+                }
+            }
+
+            ResponseBodyBuffer buffer = new ResponseBodyBuffer(streamingThreshold);
+            InputStream instream = entity.getContent();
+
+            try {
+                if (instream != null) {
+                    if (compressionAlg != null) {
+                        try {
+                            instream = CompressionSupport.createDecompressionInputStream(compressionAlg, instream);
+                        } catch (Exception e) {
+                            IOException ioe = new IOException("Decompression of response failed");
+                            ioe.initCause(e);
+                            throw ioe;
+                        }
+                    }
+
+                    Tools.readAndWrite(instream, maxSize, buffer);
+                }
+            } finally {
+                buffer.close();
+                if (instream != null) {
+                    instream.close();
+                }
+
+                releaseBufferEntity(entity);
+            }
+
+            responseReadTime = System.nanoTime() - now;
+            dumpResponseBody(buffer);
+            responseBodyBuffer = buffer;
+        }
+
+        return responseBodyBuffer;
+    }
+
+    private void dumpResponseBody(ResponseBodyBuffer buffer) {
+        try {
+            if (StringUtils.hasContent(dumpFile)) {
+                FileOutputStream fileOutputStream = new FileOutputStream(dumpFile);
+                buffer.writeTo(fileOutputStream);
+                fileOutputStream.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void releaseBufferEntity(HttpEntity entity) {
+        if (entity instanceof ResponseBodyBufferEntity) {
+            ((ResponseBodyBufferEntity) entity).getBuffer().release();
+        }
+    }
+
     public SoapUIMetrics getMetrics() {
         return metrics;
     }
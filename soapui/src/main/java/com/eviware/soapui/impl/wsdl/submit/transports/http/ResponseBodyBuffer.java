@@ -0,0 +1,170 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.submit.transports.http;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.log4j.Logger;
+
+import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.support.SpillFiles;
+import com.eviware.soapui.support.Tools;
+
+/**
+ * Holds a response body that is kept in memory up to a threshold and spilled to a temporary file beyond
+ * that, so large responses can be read incrementally instead of being held as byte arrays and Strings.
+ * <p/>
+ * The temporary file is deleted by {@link #release()}, which is called when the owning response is released;
+ * files of buffers that are dropped without being released are removed with the {@link SpillFiles} directory.
+ */
+
+public class ResponseBodyBuffer extends OutputStream {
+    private final static Logger log = Logger.getLogger(ResponseBodyBuffer.class);
+
+    private final long threshold;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private File file;
+    private OutputStream fileOut;
+    private long size;
+
+    public ResponseBodyBuffer(long threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        if (file == null && size + len > threshold) {
+            spill();
+        } else if (file != null && fileOut == null) {
+            throw new IOException("Response body buffer has been closed");
+        }
+
+        if (fileOut != null) {
+            fileOut.write(b, off, len);
+        } else {
+            memory.write(b, off, len);
+        }
+
+        size += len;
+    }
+
+    private void spill() throws IOException {
+        file = SpillFiles.createTempFile("soapui-response-");
+        fileOut = new BufferedOutputStream(new FileOutputStream(file));
+        memory.writeTo(fileOut);
+        memory = null;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (fileOut != null) {
+            fileOut.close();
+            fileOut = null;
+        }
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    public synchronized boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * Returns a new stream over the buffered content; the buffer must have been closed
+     */
+
+    public synchronized InputStream getInputStream() throws IOException {
+        if (fileOut != null) {
+            throw new IOException("Response body is still being written");
+        }
+
+        if (file != null) {
+            return new BufferedInputStream(new FileInputStream(file));
+        }
+
+        return memory == null ? new ByteArrayInputStream(new byte[0]) : new ByteArrayInputStream(memory.toByteArray());
+    }
+
+    /**
+     * Materializes the complete content; each call creates a new copy
+     */
+
+    public synchronized byte[] toByteArray() throws IOException {
+        if (file == null) {
+            return memory == null ? new byte[0] : memory.toByteArray();
+        }
+
+        InputStream in = getInputStream();
+        try {
+            return Tools.readAll(in, 0).toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        if (file == null) {
+            if (memory != null) {
+                memory.writeTo(out);
+            }
+            return;
+        }
+
+        InputStream in = getInputStream();
+        try {
+            Tools.writeAll(out, in);
+        } finally {
+            in.close();
+        }
+    }
+
+    public synchronized void release() {
+        try {
+            close();
+        } catch (IOException e) {
+            SoapUI.logError(e);
+        }
+
+        if (file != null && !file.delete()) {
+            log.warn("Failed to delete response body file [" + file + "], it is removed with the spill directory");
+        }
+
+        file = null;
+        memory = null;
+        size = 0;
+    }
+
+    synchronized File getFile() {
+        return file;
+    }
+}
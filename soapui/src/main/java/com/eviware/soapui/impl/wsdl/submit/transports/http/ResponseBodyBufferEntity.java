@@ -0,0 +1,61 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.submit.transports.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+/**
+ * Response entity over a ResponseBodyBuffer that has already been read from the connection, so that the
+ * HttpMethod can take over the buffer instead of reading the body again
+ */
+
+public class ResponseBodyBufferEntity extends AbstractHttpEntity {
+    private final ResponseBodyBuffer buffer;
+
+    public ResponseBodyBufferEntity(ResponseBodyBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public ResponseBodyBuffer getBuffer() {
+        return buffer;
+    }
+
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    public long getContentLength() {
+        return buffer.size();
+    }
+
+    public InputStream getContent() throws IOException {
+        return buffer.getInputStream();
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        buffer.writeTo(out);
+    }
+
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -16,8 +16,15 @@
 
 package com.eviware.soapui.impl.wsdl.submit.transports.http;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 
+import org.apache.commons.io.IOUtils;
+
 import com.eviware.soapui.SoapUI;
 import com.eviware.soapui.impl.support.AbstractHttpRequest;
 import com.eviware.soapui.impl.support.AbstractHttpRequestInterface;
@@ -38,6 +45,9 @@ public class SinglePartHttpResponse extends BaseHttpResponse {
     private String requestContent;
     private boolean prettyPrint;
     private long responseSize;
+    private String responseCharset;
+    private int contentOffset;
+    private boolean contentLoaded;
 
     public SinglePartHttpResponse(AbstractHttpRequestInterface<?> httpRequest, ExtendedHttpMethod httpMethod,
                                   String requestContent, PropertyExpansionContext context) {
@@ -48,13 +58,19 @@ public class SinglePartHttpResponse extends BaseHttpResponse {
         }
 
         try {
-            byte[] responseBody = httpMethod.getResponseBody();
-            int contentOffset = 0;
-            if (responseBody == null) {
-                responseBody = new byte[0];
-            }
+            ResponseBodyBuffer buffer = getResponseBodyBuffer();
+            byte[] responseBody;
+            if (buffer != null) {
+                responseSize = buffer.size();
+                responseBody = readHead(buffer, 3);
+            } else {
+                responseBody = httpMethod.getResponseBody();
+                if (responseBody == null) {
+                    responseBody = new byte[0];
+                }
 
-            responseSize = responseBody.length;
+                responseSize = responseBody.length;
+            }
 
             String contentType = httpMethod.getResponseContentType();
             String charset = httpMethod.getResponseCharSet();
@@ -72,14 +88,20 @@ public class SinglePartHttpResponse extends BaseHttpResponse {
             }
 
             charset = StringUtils.unquote(charset);
+            responseCharset = charset;
+
+            // a streamed body is only turned into a String when it is asked for
+            if (buffer == null) {
+                try {
+                    responseContent = responseBody.length == 0 ? null : charset == null ? new String(responseBody,
+                            contentOffset, (int) (responseSize - contentOffset)) : new String(responseBody,
+                            contentOffset, (int) (responseSize - contentOffset), charset);
+                } catch (UnsupportedEncodingException e) {
+                    SoapUI.getErrorLog().warn(e.toString());
+                    responseContent = new String(responseBody, contentOffset, (int) (responseSize - contentOffset));
+                }
 
-            try {
-                responseContent = responseBody.length == 0 ? null : charset == null ? new String(responseBody,
-                        contentOffset, (int) (responseSize - contentOffset)) : new String(responseBody, contentOffset,
-                        (int) (responseSize - contentOffset), charset);
-            } catch (UnsupportedEncodingException e) {
-                SoapUI.getErrorLog().warn(e.toString());
-                responseContent = new String(responseBody, contentOffset, (int) (responseSize - contentOffset));
+                contentLoaded = true;
             }
 
             prettyPrint = httpRequest.getSettings().getBoolean(WsdlSettings.PRETTY_PRINT_RESPONSE_MESSAGES);
@@ -88,7 +110,82 @@ public class SinglePartHttpResponse extends BaseHttpResponse {
         }
     }
 
+    private static byte[] readHead(ResponseBodyBuffer buffer, int length) throws IOException {
+        byte[] head = new byte[(int) Math.min(length, buffer.size())];
+        InputStream in = buffer.getInputStream();
+        try {
+            IOUtils.readFully(in, head);
+        } finally {
+            in.close();
+        }
+
+        return head;
+    }
+
+    private synchronized void loadContent() {
+        if (contentLoaded) {
+            return;
+        }
+
+        ResponseBodyBuffer buffer = getResponseBodyBuffer();
+        if (buffer != null && responseSize > 0) {
+            Reader reader = null;
+            try {
+                reader = openContentReader(buffer);
+                responseContent = IOUtils.toString(reader);
+            } catch (IOException e) {
+                SoapUI.logError(e);
+            } finally {
+                IOUtils.closeQuietly(reader);
+            }
+        }
+
+        contentLoaded = true;
+    }
+
+    private Reader openContentReader(ResponseBodyBuffer buffer) throws IOException {
+        InputStream in = buffer.getInputStream();
+        IOUtils.skipFully(in, contentOffset);
+
+        if (responseCharset == null) {
+            return new InputStreamReader(in);
+        }
+
+        try {
+            return new InputStreamReader(in, responseCharset);
+        } catch (UnsupportedEncodingException e) {
+            SoapUI.getErrorLog().warn(e.toString());
+            return new InputStreamReader(in);
+        }
+    }
+
+    /**
+     * Returns true if the content has not been turned into a String yet and can be read incrementally with
+     * getContentAsReader, as it would be returned by getContentAsString
+     */
+
+    public synchronized boolean isContentStreamable() {
+        return !contentLoaded && !prettyPrint && getResponseBodyBuffer() != null;
+    }
+
+    /**
+     * Reads the content without turning it into a String if it is streamable
+     */
+
+    public Reader getContentAsReader() throws IOException {
+        synchronized (this) {
+            if (isContentStreamable()) {
+                return responseSize == 0 ? new StringReader("") : openContentReader(getResponseBodyBuffer());
+            }
+        }
+
+        String content = getContentAsString();
+        return new StringReader(content == null ? "" : content);
+    }
+
     public String getContentAsString() {
+        loadContent();
+
         if (prettyPrint) {
             responseContent = XmlUtils.prettyPrintXml(responseContent);
             prettyPrint = false;
@@ -98,6 +195,7 @@ public class SinglePartHttpResponse extends BaseHttpResponse {
     }
 
     protected String getResponseContent() {
+        loadContent();
         return responseContent;
     }
 
@@ -112,6 +210,7 @@ public class SinglePartHttpResponse extends BaseHttpResponse {
     public void setResponseContent(String responseContent) {
         String oldContent = this.responseContent;
         this.responseContent = responseContent;
+        contentLoaded = true;
 
         ((AbstractHttpRequest<?>) getRequest()).notifyPropertyChanged(WsdlRequest.RESPONSE_CONTENT_PROPERTY,
                 oldContent, responseContent);
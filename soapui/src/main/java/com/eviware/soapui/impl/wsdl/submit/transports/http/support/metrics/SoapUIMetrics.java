@@ -24,6 +24,10 @@ import org.apache.http.io.HttpTransportMetrics;
 import com.eviware.soapui.support.DateUtil;
 
 public class SoapUIMetrics extends HttpConnectionMetricsImpl {
+    public static final int NO_HANDSHAKE = 0;
+    public static final int FULL_HANDSHAKE = 1;
+    public static final int RESUMED_HANDSHAKE = 2;
+
     private long timestamp = -1;
     private int httpStatus = -1;
     private long contentLength = -1;
@@ -31,6 +35,7 @@ public class SoapUIMetrics extends HttpConnectionMetricsImpl {
     private String httpMethod = "";
     private String ipAddress = "";
     private int port = -1;
+    private int tlsHandshake = NO_HANDSHAKE;
 
     private final Stopwatch readTimer;
     private final Stopwatch totalTimer;
@@ -58,6 +63,7 @@ public class SoapUIMetrics extends HttpConnectionMetricsImpl {
 
         httpStatus = -1;
         contentLength = -1;
+        tlsHandshake = NO_HANDSHAKE;
 
         done = true;
     }
@@ -90,6 +96,20 @@ public class SoapUIMetrics extends HttpConnectionMetricsImpl {
         return totalTimer;
     }
 
+    /**
+     * Returns NO_HANDSHAKE if the request was sent on a reused or plain connection, otherwise whether the TLS
+     * session of the new connection was negotiated (FULL_HANDSHAKE) or resumed (RESUMED_HANDSHAKE). Resumption
+     * is detected by session ID, so resumed TLS 1.3 sessions are reported as FULL_HANDSHAKE.
+     */
+
+    public int getTlsHandshake() {
+        return tlsHandshake;
+    }
+
+    public void setTlsHandshake(int tlsHandshake) {
+        this.tlsHandshake = tlsHandshake;
+    }
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -35,6 +35,7 @@ import com.eviware.soapui.model.testsuite.TestRunnable;
 import com.eviware.soapui.model.testsuite.TestStep;
 import com.eviware.soapui.model.testsuite.TestStepResult;
 import com.eviware.soapui.model.testsuite.TestStepResult.TestStepStatus;
+import com.eviware.soapui.support.xml.ParsedContentCache;
 import com.eviware.soapui.support.types.StringToObjectMap;
 
 /**
@@ -225,6 +226,9 @@ public abstract class AbstractTestCaseRunner<T extends TestRunnable, T2 extends
             }
         }
 
+        // documents parsed for this step are not kept for the rest of the run
+        ParsedContentCache.release(getRunContext());
+
         // discard?
         // if( discard && stepResult.getStatus() == TestStepStatus.OK &&
         // getTestRunnable().getDiscardOkResults()
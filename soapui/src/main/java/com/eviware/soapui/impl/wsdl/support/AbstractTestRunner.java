@@ -189,7 +189,9 @@ public abstract class AbstractTestRunner<T extends TestRunnable, T2 extends Test
         return testRunnable;
     }
 
-    public synchronized Status waitUntilFinished() {
+    public Status waitUntilFinished() {
+        // not synchronized, blocking on the future while holding a monitor would pin a virtual thread
+        Future<?> future = this.future;
         if (future != null) {
             if (!future.isDone()) {
                 try {
@@ -0,0 +1,564 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.http;
+
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Connection pool of the SoapUIAsyncHttpClient. Limits the number of connections per route and in total,
+ * queues requests until a connection or a free slot is available and closes connections that have been idle
+ * for longer than their keep-alive time.
+ * <p/>
+ * Connections are counted from the moment a slot is granted until the connection is closed, so connects in
+ * progress count against the limits too. Requests are notified through their PoolRequest callbacks, which are
+ * never called while the pool is locked.
+ */
+
+class AsyncConnectionPool {
+    public static final long DEFAULT_KEEP_ALIVE = 30000;
+
+    private final static Logger log = Logger.getLogger(AsyncConnectionPool.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, RouteState> routes = new HashMap<String, RouteState>();
+    private final Map<NHttpClientConnection, RouteState> connections = new HashMap<NHttpClientConnection, RouteState>();
+    private final LinkedList<PoolRequest> pending = new LinkedList<PoolRequest>();
+    private int allocated;
+
+    private int maxTotal;
+    private int defaultMaxPerRoute;
+    private String routePoliciesValue = "";
+    private Map<String, RouteConnectionPolicy> routePolicies = Collections.emptyMap();
+
+    /**
+     * A request for a connection to a route
+     */
+
+    interface PoolRequest {
+        String getRoute();
+
+        String getHostName();
+
+        int getPort();
+
+        /**
+         * The time in milliseconds after which a queued request fails, or 0 to wait until a connection is available
+         */
+
+        long getLeaseDeadline();
+
+        /**
+         * Called with a pooled connection the request is to be sent on
+         */
+
+        void connectionLeased(NHttpClientConnection conn);
+
+        /**
+         * Called when the request may open a new connection, which must be reported with connected or
+         * connectFailed
+         */
+
+        void connectionGranted();
+
+        void leaseFailed(IOException e);
+    }
+
+    public AsyncConnectionPool(int maxTotal, int defaultMaxPerRoute) {
+        this.maxTotal = maxTotal;
+        this.defaultMaxPerRoute = defaultMaxPerRoute;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        List<Runnable> callbacks = new ArrayList<Runnable>();
+        List<NHttpClientConnection> closing = new ArrayList<NHttpClientConnection>();
+
+        lock.lock();
+        try {
+            this.maxTotal = maxTotal;
+            processPending(callbacks, closing);
+        } finally {
+            lock.unlock();
+        }
+
+        run(callbacks, closing);
+    }
+
+    public void setDefaultMaxPerRoute(int defaultMaxPerRoute) {
+        List<Runnable> callbacks = new ArrayList<Runnable>();
+        List<NHttpClientConnection> closing = new ArrayList<NHttpClientConnection>();
+
+        lock.lock();
+        try {
+            this.defaultMaxPerRoute = defaultMaxPerRoute;
+            for (RouteState state : routes.values()) {
+                state.updateLimits();
+            }
+            processPending(callbacks, closing);
+        } finally {
+            lock.unlock();
+        }
+
+        run(callbacks, closing);
+    }
+
+    /**
+     * Replaces the per-route connection limits and keep-alive times with the ones in the specified Route
+     * Connection Policies setting value, does nothing if the value is unchanged
+     */
+
+    public void setRouteConnectionPolicies(String value) {
+        value = value == null ? "" : value;
+
+        List<Runnable> callbacks = new ArrayList<Runnable>();
+        List<NHttpClientConnection> closing = new ArrayList<NHttpClientConnection>();
+
+        lock.lock();
+        try {
+            if (value.equals(routePoliciesValue)) {
+                return;
+            }
+
+            routePoliciesValue = value;
+            routePolicies = RouteConnectionPolicy.parse(value);
+            for (RouteState state : routes.values()) {
+                state.updateLimits();
+            }
+            processPending(callbacks, closing);
+        } finally {
+            lock.unlock();
+        }
+
+        run(callbacks, closing);
+    }
+
+    /**
+     * Leases a pooled connection, grants a new connection or queues the request until either is possible
+     */
+
+    public void lease(PoolRequest request) {
+        List<Runnable> callbacks = new ArrayList<Runnable>();
+        List<NHttpClientConnection> closing = new ArrayList<NHttpClientConnection>();
+
+        lock.lock();
+        try {
+            if (!tryLease(request, callbacks, closing)) {
+                pending.add(request);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        run(callbacks, closing);
+    }
+
+    /**
+     * Removes a queued request, returns false if it was not waiting for a connection
+     */
+
+    public boolean cancel(PoolRequest request) {
+        lock.lock();
+        try {
+            return pending.remove(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers the connection opened for a granted request
+     */
+
+    public void connected(String route, NHttpClientConnection conn) {
+        lock.lock();
+        try {
+            connections.put(conn, getRouteState(route));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot of a granted request that did not result in a connection
+     */
+
+    public void connectFailed(String route) {
+        List<Runnable> callbacks = new ArrayList<Runnable>();
+        List<NHttpClientConnection> closing = new ArrayList<NHttpClientConnection>();
+
+        lock.lock();
+        try {
+            deallocate(getRouteState(route));
+            processPending(callbacks, closing);
+        } finally {
+            lock.unlock();
+        }
+
+        run(callbacks, closing);
+    }
+
+    /**
+     * Returns a connection that can be reused, it is handed to the next request for its route or kept idle
+     */
+
+    public void release(NHttpClientConnection conn) {
+        List<Runnable> callbacks = new ArrayList<Runnable>();
+        List<NHttpClientConnection> closing = new ArrayList<NHttpClientConnection>();
+
+        lock.lock();
+        try {
+            RouteState state = connections.get(conn);
+            if (state == null || state.keepAlive == 0 || !conn.isOpen()) {
+                // slot is freed by connectionClosed
+                closing.add(conn);
+            } else {
+                PoolRequest next = removePending(state.route);
+                if (next != null) {
+                    callbacks.add(leased(next, conn));
+                } else if (allocated >= maxTotal && isWaitingForTotalLimit()) {
+                    // others are waiting for a slot, which is freed when this connection is closed
+                    closing.add(conn);
+                } else {
+                    state.idle.add(new IdleConnection(conn, System.currentTimeMillis()));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        run(callbacks, closing);
+    }
+
+    /**
+     * Removes a closed or failed connection from the pool and frees its slot
+     */
+
+    public void connectionClosed(NHttpClientConnection conn) {
+        List<Runnable> callbacks = new ArrayList<Runnable>();
+        List<NHttpClientConnection> closing = new ArrayList<NHttpClientConnection>();
+
+        lock.lock();
+        try {
+            RouteState state = connections.remove(conn);
+            if (state == null) {
+                return;
+            }
+
+            removeIdle(state, conn);
+            deallocate(state);
+            processPending(callbacks, closing);
+        } finally {
+            lock.unlock();
+        }
+
+        run(callbacks, closing);
+    }
+
+    /**
+     * Closes connections idle for longer than their keep-alive time and fails queued requests past their deadline
+     */
+
+    public void closeExpired(long now) {
+        List<Runnable> callbacks = new ArrayList<Runnable>();
+        List<NHttpClientConnection> closing = new ArrayList<NHttpClientConnection>();
+
+        lock.lock();
+        try {
+            for (RouteState state : routes.values()) {
+                for (Iterator<IdleConnection> i = state.idle.iterator(); i.hasNext(); ) {
+                    IdleConnection idle = i.next();
+                    if (now - idle.since >= state.keepAlive || !idle.conn.isOpen()) {
+                        i.remove();
+                        discard(state, idle.conn, closing);
+                    }
+                }
+            }
+
+            for (Iterator<PoolRequest> i = pending.iterator(); i.hasNext(); ) {
+                final PoolRequest request = i.next();
+                if (request.getLeaseDeadline() > 0 && request.getLeaseDeadline() <= now) {
+                    i.remove();
+                    callbacks.add(new Runnable() {
+                        public void run() {
+                            request.leaseFailed(new ConnectionPoolTimeoutException("Timeout waiting for connection to "
+                                    + request.getRoute()));
+                        }
+                    });
+                }
+            }
+
+            processPending(callbacks, closing);
+        } finally {
+            lock.unlock();
+        }
+
+        run(callbacks, closing);
+    }
+
+    /**
+     * Closes all idle connections and fails all queued requests
+     */
+
+    public void shutdown() {
+        List<Runnable> callbacks = new ArrayList<Runnable>();
+        List<NHttpClientConnection> closing = new ArrayList<NHttpClientConnection>();
+
+        lock.lock();
+        try {
+            for (RouteState state : routes.values()) {
+                while (!state.idle.isEmpty()) {
+                    discard(state, state.idle.removeFirst().conn, closing);
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                final PoolRequest request = pending.removeFirst();
+                callbacks.add(new Runnable() {
+                    public void run() {
+                        request.leaseFailed(new IOException("Connection pool shut down"));
+                    }
+                });
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        run(callbacks, closing);
+    }
+
+    public int getAllocatedCount() {
+        lock.lock();
+        try {
+            return allocated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleCount(String route) {
+        lock.lock();
+        try {
+            RouteState state = routes.get(route);
+            return state == null ? 0 : state.idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryLease(PoolRequest request, List<Runnable> callbacks, List<NHttpClientConnection> closing) {
+        RouteState state = getRouteState(request.getRoute());
+        if (state.hostName == null) {
+            state.hostName = request.getHostName();
+            state.port = request.getPort();
+            state.updateLimits();
+        }
+
+        while (!state.idle.isEmpty()) {
+            NHttpClientConnection conn = state.idle.removeLast().conn;
+            if (conn.isOpen()) {
+                callbacks.add(leased(request, conn));
+                return true;
+            }
+
+            discard(state, conn, closing);
+        }
+
+        if (state.allocated >= state.maxConnections) {
+            return false;
+        }
+
+        if (allocated >= maxTotal && !evictIdle(closing)) {
+            return false;
+        }
+
+        state.allocated++;
+        allocated++;
+        callbacks.add(granted(request));
+        return true;
+    }
+
+    private void processPending(List<Runnable> callbacks, List<NHttpClientConnection> closing) {
+        for (Iterator<PoolRequest> i = pending.iterator(); i.hasNext(); ) {
+            if (tryLease(i.next(), callbacks, closing)) {
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Closes the oldest idle connection of any route to make room for a new one
+     */
+
+    private boolean evictIdle(List<NHttpClientConnection> closing) {
+        RouteState oldestState = null;
+        for (RouteState state : routes.values()) {
+            if (!state.idle.isEmpty()
+                    && (oldestState == null || state.idle.getFirst().since < oldestState.idle.getFirst().since)) {
+                oldestState = state;
+            }
+        }
+
+        if (oldestState == null) {
+            return false;
+        }
+
+        discard(oldestState, oldestState.idle.removeFirst().conn, closing);
+        return true;
+    }
+
+    private void discard(RouteState state, NHttpClientConnection conn, List<NHttpClientConnection> closing) {
+        if (connections.remove(conn) != null) {
+            deallocate(state);
+        }
+
+        closing.add(conn);
+    }
+
+    private void deallocate(RouteState state) {
+        if (state.allocated > 0) {
+            state.allocated--;
+            allocated--;
+        }
+    }
+
+    private void removeIdle(RouteState state, NHttpClientConnection conn) {
+        for (Iterator<IdleConnection> i = state.idle.iterator(); i.hasNext(); ) {
+            if (i.next().conn == conn) {
+                i.remove();
+                return;
+            }
+        }
+    }
+
+    private boolean isWaitingForTotalLimit() {
+        for (PoolRequest request : pending) {
+            RouteState state = routes.get(request.getRoute());
+            if (state == null || state.allocated < state.maxConnections) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private PoolRequest removePending(String route) {
+        for (Iterator<PoolRequest> i = pending.iterator(); i.hasNext(); ) {
+            PoolRequest request = i.next();
+            if (request.getRoute().equals(route)) {
+                i.remove();
+                return request;
+            }
+        }
+
+        return null;
+    }
+
+    private RouteState getRouteState(String route) {
+        RouteState state = routes.get(route);
+        if (state == null) {
+            state = new RouteState(route);
+            routes.put(route, state);
+        }
+
+        return state;
+    }
+
+    private static Runnable leased(final PoolRequest request, final NHttpClientConnection conn) {
+        return new Runnable() {
+            public void run() {
+                request.connectionLeased(conn);
+            }
+        };
+    }
+
+    private static Runnable granted(final PoolRequest request) {
+        return new Runnable() {
+            public void run() {
+                request.connectionGranted();
+            }
+        };
+    }
+
+    private static void run(List<Runnable> callbacks, List<NHttpClientConnection> closing) {
+        for (NHttpClientConnection conn : closing) {
+            try {
+                conn.close();
+            } catch (IOException e) {
+                log.debug("Failed to close pooled connection: " + e);
+            }
+        }
+
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    private class RouteState {
+        private final String route;
+        private final LinkedList<IdleConnection> idle = new LinkedList<IdleConnection>();
+        private String hostName;
+        private int port;
+        private int allocated;
+        private int maxConnections;
+        private long keepAlive = DEFAULT_KEEP_ALIVE;
+
+        public RouteState(String route) {
+            this.route = route;
+            maxConnections = defaultMaxPerRoute;
+        }
+
+        public void updateLimits() {
+            RouteConnectionPolicy policy = RouteConnectionPolicy.find(routePolicies, hostName, port);
+
+            maxConnections = policy != null && policy.getMaxConnections() > 0 ? policy.getMaxConnections()
+                    : defaultMaxPerRoute;
+            keepAlive = policy != null && policy.getKeepAliveSeconds() >= 0 ? policy.getKeepAliveSeconds() * 1000L
+                    : DEFAULT_KEEP_ALIVE;
+        }
+    }
+
+    private static class IdleConnection {
+        private final NHttpClientConnection conn;
+        private final long since;
+
+        public IdleConnection(NHttpClientConnection conn, long since) {
+            this.conn = conn;
+            this.since = since;
+        }
+    }
+}
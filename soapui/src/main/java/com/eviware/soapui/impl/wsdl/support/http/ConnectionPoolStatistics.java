@@ -0,0 +1,221 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+import com.eviware.soapui.impl.wsdl.loadtest.data.LatencyHistogram;
+
+/**
+ * Lease wait times, pool occupancy and connection reuse of a SoapUIMultiThreadedHttpConnectionManager
+ */
+
+public class ConnectionPoolStatistics implements ConnectionPoolStatisticsMBean {
+    private final static Logger log = Logger.getLogger(ConnectionPoolStatistics.class);
+
+    public static final String OBJECT_NAME = "com.eviware.soapui:type=HttpConnectionPool";
+
+    private final SoapUIMultiThreadedHttpConnectionManager connectionManager;
+    private final LatencyHistogram leaseWaitHistogram = new LatencyHistogram();
+    private final AtomicInteger pendingRequests = new AtomicInteger();
+    private final AtomicInteger leasedConnections = new AtomicInteger();
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong leaseTimeoutCount = new AtomicLong();
+    private final AtomicLong newConnectionCount = new AtomicLong();
+    private ObjectName registeredName;
+
+    public ConnectionPoolStatistics(SoapUIMultiThreadedHttpConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    void leaseRequested() {
+        pendingRequests.incrementAndGet();
+    }
+
+    void leaseCompleted(long waitMillis, boolean leased) {
+        pendingRequests.decrementAndGet();
+        leaseWaitHistogram.recordValue(waitMillis);
+
+        if (leased) {
+            leaseCount.incrementAndGet();
+            leasedConnections.incrementAndGet();
+        } else {
+            leaseTimeoutCount.incrementAndGet();
+        }
+    }
+
+    void connectionReleased() {
+        leasedConnections.decrementAndGet();
+    }
+
+    void connectionOpened() {
+        newConnectionCount.incrementAndGet();
+    }
+
+    public int getMaxTotal() {
+        return connectionManager.getMaxTotal();
+    }
+
+    public int getDefaultMaxPerRoute() {
+        return connectionManager.getDefaultMaxPerRoute();
+    }
+
+    public int getLeasedConnections() {
+        return Math.max(0, leasedConnections.get());
+    }
+
+    public int getIdleConnections() {
+        return Math.max(0, connectionManager.getConnectionsInPool() - getLeasedConnections());
+    }
+
+    public int getPendingRequests() {
+        return Math.max(0, pendingRequests.get());
+    }
+
+    public long getLeaseCount() {
+        return leaseCount.get();
+    }
+
+    public long getLeaseTimeoutCount() {
+        return leaseTimeoutCount.get();
+    }
+
+    public long getNewConnectionCount() {
+        return newConnectionCount.get();
+    }
+
+    public long getReusedConnectionCount() {
+        return Math.max(0, leaseCount.get() - newConnectionCount.get());
+    }
+
+    public double getReuseRatio() {
+        long leases = leaseCount.get();
+        return leases == 0 ? 0 : (double) getReusedConnectionCount() / leases;
+    }
+
+    /**
+     * Returns the time in milliseconds that the given percentage of connection requests waited for a lease
+     */
+
+    public long getLeaseWaitAtPercentile(double percentile) {
+        return leaseWaitHistogram.getValueAtPercentile(percentile);
+    }
+
+    public long getLeaseWaitMedian() {
+        return getLeaseWaitAtPercentile(50);
+    }
+
+    public long getLeaseWait99thPercentile() {
+        return getLeaseWaitAtPercentile(99);
+    }
+
+    public long getLeaseWaitMax() {
+        return leaseWaitHistogram.getMaxValue();
+    }
+
+    public String getRouteConnectionPolicies() {
+        return connectionManager.getRouteConnectionPolicies().toString();
+    }
+
+    /**
+     * Clears the counters and lease wait times; the current number of leased and pending connections is kept
+     */
+
+    public void reset() {
+        leaseWaitHistogram.reset();
+        leaseCount.set(0);
+        leaseTimeoutCount.set(0);
+        newConnectionCount.set(0);
+    }
+
+    /**
+     * Writes the current values as name/value rows to the specified file
+     */
+
+    public void exportToCsv(File file) throws IOException {
+        PrintWriter writer = new PrintWriter(file);
+        try {
+            writer.println("statistic,value");
+            writer.println("maxTotal," + getMaxTotal());
+            writer.println("defaultMaxPerRoute," + getDefaultMaxPerRoute());
+            writer.println("leased," + getLeasedConnections());
+            writer.println("idle," + getIdleConnections());
+            writer.println("pending," + getPendingRequests());
+            writer.println("leases," + getLeaseCount());
+            writer.println("leaseTimeouts," + getLeaseTimeoutCount());
+            writer.println("newConnections," + getNewConnectionCount());
+            writer.println("reusedConnections," + getReusedConnectionCount());
+            writer.println("reuseRatio," + getReuseRatio());
+            writer.println("leaseWaitP50," + getLeaseWaitAtPercentile(50));
+            writer.println("leaseWaitP90," + getLeaseWaitAtPercentile(90));
+            writer.println("leaseWaitP99," + getLeaseWaitAtPercentile(99));
+            writer.println("leaseWaitMax," + getLeaseWaitMax());
+        } finally {
+            writer.close();
+        }
+    }
+
+    public synchronized void registerMBean() {
+        if (registeredName != null) {
+            return;
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                registeredName = name;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to register connection pool MBean: " + e);
+        }
+    }
+
+    public synchronized void unregisterMBean() {
+        if (registeredName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (Exception e) {
+            log.warn("Failed to unregister connection pool MBean: " + e);
+        } finally {
+            registeredName = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "leased=" + getLeasedConnections() + ", idle=" + getIdleConnections() + ", pending="
+                + getPendingRequests() + ", leases=" + getLeaseCount() + ", timeouts=" + getLeaseTimeoutCount()
+                + ", new=" + getNewConnectionCount() + ", reused=" + getReusedConnectionCount() + ", leaseWait(p50/p99/max)="
+                + getLeaseWaitMedian() + "/" + getLeaseWait99thPercentile() + "/" + getLeaseWaitMax() + " ms";
+    }
+}
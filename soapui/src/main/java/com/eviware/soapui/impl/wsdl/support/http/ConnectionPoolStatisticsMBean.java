@@ -0,0 +1,55 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.http;
+
+/**
+ * JMX view of the shared HTTP connection pool, registered as
+ * {@value ConnectionPoolStatistics#OBJECT_NAME}
+ */
+
+public interface ConnectionPoolStatisticsMBean {
+    int getMaxTotal();
+
+    int getDefaultMaxPerRoute();
+
+    int getLeasedConnections();
+
+    int getIdleConnections();
+
+    int getPendingRequests();
+
+    long getLeaseCount();
+
+    long getLeaseTimeoutCount();
+
+    long getNewConnectionCount();
+
+    long getReusedConnectionCount();
+
+    double getReuseRatio();
+
+    long getLeaseWaitMedian();
+
+    long getLeaseWait99thPercentile();
+
+    long getLeaseWaitMax();
+
+    String getRouteConnectionPolicies();
+
+    void reset();
+}
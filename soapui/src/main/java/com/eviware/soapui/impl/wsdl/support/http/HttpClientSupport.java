@@ -26,7 +26,6 @@ import com.eviware.soapui.model.settings.Settings;
 import com.eviware.soapui.model.settings.SettingsListener;
 import com.eviware.soapui.settings.HttpSettings;
 import com.eviware.soapui.settings.SSLSettings;
-import org.apache.commons.ssl.KeyMaterial;
 import org.apache.http.Header;
 import org.apache.http.HttpClientConnection;
 import org.apache.http.HttpException;
@@ -50,11 +49,10 @@ import org.apache.http.protocol.HttpProcessor;
 import org.apache.http.protocol.HttpRequestExecutor;
 import org.apache.log4j.Logger;
 
-import java.io.File;
+import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.net.ProxySelector;
 import java.security.KeyManagementException;
-import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
@@ -168,6 +166,7 @@ public class HttpClientSupport {
                     if (metrics != null && connectionMetrics != null && !connectionMetrics.isDone()) {
                         metrics.getDNSTimer().set(connectionMetrics.getDNSTimer().getStart(),
                                 connectionMetrics.getDNSTimer().getStop());
+                        metrics.setTlsHandshake(connectionMetrics.getTlsHandshake());
                         // reset connection-level metrics
                         connectionMetrics.reset();
                     }
@@ -207,6 +206,8 @@ public class HttpClientSupport {
             connectionManager.setMaxTotal((int) settings.getLong(HttpSettings.MAX_TOTAL_CONNECTIONS, 2000));
             connectionManager
                     .setDefaultMaxPerRoute((int) settings.getLong(HttpSettings.MAX_CONNECTIONS_PER_HOST, 500));
+            connectionManager.setRouteConnectionPolicies(settings.getString(HttpSettings.ROUTE_CONNECTION_POLICIES, ""));
+            connectionManager.getStatistics().registerMBean();
 
             httpClient = new SoapUIHttpClient(connectionManager);
 
@@ -220,10 +221,23 @@ public class HttpClientSupport {
             return httpClient;
         }
 
+        public ConnectionPoolStatistics getConnectionPoolStatistics() {
+            return connectionManager.getStatistics();
+        }
+
         private SchemeRegistry getRegistry() {
             return registry;
         }
 
+        public SSLContext getSSLContext() {
+            Scheme scheme = registry.get("https");
+            if (scheme != null && scheme.getSchemeSocketFactory() instanceof SoapUISSLSocketFactory) {
+                return ((SoapUISSLSocketFactory) scheme.getSchemeSocketFactory()).getSSLContext();
+            }
+
+            return null;
+        }
+
         public HttpResponse execute(ExtendedHttpMethod method, HttpContext httpContext) throws ClientProtocolException,
                 IOException {
             method.afterWriteRequest();
@@ -263,6 +277,11 @@ public class HttpClientSupport {
                 } else if (name.equals(HttpSettings.MAX_TOTAL_CONNECTIONS)) {
                     log.info("Updating max total connections host to " + newValue);
                     connectionManager.setMaxTotal(Integer.parseInt(newValue));
+                } else if (name.equals(SSLSettings.SESSION_CACHE_SIZE) || name.equals(SSLSettings.SESSION_TIMEOUT)) {
+                    SoapUISSLSocketFactory.updateSessionSettings();
+                } else if (name.equals(HttpSettings.ROUTE_CONNECTION_POLICIES)) {
+                    log.info("Updating route connection policies to " + newValue);
+                    connectionManager.setRouteConnectionPolicies(newValue);
                 }
             }
 
@@ -279,7 +298,6 @@ public class HttpClientSupport {
 
         public SoapUISSLSocketFactory initSocketFactory() throws KeyStoreException, NoSuchAlgorithmException,
                 CertificateException, IOException, UnrecoverableKeyException, KeyManagementException {
-            KeyStore keyStore = null;
             Settings settings = SoapUI.getSettings();
 
             String keyStoreUrl = System.getProperty(SoapUISystemProperties.SOAPUI_SSL_KEYSTORE_LOCATION,
@@ -290,23 +308,8 @@ public class HttpClientSupport {
             String pass = System.getProperty(SoapUISystemProperties.SOAPUI_SSL_KEYSTORE_PASSWORD,
                     settings.getString(SSLSettings.KEYSTORE_PASSWORD, ""));
 
-            char[] pwd = pass.toCharArray();
-
-            if (keyStoreUrl.trim().length() > 0) {
-                File f = new File(keyStoreUrl);
-                if (f.exists()) {
-                    log.info("Initializing KeyStore");
-
-                    try {
-                        KeyMaterial km = new KeyMaterial(f, pwd);
-                        keyStore = km.getKeyStore();
-                    } catch (Exception e) {
-                        SoapUI.logError(e);
-                    }
-                }
-            }
-
-            return new SoapUISSLSocketFactory(keyStore, pass);
+            // reuses the existing factory and its TLS sessions if the keystore has not changed
+            return SoapUISSLSocketFactory.getInstance(keyStoreUrl, pass);
         }
     }
 
@@ -314,6 +317,22 @@ public class HttpClientSupport {
         return helper.getHttpClient();
     }
 
+    /**
+     * Returns the lease, occupancy and reuse statistics of the shared connection pool
+     */
+
+    public static ConnectionPoolStatistics getConnectionPoolStatistics() {
+        return helper.getConnectionPoolStatistics();
+    }
+
+    /**
+     * Returns the SSLContext of the current https socket factory, for clients not using the HttpClient
+     */
+
+    public static SSLContext getSSLContext() {
+        return helper.getSSLContext();
+    }
+
     public static void setProxySelector(ProxySelector proxySelector) {
         getHttpClient().setRoutePlanner(new OverridableProxySelectorRoutePlanner(helper.getRegistry(), proxySelector));
     }
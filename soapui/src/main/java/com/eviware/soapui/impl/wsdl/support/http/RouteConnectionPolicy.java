@@ -0,0 +1,137 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.http;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import com.eviware.soapui.support.StringUtils;
+
+/**
+ * Connection limit and keep-alive time configured for a single target host, parsed from the
+ * <code>host[:port]=maxConnections[/keepAliveSeconds]</code> entries of the Route Connection Policies setting.
+ */
+
+public class RouteConnectionPolicy {
+    private final static Logger log = Logger.getLogger(RouteConnectionPolicy.class);
+
+    /**
+     * Marks a value that has not been configured and falls back to the global settings
+     */
+
+    public static final int DEFAULT = -1;
+
+    private final int maxConnections;
+    private final int keepAliveSeconds;
+
+    public RouteConnectionPolicy(int maxConnections, int keepAliveSeconds) {
+        this.maxConnections = maxConnections;
+        this.keepAliveSeconds = keepAliveSeconds;
+    }
+
+    /**
+     * The maximum number of pooled connections to the host, or DEFAULT to use Max Connections Per Host
+     */
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * The number of seconds an idle connection to the host is kept for reuse, 0 to close connections after
+     * every request or DEFAULT to honour the Keep-Alive header of the server
+     */
+
+    public int getKeepAliveSeconds() {
+        return keepAliveSeconds;
+    }
+
+    /**
+     * Parses the setting into a map keyed by lower-case <code>host</code> or <code>host:port</code>; invalid
+     * entries are logged and skipped
+     */
+
+    public static Map<String, RouteConnectionPolicy> parse(String value) {
+        if (StringUtils.isNullOrEmpty(value)) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, RouteConnectionPolicy> result = new HashMap<String, RouteConnectionPolicy>();
+        for (String entry : value.split("[;\\n]")) {
+            entry = entry.trim();
+            if (entry.length() == 0) {
+                continue;
+            }
+
+            int ix = entry.indexOf('=');
+            if (ix <= 0) {
+                log.warn("Ignoring route connection policy [" + entry + "], expected host[:port]=maxConnections[/keepAliveSeconds]");
+                continue;
+            }
+
+            String route = entry.substring(0, ix).trim().toLowerCase();
+            String limits = entry.substring(ix + 1).trim();
+
+            try {
+                int maxConnections = DEFAULT;
+                int keepAliveSeconds = DEFAULT;
+
+                int slash = limits.indexOf('/');
+                String max = slash == -1 ? limits : limits.substring(0, slash).trim();
+                if (max.length() > 0) {
+                    maxConnections = Integer.parseInt(max);
+                }
+                if (slash != -1) {
+                    keepAliveSeconds = Integer.parseInt(limits.substring(slash + 1).trim());
+                }
+
+                if (maxConnections == 0 || maxConnections < DEFAULT || keepAliveSeconds < DEFAULT) {
+                    throw new NumberFormatException("Value out of range");
+                }
+
+                result.put(route, new RouteConnectionPolicy(maxConnections, keepAliveSeconds));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring route connection policy [" + entry + "]: " + e.getMessage());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Looks up the policy for the specified host and port, preferring an entry with the port over a host-only one
+     */
+
+    public static RouteConnectionPolicy find(Map<String, RouteConnectionPolicy> policies, String hostName, int port) {
+        if (policies.isEmpty() || hostName == null) {
+            return null;
+        }
+
+        String host = hostName.toLowerCase();
+        RouteConnectionPolicy policy = policies.get(host + ":" + port);
+        return policy == null ? policies.get(host) : policy;
+    }
+
+    @Override
+    public String toString() {
+        return "maxConnections=" + maxConnections + ", keepAliveSeconds=" + keepAliveSeconds;
+    }
+}
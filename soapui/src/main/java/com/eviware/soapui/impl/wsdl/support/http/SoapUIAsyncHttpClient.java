@@ -0,0 +1,1108 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.http;
+
+import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.ExtendedHttpMethod;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.ResponseBodyBuffer;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.ResponseBodyBufferEntity;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.support.metrics.SoapUIMetrics;
+import com.eviware.soapui.model.settings.Settings;
+import com.eviware.soapui.model.settings.SettingsListener;
+import com.eviware.soapui.settings.HttpSettings;
+import com.eviware.soapui.support.StringUtils;
+import com.eviware.soapui.support.Tools;
+import org.apache.http.ConnectionReuseStrategy;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.methods.AbortableHttpRequest;
+import org.apache.http.client.protocol.ClientContext;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.apache.http.conn.params.ConnRoutePNames;
+import org.apache.http.cookie.Cookie;
+import org.apache.http.cookie.CookieOrigin;
+import org.apache.http.cookie.CookieSpec;
+import org.apache.http.cookie.MalformedCookieException;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.DefaultConnectionReuseStrategy;
+import org.apache.http.impl.client.EntityEnclosingRequestWrapper;
+import org.apache.http.impl.client.RequestWrapper;
+import org.apache.http.impl.cookie.BestMatchSpec;
+import org.apache.http.impl.nio.DefaultClientIOEventDispatch;
+import org.apache.http.impl.nio.SSLClientIOEventDispatch;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.SSLIOSession;
+import org.apache.http.impl.nio.reactor.SSLIOSessionHandler;
+import org.apache.http.impl.nio.reactor.SSLSetupHandler;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.NHttpClientHandler;
+import org.apache.http.nio.protocol.BufferingHttpClientHandler;
+import org.apache.http.nio.protocol.HttpRequestExecutionHandler;
+import org.apache.http.nio.reactor.IOEventDispatch;
+import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.nio.reactor.SessionRequest;
+import org.apache.http.nio.reactor.SessionRequestCallback;
+import org.apache.http.nio.params.NIOReactorPNames;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.BasicHttpProcessor;
+import org.apache.http.protocol.ExecutionContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.RequestConnControl;
+import org.apache.http.protocol.RequestContent;
+import org.apache.http.protocol.RequestExpectContinue;
+import org.apache.http.protocol.RequestTargetHost;
+import org.apache.http.protocol.RequestUserAgent;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Non-blocking HTTP client built on the HttpCore NIO reactor, used by the HttpAsyncRequestTransport. All
+ * connections are served by a few I/O dispatcher threads and kept alive in an AsyncConnectionPool limited by
+ * the Max Connections Per Host, Max Total Connections and Route Connection Policies settings. A request in
+ * flight only costs the thread waiting for its response, or no thread at all when sent with a ResponseCallback.
+ * <p/>
+ * Proxies and authentication challenges are not handled, requests needing them are sent with the blocking
+ * HttpClient instead.
+ */
+
+public class SoapUIAsyncHttpClient {
+    public static final String IO_THREADS_SYSTEM_PROPERTY = "soapui.http.async.iothreads";
+
+    private static final String ASYNC_REQUEST = "soapui.async.request";
+    private static final String SSL_SESSION = "soapui.async.sslSession";
+    private static final String EVENT_DISPATCH = "soapui.async.dispatch";
+
+    private static final long EVICTION_INTERVAL = 250;
+    private static final int MAX_RETRIES = 3;
+
+    private final static Logger log = Logger.getLogger(SoapUIAsyncHttpClient.class);
+    private static SoapUIAsyncHttpClient instance;
+
+    private final HttpParams params;
+    private final DefaultConnectingIOReactor ioReactor;
+    private final ConnectionReuseStrategy reuseStrategy = new DefaultConnectionReuseStrategy();
+    private final AsyncConnectionPool pool;
+    private final ScheduledExecutorService evictor;
+    private volatile long responseStreamingThreshold;
+
+    /**
+     * Receives the outcome of a request sent with {@link SoapUIAsyncHttpClient#execute(ExtendedHttpMethod,
+     * HttpContext, ResponseCallback)}, called on an I/O dispatcher or pool thread which must not be blocked
+     */
+
+    public interface ResponseCallback {
+        void completed(HttpResponse response);
+
+        void failed(IOException e);
+    }
+
+    private SoapUIAsyncHttpClient() throws IOException {
+        this((int) SoapUI.getSettings().getLong(HttpSettings.MAX_TOTAL_CONNECTIONS, 2000), (int) SoapUI.getSettings()
+                .getLong(HttpSettings.MAX_CONNECTIONS_PER_HOST, 500));
+
+        pool.setRouteConnectionPolicies(SoapUI.getSettings().getString(HttpSettings.ROUTE_CONNECTION_POLICIES, ""));
+        responseStreamingThreshold = SoapUI.getSettings().getLong(HttpSettings.RESPONSE_STREAMING_THRESHOLD, 0);
+        SoapUI.getSettings().addSettingsListener(new PoolSettingsListener());
+    }
+
+    SoapUIAsyncHttpClient(int maxTotal, int maxPerRoute) throws IOException {
+        pool = new AsyncConnectionPool(maxTotal, maxPerRoute);
+
+        params = new BasicHttpParams();
+        params.setIntParameter(CoreConnectionPNames.SO_TIMEOUT, (int) HttpSettings.DEFAULT_SOCKET_TIMEOUT);
+        params.setIntParameter(CoreConnectionPNames.SOCKET_BUFFER_SIZE, 8 * 1024);
+        params.setBooleanParameter(CoreConnectionPNames.TCP_NODELAY, true);
+        // socket timeouts are checked once per select interval, the default of one second is too coarse
+        params.setLongParameter(NIOReactorPNames.SELECT_INTERVAL, 100);
+
+        int ioThreads = Integer.getInteger(IO_THREADS_SYSTEM_PROPERTY, Runtime.getRuntime().availableProcessors());
+        ioReactor = new DefaultConnectingIOReactor(Math.max(1, ioThreads), new DaemonThreadFactory(
+                "SoapUI async HTTP dispatcher"), params);
+
+        BasicHttpProcessor httpProcessor = new BasicHttpProcessor();
+        httpProcessor.addInterceptor(new RequestContent());
+        httpProcessor.addInterceptor(new RequestTargetHost());
+        httpProcessor.addInterceptor(new RequestConnControl());
+        httpProcessor.addInterceptor(new RequestUserAgent());
+        httpProcessor.addInterceptor(new RequestExpectContinue());
+        // needs to be last so it captures the headers actually sent
+        httpProcessor.addInterceptor(new HeaderRequestInterceptor());
+
+        NHttpClientHandler handler = new RequestTrackingClientHandler(new BufferingHttpClientHandler(httpProcessor,
+                new RequestExecutionHandler(), reuseStrategy, params));
+
+        final IOEventDispatch eventDispatch = new SchemeIOEventDispatch(new DefaultClientIOEventDispatch(handler,
+                params), new SoapUISSLClientIOEventDispatch(handler, params));
+
+        new DaemonThreadFactory("SoapUI async HTTP reactor").newThread(new Runnable() {
+            public void run() {
+                try {
+                    ioReactor.execute(eventDispatch);
+                } catch (InterruptedIOException e) {
+                    log.info("Async HTTP reactor interrupted");
+                } catch (IOException e) {
+                    SoapUI.logError(e, "Async HTTP reactor failed");
+                }
+            }
+        }).start();
+
+        evictor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("SoapUI async HTTP pool evictor"));
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                try {
+                    pool.closeExpired(System.currentTimeMillis());
+                } catch (RuntimeException e) {
+                    log.error("Failed to evict expired connections", e);
+                }
+            }
+        }, EVICTION_INTERVAL, EVICTION_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized SoapUIAsyncHttpClient getInstance() throws IOException {
+        if (instance == null) {
+            instance = new SoapUIAsyncHttpClient();
+        }
+
+        return instance;
+    }
+
+    /**
+     * Returns true if the specified request can be sent with this client
+     */
+
+    public static boolean canExecute(ExtendedHttpMethod method, HttpContext httpContext) {
+        if (ProxyUtils.isProxyEnabled()) {
+            return false;
+        }
+
+        // client certificates configured per request
+        if (method.getParams().getParameter(SoapUIHttpRoute.SOAPUI_SSL_CONFIG) != null) {
+            return false;
+        }
+
+        // credentials that are not sent preemptively need the challenge handling of HttpClient
+        return httpContext.getAttribute(ClientContext.CREDS_PROVIDER) == null || method.containsHeader("Authorization");
+    }
+
+    /**
+     * Sends the specified request and waits for the response, which is fully buffered when returned.
+     */
+
+    public HttpResponse execute(ExtendedHttpMethod method, HttpContext httpContext) throws IOException {
+        AsyncRequest request = submit(method, httpContext, null);
+        HttpResponse httpResponse = request.awaitResponse();
+
+        method.afterReadResponse(request.getSSLSession());
+        method.setHttpResponse(httpResponse);
+
+        return httpResponse;
+    }
+
+    /**
+     * Sends the specified request without waiting for the response, which is passed fully buffered to the
+     * callback after it has been set on the method.
+     */
+
+    public void execute(ExtendedHttpMethod method, HttpContext httpContext, ResponseCallback callback)
+            throws IOException {
+        submit(method, httpContext, callback);
+    }
+
+    /**
+     * Closes all idle connections and stops the I/O reactor, requests in flight fail.
+     */
+
+    void shutdown() {
+        evictor.shutdownNow();
+        pool.shutdown();
+
+        try {
+            ioReactor.shutdown(1000);
+        } catch (IOException e) {
+            log.debug("Failed to shut down async HTTP reactor: " + e);
+        }
+    }
+
+    AsyncConnectionPool getConnectionPool() {
+        return pool;
+    }
+
+    private AsyncRequest submit(ExtendedHttpMethod method, HttpContext httpContext, ResponseCallback callback)
+            throws IOException {
+        method.afterWriteRequest();
+        if (method.getMetrics() != null) {
+            method.getMetrics().getConnectTimer().start();
+        }
+
+        AsyncRequest request = new AsyncRequest(method, httpContext, callback);
+        // resolved by the caller, a lookup on an I/O dispatcher would stall all of its connections
+        request.resolveRemoteAddress();
+        if (method instanceof AbortableHttpRequest) {
+            ((AbortableHttpRequest) method).setReleaseTrigger(request);
+        }
+
+        pool.lease(request);
+        return request;
+    }
+
+    /**
+     * Response bodies larger than the specified number of bytes are kept in a temporary file, 0 keeps them
+     * in memory
+     */
+
+    void setResponseStreamingThreshold(long responseStreamingThreshold) {
+        this.responseStreamingThreshold = responseStreamingThreshold;
+    }
+
+    private void updatePoolSettings(Settings settings) {
+        responseStreamingThreshold = settings.getLong(HttpSettings.RESPONSE_STREAMING_THRESHOLD, 0);
+        pool.setMaxTotal((int) settings.getLong(HttpSettings.MAX_TOTAL_CONNECTIONS, 2000));
+        pool.setDefaultMaxPerRoute((int) settings.getLong(HttpSettings.MAX_CONNECTIONS_PER_HOST, 500));
+        pool.setRouteConnectionPolicies(settings.getString(HttpSettings.ROUTE_CONNECTION_POLICIES, ""));
+    }
+
+    private static AsyncRequest detachRequest(NHttpClientConnection conn) {
+        return (AsyncRequest) conn.getContext().removeAttribute(ASYNC_REQUEST);
+    }
+
+    /**
+     * A request waiting for its response, also aborts the exchange when the HttpMethod is aborted. Waiting
+     * callers park on a Condition rather than the object monitor so virtual threads do not pin their carrier.
+     */
+
+    private class AsyncRequest implements ConnectionReleaseTrigger, AsyncConnectionPool.PoolRequest {
+        private final ExtendedHttpMethod method;
+        private final HttpContext httpContext;
+        private final ResponseCallback callback;
+        private final HttpHost target;
+        private final String route;
+        private final int port;
+        private final long leaseDeadline;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition doneCondition = lock.newCondition();
+
+        private InetSocketAddress remoteAddress;
+        private NHttpClientConnection connection;
+        private boolean reusedConnection;
+        private boolean sent;
+        private boolean responseStarted;
+        private boolean done;
+        private boolean aborted;
+        private int retries;
+        private HttpResponse response;
+        private IOException failure;
+        private SSLSession sslSession;
+
+        public AsyncRequest(ExtendedHttpMethod method, HttpContext httpContext, ResponseCallback callback) {
+            this.method = method;
+            this.httpContext = httpContext;
+            this.callback = callback;
+
+            URI uri = method.getURI();
+            target = new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme());
+            port = uri.getPort() == -1 ? (isSecure() ? 443 : 80) : uri.getPort();
+            route = uri.getScheme() + "://" + uri.getHost() + ":" + port;
+            leaseDeadline = getConnectTimeout() > 0 ? System.currentTimeMillis() + getConnectTimeout() : 0;
+        }
+
+        public boolean isSecure() {
+            return "https".equalsIgnoreCase(target.getSchemeName());
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public String getHostName() {
+            return target.getHostName();
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public long getLeaseDeadline() {
+            return leaseDeadline;
+        }
+
+        public void connectionLeased(NHttpClientConnection conn) {
+            if (isDone()) {
+                pool.release(conn);
+                return;
+            }
+
+            setConnection(conn, true);
+            conn.getContext().setAttribute(ASYNC_REQUEST, this);
+            conn.requestOutput();
+        }
+
+        public void connectionGranted() {
+            if (isDone()) {
+                pool.connectFailed(route);
+                return;
+            }
+
+            try {
+                SessionRequest sessionRequest = ioReactor.connect(remoteAddress, getLocalAddress(), this,
+                        new ConnectCallback());
+                sessionRequest.setConnectTimeout(getConnectTimeout());
+            } catch (IllegalStateException e) {
+                pool.connectFailed(route);
+                fail(new IOException("Async HTTP reactor is not running", e));
+            }
+        }
+
+        public void leaseFailed(IOException e) {
+            fail(e);
+        }
+
+        public void resolveRemoteAddress() throws UnknownHostException {
+            SoapUIMetrics metrics = method.getMetrics();
+            if (metrics != null) {
+                metrics.getDNSTimer().start();
+            }
+
+            InetSocketAddress address = new InetSocketAddress(target.getHostName(), port);
+
+            if (metrics != null) {
+                metrics.getDNSTimer().stop();
+            }
+
+            if (address.isUnresolved()) {
+                throw new UnknownHostException(target.getHostName());
+            }
+
+            remoteAddress = address;
+        }
+
+        public InetSocketAddress getLocalAddress() {
+            Object localAddress = method.getParams().getParameter(ConnRoutePNames.LOCAL_ADDRESS);
+            return localAddress instanceof InetAddress ? new InetSocketAddress((InetAddress) localAddress, 0) : null;
+        }
+
+        public int getSocketTimeout() {
+            return method.getParams().getIntParameter(CoreConnectionPNames.SO_TIMEOUT,
+                    (int) HttpSettings.DEFAULT_SOCKET_TIMEOUT);
+        }
+
+        public int getConnectTimeout() {
+            return method.getParams().getIntParameter(CoreConnectionPNames.CONNECTION_TIMEOUT, 0);
+        }
+
+        public void setConnection(NHttpClientConnection connection, boolean reused) {
+            lock.lock();
+            try {
+                this.connection = connection;
+                this.reusedConnection = reused;
+            } finally {
+                lock.unlock();
+            }
+
+            connection.setSocketTimeout(getSocketTimeout());
+        }
+
+        /**
+         * Marks the request as sent, returns false if it has already been sent or aborted
+         */
+
+        public boolean markSent() {
+            lock.lock();
+            try {
+                if (sent || done) {
+                    return false;
+                }
+
+                sent = true;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean isSent() {
+            lock.lock();
+            try {
+                return sent;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean isDone() {
+            lock.lock();
+            try {
+                return done;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public HttpRequest createHttpRequest(HttpContext context) throws Exception {
+            SoapUIMetrics metrics = method.getMetrics();
+            if (metrics != null) {
+                metrics.getConnectTimer().stop();
+                metrics.getTimeToFirstByteTimer().start();
+            }
+
+            RequestWrapper request = method instanceof HttpEntityEnclosingRequest ? new EntityEnclosingRequestWrapper(
+                    (HttpEntityEnclosingRequest) method) : new RequestWrapper(method);
+
+            URI uri = method.getURI();
+            String path = StringUtils.hasContent(uri.getRawPath()) ? uri.getRawPath() : "/";
+            request.setURI(new URI(uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery()));
+
+            addCookies(request);
+            context.setAttribute(ExecutionContext.HTTP_TARGET_HOST, target);
+
+            return request;
+        }
+
+        public void responseReceived() {
+            lock.lock();
+            try {
+                responseStarted = true;
+            } finally {
+                lock.unlock();
+            }
+
+            SoapUIMetrics metrics = method.getMetrics();
+            if (metrics != null) {
+                metrics.getTimeToFirstByteTimer().stop();
+                metrics.getReadTimer().start();
+            }
+        }
+
+        private CookieOrigin getCookieOrigin() {
+            String path = method.getURI().getPath();
+            return new CookieOrigin(target.getHostName(), port, StringUtils.hasContent(path) ? path : "/", isSecure());
+        }
+
+        private void addCookies(HttpRequest request) {
+            CookieStore cookieStore = (CookieStore) httpContext.getAttribute(ClientContext.COOKIE_STORE);
+            if (cookieStore == null) {
+                return;
+            }
+
+            CookieSpec cookieSpec = new BestMatchSpec();
+            CookieOrigin origin = getCookieOrigin();
+            List<Cookie> matchedCookies = new ArrayList<Cookie>();
+            Date now = new Date();
+            for (Cookie cookie : cookieStore.getCookies()) {
+                if (!cookie.isExpired(now) && cookieSpec.match(cookie, origin)) {
+                    matchedCookies.add(cookie);
+                }
+            }
+
+            if (!matchedCookies.isEmpty()) {
+                for (Header header : cookieSpec.formatCookies(matchedCookies)) {
+                    request.addHeader(header);
+                }
+            }
+        }
+
+        public void processCookies(HttpResponse httpResponse) {
+            CookieStore cookieStore = (CookieStore) httpContext.getAttribute(ClientContext.COOKIE_STORE);
+            if (cookieStore == null) {
+                return;
+            }
+
+            CookieSpec cookieSpec = new BestMatchSpec();
+            CookieOrigin origin = getCookieOrigin();
+            for (Header header : httpResponse.getHeaders("Set-Cookie")) {
+                try {
+                    for (Cookie cookie : cookieSpec.parse(header, origin)) {
+                        try {
+                            cookieSpec.validate(cookie, origin);
+                            cookieStore.addCookie(cookie);
+                        } catch (MalformedCookieException e) {
+                            log.debug("Cookie rejected: " + e.getMessage());
+                        }
+                    }
+                } catch (MalformedCookieException e) {
+                    log.debug("Invalid cookie header [" + header + "]: " + e.getMessage());
+                }
+            }
+        }
+
+        public void setRequestHeaders(Object requestHeaders) {
+            if (requestHeaders != null) {
+                httpContext.setAttribute(HeaderRequestInterceptor.SOAPUI_REQUEST_HEADERS, requestHeaders);
+            }
+        }
+
+        public void setSSLSession(SSLSession sslSession) {
+            lock.lock();
+            try {
+                this.sslSession = sslSession;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public SSLSession getSSLSession() {
+            lock.lock();
+            try {
+                return sslSession;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void complete(HttpResponse response) {
+            lock.lock();
+            try {
+                if (done) {
+                    return;
+                }
+
+                this.response = response;
+                done = true;
+                doneCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            if (callback != null) {
+                method.afterReadResponse(getSSLSession());
+                method.setHttpResponse(response);
+                callback.completed(response);
+            }
+        }
+
+        /**
+         * Fails the request, unless it can be sent again because its pooled connection turned out to be stale
+         */
+
+        public void fail(IOException e) {
+            boolean retry;
+            lock.lock();
+            try {
+                if (done) {
+                    return;
+                }
+
+                retry = canRetry(e);
+                if (retry) {
+                    retries++;
+                    sent = false;
+                    responseStarted = false;
+                    connection = null;
+                    reusedConnection = false;
+                } else {
+                    failure = e;
+                    done = true;
+                    doneCondition.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (retry) {
+                log.debug("Sending request to " + route + " again after stale connection: " + e);
+                pool.lease(this);
+            } else if (callback != null) {
+                callback.failed(e);
+            }
+        }
+
+        /**
+         * A request that failed on a reused connection before any response was read can be sent again if the
+         * connection was closed before or while the request was written, as servers do with idle keep-alive
+         * connections, and the request entity can be repeated.
+         */
+
+        private boolean canRetry(IOException e) {
+            if (aborted || !reusedConnection || responseStarted || retries >= MAX_RETRIES
+                    || e instanceof InterruptedIOException) {
+                return false;
+            }
+
+            if (sent && !(e instanceof NoHttpResponseException)) {
+                return false;
+            }
+
+            HttpEntity entity = method instanceof HttpEntityEnclosingRequest ? ((HttpEntityEnclosingRequest) method)
+                    .getEntity() : null;
+            return entity == null || entity.isRepeatable();
+        }
+
+        public HttpResponse awaitResponse() throws IOException {
+            lock.lock();
+            try {
+                while (!done) {
+                    doneCondition.await();
+                }
+
+                if (failure != null) {
+                    throw failure;
+                }
+
+                return response;
+            } catch (InterruptedException e) {
+                // aborted below, outside the lock
+            } finally {
+                lock.unlock();
+            }
+
+            abortConnection();
+            throw new InterruptedIOException("Request interrupted");
+        }
+
+        public void releaseConnection() {
+        }
+
+        public void abortConnection() {
+            NHttpClientConnection conn;
+            lock.lock();
+            try {
+                if (done) {
+                    return;
+                }
+
+                aborted = true;
+                conn = connection;
+            } finally {
+                lock.unlock();
+            }
+
+            pool.cancel(this);
+            fail(new InterruptedIOException("Request aborted"));
+
+            if (conn != null) {
+                try {
+                    conn.shutdown();
+                } catch (IOException e) {
+                    log.debug("Failed to shut down aborted connection: " + e);
+                }
+            }
+        }
+    }
+
+    private class RequestExecutionHandler implements HttpRequestExecutionHandler {
+        public void initalizeContext(HttpContext context, Object attachment) {
+            context.setAttribute(ASYNC_REQUEST, attachment);
+        }
+
+        public HttpRequest submitRequest(HttpContext context) {
+            AsyncRequest request = (AsyncRequest) context.getAttribute(ASYNC_REQUEST);
+            if (request == null || !request.markSent()) {
+                return null;
+            }
+
+            try {
+                return request.createHttpRequest(context);
+            } catch (Exception e) {
+                context.removeAttribute(ASYNC_REQUEST);
+                request.fail(e instanceof IOException ? (IOException) e : new ClientProtocolException(e));
+                return null;
+            }
+        }
+
+        public void handleResponse(HttpResponse response, HttpContext context) throws IOException {
+            AsyncRequest request = (AsyncRequest) context.removeAttribute(ASYNC_REQUEST);
+            if (request == null) {
+                return;
+            }
+
+            try {
+                HttpEntity entity = response.getEntity();
+                if (entity != null) {
+                    response.setEntity(bufferEntity(entity));
+                }
+
+                request.processCookies(response);
+                request.setRequestHeaders(context.getAttribute(HeaderRequestInterceptor.SOAPUI_REQUEST_HEADERS));
+                request.setSSLSession((SSLSession) context.getAttribute(SSL_SESSION));
+            } catch (IOException e) {
+                request.fail(e);
+                throw e;
+            }
+
+            // pool the connection before waking up the caller, who is likely to send its next request right away
+            NHttpClientConnection conn = (NHttpClientConnection) context.getAttribute(ExecutionContext.HTTP_CONNECTION);
+            if (conn != null && conn.isOpen() && reuseStrategy.keepAlive(response, context)) {
+                pool.release(conn);
+            }
+
+            request.complete(response);
+        }
+
+        public void finalizeContext(HttpContext context) {
+        }
+
+        /**
+         * Reads the entity before its connection is reused, into a ResponseBodyBuffer that spills to disk
+         * beyond the response streaming threshold as the blocking client does
+         */
+
+        private HttpEntity bufferEntity(HttpEntity entity) throws IOException {
+            AbstractHttpEntity bufferedEntity;
+            long threshold = responseStreamingThreshold;
+            if (threshold > 0) {
+                ResponseBodyBuffer buffer = new ResponseBodyBuffer(threshold);
+                InputStream in = entity.getContent();
+                try {
+                    if (in != null) {
+                        Tools.writeAll(buffer, in);
+                        in.close();
+                    }
+
+                    buffer.close();
+                } catch (IOException e) {
+                    buffer.release();
+                    throw e;
+                }
+
+                bufferedEntity = new ResponseBodyBufferEntity(buffer);
+            } else {
+                bufferedEntity = new ByteArrayEntity(EntityUtils.toByteArray(entity));
+            }
+
+            bufferedEntity.setContentType(entity.getContentType());
+            bufferedEntity.setContentEncoding(entity.getContentEncoding());
+            bufferedEntity.setChunked(entity.isChunked());
+            return bufferedEntity;
+        }
+    }
+
+    /**
+     * Updates metrics of the attached request and fails it when its connection fails
+     */
+
+    private class RequestTrackingClientHandler implements NHttpClientHandler {
+        private final NHttpClientHandler handler;
+
+        public RequestTrackingClientHandler(NHttpClientHandler handler) {
+            this.handler = handler;
+        }
+
+        public void connected(NHttpClientConnection conn, Object attachment) {
+            AsyncRequest request = (AsyncRequest) attachment;
+            pool.connected(request.getRoute(), conn);
+            request.setConnection(conn, false);
+
+            handler.connected(conn, attachment);
+
+            // aborted while connecting, the request is not sent so the connection can be reused
+            if (request.isDone() && detachRequest(conn) != null) {
+                pool.release(conn);
+            }
+        }
+
+        public void requestReady(NHttpClientConnection conn) {
+            handler.requestReady(conn);
+        }
+
+        public void responseReceived(NHttpClientConnection conn) {
+            AsyncRequest request = (AsyncRequest) conn.getContext().getAttribute(ASYNC_REQUEST);
+            if (request != null) {
+                request.responseReceived();
+            }
+
+            handler.responseReceived(conn);
+        }
+
+        public void inputReady(NHttpClientConnection conn, ContentDecoder decoder) {
+            handler.inputReady(conn, decoder);
+        }
+
+        public void outputReady(NHttpClientConnection conn, ContentEncoder encoder) {
+            handler.outputReady(conn, encoder);
+        }
+
+        public void exception(NHttpClientConnection conn, IOException ex) {
+            pool.connectionClosed(conn);
+            AsyncRequest request = detachRequest(conn);
+            handler.exception(conn, ex);
+
+            if (request != null) {
+                request.fail(ex);
+            }
+        }
+
+        public void exception(NHttpClientConnection conn, HttpException ex) {
+            pool.connectionClosed(conn);
+            AsyncRequest request = detachRequest(conn);
+            handler.exception(conn, ex);
+
+            if (request != null) {
+                request.fail(new ClientProtocolException(ex));
+            }
+        }
+
+        public void timeout(NHttpClientConnection conn) {
+            pool.connectionClosed(conn);
+            AsyncRequest request = detachRequest(conn);
+            handler.timeout(conn);
+
+            if (request != null) {
+                request.fail(new SocketTimeoutException("Read timed out"));
+            }
+        }
+
+        public void closed(NHttpClientConnection conn) {
+            pool.connectionClosed(conn);
+            AsyncRequest request = detachRequest(conn);
+            handler.closed(conn);
+
+            if (request != null) {
+                request.fail(request.isSent() ? new NoHttpResponseException("The target server failed to respond")
+                        : new IOException("Connection closed before the request was sent"));
+            }
+        }
+    }
+
+    private class ConnectCallback implements SessionRequestCallback {
+        public void completed(SessionRequest sessionRequest) {
+        }
+
+        public void failed(SessionRequest sessionRequest) {
+            IOException e = sessionRequest.getException();
+            fail(sessionRequest, e != null ? e : new IOException("Connect to " + sessionRequest.getRemoteAddress()
+                    + " failed"));
+        }
+
+        public void timeout(SessionRequest sessionRequest) {
+            fail(sessionRequest, new ConnectTimeoutException("Connect to " + sessionRequest.getRemoteAddress()
+                    + " timed out"));
+        }
+
+        public void cancelled(SessionRequest sessionRequest) {
+            fail(sessionRequest, new InterruptedIOException("Connect to " + sessionRequest.getRemoteAddress()
+                    + " cancelled"));
+        }
+
+        private void fail(SessionRequest sessionRequest, IOException e) {
+            AsyncRequest request = (AsyncRequest) sessionRequest.getAttachment();
+            pool.connectFailed(request.getRoute());
+            request.fail(e);
+        }
+    }
+
+    /**
+     * Dispatches each session to the plain or SSL event dispatch depending on the scheme of its first request
+     */
+
+    private static class SchemeIOEventDispatch implements IOEventDispatch {
+        private final IOEventDispatch plainDispatch;
+        private final IOEventDispatch sslDispatch;
+
+        public SchemeIOEventDispatch(IOEventDispatch plainDispatch, IOEventDispatch sslDispatch) {
+            this.plainDispatch = plainDispatch;
+            this.sslDispatch = sslDispatch;
+        }
+
+        public void connected(IOSession session) {
+            Object attachment = session.getAttribute(IOSession.ATTACHMENT_KEY);
+            IOEventDispatch dispatch = attachment instanceof AsyncRequest && ((AsyncRequest) attachment).isSecure() ? sslDispatch
+                    : plainDispatch;
+
+            session.setAttribute(EVENT_DISPATCH, dispatch);
+            dispatch.connected(session);
+        }
+
+        public void inputReady(IOSession session) {
+            getDispatch(session).inputReady(session);
+        }
+
+        public void outputReady(IOSession session) {
+            getDispatch(session).outputReady(session);
+        }
+
+        public void timeout(IOSession session) {
+            getDispatch(session).timeout(session);
+        }
+
+        public void disconnected(IOSession session) {
+            getDispatch(session).disconnected(session);
+        }
+
+        private IOEventDispatch getDispatch(IOSession session) {
+            IOEventDispatch dispatch = (IOEventDispatch) session.getAttribute(EVENT_DISPATCH);
+            return dispatch == null ? plainDispatch : dispatch;
+        }
+    }
+
+    /**
+     * Uses the current SoapUI SSLContext for each new connection and keeps the negotiated SSLSession for the
+     * SSLInfo of the response
+     */
+
+    private static class SoapUISSLClientIOEventDispatch extends SSLClientIOEventDispatch {
+        public SoapUISSLClientIOEventDispatch(NHttpClientHandler handler, HttpParams params) {
+            super(handler, getSSLContext(), params);
+        }
+
+        @Override
+        protected SSLIOSession createSSLIOSession(IOSession session, SSLContext sslcontext, SSLIOSessionHandler sslHandler) {
+            SSLContext sslContext = getSSLContext();
+            Object attachment = session.getAttribute(IOSession.ATTACHMENT_KEY);
+            if (attachment instanceof AsyncConnectionPool.PoolRequest) {
+                AsyncConnectionPool.PoolRequest request = (AsyncConnectionPool.PoolRequest) attachment;
+                sslContext = new PeerSSLContext(sslContext, request.getHostName(), request.getPort());
+            }
+
+            return new SSLIOSession(session, sslContext, new SSLSetupHandler() {
+                public void initalize(SSLEngine sslEngine, HttpParams params) throws SSLException {
+                    String protocols = System.getProperty("soapui.https.protocols");
+                    if (StringUtils.hasContent(protocols)) {
+                        sslEngine.setEnabledProtocols(protocols.split(","));
+                    }
+
+                    String ciphers = System.getProperty("soapui.https.ciphers");
+                    if (StringUtils.hasContent(ciphers)) {
+                        sslEngine.setEnabledCipherSuites(ciphers.split(","));
+                    }
+                }
+
+                public void verify(IOSession ioSession, SSLSession sslSession) throws SSLException {
+                    ioSession.setAttribute(SSL_SESSION, sslSession);
+                }
+            });
+        }
+
+        private static SSLContext getSSLContext() {
+            SSLContext sslContext = HttpClientSupport.getSSLContext();
+            if (sslContext == null) {
+                try {
+                    sslContext = SSLContext.getDefault();
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            return sslContext;
+        }
+    }
+
+    /**
+     * Creates the SSLEngines of the wrapped context for the specified peer, which SSLIOSession can not do
+     * itself; an engine without a peer neither sends SNI nor resumes sessions
+     */
+
+    private static class PeerSSLContext extends SSLContext {
+        public PeerSSLContext(final SSLContext context, final String host, final int port) {
+            super(new SSLContextSpi() {
+                protected SSLEngine engineCreateSSLEngine() {
+                    return context.createSSLEngine(host, port);
+                }
+
+                protected SSLEngine engineCreateSSLEngine(String peerHost, int peerPort) {
+                    return context.createSSLEngine(peerHost, peerPort);
+                }
+
+                protected void engineInit(KeyManager[] keyManagers, TrustManager[] trustManagers, SecureRandom random)
+                        throws KeyManagementException {
+                    throw new KeyManagementException("Wrapped SSLContext is already initialized");
+                }
+
+                protected SSLSocketFactory engineGetSocketFactory() {
+                    return context.getSocketFactory();
+                }
+
+                protected SSLServerSocketFactory engineGetServerSocketFactory() {
+                    return context.getServerSocketFactory();
+                }
+
+                protected SSLSessionContext engineGetServerSessionContext() {
+                    return context.getServerSessionContext();
+                }
+
+                protected SSLSessionContext engineGetClientSessionContext() {
+                    return context.getClientSessionContext();
+                }
+            }, context.getProvider(), context.getProtocol());
+        }
+    }
+
+    private class PoolSettingsListener implements SettingsListener {
+        public void settingChanged(String name, String newValue, String oldValue) {
+            if (name.equals(HttpSettings.MAX_CONNECTIONS_PER_HOST) || name.equals(HttpSettings.MAX_TOTAL_CONNECTIONS)
+                    || name.equals(HttpSettings.ROUTE_CONNECTION_POLICIES)
+                    || name.equals(HttpSettings.RESPONSE_STREAMING_THRESHOLD)) {
+                updatePoolSettings(SoapUI.getSettings());
+            }
+        }
+
+        public void settingsReloaded() {
+            updatePoolSettings(SoapUI.getSettings());
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        public DaemonThreadFactory(String name) {
+            this.name = name;
+        }
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + " " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
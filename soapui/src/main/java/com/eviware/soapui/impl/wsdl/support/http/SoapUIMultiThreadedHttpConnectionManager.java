@@ -21,8 +21,13 @@ import java.net.ConnectException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import javax.net.ssl.SSLSocket;
+
 import org.apache.http.HttpHost;
 import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.conn.ClientConnectionOperator;
@@ -67,11 +72,50 @@ public class SoapUIMultiThreadedHttpConnectionManager extends ThreadSafeClientCo
      */
     IdleConnectionMonitorThread idleConnectionHandler = new IdleConnectionMonitorThread(this);
 
+    private final ConnectionPoolStatistics statistics = new ConnectionPoolStatistics(this);
+    private volatile Map<String, RouteConnectionPolicy> routePolicies = Collections.emptyMap();
+
     public SoapUIMultiThreadedHttpConnectionManager(SchemeRegistry registry) {
         super(registry);
         idleConnectionHandler.start();
     }
 
+    public ConnectionPoolStatistics getStatistics() {
+        return statistics;
+    }
+
+    public Map<String, RouteConnectionPolicy> getRouteConnectionPolicies() {
+        return routePolicies;
+    }
+
+    /**
+     * Replaces the per-route connection limits and keep-alive times with the ones in the specified
+     * Route Connection Policies setting value
+     */
+
+    public void setRouteConnectionPolicies(String value) {
+        routePolicies = RouteConnectionPolicy.parse(value);
+
+        // limits of routes that are no longer configured fall back to the default
+        connPerRoute.setMaxForRoutes(new HashMap<HttpRoute, Integer>());
+    }
+
+    private RouteConnectionPolicy getRoutePolicy(HttpRoute route) {
+        Map<String, RouteConnectionPolicy> policies = routePolicies;
+        if (route == null || policies.isEmpty()) {
+            return null;
+        }
+
+        HttpHost target = route.getTargetHost();
+        int port = target.getPort();
+        if (port < 0) {
+            Scheme scheme = schemeRegistry.get(target.getSchemeName());
+            port = scheme == null ? port : scheme.getDefaultPort();
+        }
+
+        return RouteConnectionPolicy.find(policies, target.getHostName(), port);
+    }
+
     /**
      * Hook for creating the connection operator. It is called by the
      * constructor. Derived classes can override this method to change the
@@ -125,6 +169,12 @@ public class SoapUIMultiThreadedHttpConnectionManager extends ThreadSafeClientCo
 
     public ClientConnectionRequest requestConnection(final HttpRoute route, final Object state) {
 
+        RouteConnectionPolicy policy = getRoutePolicy(route);
+        if (policy != null && policy.getMaxConnections() > 0
+                && connPerRoute.getMaxForRoute(route) != policy.getMaxConnections()) {
+            connPerRoute.setMaxForRoute(route, policy.getMaxConnections());
+        }
+
         final PoolEntryRequest poolRequest = pool.requestPoolEntry(route, state);
 
         return new ClientConnectionRequest() {
@@ -143,9 +193,18 @@ public class SoapUIMultiThreadedHttpConnectionManager extends ThreadSafeClientCo
                     log.debug("Get connection: " + route + ", timeout = " + timeout);
                 }
 
-                BasicPoolEntry entry = poolRequest.getPoolEntry(timeout, tunit);
+                statistics.leaseRequested();
+                long start = System.nanoTime();
+                BasicPoolEntry entry = null;
+                try {
+                    entry = poolRequest.getPoolEntry(timeout, tunit);
+                } finally {
+                    statistics.leaseCompleted(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), entry != null);
+                }
+
                 SoapUIBasicPooledConnAdapter connAdapter = new SoapUIBasicPooledConnAdapter(
                         SoapUIMultiThreadedHttpConnectionManager.this, entry);
+                connAdapter.setLeasedRoute(route);
                 return connAdapter;
             }
         };
@@ -167,6 +226,18 @@ public class SoapUIMultiThreadedHttpConnectionManager extends ThreadSafeClientCo
             if (entry == null) {
                 return;
             }
+
+            RouteConnectionPolicy policy = getRoutePolicy(hca.getLeasedRoute());
+            if (policy != null && policy.getKeepAliveSeconds() == 0) {
+                hca.unmarkReusable();
+            } else if (policy != null && policy.getKeepAliveSeconds() > 0) {
+                long keepAlive = TimeUnit.SECONDS.toMillis(policy.getKeepAliveSeconds());
+                if (validDuration <= 0 || timeUnit.toMillis(validDuration) > keepAlive) {
+                    validDuration = keepAlive;
+                    timeUnit = TimeUnit.MILLISECONDS;
+                }
+            }
+
             try {
                 // make sure that the response has been read completely
                 if (hca.isOpen() && !hca.isMarkedReusable()) {
@@ -195,6 +266,7 @@ public class SoapUIMultiThreadedHttpConnectionManager extends ThreadSafeClientCo
                 }
                 hca.detach();
                 pool.freeEntry(entry, reusable, validDuration, timeUnit);
+                statistics.connectionReleased();
             }
         }
     }
@@ -203,6 +275,7 @@ public class SoapUIMultiThreadedHttpConnectionManager extends ThreadSafeClientCo
     public void shutdown() {
         super.shutdown(); //To change body of generated methods, choose Tools | Templates.
         idleConnectionHandler.shutdown();
+        statistics.unregisterMBean();
     }
 
 
@@ -266,6 +339,7 @@ public class SoapUIMultiThreadedHttpConnectionManager extends ThreadSafeClientCo
                     }
                     prepareSocket(sock, context, params);
                     conn.openCompleted(sf.isSecure(sock), params);
+                    statistics.connectionOpened();
 
                     SoapUIMetrics metrics = (SoapUIMetrics) conn.getMetrics();
 
@@ -273,6 +347,15 @@ public class SoapUIMultiThreadedHttpConnectionManager extends ThreadSafeClientCo
                         metrics.getDNSTimer().set(start, dnsEnd);
                     }
 
+                    // handshake right away to tell full from resumed TLS sessions
+                    if (sock instanceof SSLSocket) {
+                        boolean resumed = SoapUISSLSocketFactory.startHandshake((SSLSocket) sock);
+                        if (metrics != null) {
+                            metrics.setTlsHandshake(resumed ? SoapUIMetrics.RESUMED_HANDSHAKE
+                                    : SoapUIMetrics.FULL_HANDSHAKE);
+                        }
+                    }
+
                     return;
                 } catch (ConnectException ex) {
                     if (last) {
@@ -308,11 +391,20 @@ public class SoapUIMultiThreadedHttpConnectionManager extends ThreadSafeClientCo
     }
 
     static class SoapUIBasicPooledConnAdapter extends BasicPooledConnAdapter {
+        private HttpRoute leasedRoute;
 
         protected SoapUIBasicPooledConnAdapter(ThreadSafeClientConnManager tsccm, AbstractPoolEntry entry) {
             super(tsccm, entry);
         }
 
+        HttpRoute getLeasedRoute() {
+            return leasedRoute;
+        }
+
+        void setLeasedRoute(HttpRoute leasedRoute) {
+            this.leasedRoute = leasedRoute;
+        }
+
         @Override
         protected ClientConnectionManager getManager() {
             // override needed only to make method visible in this package
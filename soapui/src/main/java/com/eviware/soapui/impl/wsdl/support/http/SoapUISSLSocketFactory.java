@@ -21,18 +21,25 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.nio.charset.Charset;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -45,11 +52,25 @@ import org.apache.http.params.HttpParams;
 import org.apache.log4j.Logger;
 
 import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.model.settings.Settings;
+import com.eviware.soapui.settings.SSLSettings;
 import com.eviware.soapui.support.StringUtils;
 
 public class SoapUISSLSocketFactory extends SSLSocketFactory {
-    // a cache of factories for custom certificates/Keystores at the project level - never cleared
-    private static final Map<String, SSLSocketFactory> factoryMap = new ConcurrentHashMap<String, SSLSocketFactory>();
+    // factories for the global and project level certificates/Keystores by keystore path, shared so that all
+    // requests with the same keystore use the same SSLContext and TLS session cache - an entry is replaced when
+    // the keystore file or its password changes
+    private static final Map<String, CachedFactory> factoryMap = new ConcurrentHashMap<String, CachedFactory>();
+    private static final int MAX_TRACKED_PEERS = 1000;
+    // ID of the session negotiated by the last handshake with each peer, to tell resumed sessions from new ones
+    private static final Map<String, byte[]> peerSessionIds = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(
+            16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_TRACKED_PEERS;
+        }
+    });
+    private static final String SESSION_TICKET_PROPERTY = "jdk.tls.client.enableSessionTicketExtension";
     private final String sslContextAlgorithm = System.getProperty("soapui.sslcontext.algorithm", "TLS");
     private final SSLContext sslContext = SSLContext.getInstance(sslContextAlgorithm);
     private final static Logger log = Logger.getLogger(SoapUISSLSocketFactory.class);
@@ -84,19 +105,144 @@ public class SoapUISSLSocketFactory extends SSLSocketFactory {
             sslContext.init(null, new TrustManager[]{tm}, null);
         }
 
+        configureSessionContext(sslContext);
         setHostnameVerifier(SSLSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);
 
     }
 
+    /**
+     * Returns the shared factory for the specified keystore file and password, creating it if the keystore has
+     * not been used before or has been modified since
+     */
+
+    public static SoapUISSLSocketFactory getInstance(String keyStorePath, String password)
+            throws KeyManagementException, UnrecoverableKeyException, NoSuchAlgorithmException, KeyStoreException {
+        keyStorePath = keyStorePath == null ? "" : keyStorePath.trim();
+        File file = keyStorePath.length() > 0 ? new File(keyStorePath) : null;
+        long lastModified = file != null && file.exists() ? file.lastModified() : 0;
+        byte[] passwordDigest = digest(password);
+
+        CachedFactory cached = factoryMap.get(keyStorePath);
+        if (cached != null && cached.matches(passwordDigest, lastModified)) {
+            return cached.factory;
+        }
+
+        KeyStore keyStore = null;
+        if (file != null && file.exists()) {
+            log.info("Initializing KeyStore from [" + keyStorePath + "]");
+
+            try {
+                KeyMaterial km = new KeyMaterial(file, password == null ? new char[0] : password.toCharArray());
+                keyStore = km.getKeyStore();
+            } catch (Exception e) {
+                SoapUI.logError(e);
+            }
+        }
+
+        SoapUISSLSocketFactory factory = new SoapUISSLSocketFactory(keyStore, password);
+        factoryMap.put(keyStorePath, new CachedFactory(factory, passwordDigest, lastModified));
+        return factory;
+    }
+
+    static int getCachedFactoryCount() {
+        return factoryMap.size();
+    }
+
+    private static byte[] digest(String password) throws NoSuchAlgorithmException {
+        if (password == null) {
+            return new byte[0];
+        }
+
+        return MessageDigest.getInstance("SHA-256").digest(password.getBytes(Charset.forName("UTF-8")));
+    }
+
+    public SSLContext getSSLContext() {
+        return sslContext;
+    }
+
+    private static void configureSessionContext(SSLContext context) {
+        Settings settings = SoapUI.getSettings();
+
+        // only read by the JVM when the first TLS connection is created
+        if (System.getProperty(SESSION_TICKET_PROPERTY) == null) {
+            System.setProperty(SESSION_TICKET_PROPERTY,
+                    String.valueOf(!settings.getBoolean(SSLSettings.DISABLE_SESSION_TICKETS)));
+        }
+
+        SSLSessionContext sessionContext = context.getClientSessionContext();
+        if (sessionContext == null) {
+            return;
+        }
+
+        int cacheSize = (int) settings.getLong(SSLSettings.SESSION_CACHE_SIZE, 0);
+        if (cacheSize > 0) {
+            sessionContext.setSessionCacheSize(cacheSize);
+        }
+
+        int timeout = (int) settings.getLong(SSLSettings.SESSION_TIMEOUT, 0);
+        if (timeout > 0) {
+            sessionContext.setSessionTimeout(timeout);
+        }
+    }
+
+    /**
+     * Applies changed session cache settings to the SSLContexts of all existing factories
+     */
+
+    public static void updateSessionSettings() {
+        for (CachedFactory cached : factoryMap.values()) {
+            configureSessionContext(cached.factory.getSSLContext());
+        }
+    }
+
+    private static boolean isSessionResumptionEnabled() {
+        return !StringUtils.hasContent(System.getProperty("soapui.https.session.invalidate"))
+                && !SoapUI.getSettings().getBoolean(SSLSettings.DISABLE_SESSION_RESUMPTION);
+    }
+
+    /**
+     * Performs the handshake of a newly connected socket, returning true if a cached session was resumed instead
+     * of negotiating a new one. A session counts as resumed when it has the ID of the session negotiated by the
+     * previous handshake with the same peer; TLS 1.3 resumptions get a new session ID and count as full handshakes.
+     */
+
+    public static boolean startHandshake(SSLSocket socket) throws IOException {
+        socket.startHandshake();
+
+        SSLSession session = socket.getSession();
+        String peer = System.identityHashCode(session.getSessionContext()) + "@"
+                + socket.getInetAddress().getHostAddress() + ":" + socket.getPort();
+        byte[] sessionId = session.getId();
+        byte[] previousId = peerSessionIds.put(peer, sessionId);
+        boolean resumed = sessionId != null && sessionId.length > 0 && Arrays.equals(sessionId, previousId);
+
+        if (!isSessionResumptionEnabled()) {
+            session.invalidate();
+        }
+
+        return resumed;
+    }
+
+    private static class CachedFactory {
+        private final SoapUISSLSocketFactory factory;
+        private final byte[] passwordDigest;
+        private final long lastModified;
+
+        public CachedFactory(SoapUISSLSocketFactory factory, byte[] passwordDigest, long lastModified) {
+            this.factory = factory;
+            this.passwordDigest = passwordDigest;
+            this.lastModified = lastModified;
+        }
+
+        public boolean matches(byte[] passwordDigest, long lastModified) {
+            return this.lastModified == lastModified && MessageDigest.isEqual(this.passwordDigest, passwordDigest);
+        }
+    }
+
     private static SSLSocket enableSocket(SSLSocket socket) {
-        String invalidateSession = System.getProperty("soapui.https.session.invalidate");
         String protocols = System.getProperty("soapui.https.protocols");
         String ciphers = System.getProperty("soapui.https.ciphers");
 
-        if (StringUtils.hasContent(invalidateSession)) {
-            socket.getSession().invalidate();
-        }
-
         if (StringUtils.hasContent(protocols)) {
             socket.setEnabledProtocols(protocols.split(","));
         }
@@ -124,44 +270,12 @@ public class SoapUISSLSocketFactory extends SSLSocketFactory {
             return enableSocket((SSLSocket) sslContext.getSocketFactory().createSocket());
         }
 
-        SSLSocketFactory factory = factoryMap.get(sslConfig);
-
-        if (factory != null) {
-            if (factory == this) {
-                return enableSocket((SSLSocket) sslContext.getSocketFactory().createSocket());
-            } else {
-                return enableSocket((SSLSocket) factory.createSocket(params));
-            }
-        }
-
         try {
-            // try to create new factory for specified config
+            // projects using the same keystore as the global settings or each other share the factory
             int ix = sslConfig.lastIndexOf(' ');
-            String keyStore = sslConfig.substring(0, ix);
-            String pwd = sslConfig.substring(ix + 1);
-
-            KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
-
-            if (keyStore.trim().length() > 0) {
-                File f = new File(keyStore);
-
-                if (f.exists()) {
-                    log.info("Initializing Keystore from [" + keyStore + "]");
-
-                    try {
-                        KeyMaterial km = new KeyMaterial(f, pwd.toCharArray());
-                        ks = km.getKeyStore();
-                    } catch (Exception e) {
-                        SoapUI.logError(e);
-                        pwd = null;
-                    }
-                }
-            }
-
-            factory = new SoapUISSLSocketFactory(ks, pwd);
-            factoryMap.put(sslConfig, factory);
+            SoapUISSLSocketFactory factory = getInstance(sslConfig.substring(0, ix), sslConfig.substring(ix + 1));
 
-            return enableSocket((SSLSocket) factory.createSocket(params));
+            return enableSocket((SSLSocket) factory.getSSLContext().getSocketFactory().createSocket());
         } catch (Exception gse) {
             SoapUI.logError(gse);
             return enableSocket((SSLSocket) super.createSocket(params));
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.soap;
+
+import java.io.StringReader;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.eviware.soapui.support.StringUtils;
+
+/**
+ * Envelope namespace and first Body child of a SOAP message, read with a streaming parser that stops at the
+ * first Body child so that requests can be routed without building the complete XmlObject.
+ */
+
+public class SoapEnvelopeScan {
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    private final String envelopeNamespace;
+    private final boolean hasBody;
+    private final QName contentElementName;
+
+    private SoapEnvelopeScan(String envelopeNamespace, boolean hasBody, QName contentElementName) {
+        this.envelopeNamespace = envelopeNamespace;
+        this.hasBody = hasBody;
+        this.contentElementName = contentElementName;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Scans the specified message, returning null if it is empty or not well-formed up to the first Body child
+     */
+
+    public static SoapEnvelopeScan scan(String content) {
+        if (StringUtils.isNullOrEmpty(content)) {
+            return null;
+        }
+
+        XMLStreamReader reader = null;
+        try {
+            reader = inputFactory.createXMLStreamReader(new StringReader(content));
+
+            String envelopeNamespace = null;
+            boolean inBody = false;
+            int depth = 0;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String namespace = reader.getNamespaceURI() == null ? "" : reader.getNamespaceURI();
+
+                    if (depth == 1) {
+                        if (!"Envelope".equals(reader.getLocalName())) {
+                            return new SoapEnvelopeScan(null, false, null);
+                        }
+                        envelopeNamespace = namespace;
+                    } else if (depth == 2 && "Body".equals(reader.getLocalName())
+                            && namespace.equals(envelopeNamespace)) {
+                        inBody = true;
+                    } else if (depth == 3 && inBody) {
+                        return new SoapEnvelopeScan(envelopeNamespace, true, new QName(namespace,
+                                reader.getLocalName()));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    if (inBody && depth == 1) {
+                        return new SoapEnvelopeScan(envelopeNamespace, true, null);
+                    }
+                }
+            }
+
+            return new SoapEnvelopeScan(envelopeNamespace, false, null);
+        } catch (XMLStreamException e) {
+            return null;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the SOAP version matching the namespace of the Envelope, or null if the message is not a SOAP
+     * Envelope of a known version
+     */
+
+    public SoapVersion getSoapVersion() {
+        if (SoapVersion.Soap11.getEnvelopeNamespace().equals(envelopeNamespace)) {
+            return SoapVersion.Soap11;
+        } else if (SoapVersion.Soap12.getEnvelopeNamespace().equals(envelopeNamespace)) {
+            return SoapVersion.Soap12;
+        }
+
+        return null;
+    }
+
+    public String getEnvelopeNamespace() {
+        return envelopeNamespace;
+    }
+
+    public boolean hasBody() {
+        return hasBody;
+    }
+
+    /**
+     * Returns the name of the first element in the Body, or null if the Body is empty
+     */
+
+    public QName getContentElementName() {
+        return contentElementName;
+    }
+
+    public boolean isFault(SoapVersion soapVersion) {
+        return contentElementName != null && "Fault".equals(contentElementName.getLocalPart())
+                && contentElementName.getNamespaceURI().equals(soapVersion.getEnvelopeNamespace());
+    }
+}
@@ -36,8 +36,10 @@ import com.eviware.soapui.impl.wsdl.WsdlOperation;
 import com.eviware.soapui.impl.wsdl.mock.DispatchException;
 import com.eviware.soapui.impl.wsdl.support.wsdl.WsdlUtils;
 import com.eviware.soapui.model.iface.Attachment;
+import com.eviware.soapui.model.propertyexpansion.PropertyExpansionContext;
 import com.eviware.soapui.support.StringUtils;
 import com.eviware.soapui.support.types.StringToStringsMap;
+import com.eviware.soapui.support.xml.ParsedContentCache;
 import com.eviware.soapui.support.xml.XmlUtils;
 
 /**
@@ -48,6 +50,16 @@ import com.eviware.soapui.support.xml.XmlUtils;
 
 public class SoapUtils {
     public static boolean isSoapFault(String responseContent, SoapVersion soapVersion) throws XmlException {
+        return isSoapFault(responseContent, soapVersion, null);
+    }
+
+    /**
+     * Checks for a SOAP Fault, reusing the document already parsed from the same content in the specified
+     * context (if any)
+     */
+
+    public static boolean isSoapFault(String responseContent, SoapVersion soapVersion,
+                                      PropertyExpansionContext context) throws XmlException {
         if (StringUtils.isNullOrEmpty(responseContent)) {
             return false;
         }
@@ -55,7 +67,7 @@ public class SoapUtils {
         // check manually before resource intensive xpath
         if (responseContent.indexOf(":Fault") > 0 || responseContent.indexOf("<Fault") > 0) {
             // XmlObject xml = XmlObject.Factory.parse( responseContent );
-            XmlObject xml = XmlUtils.createXmlObject(responseContent);
+            XmlObject xml = ParsedContentCache.getXmlObject(context, responseContent, false);
             XmlObject[] paths = xml.selectPath("declare namespace env='" + soapVersion.getEnvelopeNamespace() + "';"
                     + "//env:Fault");
             if (paths.length > 0) {
@@ -193,6 +205,51 @@ public class SoapUtils {
         return null;
     }
 
+    /**
+     * Returns true if the SOAPAction and SOAP version of a request do not rule out the specified operation
+     */
+
+    public static boolean matchesSoapActionAndVersion(WsdlOperation wsdlOperation, SoapVersion soapVersion,
+                                                      String soapAction, boolean requireSoapVersionMatch, boolean requireSoapActionMatch) {
+        String action = wsdlOperation.getAction();
+        if (requireSoapActionMatch && !((soapAction == null && action == null) || (action != null && action
+                .equals(soapAction)))) {
+            return false;
+        }
+
+        return !requireSoapVersionMatch || wsdlOperation.getInterface().getSoapVersion() == soapVersion;
+    }
+
+    /**
+     * Returns true if the specified attachments contain all attachment parts of the input message of a document
+     * style operation
+     */
+
+    @SuppressWarnings("unchecked")
+    public static boolean hasAllAttachmentParts(WsdlOperation wsdlOperation, Attachment[] attachments) {
+        // check that all attachments match
+        BindingOperation bindingOperation = wsdlOperation.getBindingOperation();
+        Message message = bindingOperation.getOperation().getInput().getMessage();
+        List<Part> parts = message.getOrderedParts(null);
+
+        for (int x = 0; x < parts.size(); x++) {
+            // check for attachment part
+            if (WsdlUtils.isAttachmentInputPart(parts.get(x), bindingOperation)) {
+                for (Attachment attachment : attachments) {
+                    if (attachment.getPart().equals(parts.get(x).getName())) {
+                        parts.remove(x);
+                        x--;
+                    }
+                }
+            } else {
+                parts.remove(x);
+                x--;
+            }
+        }
+
+        return parts.isEmpty();
+    }
+
     @SuppressWarnings("unchecked")
     public static WsdlOperation findOperationForRequest(SoapVersion soapVersion, String soapAction,
                                                         XmlObject requestContent, List<WsdlOperation> operations, boolean requireSoapVersionMatch,
@@ -234,28 +291,8 @@ public class SoapUtils {
 
                 // check content
                 if (wsdlOperation.getStyle().equals(WsdlOperation.STYLE_DOCUMENT)) {
-                    // check that all attachments match
-                    BindingOperation bindingOperation = wsdlOperation.getBindingOperation();
-                    Message message = bindingOperation.getOperation().getInput().getMessage();
-                    List<Part> parts = message.getOrderedParts(null);
-
-                    for (int x = 0; x < parts.size(); x++) {
-                        // check for attachment part
-                        if (WsdlUtils.isAttachmentInputPart(parts.get(x), bindingOperation)) {
-                            for (Attachment attachment : attachments) {
-                                if (attachment.getPart().equals(parts.get(x).getName())) {
-                                    parts.remove(x);
-                                    x--;
-                                }
-                            }
-                        } else {
-                            parts.remove(x);
-                            x--;
-                        }
-                    }
-
                     // matches!
-                    if (parts.isEmpty()) {
+                    if (hasAllAttachmentParts(wsdlOperation, attachments)) {
                         return wsdlOperation;
                     }
                 } else if (wsdlOperation.getStyle().equals(WsdlOperation.STYLE_RPC)) {
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.wsdl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.wsdl.BindingFault;
+import javax.wsdl.BindingOperation;
+import javax.wsdl.Part;
+import javax.xml.namespace.QName;
+
+import org.apache.log4j.Logger;
+import org.apache.xmlbeans.SchemaGlobalElement;
+import org.apache.xmlbeans.SchemaType;
+import org.apache.xmlbeans.SchemaTypeLoader;
+
+import com.eviware.soapui.impl.wsdl.support.soap.SoapVersion;
+
+/**
+ * The parts of a request or response message of a BindingOperation, resolved against the schema types of a
+ * WsdlContext once so that validating a message does not have to walk the definition again. Instances are
+ * immutable and shared by all threads validating messages of the operation.
+ *
+ * @see WsdlContext#getCompiledMessage(BindingOperation, boolean)
+ */
+
+public class CompiledWsdlMessage {
+    private final static Logger log = Logger.getLogger(CompiledWsdlMessage.class);
+
+    private final BindingOperation bindingOperation;
+    private final boolean response;
+    private final Part[] parts;
+    private final boolean soapEncoded;
+    private final boolean rpc;
+    private final String faultPath;
+    private final String rpcWrapperPath;
+    private final String rpcWrapperName;
+    private final CompiledPart[] bodyParts;
+    private final CompiledPart[] faultParts;
+
+    CompiledWsdlMessage(WsdlContext wsdlContext, BindingOperation bindingOperation, boolean response)
+            throws Exception {
+        this.bindingOperation = bindingOperation;
+        this.response = response;
+
+        SchemaTypeLoader loader = wsdlContext.getSchemaTypeLoader();
+        SoapVersion soapVersion = wsdlContext.getSoapVersion();
+        String envelopeNs = soapVersion.getEnvelopeNamespace();
+        String targetNs = WsdlUtils.getTargetNamespace(wsdlContext.getDefinition());
+
+        parts = response ? WsdlUtils.getOutputParts(bindingOperation) : WsdlUtils.getInputParts(bindingOperation);
+        soapEncoded = WsdlUtils.isOutputSoapEncoded(bindingOperation);
+        rpc = WsdlUtils.isRpc(wsdlContext.getDefinition(), bindingOperation);
+        faultPath = "declare namespace env='" + envelopeNs + "';$this/env:Envelope/env:Body/env:Fault";
+
+        String wrapperName = bindingOperation.getName() + (response ? "Response" : "");
+        if (rpc) {
+            // rpc requests should use the operation name as root element and soapbind namespaceuri attribute as ns
+            String ns = WsdlUtils.getSoapBodyNamespace(response ? bindingOperation.getBindingOutput()
+                    .getExtensibilityElements() : bindingOperation.getBindingInput().getExtensibilityElements());
+            if (ns == null || ns.trim().length() == 0) {
+                ns = targetNs;
+            }
+
+            rpcWrapperPath = "declare namespace env='" + envelopeNs + "';declare namespace ns='" + ns + "';"
+                    + "$this/env:Envelope/env:Body/ns:" + wrapperName;
+            rpcWrapperName = targetNs + "@" + wrapperName;
+        } else {
+            rpcWrapperPath = null;
+            rpcWrapperName = null;
+        }
+
+        List<CompiledPart> compiledParts = new ArrayList<CompiledPart>();
+        for (Part part : parts) {
+            if (response ? WsdlUtils.isAttachmentOutputPart(part, bindingOperation) : WsdlUtils.isAttachmentInputPart(
+                    part, bindingOperation)) {
+                continue;
+            }
+
+            String path;
+            QName elementName = part.getElementName();
+            if (rpc) {
+                // element name path is a loophole in the basic-profile spec
+                path = elementName == null ? null : "declare namespace env='" + envelopeNs + "';declare namespace ns='"
+                        + wsdlContext.getDefinition().getTargetNamespace() + "';declare namespace ns2='"
+                        + elementName.getNamespaceURI() + "';$this/env:Envelope/env:Body/ns:" + wrapperName + "/ns2:"
+                        + elementName.getLocalPart();
+            } else if (elementName != null) {
+                path = "declare namespace env='" + envelopeNs + "';declare namespace ns='"
+                        + elementName.getNamespaceURI() + "';$this/env:Envelope/env:Body/ns:" + elementName.getLocalPart();
+            } else {
+                path = part.getTypeName() == null ? null : "declare namespace env='" + envelopeNs
+                        + "';declare namespace ns='" + part.getTypeName().getNamespaceURI() + "';"
+                        + "$this/env:Envelope/env:Body/ns:" + part.getName();
+            }
+
+            compiledParts.add(new CompiledPart(part, path, loader));
+        }
+        bodyParts = compiledParts.toArray(new CompiledPart[compiledParts.size()]);
+
+        compiledParts.clear();
+        Iterator<?> i = bindingOperation.getBindingFaults().values().iterator();
+        while (i.hasNext()) {
+            String faultName = ((BindingFault) i.next()).getName();
+
+            Part[] partsOfFault = WsdlUtils.getFaultParts(bindingOperation, faultName);
+            if (partsOfFault.length == 0) {
+                log.warn("Missing fault parts in wsdl for fault [" + faultName + "] in bindingOperation ["
+                        + bindingOperation.getName() + "]");
+                continue;
+            }
+
+            if (partsOfFault.length != 1) {
+                log.info("Too many fault parts in wsdl for fault [" + faultName + "] in bindingOperation ["
+                        + bindingOperation.getName() + "]");
+                continue;
+            }
+
+            Part part = partsOfFault[0];
+            QName name = part.getElementName() != null ? part.getElementName() : part.getTypeName();
+            if (name != null) {
+                String localName = part.getElementName() != null ? name.getLocalPart() : part.getName();
+                compiledParts.add(new CompiledPart(part, "declare namespace env='" + envelopeNs
+                        + "'; declare namespace flt='" + soapVersion.getFaultDetailNamespace() + "';"
+                        + "declare namespace ns='" + name.getNamespaceURI() + "';//env:Fault/flt:detail/ns:" + localName,
+                        loader));
+            }
+        }
+        faultParts = compiledParts.toArray(new CompiledPart[compiledParts.size()]);
+    }
+
+    public BindingOperation getBindingOperation() {
+        return bindingOperation;
+    }
+
+    public boolean isResponse() {
+        return response;
+    }
+
+    public Part[] getParts() {
+        return parts;
+    }
+
+    public boolean isSoapEncoded() {
+        return soapEncoded;
+    }
+
+    public boolean isRpc() {
+        return rpc;
+    }
+
+    public String getFaultPath() {
+        return faultPath;
+    }
+
+    public String getRpcWrapperPath() {
+        return rpcWrapperPath;
+    }
+
+    public String getRpcWrapperName() {
+        return rpcWrapperName;
+    }
+
+    /**
+     * The non-attachment parts, in definition order
+     */
+
+    public CompiledPart[] getBodyParts() {
+        return bodyParts;
+    }
+
+    /**
+     * The fault parts that can be validated, in the order of the binding faults
+     */
+
+    public CompiledPart[] getFaultParts() {
+        return faultParts;
+    }
+
+    public static class CompiledPart {
+        private final Part part;
+        private final QName partName;
+        private final String path;
+        private final SchemaType elementType;
+        private final SchemaType type;
+
+        CompiledPart(Part part, String path, SchemaTypeLoader loader) {
+            this.part = part;
+            this.path = path;
+
+            partName = new QName(part.getName());
+
+            SchemaGlobalElement element = part.getElementName() == null ? null : loader.findElement(part
+                    .getElementName());
+            elementType = element == null ? null : element.getType();
+            type = part.getTypeName() == null ? null : loader.findType(part.getTypeName());
+        }
+
+        public Part getPart() {
+            return part;
+        }
+
+        public QName getPartName() {
+            return partName;
+        }
+
+        /**
+         * The path selecting this part in a message, or null if it can not be located by element or type name
+         */
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * The type of the element of this part, or null if it has no element or it is missing from the schema
+         */
+
+        public SchemaType getElementType() {
+            return elementType;
+        }
+
+        /**
+         * The type of this part, or null if it has no type or it is missing from the schema
+         */
+
+        public SchemaType getType() {
+            return type;
+        }
+    }
+}
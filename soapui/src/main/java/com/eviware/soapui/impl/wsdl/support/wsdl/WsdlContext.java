@@ -16,6 +16,10 @@
 
 package com.eviware.soapui.impl.wsdl.support.wsdl;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.wsdl.BindingOperation;
 import javax.wsdl.Definition;
 
 import com.eviware.soapui.impl.support.definition.DefinitionCache;
@@ -34,6 +38,9 @@ import com.eviware.soapui.impl.wsdl.support.soap.SoapVersion;
 public class WsdlContext extends
         AbstractDefinitionContext<WsdlInterface, WsdlDefinitionLoader, WsdlInterfaceDefinition> {
     private SoapVersion soapVersion = SoapVersion.Soap11;
+    private final Map<BindingOperation, CompiledWsdlMessage> compiledRequests = new ConcurrentHashMap<BindingOperation, CompiledWsdlMessage>();
+    private final Map<BindingOperation, CompiledWsdlMessage> compiledResponses = new ConcurrentHashMap<BindingOperation, CompiledWsdlMessage>();
+    private volatile WsdlInterfaceDefinition compiledDefinition;
 
     public WsdlContext(String url, WsdlInterface iface) {
         super(url, iface);
@@ -66,6 +73,30 @@ public class WsdlContext extends
         return getInterfaceDefinition().getWsdlDefinition();
     }
 
+    /**
+     * Returns the request or response message of the specified operation resolved against the schema types of this
+     * context; compiled messages are shared until the definition is reloaded.
+     */
+
+    public CompiledWsdlMessage getCompiledMessage(BindingOperation bindingOperation, boolean isResponse)
+            throws Exception {
+        WsdlInterfaceDefinition definition = getInterfaceDefinition();
+        if (definition != compiledDefinition) {
+            compiledRequests.clear();
+            compiledResponses.clear();
+            compiledDefinition = definition;
+        }
+
+        Map<BindingOperation, CompiledWsdlMessage> compiledMessages = isResponse ? compiledResponses : compiledRequests;
+        CompiledWsdlMessage compiledMessage = compiledMessages.get(bindingOperation);
+        if (compiledMessage == null) {
+            compiledMessage = new CompiledWsdlMessage(this, bindingOperation, isResponse);
+            compiledMessages.put(bindingOperation, compiledMessage);
+        }
+
+        return compiledMessage;
+    }
+
     public SoapVersion getSoapVersion() {
         return getInterface() == null ? soapVersion : getInterface().getSoapVersion();
     }
@@ -23,7 +23,6 @@ import java.util.List;
 import java.util.Map;
 
 import javax.wsdl.Binding;
-import javax.wsdl.BindingFault;
 import javax.wsdl.BindingOperation;
 import javax.wsdl.Part;
 import javax.wsdl.Port;
@@ -68,6 +67,10 @@ public class WsdlValidator {
         this.wsdlContext = wsdlContext;
     }
 
+    public WsdlContext getWsdlContext() {
+        return wsdlContext;
+    }
+
     public AssertionError[] assertRequest(WsdlMessageExchange messageExchange, boolean envelopeOnly) {
         List<XmlError> errors = new ArrayList<XmlError>();
         try {
@@ -75,15 +78,13 @@ public class WsdlValidator {
             wsdlContext.getSoapVersion().validateSoapEnvelope(requestContent, errors);
 
             if (errors.isEmpty() && !envelopeOnly) {
-                wsdlContext.getSoapVersion().validateSoapEnvelope(requestContent, errors);
                 WsdlOperation operation = messageExchange.getOperation();
                 BindingOperation bindingOperation = operation.getBindingOperation();
                 if (bindingOperation == null) {
                     errors.add(XmlError.forMessage("Missing operation [" + operation.getBindingOperationName()
                             + "] in wsdl definition"));
                 } else {
-                    Part[] inputParts = WsdlUtils.getInputParts(bindingOperation);
-                    validateMessage(messageExchange, requestContent, bindingOperation, inputParts, errors, false);
+                    validateMessage(messageExchange, requestContent, bindingOperation, errors, false);
                     // validateInputAttachments(request, errors, bindingOperation,
                     // inputParts);
                 }
@@ -417,33 +418,50 @@ public class WsdlValidator {
         return new AssertionError[0];
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * @deprecated the parts are resolved from the bindingOperation, use
+     *             {@link #validateMessage(WsdlMessageExchange, String, BindingOperation, List, boolean)}
+     */
+
+    @Deprecated
     public void validateMessage(WsdlMessageExchange messageExchange, String message, BindingOperation bindingOperation,
                                 Part[] parts, List<XmlError> errors, boolean isResponse) {
+        validateMessage(messageExchange, message, bindingOperation, errors, isResponse);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void validateMessage(WsdlMessageExchange messageExchange, String message, BindingOperation bindingOperation,
+                                List<XmlError> errors, boolean isResponse) {
         try {
             if (!wsdlContext.hasSchemaTypes()) {
                 errors.add(XmlError.forMessage("Missing schema types for message"));
             } else {
-                if (!WsdlUtils.isOutputSoapEncoded(bindingOperation)) {
+                CompiledWsdlMessage compiledMessage = wsdlContext.getCompiledMessage(bindingOperation, isResponse);
+                if (!compiledMessage.isSoapEncoded()) {
+                    // line numbers are expensive for large messages, which are validated in place instead
+                    long lineNumbersLimit = SoapUI.getSettings().getLong(WsdlSettings.VALIDATION_LINE_NUMBERS_LIMIT, 0);
+                    boolean lineNumbers = lineNumbersLimit <= 0 || message.length() <= lineNumbersLimit;
+
                     XmlOptions xmlOptions = new XmlOptions();
-                    xmlOptions.setLoadLineNumbers();
-                    xmlOptions.setLoadLineNumbers(XmlOptions.LOAD_LINE_NUMBERS_END_ELEMENT);
+                    if (lineNumbers) {
+                        xmlOptions.setLoadLineNumbers();
+                        xmlOptions.setLoadLineNumbers(XmlOptions.LOAD_LINE_NUMBERS_END_ELEMENT);
+                    }
                     // XmlObject xml = XmlObject.Factory.parse( message, xmlOptions
                     // );
                     XmlObject xml = XmlUtils.createXmlObject(message, xmlOptions);
 
-                    XmlObject[] paths = xml.selectPath("declare namespace env='"
-                            + wsdlContext.getSoapVersion().getEnvelopeNamespace() + "';"
-                            + "$this/env:Envelope/env:Body/env:Fault");
+                    XmlObject[] paths = xml.selectPath(compiledMessage.getFaultPath());
 
                     if (paths.length > 0) {
-                        validateSoapFault(bindingOperation, paths[0], errors);
-                    } else if (WsdlUtils.isRpc(wsdlContext.getDefinition(), bindingOperation)) {
-                        validateRpcLiteral(bindingOperation, parts, xml, errors, isResponse);
+                        validateSoapFault(compiledMessage, paths[0], errors, lineNumbers);
+                    } else if (compiledMessage.isRpc()) {
+                        validateRpcLiteral(compiledMessage, xml, errors, lineNumbers);
                     } else {
-                        validateDocLiteral(bindingOperation, parts, xml, errors, isResponse);
+                        validateDocLiteral(compiledMessage, xml, errors, lineNumbers);
                     }
 
+                    Part[] parts = compiledMessage.getParts();
                     if (isResponse) {
                         validateOutputAttachments(messageExchange, xml, errors, bindingOperation, parts);
                     } else {
@@ -517,8 +535,7 @@ public class WsdlValidator {
                         errors.add(XmlError.forMessage("Missing operation [" + operation.getBindingOperationName()
                                 + "] in wsdl definition"));
                     } else {
-                        Part[] outputParts = WsdlUtils.getOutputParts(bindingOperation);
-                        validateMessage(messageExchange, response, bindingOperation, outputParts, errors, true);
+                        validateMessage(messageExchange, response, bindingOperation, errors, true);
                     }
                 }
             }
@@ -530,37 +547,26 @@ public class WsdlValidator {
         return convertErrors(errors);
     }
 
-    private void validateDocLiteral(BindingOperation bindingOperation, Part[] parts, XmlObject msgXml,
-                                    List<XmlError> errors, boolean isResponse) throws Exception {
-        Part part = null;
-
-        // start by finding body part
-        for (int c = 0; c < parts.length; c++) {
-            // content part?
-            if ((isResponse && !WsdlUtils.isAttachmentOutputPart(parts[c], bindingOperation))
-                    || (!isResponse && !WsdlUtils.isAttachmentInputPart(parts[c], bindingOperation))) {
-                // already found?
-                if (part != null) {
-                    errors.add(XmlError.forMessage("DocLiteral message must contain 1 body part definition"));
-                    return;
-                }
-
-                part = parts[c];
-            }
+    private void validateDocLiteral(CompiledWsdlMessage compiledMessage, XmlObject msgXml, List<XmlError> errors,
+                                    boolean lineNumbers) throws Exception {
+        CompiledWsdlMessage.CompiledPart[] bodyParts = compiledMessage.getBodyParts();
+        if (bodyParts.length > 1) {
+            errors.add(XmlError.forMessage("DocLiteral message must contain 1 body part definition"));
+            return;
+        } else if (bodyParts.length == 0) {
+            return;
         }
 
-        QName elementName = part.getElementName();
+        CompiledWsdlMessage.CompiledPart part = bodyParts[0];
+        QName elementName = part.getPart().getElementName();
         if (elementName != null) {
             // just check for correct message element, other elements are avoided
             // (should create an error)
-            XmlObject[] paths = msgXml.selectPath("declare namespace env='"
-                    + wsdlContext.getSoapVersion().getEnvelopeNamespace() + "';" + "declare namespace ns='"
-                    + elementName.getNamespaceURI() + "';" + "$this/env:Envelope/env:Body/ns:" + elementName.getLocalPart());
+            XmlObject[] paths = msgXml.selectPath(part.getPath());
 
             if (paths.length == 1) {
-                SchemaGlobalElement elm = wsdlContext.getSchemaTypeLoader().findElement(elementName);
-                if (elm != null) {
-                    validateMessageBody(errors, elm.getType(), paths[0]);
+                if (part.getElementType() != null) {
+                    validateMessageBody(errors, part.getElementType(), paths[0], lineNumbers);
 
                     // ensure no other elements in body
                     NodeList children = XmlUtils.getChildElements((Element) paths[0].getDomNode().getParentNode());
@@ -580,30 +586,33 @@ public class WsdlValidator {
             } else {
                 errors.add(XmlError.forMessage("Missing message part with name [" + elementName + "]"));
             }
-        } else if (part.getTypeName() != null) {
-            QName typeName = part.getTypeName();
+        } else if (part.getPart().getTypeName() != null) {
+            QName typeName = part.getPart().getTypeName();
 
-            XmlObject[] paths = msgXml.selectPath("declare namespace env='"
-                    + wsdlContext.getSoapVersion().getEnvelopeNamespace() + "';" + "declare namespace ns='"
-                    + typeName.getNamespaceURI() + "';" + "$this/env:Envelope/env:Body/ns:" + part.getName());
+            XmlObject[] paths = msgXml.selectPath(part.getPath());
 
             if (paths.length == 1) {
-                SchemaType type = wsdlContext.getSchemaTypeLoader().findType(typeName);
-                if (type != null) {
-                    validateMessageBody(errors, type, paths[0]);
+                if (part.getType() != null) {
+                    validateMessageBody(errors, part.getType(), paths[0], lineNumbers);
                     // XmlObject obj = paths[0].copy().changeType( type );
                     // obj.validate( new XmlOptions().setErrorListener( errors ));
                 } else {
                     errors.add(XmlError.forMessage("Missing part type in associated schema"));
                 }
             } else {
-                errors.add(XmlError.forMessage("Missing message part with name:type [" + part.getName() + ":" + typeName
-                        + "]"));
+                errors.add(XmlError.forMessage("Missing message part with name:type [" + part.getPart().getName() + ":"
+                        + typeName + "]"));
             }
         }
     }
 
-    private void validateMessageBody(List<XmlError> errors, SchemaType type, XmlObject msg) throws XmlException {
+    private void validateMessageBody(List<XmlError> errors, SchemaType type, XmlObject msg, boolean lineNumbers)
+            throws XmlException {
+        if (!lineNumbers) {
+            validateMessageBodyInPlace(errors, type, msg);
+            return;
+        }
+
         // need to create new body element of correct type from xml text
         // since we want to retain line-numbers
         XmlOptions xmlOptions = new XmlOptions();
@@ -636,10 +645,28 @@ public class WsdlValidator {
         XmlObject obj = type.getTypeSystem().parse(xmlText, type, xmlOptions);
         obj = obj.changeType(type);
 
+        // transfer errors for "real" line numbers
+        int line = getLine(msg);
+        for (XmlError error : validate(obj)) {
+            int offset = error.getLine() == -1 ? 0 : error.getLine() - 1;
+            errors.add(XmlError.forLocation(error.getMessage(), error.getSourceName(), line + offset,
+                    error.getColumn(), error.getOffset()));
+        }
+    }
+
+    /**
+     * Validates a copy of the message body without the text round-trip needed for line numbers
+     */
+
+    private void validateMessageBodyInPlace(List<XmlError> errors, SchemaType type, XmlObject msg) {
+        errors.addAll(validate(msg.copy().changeType(type)));
+    }
+
+    private List<XmlError> validate(XmlObject obj) {
         // create internal error list
         ArrayList<Object> list = new ArrayList<Object>();
 
-        xmlOptions = new XmlOptions();
+        XmlOptions xmlOptions = new XmlOptions();
         xmlOptions.setErrorListener(list);
         xmlOptions.setValidateTreatLaxAsSkip();
 
@@ -647,10 +674,10 @@ public class WsdlValidator {
             obj.validate(xmlOptions);
         } catch (Exception e) {
             SoapUI.logError(e);
-            list.add("Internal Error - see error log for details - [" + e + "]");
+            list.add(XmlError.forMessage("Internal Error - see error log for details - [" + e + "]"));
         }
 
-        // transfer errors for "real" line numbers
+        List<XmlError> result = new ArrayList<XmlError>();
         for (int c = 0; c < list.size(); c++) {
             XmlError error = (XmlError) list.get(c);
 
@@ -678,10 +705,10 @@ public class WsdlValidator {
                 }
             }
 
-            int line = error.getLine() == -1 ? 0 : error.getLine() - 1;
-            errors.add(XmlError.forLocation(error.getMessage(), error.getSourceName(), getLine(msg) + line,
-                    error.getColumn(), error.getOffset()));
+            result.add(error);
         }
+
+        return result;
     }
 
     private int getLine(XmlObject object) {
@@ -696,54 +723,34 @@ public class WsdlValidator {
         return -1;
     }
 
-    private void validateRpcLiteral(BindingOperation bindingOperation, Part[] parts, XmlObject msgXml,
-                                    List<XmlError> errors, boolean isResponse) throws Exception {
-        if (parts.length == 0) {
+    private void validateRpcLiteral(CompiledWsdlMessage compiledMessage, XmlObject msgXml, List<XmlError> errors,
+                                    boolean lineNumbers) throws Exception {
+        if (compiledMessage.getParts().length == 0) {
             return;
         }
 
-        XmlObject[] bodyParts = getRpcBodyPart(bindingOperation, msgXml, isResponse);
+        XmlObject[] bodyParts = msgXml.selectPath(compiledMessage.getRpcWrapperPath());
 
         if (bodyParts.length != 1) {
-            errors.add(XmlError.forMessage("Missing message wrapper element ["
-                    + WsdlUtils.getTargetNamespace(wsdlContext.getDefinition()) + "@" + bindingOperation.getName()
-                    + (isResponse ? "Response" : "")));
+            errors.add(XmlError.forMessage("Missing message wrapper element [" + compiledMessage.getRpcWrapperName()));
         } else {
             XmlObject wrapper = bodyParts[0];
 
-            for (int i = 0; i < parts.length; i++) {
-                Part part = parts[i];
-
-                // skip attachment parts
-                if (isResponse) {
-                    if (WsdlUtils.isAttachmentOutputPart(part, bindingOperation)) {
-                        continue;
-                    }
-                } else {
-                    if (WsdlUtils.isAttachmentInputPart(part, bindingOperation)) {
-                        continue;
-                    }
-                }
-
+            // attachment parts are skipped when compiling
+            for (CompiledWsdlMessage.CompiledPart part : compiledMessage.getBodyParts()) {
                 // find part in message
-                XmlObject[] children = wrapper.selectChildren(new QName(part.getName()));
+                XmlObject[] children = wrapper.selectChildren(part.getPartName());
 
                 // not found?
                 if (children.length != 1) {
                     // try element name (loophole in basic-profile spec?)
-                    QName elementName = part.getElementName();
+                    QName elementName = part.getPart().getElementName();
                     if (elementName != null) {
-                        bodyParts = msgXml.selectPath("declare namespace env='"
-                                + wsdlContext.getSoapVersion().getEnvelopeNamespace() + "';" + "declare namespace ns='"
-                                + wsdlContext.getDefinition().getTargetNamespace() + "';" + "declare namespace ns2='"
-                                + elementName.getNamespaceURI() + "';" + "$this/env:Envelope/env:Body/ns:"
-                                + bindingOperation.getName() + (isResponse ? "Response" : "") + "/ns2:"
-                                + elementName.getLocalPart());
+                        bodyParts = msgXml.selectPath(part.getPath());
 
                         if (bodyParts.length == 1) {
-                            SchemaGlobalElement elm = wsdlContext.getSchemaTypeLoader().findElement(elementName);
-                            if (elm != null) {
-                                validateMessageBody(errors, elm.getType(), bodyParts[0]);
+                            if (part.getElementType() != null) {
+                                validateMessageBody(errors, part.getElementType(), bodyParts[0], lineNumbers);
                             } else {
                                 errors.add(XmlError.forMessage("Missing part type in associated schema for [" + elementName
                                         + "]"));
@@ -752,16 +759,14 @@ public class WsdlValidator {
                             errors.add(XmlError.forMessage("Missing message part with name [" + elementName + "]"));
                         }
                     } else {
-                        errors.add(XmlError.forMessage("Missing message part [" + part.getName() + "]"));
+                        errors.add(XmlError.forMessage("Missing message part [" + part.getPart().getName() + "]"));
                     }
                 } else {
-                    QName typeName = part.getTypeName();
-                    SchemaType type = wsdlContext.getSchemaTypeLoader().findType(typeName);
-                    if (type != null) {
-                        validateMessageBody(errors, type, children[0]);
+                    if (part.getType() != null) {
+                        validateMessageBody(errors, part.getType(), children[0], lineNumbers);
                     } else {
-                        errors.add(XmlError.forMessage("Missing type in associated schema for part [" + part.getName()
-                                + "]"));
+                        errors.add(XmlError.forMessage("Missing type in associated schema for part ["
+                                + part.getPart().getName() + "]"));
                     }
                 }
             }
@@ -786,12 +791,8 @@ public class WsdlValidator {
         return paths;
     }
 
-    @SuppressWarnings("unchecked")
-    private void validateSoapFault(BindingOperation bindingOperation, XmlObject msgXml, List<XmlError> errors)
-            throws Exception {
-        Map faults = bindingOperation.getBindingFaults();
-        Iterator<BindingFault> i = faults.values().iterator();
-
+    private void validateSoapFault(CompiledWsdlMessage compiledMessage, XmlObject msgXml, List<XmlError> errors,
+                                   boolean lineNumbers) throws Exception {
         // create internal error list
         List<?> list = new ArrayList<Object>();
 
@@ -808,67 +809,33 @@ public class WsdlValidator {
             }
         }
 
-        while (i.hasNext()) {
-            BindingFault bindingFault = i.next();
-            String faultName = bindingFault.getName();
-
-            Part[] faultParts = WsdlUtils.getFaultParts(bindingOperation, faultName);
-            if (faultParts.length == 0) {
-                log.warn("Missing fault parts in wsdl for fault [" + faultName + "] in bindingOperation ["
-                        + bindingOperation.getName() + "]");
-                continue;
-            }
-
-            if (faultParts.length != 1) {
-                log.info("Too many fault parts in wsdl for fault [" + faultName + "] in bindingOperation ["
-                        + bindingOperation.getName() + "]");
-                continue;
-            }
-
-            Part part = faultParts[0];
-            QName elementName = part.getElementName();
-
-            if (elementName != null) {
-                XmlObject[] paths = msgXml.selectPath("declare namespace env='"
-                        + wsdlContext.getSoapVersion().getEnvelopeNamespace() + "'; declare namespace flt='"
-                        + wsdlContext.getSoapVersion().getFaultDetailNamespace() + "';" + "declare namespace ns='"
-                        + elementName.getNamespaceURI() + "';" + "//env:Fault/flt:detail/ns:" + elementName.getLocalPart());
+        for (CompiledWsdlMessage.CompiledPart part : compiledMessage.getFaultParts()) {
+            QName elementName = part.getPart().getElementName();
+            XmlObject[] paths = msgXml.selectPath(part.getPath());
 
-                if (paths.length == 1) {
-                    SchemaGlobalElement elm = wsdlContext.getSchemaTypeLoader().findElement(elementName);
-                    if (elm != null) {
-                        validateMessageBody(errors, elm.getType(), paths[0]);
+            if (paths.length == 1) {
+                if (elementName != null) {
+                    if (part.getElementType() != null) {
+                        validateMessageBody(errors, part.getElementType(), paths[0], lineNumbers);
                     } else {
                         errors.add(XmlError.forMessage("Missing fault part element [" + elementName + "] for fault ["
-                                + part.getName() + "] in associated schema"));
+                                + part.getPart().getName() + "] in associated schema"));
                     }
-
-                    return;
                 }
-            }
-            // this is not allowed by Basic Profile.. remove?
-            else if (part.getTypeName() != null) {
-                QName typeName = part.getTypeName();
-
-                XmlObject[] paths = msgXml.selectPath("declare namespace env='"
-                        + wsdlContext.getSoapVersion().getEnvelopeNamespace() + "'; declare namespace flt='"
-                        + wsdlContext.getSoapVersion().getFaultDetailNamespace() + "';" + "declare namespace ns='"
-                        + typeName.getNamespaceURI() + "';" + "//env:Fault/flt:detail/ns:" + part.getName());
-
-                if (paths.length == 1) {
-                    SchemaType type = wsdlContext.getSchemaTypeLoader().findType(typeName);
-                    if (type != null) {
-                        validateMessageBody(errors, type, paths[0]);
-                    } else {
-                        errors.add(XmlError.forMessage("Missing fault part type [" + typeName + "] for fault ["
-                                + part.getName() + "] in associated schema"));
-                    }
-
-                    return;
+                // this is not allowed by Basic Profile.. remove?
+                else if (part.getType() != null) {
+                    validateMessageBody(errors, part.getType(), paths[0], lineNumbers);
+                } else {
+                    errors.add(XmlError.forMessage("Missing fault part type [" + part.getPart().getTypeName()
+                            + "] for fault [" + part.getPart().getName() + "] in associated schema"));
                 }
+
+                return;
             }
         }
 
+        BindingOperation bindingOperation = compiledMessage.getBindingOperation();
+
         // if we get here, no matching fault was found.. this is not an error but
         // should be warned..
         XmlObject[] paths = msgXml.selectPath("declare namespace env='"
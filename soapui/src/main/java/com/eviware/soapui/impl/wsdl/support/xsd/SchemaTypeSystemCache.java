@@ -0,0 +1,231 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.support.xsd;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+import org.apache.xmlbeans.SchemaTypeSystem;
+import org.apache.xmlbeans.XmlBeans;
+import org.apache.xmlbeans.XmlObject;
+
+import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.settings.WsdlSettings;
+import com.eviware.soapui.support.StringUtils;
+
+/**
+ * On-disk cache of compiled SchemaTypeSystems, keyed by a hash of the schemas that were compiled and the SoapUI
+ * version. Each entry is the .xsb metadata written by {@link SchemaTypeSystem#saveToDirectory(File)} together with
+ * a small file holding the name of the type system, which is needed to load it again.
+ * <p/>
+ * Entries are touched whenever they are loaded; each save prunes the entries that have not been used for
+ * the maximum age and the least recently used ones beyond the maximum number of entries.
+ */
+
+public class SchemaTypeSystemCache {
+    private final static Logger log = Logger.getLogger(SchemaTypeSystemCache.class);
+
+    public static final String DEFAULT_DIRECTORY = System.getProperty("user.home") + File.separatorChar + ".soapui"
+            + File.separatorChar + "schema-cache";
+
+    public static final int DEFAULT_MAX_ENTRIES = 100;
+    public static final long DEFAULT_MAX_AGE = 30L * 24 * 60 * 60 * 1000;
+
+    private static final String NAME_FILE = "typesystem.name";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String ENCODING = "UTF-8";
+
+    // temporary entries older than this are left over from runners that died while saving
+    private static final long MAX_TEMP_AGE = 60 * 60 * 1000;
+
+    private final File directory;
+    private final int maxEntries;
+    private final long maxAge;
+
+    public SchemaTypeSystemCache(File directory) {
+        this(directory, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_AGE);
+    }
+
+    /**
+     * @param maxEntries number of type systems kept in the directory, 0 for no limit
+     * @param maxAge     milliseconds an entry is kept after it was last used, 0 for no limit
+     */
+
+    public SchemaTypeSystemCache(File directory, int maxEntries, long maxAge) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Returns the cache configured in the WsdlSettings, or null if caching of schema types has been disabled
+     */
+
+    public static SchemaTypeSystemCache getConfigured() {
+        if (!SoapUI.getSettings().getBoolean(WsdlSettings.CACHE_SCHEMA_TYPES, true)) {
+            return null;
+        }
+
+        String dir = SoapUI.getSettings().getString(WsdlSettings.SCHEMA_CACHE_DIRECTORY, null);
+        return new SchemaTypeSystemCache(new File(StringUtils.isNullOrEmpty(dir) ? DEFAULT_DIRECTORY : dir));
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Creates the cache key for the specified schemas, as they will be passed to XmlBeans.compileXsd
+     */
+
+    public static String createKey(List<XmlObject> schemas, boolean strictSchemaTypes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(String.valueOf(SoapUI.SOAPUI_VERSION).getBytes(ENCODING));
+            digest.update((byte) (strictSchemaTypes ? 1 : 0));
+
+            for (XmlObject schema : schemas) {
+                String sourceName = schema.documentProperties().getSourceName();
+                digest.update(String.valueOf(sourceName).getBytes(ENCODING));
+                digest.update((byte) 0);
+                digest.update(schema.xmlText().getBytes(ENCODING));
+                digest.update((byte) 0);
+            }
+
+            return new String(Hex.encodeHex(digest.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Loads the type system stored for the specified key, returns null if there is none or it could not be
+     * loaded
+     */
+
+    public SchemaTypeSystem load(String key) {
+        File entry = new File(directory, key);
+        File nameFile = new File(entry, NAME_FILE);
+        if (!nameFile.isFile()) {
+            return null;
+        }
+
+        try {
+            String name = FileUtils.readFileToString(nameFile, ENCODING).trim();
+            ClassLoader classLoader = new URLClassLoader(new URL[]{entry.toURI().toURL()},
+                    SchemaTypeSystemCache.class.getClassLoader());
+            SchemaTypeSystem sts = XmlBeans.typeSystemForClassLoader(classLoader, name);
+
+            // keeps the entry from being pruned as least recently used
+            entry.setLastModified(System.currentTimeMillis());
+            log.debug("Loaded schema types [" + name + "] from " + entry);
+            return sts;
+        } catch (Throwable e) {
+            log.warn("Failed to load cached schema types from " + entry + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the specified type system for the key; failures are logged and otherwise ignored since the type
+     * system will just be compiled again next time
+     */
+
+    public void save(String key, SchemaTypeSystem sts) {
+        File entry = new File(directory, key);
+        if (entry.exists()) {
+            return;
+        }
+
+        // write to a unique directory first so concurrent runners never see a partial entry
+        File tempEntry = new File(directory, key + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            sts.saveToDirectory(tempEntry);
+            FileUtils.writeStringToFile(new File(tempEntry, NAME_FILE), sts.getName(), ENCODING);
+
+            if (!tempEntry.renameTo(entry) && !entry.exists()) {
+                log.warn("Failed to store schema types in " + entry);
+            }
+        } catch (Throwable e) {
+            log.warn("Failed to store schema types in " + entry + ": " + e);
+        } finally {
+            if (tempEntry.exists()) {
+                FileUtils.deleteQuietly(tempEntry);
+            }
+        }
+
+        prune(entry);
+    }
+
+    /**
+     * Deletes entries that have expired or exceed the maximum number of entries, least recently used first;
+     * the specified entry is kept since it has just been stored
+     */
+
+    void prune(File keep) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Arrays.sort(files, new Comparator<File>() {
+            public int compare(File file1, File file2) {
+                long modified1 = file1.lastModified();
+                long modified2 = file2.lastModified();
+                return modified1 > modified2 ? -1 : modified1 < modified2 ? 1 : 0;
+            }
+        });
+
+        int entries = 0;
+        for (File file : files) {
+            if (!file.isDirectory()) {
+                continue;
+            } else if (file.equals(keep)) {
+                entries++;
+                continue;
+            }
+
+            long age = now - file.lastModified();
+            boolean expired;
+            if (file.getName().endsWith(TEMP_SUFFIX)) {
+                expired = age > MAX_TEMP_AGE;
+            } else {
+                entries++;
+                expired = (maxAge > 0 && age > maxAge) || (maxEntries > 0 && entries > maxEntries);
+            }
+
+            if (expired) {
+                log.debug("Pruning schema types in " + file);
+                FileUtils.deleteQuietly(file);
+            }
+        }
+    }
+}
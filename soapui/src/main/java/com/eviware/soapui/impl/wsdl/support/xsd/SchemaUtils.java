@@ -257,9 +257,23 @@ public class SchemaUtils {
             // schemas.add( soapVersion.getSoapEnvelopeSchema());
             schemas.addAll(defaultSchemas.values());
 
+            SchemaTypeSystemCache cache = SchemaTypeSystemCache.getConfigured();
+            String cacheKey = null;
+            if (cache != null) {
+                cacheKey = SchemaTypeSystemCache.createKey(schemas, strictSchemaTypes);
+                SchemaTypeSystem cached = cache.load(cacheKey);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+
             SchemaTypeSystem sts = XmlBeans.compileXsd(schemas.toArray(new XmlObject[schemas.size()]),
                     XmlBeans.getBuiltinTypeSystem(), options);
 
+            if (cache != null) {
+                cache.save(cacheKey, sts);
+            }
+
             return sts;
             // return XmlBeans.typeLoaderUnion(new SchemaTypeLoader[] { sts,
             // XmlBeans.getBuiltinTypeSystem() });
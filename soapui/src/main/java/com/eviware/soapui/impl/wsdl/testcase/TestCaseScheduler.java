@@ -0,0 +1,119 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.testcase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import com.eviware.soapui.model.testsuite.TestCase;
+
+/**
+ * Limits the number of TestCases that run at the same time. A scheduler either belongs to a single TestSuite
+ * run, or is shared through the run context by all TestSuites of a parallel project run; TestCases of all
+ * suites then compete for the same slots, so a suite that runs out of work leaves its slots to the others.
+ * <p/>
+ * Slots are handed out in request order, so no suite is starved by the others.
+ */
+
+public class TestCaseScheduler {
+    /**
+     * Run context property holding the scheduler shared by all TestSuites of a project run
+     */
+
+    public static final String RUN_CONTEXT_PROPERTY = "#TestCaseScheduler#";
+
+    /**
+     * TestCase setting holding the time taken by its last run, used for running the longest TestCases first
+     */
+
+    public static final String LAST_RUN_TIME_SETTING = WsdlTestCase.class.getSimpleName() + "@lastRunTime";
+
+    private final int maxConcurrentTestCases;
+    private final Semaphore slots;
+
+    /**
+     * Creates a scheduler for the specified number of concurrent TestCases, 0 or less for no limit
+     */
+
+    public TestCaseScheduler(long maxConcurrentTestCases) {
+        this.maxConcurrentTestCases = (int) Math.max(0, Math.min(maxConcurrentTestCases, Integer.MAX_VALUE));
+        slots = this.maxConcurrentTestCases > 0 ? new Semaphore(this.maxConcurrentTestCases, true) : null;
+    }
+
+    public int getMaxConcurrentTestCases() {
+        return maxConcurrentTestCases;
+    }
+
+    public boolean isLimited() {
+        return slots != null;
+    }
+
+    public void acquire() throws InterruptedException {
+        if (slots != null) {
+            slots.acquire();
+        }
+    }
+
+    public void release() {
+        if (slots != null) {
+            slots.release();
+        }
+    }
+
+    public int getAvailableSlots() {
+        return slots == null ? Integer.MAX_VALUE : slots.availablePermits();
+    }
+
+    /**
+     * Returns the specified TestCases ordered by the time taken by their last run, longest first. TestCases
+     * that have not been timed yet come first, since they might be the longest of all; the order is stable
+     * otherwise.
+     */
+
+    public static <T extends TestCase> List<T> orderLongestFirst(List<T> testCases) {
+        List<T> result = new ArrayList<T>(testCases);
+        Collections.sort(result, new Comparator<T>() {
+            public int compare(T testCase1, T testCase2) {
+                long time1 = getLastRunTime(testCase1);
+                long time2 = getLastRunTime(testCase2);
+
+                if (time1 == time2) {
+                    return 0;
+                }
+
+                if (time1 <= 0 || time2 <= 0) {
+                    return time1 <= 0 ? -1 : 1;
+                }
+
+                return time1 > time2 ? -1 : 1;
+            }
+        });
+
+        return result;
+    }
+
+    public static long getLastRunTime(TestCase testCase) {
+        return testCase.getSettings().getLong(LAST_RUN_TIME_SETTING, 0);
+    }
+
+    public static void setLastRunTime(TestCase testCase, long timeTaken) {
+        testCase.getSettings().setLong(LAST_RUN_TIME_SETTING, timeTaken);
+    }
+}
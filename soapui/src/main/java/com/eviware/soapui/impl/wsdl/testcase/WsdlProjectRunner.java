@@ -17,6 +17,7 @@
 package com.eviware.soapui.impl.wsdl.testcase;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -39,11 +40,13 @@ import com.eviware.soapui.support.types.StringToObjectMap;
 
 public class WsdlProjectRunner extends AbstractTestRunner<WsdlProject, WsdlProjectRunContext> implements ProjectRunner {
     private ProjectRunListener[] listeners;
-    private Set<TestSuiteRunner> finishedRunners = new HashSet<TestSuiteRunner>();
-    private Set<TestSuiteRunner> activeRunners = new HashSet<TestSuiteRunner>();
+    private Set<TestSuiteRunner> finishedRunners = Collections.synchronizedSet(new HashSet<TestSuiteRunner>());
+    private Set<TestSuiteRunner> activeRunners = Collections.synchronizedSet(new HashSet<TestSuiteRunner>());
     private int currentTestSuiteIndex;
     private WsdlTestSuite currentTestSuite;
     private TestSuiteRunListener internalTestRunListener = new InternalTestSuiteRunListener();
+    private final Object pendingLock = new Object();
+    private int pendingTestSuites;
 
     public WsdlProjectRunner(WsdlProject project, StringToObjectMap properties) {
         super(project, properties);
@@ -94,8 +97,22 @@ public class WsdlProjectRunner extends AbstractTestRunner<WsdlProject, WsdlProje
         currentTestSuiteIndex = -1;
         currentTestSuite = null;
 
+        // all suites take their TestCases' slots from the same scheduler
+        TestCaseScheduler scheduler = new TestCaseScheduler(project.getMaxParallelTestCases());
+        if (scheduler.isLimited()) {
+            runContext.setProperty(TestCaseScheduler.RUN_CONTEXT_PROPERTY, scheduler);
+        }
+
         for (TestSuite testSuite : project.getTestSuiteList()) {
+            if (!isRunning()) {
+                break;
+            }
+
             if (!testSuite.isDisabled()) {
+                synchronized (pendingLock) {
+                    pendingTestSuites++;
+                }
+
                 testSuite.addTestSuiteRunListener(internalTestRunListener);
                 notifyBeforeRunTestSuite(testSuite);
                 runTestSuite((WsdlTestSuite) testSuite, true);
@@ -103,12 +120,16 @@ public class WsdlProjectRunner extends AbstractTestRunner<WsdlProject, WsdlProje
         }
 
         try {
-            synchronized (activeRunners) {
-                activeRunners.wait();
+            synchronized (pendingLock) {
+                while (pendingTestSuites > 0) {
+                    pendingLock.wait();
+                }
             }
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            SoapUI.logError(e);
         }
+
+        updateStatus();
     }
 
     private void runSequential(WsdlProject project, WsdlProjectRunContext runContext) {
@@ -121,6 +142,10 @@ public class WsdlProjectRunner extends AbstractTestRunner<WsdlProject, WsdlProje
                 activeRunners.remove(testSuiteRunner);
                 finishedRunners.add(testSuiteRunner);
                 notifyAfterRunTestSuite(testSuiteRunner);
+
+                if (testSuiteRunner.getStatus() == Status.FAILED && project.isAbortOnError()) {
+                    break;
+                }
             }
         }
 
@@ -128,10 +153,12 @@ public class WsdlProjectRunner extends AbstractTestRunner<WsdlProject, WsdlProje
     }
 
     private void updateStatus() {
-        for (TestSuiteRunner runner : finishedRunners) {
-            if (runner.getStatus() == Status.FAILED) {
-                setStatus(Status.FAILED);
-                break;
+        synchronized (finishedRunners) {
+            for (TestSuiteRunner runner : finishedRunners) {
+                if (runner.getStatus() == Status.FAILED) {
+                    setStatus(Status.FAILED);
+                    break;
+                }
             }
         }
     }
@@ -212,18 +239,36 @@ public class WsdlProjectRunner extends AbstractTestRunner<WsdlProject, WsdlProje
     }
 
     protected void finishRunner(TestSuiteRunner testRunner) {
-        notifyAfterRunTestSuite(testRunner);
+        try {
+            notifyAfterRunTestSuite(testRunner);
 
-        activeRunners.remove(testRunner);
-        finishedRunners.add(testRunner);
+            activeRunners.remove(testRunner);
+            finishedRunners.add(testRunner);
 
-        testRunner.getTestSuite().removeTestSuiteRunListener(internalTestRunListener);
+            testRunner.getTestSuite().removeTestSuiteRunListener(internalTestRunListener);
 
-        if (activeRunners.isEmpty()) {
-            updateStatus();
+            if (testRunner.getStatus() == Status.FAILED && getTestRunnable().isAbortOnError() && isRunning()) {
+                abortParallelRun(testRunner);
+            }
+        } finally {
+            synchronized (pendingLock) {
+                pendingTestSuites--;
+                pendingLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Cancels the TestSuites still running after one of them failed in a project that aborts on errors
+     */
 
-            synchronized (activeRunners) {
-                activeRunners.notify();
+    private void abortParallelRun(TestSuiteRunner failedRunner) {
+        String reason = "TestSuite [" + failedRunner.getTestSuite().getName() + "] failed";
+        setStatus(Status.FAILED);
+
+        for (TestSuiteRunner runner : activeRunners.toArray(new TestSuiteRunner[activeRunners.size()])) {
+            if (runner != failedRunner) {
+                runner.cancel(reason);
             }
         }
     }
@@ -16,7 +16,9 @@
 
 package com.eviware.soapui.impl.wsdl.testcase;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -45,13 +47,20 @@ import com.eviware.soapui.support.types.StringToObjectMap;
 
 public class WsdlTestSuiteRunner extends AbstractTestRunner<WsdlTestSuite, WsdlTestSuiteRunContext> implements
         TestSuiteRunner {
+    private static final String TEST_SUITE_RUNNER_PROPERTY = "#TestSuiteRunner#";
+
     private TestSuiteRunListener[] listeners;
-    private Set<TestCaseRunner> finishedRunners = new HashSet<TestCaseRunner>();
-    private Set<TestCaseRunner> activeRunners = new HashSet<TestCaseRunner>();
+    private Set<TestCaseRunner> finishedRunners = Collections.synchronizedSet(new HashSet<TestCaseRunner>());
+    private Set<TestCaseRunner> activeRunners = Collections.synchronizedSet(new HashSet<TestCaseRunner>());
     private int currentTestCaseIndex;
     private WsdlTestCase currentTestCase;
     private TestRunListener parallellTestRunListener = new ParallellTestRunListener();
 
+    private TestCaseScheduler suiteScheduler;
+    private TestCaseScheduler projectScheduler;
+    private final Object pendingLock = new Object();
+    private int pendingTestCases;
+
     public WsdlTestSuiteRunner(WsdlTestSuite testSuite, StringToObjectMap properties) {
         super(testSuite, properties);
     }
@@ -90,6 +99,9 @@ public class WsdlTestSuiteRunner extends AbstractTestRunner<WsdlTestSuite, WsdlT
             return;
         }
 
+        // set by a parallel project run, shared by all its TestSuites
+        projectScheduler = (TestCaseScheduler) runContext.getProperty(TestCaseScheduler.RUN_CONTEXT_PROPERTY);
+
         if (testSuite.getRunType() == TestSuiteRunType.SEQUENTIAL) {
             runSequential(testSuite, runContext);
         } else if (testSuite.getRunType() == TestSuiteRunType.PARALLEL) {
@@ -97,25 +109,55 @@ public class WsdlTestSuiteRunner extends AbstractTestRunner<WsdlTestSuite, WsdlT
         }
     }
 
+    /**
+     * Starts the enabled TestCases as slots of the suite and project schedulers become available, and waits
+     * for all started TestCases to finish
+     */
+
     private void runParallel(WsdlTestSuite testSuite, WsdlTestSuiteRunContext runContext) {
         currentTestCaseIndex = -1;
         currentTestCase = null;
 
+        List<WsdlTestCase> testCases = new ArrayList<WsdlTestCase>();
         for (TestCase testCase : testSuite.getTestCaseList()) {
             if (!testCase.isDisabled()) {
-                testCase.addTestRunListener(parallellTestRunListener);
-                notifyBeforeRunTestCase(testCase);
-                runTestCase((WsdlTestCase) testCase, true);
+                testCases.add((WsdlTestCase) testCase);
             }
         }
 
+        if (testSuite.isRunLongestFirst()) {
+            testCases = TestCaseScheduler.orderLongestFirst(testCases);
+        }
+
+        suiteScheduler = new TestCaseScheduler(testSuite.getMaxParallelTestCases());
+
         try {
-            synchronized (activeRunners) {
-                activeRunners.wait();
+            for (WsdlTestCase testCase : testCases) {
+                acquireSlot();
+                if (!isRunning()) {
+                    releaseSlot();
+                    break;
+                }
+
+                synchronized (pendingLock) {
+                    pendingTestCases++;
+                }
+
+                testCase.addTestRunListener(parallellTestRunListener);
+                notifyBeforeRunTestCase(testCase);
+                runTestCase(testCase, true);
+            }
+
+            synchronized (pendingLock) {
+                while (pendingTestCases > 0) {
+                    pendingLock.wait();
+                }
             }
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            SoapUI.logError(e);
         }
+
+        updateStatus();
     }
 
     private void runSequential(WsdlTestSuite testSuite, WsdlTestSuiteRunContext runContext) {
@@ -123,29 +165,92 @@ public class WsdlTestSuiteRunner extends AbstractTestRunner<WsdlTestSuite, WsdlT
         for (; isRunning() && currentTestCaseIndex < testSuite.getTestCaseCount(); currentTestCaseIndex++) {
             currentTestCase = testSuite.getTestCaseAt(currentTestCaseIndex);
             if (!currentTestCase.isDisabled()) {
+                try {
+                    acquireProjectSlot();
+                } catch (InterruptedException e) {
+                    SoapUI.logError(e);
+                    break;
+                }
+
                 notifyBeforeRunTestCase(currentTestCase);
-                TestCaseRunner testCaseRunner = runTestCase(currentTestCase, false);
+
+                TestCaseRunner testCaseRunner;
+                try {
+                    testCaseRunner = runTestCase(currentTestCase, false);
+                } finally {
+                    releaseProjectSlot();
+                }
+
                 activeRunners.remove(testCaseRunner);
                 finishedRunners.add(testCaseRunner);
                 notifyAfterRunTestCase(testCaseRunner);
+
+                if (testCaseRunner.getStatus() == Status.FAILED && testSuite.isAbortOnError()) {
+                    break;
+                }
             }
         }
 
         updateStatus();
     }
 
+    private void acquireSlot() throws InterruptedException {
+        // always take the slot of the suite first, so that slots shared with other suites are not held while waiting
+        suiteScheduler.acquire();
+        try {
+            acquireProjectSlot();
+        } catch (InterruptedException e) {
+            suiteScheduler.release();
+            throw e;
+        }
+    }
+
+    private void releaseSlot() {
+        releaseProjectSlot();
+        suiteScheduler.release();
+    }
+
+    private void acquireProjectSlot() throws InterruptedException {
+        if (projectScheduler != null) {
+            projectScheduler.acquire();
+        }
+    }
+
+    private void releaseProjectSlot() {
+        if (projectScheduler != null) {
+            projectScheduler.release();
+        }
+    }
+
+    /**
+     * Cancels the TestCases still running after one of them failed in a suite that aborts on errors
+     */
+
+    private void abortParallelRun(TestCaseRunner failedRunner) {
+        String reason = "TestCase [" + failedRunner.getTestCase().getName() + "] failed";
+        setStatus(Status.FAILED);
+
+        for (TestCaseRunner runner : activeRunners.toArray(new TestCaseRunner[activeRunners.size()])) {
+            if (runner != failedRunner) {
+                runner.cancel(reason);
+            }
+        }
+    }
+
     private void updateStatus() {
-        for (TestCaseRunner runner : finishedRunners) {
-            if (runner.getStatus() == Status.FAILED) {
-                setStatus(Status.FAILED);
-                break;
+        synchronized (finishedRunners) {
+            for (TestCaseRunner runner : finishedRunners) {
+                if (runner.getStatus() == Status.FAILED) {
+                    setStatus(Status.FAILED);
+                    break;
+                }
             }
         }
     }
 
     private TestCaseRunner runTestCase(WsdlTestCase testCaseAt, boolean async) {
         DefaultPropertyExpansionContext properties = (DefaultPropertyExpansionContext) getRunContext().getProperties();
-        properties.put("#TestSuiteRunner#", this);
+        properties.put(TEST_SUITE_RUNNER_PROPERTY, this);
 
         TestCaseRunner currentRunner = testCaseAt.run(properties, true);
         activeRunners.add(currentRunner);
@@ -230,18 +335,32 @@ public class WsdlTestSuiteRunner extends AbstractTestRunner<WsdlTestSuite, WsdlT
     private class ParallellTestRunListener extends TestRunListenerAdapter {
         @Override
         public void afterRun(TestCaseRunner testRunner, TestCaseRunContext runContext) {
-            notifyAfterRunTestCase(testRunner);
+            // the TestCase may be run by someone else at the same time
+            if (runContext.getProperty(TEST_SUITE_RUNNER_PROPERTY) != WsdlTestSuiteRunner.this) {
+                return;
+            }
+
+            try {
+                notifyAfterRunTestCase(testRunner);
 
-            activeRunners.remove(testRunner);
-            finishedRunners.add(testRunner);
+                activeRunners.remove(testRunner);
+                finishedRunners.add(testRunner);
 
-            testRunner.getTestCase().removeTestRunListener(parallellTestRunListener);
+                testRunner.getTestCase().removeTestRunListener(parallellTestRunListener);
 
-            if (activeRunners.isEmpty()) {
-                updateStatus();
+                if (getTestRunnable().isRunLongestFirst()) {
+                    TestCaseScheduler.setLastRunTime(testRunner.getTestCase(), testRunner.getTimeTaken());
+                }
+
+                if (testRunner.getStatus() == Status.FAILED && getTestRunnable().isAbortOnError() && isRunning()) {
+                    abortParallelRun(testRunner);
+                }
+            } finally {
+                releaseSlot();
 
-                synchronized (activeRunners) {
-                    activeRunners.notify();
+                synchronized (pendingLock) {
+                    pendingTestCases--;
+                    pendingLock.notifyAll();
                 }
             }
         }
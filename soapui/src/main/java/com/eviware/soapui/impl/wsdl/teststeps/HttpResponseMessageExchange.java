@@ -22,6 +22,7 @@ import java.util.List;
 import com.eviware.soapui.impl.support.http.HttpRequestInterface;
 import com.eviware.soapui.impl.wsdl.submit.AbstractMessageExchange;
 import com.eviware.soapui.impl.wsdl.submit.transports.http.HttpResponse;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.SinglePartHttpResponse;
 import com.eviware.soapui.model.iface.Attachment;
 import com.eviware.soapui.model.iface.Operation;
 import com.eviware.soapui.support.types.StringToStringsMap;
@@ -182,6 +183,15 @@ public class HttpResponseMessageExchange extends AbstractMessageExchange<HttpReq
     }
 
     public boolean hasResponse() {
+        if (response == null) {
+            response = getModelItem().getResponse();
+        }
+
+        // checking a streamed response should not turn it into a String
+        if (response instanceof SinglePartHttpResponse && ((SinglePartHttpResponse) response).isContentStreamable()) {
+            return response.getContentLength() > 0;
+        }
+
         String responseContent = getResponseContent();
         return responseContent != null && responseContent.trim().length() > 0;
     }
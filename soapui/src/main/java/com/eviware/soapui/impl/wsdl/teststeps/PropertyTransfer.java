@@ -39,6 +39,8 @@ import com.eviware.soapui.support.resolver.CreateMissingPropertyResolver;
 import com.eviware.soapui.support.resolver.DisablePropertyTransferResolver;
 import com.eviware.soapui.support.resolver.ResolveContext;
 import com.eviware.soapui.support.resolver.ResolveContext.PathToResolve;
+import com.eviware.soapui.support.xml.ParsedContentCache;
+import com.eviware.soapui.support.xml.StreamingXPath;
 import com.eviware.soapui.support.xml.XmlUtils;
 import org.apache.log4j.Logger;
 import org.apache.xmlbeans.XmlCursor;
@@ -50,6 +52,7 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import javax.xml.stream.XMLStreamException;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
@@ -344,13 +347,29 @@ public class PropertyTransfer implements PropertyChangeNotifier {
         } else if (getSourcePathLanguage() == PathLanguage.JSONPATH) {
             return new JsonPathFacade(sourceValue).readObjectValue(getSourcePath());
         } else {
-            XmlObject sourceXml = XmlUtils.createXmlObject(sourceValue);
+            String pathExpression = PropertyExpander.expandProperties(context, getSourcePath());
+
+            // values that need no serialization are read without building an XmlObject of the whole source
+            List<StreamingXPath.Match> matches = selectStreamed(sourceValue, pathExpression);
+            if (matches != null) {
+                if (matches.isEmpty()) {
+                    if (!getSetNullOnMissingSource() && !getIgnoreEmpty()) {
+                        throw new Exception("Missing match for Source XPath [" + pathExpression + "]");
+                    }
+                    return null;
+                }
+
+                if (matches.get(0).getValue() != null) {
+                    return matches.get(0).getValue();
+                }
+            }
+
+            XmlObject sourceXml = ParsedContentCache.getXmlObject(context, sourceValue, false);
             XmlCursor sourceCursor = sourceXml.newCursor();
 
             try {
                 String value = null;
 
-                String pathExpression = PropertyExpander.expandProperties(context, getSourcePath());
                 boolean usingXQuery = getSourcePathLanguage() == PathLanguage.XQUERY;
                 if (usingXQuery) {
                     XmlCursor resultCursor = sourceCursor.execQuery(pathExpression);
@@ -402,6 +421,29 @@ public class PropertyTransfer implements PropertyChangeNotifier {
         }
     }
 
+    /**
+     * Selects the source value with a StreamingXPath, returns null if the path or the source is not supported
+     * by it, or if matched elements would have to be serialized.
+     */
+
+    private List<StreamingXPath.Match> selectStreamed(String sourceValue, String pathExpression) {
+        if (sourceValue == null || getSourcePathLanguage() != PathLanguage.XPATH) {
+            return null;
+        }
+
+        StreamingXPath streamingXPath = StreamingXPath.compile(pathExpression);
+        if (streamingXPath == null
+                || (streamingXPath.getTarget() == StreamingXPath.Target.ELEMENT && !getTransferTextContent())) {
+            return null;
+        }
+
+        try {
+            return streamingXPath.select(sourceValue, false, 1);
+        } catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
     private String[] writeTargetValue(Object value, SubmitContext context) throws Exception {
         String stringValue = value == null ? null : String.valueOf(value);
         if (!hasTargetPath()) {
@@ -474,8 +516,9 @@ public class PropertyTransfer implements PropertyChangeNotifier {
             if (isResponseProperty(sourceProperty)) {
                 sourcePropertyValue = removeExpansions(sourceProperty.getValue());
             }
-            XmlObject sourceXmlObject = sourcePropertyValue == null ? null : XmlUtils
-                    .createXmlObject(sourcePropertyValue);
+            // the source is only read from, so the document parsed for other transfers/assertions can be shared
+            XmlObject sourceXmlObject = sourcePropertyValue == null ? null : ParsedContentCache.getXmlObject(context,
+                    sourcePropertyValue, false);
             sourceXml = sourceXmlObject == null ? null : sourceXmlObject.newCursor();
         } catch (XmlException e) {
             throw new Exception("Error parsing source property [" + e.getMessage() + "]");
@@ -23,6 +23,7 @@ import java.util.Map;
 
 import javax.annotation.CheckForNull;
 
+import com.eviware.soapui.impl.wsdl.submit.transports.http.BaseHttpResponse;
 import com.eviware.soapui.impl.wsdl.submit.transports.http.HttpResponse;
 import com.eviware.soapui.impl.wsdl.support.assertions.AssertedXPathsContainer;
 import com.eviware.soapui.impl.wsdl.teststeps.actions.ShowMessageExchangeAction;
@@ -167,6 +168,11 @@ public class RestRequestStepResult extends WsdlTestStepResult implements Respons
 
     @Override
     public void discard() {
+        if (response instanceof BaseHttpResponse
+                && response != ((HttpTestRequestStepInterface) getTestStep()).getTestRequest().getResponse()) {
+            ((BaseHttpResponse) response).release();
+        }
+
         super.discard();
 
         requestContent = null;
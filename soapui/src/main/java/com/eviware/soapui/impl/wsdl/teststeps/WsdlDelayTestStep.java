@@ -18,6 +18,8 @@ package com.eviware.soapui.impl.wsdl.teststeps;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.SwingUtilities;
 
@@ -51,6 +53,7 @@ public class WsdlDelayTestStep extends WsdlTestStepWithProperties implements Pro
     private int timeWaited = 0;
     private boolean canceled;
     private boolean running;
+    private volatile CountDownLatch cancelLatch = new CountDownLatch(0);
 
     public WsdlDelayTestStep(WsdlTestCase testCase, TestStepConfig config, boolean forLoadTest) {
         super(testCase, config, false, forLoadTest);
@@ -169,6 +172,7 @@ public class WsdlDelayTestStep extends WsdlTestStepWithProperties implements Pro
         try {
             canceled = false;
             running = true;
+            cancelLatch = new CountDownLatch(1);
 
             try {
                 delay = Integer.parseInt(PropertyExpander.expandProperties(context, delayString));
@@ -176,11 +180,12 @@ public class WsdlDelayTestStep extends WsdlTestStepWithProperties implements Pro
                 delay = Integer.parseInt(DEFAULT_DELAY);
             }
 
-            // sleep in chunks for canceling
+            // wait on the latch released by cancel, in chunks only if the label needs to be updated
             final long stopTime = System.currentTimeMillis() + delay;
+            boolean updateLabel = context.getProperty(TestCaseRunContext.LOAD_TEST_RUNNER) == null;
             int lastUpdate = 0;
             while (!canceled && timeWaited < delay) {
-                if (timeWaited - lastUpdate > 1000 && context.getProperty(TestCaseRunContext.LOAD_TEST_RUNNER) == null) {
+                if (timeWaited - lastUpdate > 1000 && updateLabel) {
                     String newLabel = getLabel();
                     if (SoapUI.usingGraphicalEnvironment()) {
                         final String finalOldLabel = oldLabel, finalNewLabel = newLabel;
@@ -194,7 +199,8 @@ public class WsdlDelayTestStep extends WsdlTestStepWithProperties implements Pro
                     lastUpdate = timeWaited;
                 }
 
-                Thread.sleep(Math.min(DELAY_CHUNK, delay - timeWaited));
+                cancelLatch.await(updateLabel ? Math.min(DELAY_CHUNK, delay - timeWaited) : delay - timeWaited,
+                        TimeUnit.MILLISECONDS);
                 timeWaited = delay - (int) ((stopTime - System.currentTimeMillis()));
             }
         } catch (InterruptedException e) {
@@ -217,6 +223,7 @@ public class WsdlDelayTestStep extends WsdlTestStepWithProperties implements Pro
     @Override
     public boolean cancel() {
         canceled = true;
+        cancelLatch.countDown();
         return true;
     }
 }
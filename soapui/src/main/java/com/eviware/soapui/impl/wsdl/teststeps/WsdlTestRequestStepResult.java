@@ -24,6 +24,7 @@ import java.util.Vector;
 
 import com.eviware.soapui.impl.wsdl.WsdlOperation;
 import com.eviware.soapui.impl.wsdl.submit.WsdlMessageExchange;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.BaseHttpResponse;
 import com.eviware.soapui.impl.wsdl.submit.transports.http.WsdlResponse;
 import com.eviware.soapui.impl.wsdl.support.assertions.AssertedXPathsContainer;
 import com.eviware.soapui.impl.wsdl.support.soap.SoapVersion;
@@ -171,6 +172,12 @@ public class WsdlTestRequestStepResult extends WsdlTestStepResult implements Res
     }
 
     public void discard() {
+        WsdlResponse resp = getResponse();
+        if (resp instanceof BaseHttpResponse
+                && resp != ((WsdlTestRequestStep) getTestStep()).getTestRequest().getResponse()) {
+            ((BaseHttpResponse) resp).release();
+        }
+
         super.discard();
 
         softRequestContent = null;
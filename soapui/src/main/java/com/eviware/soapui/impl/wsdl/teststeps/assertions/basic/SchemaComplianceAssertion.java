@@ -70,6 +70,7 @@ public class SchemaComplianceAssertion extends WsdlMessageAssertion implements R
     private String definition;
     private DefinitionContext<?> definitionContext;
     private String wsdlContextDef;
+    private WsdlValidator wsdlValidator;
     private static Map<String, WsdlContext> wsdlContextMap = new HashMap<String, WsdlContext>();
     private static final String SCHEMA_COMPLIANCE_HAS_CLEARED_CACHE_FLAG = SchemaComplianceAssertion.class.getName()
             + "@SchemaComplianceHasClearedCacheFlag";
@@ -88,6 +89,7 @@ public class SchemaComplianceAssertion extends WsdlMessageAssertion implements R
 
         definitionContext = null;
         wsdlContextDef = null;
+        wsdlValidator = null;
 
         // get correct context for checking if cache has been cleared for this run
         PropertyExpansionContext context = testRunContext.hasProperty(TestCaseRunContext.LOAD_TEST_CONTEXT) ? (PropertyExpansionContext) testRunContext
@@ -152,7 +154,7 @@ public class SchemaComplianceAssertion extends WsdlMessageAssertion implements R
             throw new AssertionException(new AssertionError(e1.getMessage()));
         }
 
-        WsdlValidator validator = new WsdlValidator(wsdlContext);
+        WsdlValidator validator = getWsdlValidator(wsdlContext);
 
         try {
             AssertionError[] errors = validator.assertResponse(messageExchange, false);
@@ -188,6 +190,20 @@ public class SchemaComplianceAssertion extends WsdlMessageAssertion implements R
         return definitionContext;
     }
 
+    /**
+     * Validators are stateless, the compiled messages they use are kept by the WsdlContext
+     */
+
+    private WsdlValidator getWsdlValidator(WsdlContext wsdlContext) {
+        WsdlValidator validator = wsdlValidator;
+        if (validator == null || validator.getWsdlContext() != wsdlContext) {
+            validator = new WsdlValidator(wsdlContext);
+            wsdlValidator = validator;
+        }
+
+        return validator;
+    }
+
     private synchronized WsdlContext getContext(String wsdlLocation, SoapVersion soapVersion) throws Exception {
         if (wsdlContextMap.containsKey(wsdlLocation)) {
             return wsdlContextMap.get(wsdlLocation);
@@ -279,7 +295,7 @@ public class SchemaComplianceAssertion extends WsdlMessageAssertion implements R
         } catch (Exception e1) {
             throw new AssertionException(new AssertionError(e1.getMessage()));
         }
-        WsdlValidator validator = new WsdlValidator(wsdlContext);
+        WsdlValidator validator = getWsdlValidator(wsdlContext);
 
         try {
             AssertionError[] errors = validator.assertRequest((WsdlMessageExchange) messageExchange, false);
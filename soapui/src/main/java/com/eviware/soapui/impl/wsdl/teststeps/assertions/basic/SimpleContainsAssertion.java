@@ -16,19 +16,24 @@
 
 package com.eviware.soapui.impl.wsdl.teststeps.assertions.basic;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.xmlbeans.XmlObject;
 
 import com.eviware.soapui.config.TestAssertionConfig;
 import com.eviware.soapui.impl.wsdl.panels.assertions.AssertionCategoryMapping;
 import com.eviware.soapui.impl.wsdl.panels.assertions.AssertionListEntry;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.SinglePartHttpResponse;
 import com.eviware.soapui.impl.wsdl.support.HelpUrls;
 import com.eviware.soapui.impl.wsdl.teststeps.WsdlMessageAssertion;
 import com.eviware.soapui.impl.wsdl.teststeps.assertions.AbstractTestAssertionFactory;
 import com.eviware.soapui.model.TestPropertyHolder;
 import com.eviware.soapui.model.iface.MessageExchange;
+import com.eviware.soapui.model.iface.Response;
 import com.eviware.soapui.model.iface.SubmitContext;
 import com.eviware.soapui.model.propertyexpansion.PropertyExpander;
 import com.eviware.soapui.model.propertyexpansion.PropertyExpansion;
@@ -78,9 +83,137 @@ public class SimpleContainsAssertion extends WsdlMessageAssertion implements Req
 
     public String internalAssertResponse(MessageExchange messageExchange, SubmitContext context)
             throws AssertionException {
+        SinglePartHttpResponse streamableResponse = getStreamableResponse(messageExchange, useRegEx);
+        if (streamableResponse != null) {
+            return assertStreamedContent(context, streamableResponse, "Response");
+        }
+
         return assertContent(context, messageExchange.getResponseContent(), "Response");
     }
 
+    /**
+     * Returns the response of the exchange if it can be searched without turning it into a String
+     */
+
+    static SinglePartHttpResponse getStreamableResponse(MessageExchange messageExchange, boolean useRegEx) {
+        if (useRegEx || messageExchange.isDiscarded()) {
+            return null;
+        }
+
+        Response response = messageExchange.getResponse();
+        if (response instanceof SinglePartHttpResponse && ((SinglePartHttpResponse) response).isContentStreamable()) {
+            return (SinglePartHttpResponse) response;
+        }
+
+        return null;
+    }
+
+    private String assertStreamedContent(SubmitContext context, SinglePartHttpResponse response, String type)
+            throws AssertionException {
+        String replToken = expandToken(context);
+
+        if (replToken.length() > 0 && !containsToken(response, replToken, ignoreCase, type)) {
+            throw new AssertionException(new AssertionError("Missing token [" + replToken + "] in " + type));
+        }
+
+        return type + " contains token [" + replToken + "]";
+    }
+
+    private String expandToken(SubmitContext context) {
+        if (token == null) {
+            token = "";
+        }
+
+        String replToken = PropertyExpander.expandProperties(context, token);
+        return replToken == null ? "" : normalize(replToken);
+    }
+
+    static boolean containsToken(SinglePartHttpResponse response, String token, boolean ignoreCase, String type)
+            throws AssertionException {
+        Reader reader = null;
+        try {
+            reader = response.getContentAsReader();
+            return containsToken(reader, token, ignoreCase);
+        } catch (IOException e) {
+            throw new AssertionException(new AssertionError("Failed to read " + type + ": " + e.getMessage()));
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Searches the content of the reader for the token without buffering it, treating CRLF as LF like the
+     * String based comparison does
+     */
+
+    static boolean containsToken(Reader reader, String token, boolean ignoreCase) throws IOException {
+        char[] pattern = token.toCharArray();
+        if (pattern.length == 0) {
+            return true;
+        }
+
+        if (ignoreCase) {
+            for (int c = 0; c < pattern.length; c++) {
+                pattern[c] = Character.toUpperCase(pattern[c]);
+            }
+        }
+
+        int[] fallback = new int[pattern.length];
+        for (int c = 1, k = 0; c < pattern.length; c++) {
+            while (k > 0 && pattern[c] != pattern[k]) {
+                k = fallback[k - 1];
+            }
+            if (pattern[c] == pattern[k]) {
+                k++;
+            }
+            fallback[c] = k;
+        }
+
+        char[] buffer = new char[8192];
+        int matched = 0;
+        boolean pendingCr = false;
+        int len;
+
+        while ((len = reader.read(buffer)) != -1) {
+            for (int i = 0; i < len; i++) {
+                char ch = buffer[i];
+                if (pendingCr) {
+                    pendingCr = false;
+                    if (ch != '\n') {
+                        matched = advance(pattern, fallback, matched, '\r', ignoreCase);
+                        if (matched == pattern.length) {
+                            return true;
+                        }
+                    }
+                }
+
+                if (ch == '\r') {
+                    pendingCr = true;
+                    continue;
+                }
+
+                matched = advance(pattern, fallback, matched, ch, ignoreCase);
+                if (matched == pattern.length) {
+                    return true;
+                }
+            }
+        }
+
+        return pendingCr && advance(pattern, fallback, matched, '\r', ignoreCase) == pattern.length;
+    }
+
+    private static int advance(char[] pattern, int[] fallback, int matched, char ch, boolean ignoreCase) {
+        if (ignoreCase) {
+            ch = Character.toUpperCase(ch);
+        }
+
+        while (matched > 0 && ch != pattern[matched]) {
+            matched = fallback[matched - 1];
+        }
+
+        return ch == pattern[matched] ? matched + 1 : matched;
+    }
+
     @Override
     protected String internalAssertProperty(TestPropertyHolder source, String propertyName,
                                             MessageExchange messageExchange, SubmitContext context) throws AssertionException {
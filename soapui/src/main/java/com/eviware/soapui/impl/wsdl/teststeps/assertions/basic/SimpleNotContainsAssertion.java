@@ -24,6 +24,7 @@ import org.apache.xmlbeans.XmlObject;
 import com.eviware.soapui.config.TestAssertionConfig;
 import com.eviware.soapui.impl.wsdl.panels.assertions.AssertionCategoryMapping;
 import com.eviware.soapui.impl.wsdl.panels.assertions.AssertionListEntry;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.SinglePartHttpResponse;
 import com.eviware.soapui.impl.wsdl.support.HelpUrls;
 import com.eviware.soapui.impl.wsdl.teststeps.WsdlMessageAssertion;
 import com.eviware.soapui.impl.wsdl.teststeps.assertions.AbstractTestAssertionFactory;
@@ -78,9 +79,31 @@ public class SimpleNotContainsAssertion extends WsdlMessageAssertion implements
 
     public String internalAssertResponse(MessageExchange messageExchange, SubmitContext context)
             throws AssertionException {
+        SinglePartHttpResponse streamableResponse = SimpleContainsAssertion.getStreamableResponse(messageExchange,
+                useRegEx);
+        if (streamableResponse != null) {
+            return assertStreamedContent(context, streamableResponse, "Response");
+        }
+
         return assertContent(context, messageExchange.getResponseContent(), "Response");
     }
 
+    private String assertStreamedContent(SubmitContext context, SinglePartHttpResponse response, String type)
+            throws AssertionException {
+        if (token == null) {
+            token = "";
+        }
+
+        String replToken = PropertyExpander.expandProperties(context, token);
+        replToken = replToken == null ? "" : normalize(replToken);
+
+        if (replToken.length() > 0 && SimpleContainsAssertion.containsToken(response, replToken, ignoreCase, type)) {
+            throw new AssertionException(new AssertionError(type + " contains token [" + replToken + "]"));
+        }
+
+        return type + " does not contain token [" + replToken + "]";
+    }
+
     @Override
     protected String internalAssertProperty(TestPropertyHolder source, String propertyName,
                                             MessageExchange messageExchange, SubmitContext context) throws AssertionException {
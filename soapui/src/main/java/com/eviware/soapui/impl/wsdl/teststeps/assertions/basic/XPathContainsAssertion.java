@@ -49,6 +49,9 @@ import com.eviware.soapui.support.components.JXToolBar;
 import com.eviware.soapui.support.types.StringList;
 import com.eviware.soapui.support.xml.XmlObjectConfigurationBuilder;
 import com.eviware.soapui.support.xml.XmlObjectConfigurationReader;
+import com.eviware.soapui.support.xml.StreamingXPath;
+import com.eviware.soapui.support.xml.ParsedContentCache;
+import com.eviware.soapui.support.xml.XPathExpressionCache;
 import com.eviware.soapui.support.xml.XmlUtils;
 import junit.framework.ComparisonFailure;
 import org.apache.xmlbeans.XmlAnySimpleType;
@@ -67,6 +70,7 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
 import javax.swing.JTextArea;
+import javax.xml.stream.XMLStreamException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -190,10 +194,7 @@ public class XPathContainsAssertion extends WsdlMessageAssertion implements Requ
                 options.setLoadStripComments();
             }
 
-            // XmlObject xml = XmlObject.Factory.parse( response, options );
-            XmlObject xml = XmlUtils.createXmlObject(response, options);
             String expandedPath = PropertyExpander.expandProperties(context, path);
-            XmlObject[] items = xml.selectPath(expandedPath);
             AssertedXPathsContainer assertedXPathsContainer = (AssertedXPathsContainer) context
                     .getProperty(AssertedXPathsContainer.ASSERTEDXPATHSCONTAINER_PROPERTY);
 
@@ -216,6 +217,31 @@ public class XPathContainsAssertion extends WsdlMessageAssertion implements Requ
                 }
             }
 
+            // plain values can be compared without building an XmlObject of the whole response
+            List<StreamingXPath.Match> matches = contentObj == null && assertedXPathsContainer == null ? selectStreamed(
+                    response, expandedPath) : null;
+            if (matches != null) {
+                if (matches.isEmpty()) {
+                    throw new Exception("Missing content for xpath [" + path + "] in " + type);
+                }
+
+                for (int c = 0; c < matches.size(); c++) {
+                    try {
+                        assertMatch(matches.get(c), expandedContent, context);
+                        break;
+                    } catch (Throwable e) {
+                        if (c == matches.size() - 1) {
+                            throw e;
+                        }
+                    }
+                }
+
+                return type + " matches content for [" + path + "]";
+            }
+
+            XmlObject xml = ParsedContentCache.getXmlObject(context, response, ignoreComments);
+            XmlObject[] items = XPathExpressionCache.getInstance().selectPath(xml, expandedPath);
+
             if (items.length == 0) {
                 throw new Exception("Missing content for xpath [" + path + "] in " + type);
             }
@@ -303,6 +329,33 @@ public class XPathContainsAssertion extends WsdlMessageAssertion implements Requ
         return type + " matches content for [" + path + "]";
     }
 
+    /**
+     * Selects element and attribute values with a StreamingXPath, returns null if the path is not supported by
+     * it or the response could not be read as a stream
+     */
+
+    private List<StreamingXPath.Match> selectStreamed(String response, String expandedPath) {
+        StreamingXPath streamingXPath = response == null ? null : StreamingXPath.compile(expandedPath);
+        if (streamingXPath == null || streamingXPath.getTarget() == StreamingXPath.Target.TEXT) {
+            return null;
+        }
+
+        try {
+            return streamingXPath.select(response, ignoreComments, 0);
+        } catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
+    private void assertMatch(StreamingXPath.Match match, String expandedContent, SubmitContext context) {
+        String expandedValue = PropertyExpander.expandProperties(context, match.getValue());
+        if (allowWildcards && match.getNodeType() == Node.ELEMENT_NODE) {
+            Tools.assertSimilar(expandedContent, expandedValue, '*');
+        } else {
+            XMLAssert.assertEquals(expandedContent, expandedValue);
+        }
+    }
+
     private void compareValues(String expandedContent, String expandedValue, XmlObject object) throws Exception {
         Diff diff = new Diff(expandedContent, expandedValue);
         InternalDifferenceListener internalDifferenceListener = new InternalDifferenceListener();
@@ -315,6 +368,9 @@ public class XPathContainsAssertion extends WsdlMessageAssertion implements Requ
         StringList nodesToRemove = internalDifferenceListener.getNodesToRemove();
 
         if (!nodesToRemove.isEmpty()) {
+            // the response document may be shared with other assertions
+            object = object.copy();
+
             for (String node : nodesToRemove) {
                 if (node == null) {
                     continue;
@@ -83,6 +83,8 @@ import com.eviware.soapui.support.Tools;
 import com.eviware.soapui.support.UISupport;
 import com.eviware.soapui.support.components.JUndoableTextArea;
 import com.eviware.soapui.support.components.JXToolBar;
+import com.eviware.soapui.support.xml.ParsedContentCache;
+import com.eviware.soapui.support.xml.XPathExpressionCache;
 import com.eviware.soapui.support.xml.XmlObjectConfigurationBuilder;
 import com.eviware.soapui.support.xml.XmlObjectConfigurationReader;
 import com.eviware.soapui.support.xml.XmlUtils;
@@ -181,10 +183,9 @@ public class XQueryContainsAssertion extends WsdlMessageAssertion implements Req
                 return "Missing content for XQuery Assertion";
             }
 
-            // XmlObject xml = XmlObject.Factory.parse( response );
-            XmlObject xml = XmlUtils.createXmlObject(response);
+            XmlObject xml = ParsedContentCache.getXmlObject(context, response, false);
             String expandedPath = PropertyExpander.expandProperties(context, path);
-            XmlObject[] items = xml.execQuery(expandedPath);
+            XmlObject[] items = XPathExpressionCache.getInstance().execQuery(xml, expandedPath);
 
             XmlObject contentObj = null;
             String expandedContent = PropertyExpander.expandProperties(context, expectedContent);
@@ -56,7 +56,7 @@ public class NotSoapFaultAssertion extends WsdlMessageAssertion implements Respo
             // check manually before resource intensive xpath
             SoapVersion soapVersion = ((WsdlMessageExchange) messageExchange).getOperation().getInterface()
                     .getSoapVersion();
-            if (SoapUtils.isSoapFault(responseContent, soapVersion)) {
+            if (SoapUtils.isSoapFault(responseContent, soapVersion, context)) {
                 throw new AssertionException(new AssertionError("Response is a SOAP Fault"));
             }
         } catch (Exception e) {
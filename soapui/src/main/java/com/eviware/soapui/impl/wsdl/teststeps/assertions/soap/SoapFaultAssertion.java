@@ -56,7 +56,7 @@ public class SoapFaultAssertion extends WsdlMessageAssertion implements Response
             SoapVersion soapVersion = ((WsdlMessageExchange) messageExchange).getOperation().getInterface()
                     .getSoapVersion();
 
-            if (!SoapUtils.isSoapFault(responseContent, soapVersion)) {
+            if (!SoapUtils.isSoapFault(responseContent, soapVersion, context)) {
                 throw new AssertionException(new AssertionError("Response is not a SOAP Fault"));
             }
         } catch (Exception e) {
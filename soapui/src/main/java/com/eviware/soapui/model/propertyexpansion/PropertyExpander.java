@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class that can expand properties using property resolvers
@@ -48,6 +49,12 @@ public class PropertyExpander implements SoapUIFactoryRegistryListener {
     private static boolean debuggingMode;
     private static Map<String, StringToStringMap> debuggingExpandedProperties;
 
+    private static final int MAX_CACHED_TEMPLATES = 500;
+    private static final int MIN_CACHED_TEMPLATE_LENGTH = 256;
+    private static final long MAX_CACHED_TEMPLATE_CHARS = 4 * 1024 * 1024;
+    private static final Map<String, ExpansionTemplate> templateCache = new ConcurrentHashMap<String, ExpansionTemplate>();
+    private static long cachedTemplateChars;
+
     static {
         // add default resolvers - this should be read from some external config
         // in the future
@@ -137,6 +144,15 @@ public class PropertyExpander implements SoapUIFactoryRegistryListener {
     }
 
     public String expand(PropertyExpansionContext context, String content, boolean entitize) {
+        return expand(context, content, entitize, true);
+    }
+
+    /**
+     * Expands the specified content; only top-level content like request templates is worth caching the
+     * template of, property values and nested expansions would just pin their expanded content
+     */
+
+    private String expand(PropertyExpansionContext context, String content, boolean entitize, boolean cacheTemplate) {
         SoapUIClassLoaderState clState = SoapUIExtensionClassLoader.ensure();
 
         try {
@@ -150,87 +166,203 @@ public class PropertyExpander implements SoapUIFactoryRegistryListener {
                 return content;
             }
 
-            StringBuffer buf = new StringBuffer();
-            int lastIx = 0;
-            while (ix != -1) {
-                if (ix > lastIx && content.charAt(ix - 1) == '$') {
-                    buf.append(content.substring(lastIx, ix - 1));
-                    lastIx = ix;
-                    ix = content.indexOf("${", lastIx + 1);
-                    continue;
-                }
+            ExpansionTemplate template = getTemplate(content, cacheTemplate);
+            StringBuilder buf = new StringBuilder(content.length() + 16 * template.propertyCount);
 
-                if (ix > lastIx) {
-                    buf.append(content.substring(lastIx, ix));
+            for (ExpansionSegment segment : template.segments) {
+                if (segment.propertyName == null) {
+                    buf.append(content, segment.start, segment.end);
+                } else {
+                    appendPropertyValue(context, content, segment.propertyName, entitize, buf);
                 }
+            }
 
-                int ix2 = content.indexOf('}', ix + 2);
-                if (ix2 == -1) {
-                    break;
-                }
+            if (template.scanFrom != -1) {
+                expandFrom(context, content, template.scanFrom, entitize, buf);
+            }
 
-                // check for nesting
-                int ix3 = content.lastIndexOf("${", ix2);
-                if (ix3 != ix) {
-                    // buf.append( content.substring( ix, ix3 ));
-                    content = content.substring(0, ix3) + expand(context, content.substring(ix3, ix2 + 1))
-                            + content.substring(ix2 + 1);
+            return buf.toString();
+        } finally {
+            clState.restore();
+        }
+    }
 
-                    lastIx = ix;
-                    continue;
-                }
+    /**
+     * Expands the specified content by scanning it from the specified index, used for nested expansions
+     * which can not be precompiled since the resulting property names depend on the expanded values
+     */
+
+    private void expandFrom(PropertyExpansionContext context, String content, int lastIx, boolean entitize,
+                            StringBuilder buf) {
+        int ix = content.indexOf("${", lastIx);
+        while (ix != -1) {
+            if (ix > lastIx && content.charAt(ix - 1) == '$') {
+                buf.append(content, lastIx, ix - 1);
+                lastIx = ix;
+                ix = content.indexOf("${", lastIx + 1);
+                continue;
+            }
 
-                String propertyName = content.substring(ix + 2, ix2);
-                String propertyValue = null;
+            if (ix > lastIx) {
+                buf.append(content, lastIx, ix);
+            }
 
-                if (StringUtils.hasContent(propertyName)) {
-                    boolean globalOverrideEnabled = SoapUI.getSettings().getBoolean(GlobalPropertySettings.ENABLE_OVERRIDE);
+            int ix2 = content.indexOf('}', ix + 2);
+            if (ix2 == -1) {
+                break;
+            }
 
-                    for (int c = 0; c < propertyResolvers.size() && propertyValue == null; c++) {
-                        propertyValue = propertyResolvers.get(c).resolveProperty(context, propertyName,
-                                globalOverrideEnabled);
-                    }
+            // check for nesting
+            int ix3 = content.lastIndexOf("${", ix2);
+            if (ix3 != ix) {
+                content = content.substring(0, ix3) + expand(context, content.substring(ix3, ix2 + 1), false, false)
+                        + content.substring(ix2 + 1);
+
+                lastIx = ix;
+                continue;
+            }
+
+            appendPropertyValue(context, content, content.substring(ix + 2, ix2), entitize, buf);
+
+            lastIx = ix2 + 1;
+            ix = content.indexOf("${", lastIx);
+        }
+
+        if (lastIx < content.length()) {
+            buf.append(content, lastIx, content.length());
+        }
+    }
+
+    private void appendPropertyValue(PropertyExpansionContext context, String content, String propertyName,
+                                     boolean entitize, StringBuilder buf) {
+        String propertyValue = null;
+
+        if (StringUtils.hasContent(propertyName)) {
+            boolean globalOverrideEnabled = SoapUI.getSettings().getBoolean(GlobalPropertySettings.ENABLE_OVERRIDE);
+
+            for (int c = 0; c < propertyResolvers.size() && propertyValue == null; c++) {
+                propertyValue = propertyResolvers.get(c).resolveProperty(context, propertyName,
+                        globalOverrideEnabled);
+            }
+        }
+
+        // found a value?
+        if (propertyValue != null) {
+            if (!content.equals(propertyValue)) {
+                propertyValue = expand(context, propertyValue, false, false);
+            }
+
+            if (entitize) {
+                propertyValue = XmlUtils.entitize(propertyValue);
+            }
+
+            TestCase testCase = ModelSupport.getModelItemTestCase(context.getModelItem());
+            if (debuggingMode && testCase != null) {
+                StringToStringMap props = debuggingExpandedProperties.get(testCase.getId());
+                if (props == null) {
+                    props = new StringToStringMap();
                 }
+                props.put(propertyName, propertyValue);
+                debuggingExpandedProperties.put(testCase.getId(), props);
+            }
+            buf.append(propertyValue);
+        }
+    }
 
-                // found a value?
-                if (propertyValue != null) {
-                    if (!content.equals(propertyValue)) {
-                        propertyValue = expand(context, propertyValue);
+    private static ExpansionTemplate getTemplate(String content, boolean cache) {
+        ExpansionTemplate template = cache ? templateCache.get(content) : null;
+        if (template == null) {
+            template = compileTemplate(content);
+
+            // short strings are cheaper to compile than to cache, the cache is bounded by count and by size
+            if (cache && content.length() >= MIN_CACHED_TEMPLATE_LENGTH && content.length() <= MAX_CACHED_TEMPLATE_CHARS) {
+                synchronized (templateCache) {
+                    if (templateCache.size() >= MAX_CACHED_TEMPLATES
+                            || cachedTemplateChars + content.length() > MAX_CACHED_TEMPLATE_CHARS) {
+                        templateCache.clear();
+                        cachedTemplateChars = 0;
                     }
 
-                    if (entitize) {
-                        propertyValue = XmlUtils.entitize(propertyValue);
+                    if (templateCache.put(content, template) == null) {
+                        cachedTemplateChars += content.length();
                     }
+                }
+            }
+        }
 
-                    TestCase testCase = ModelSupport.getModelItemTestCase(context.getModelItem());
-                    if (debuggingMode && testCase != null) {
-                        StringToStringMap props = debuggingExpandedProperties.get(testCase.getId());
-                        if (props == null) {
-                            props = new StringToStringMap();
-                        }
-                        props.put(propertyName, propertyValue);
-                        debuggingExpandedProperties.put(testCase.getId(), props);
-                    }
-                    buf.append(propertyValue);
-                } else {
-                    // if( log.isEnabledFor( Priority.WARN ))
-                    // log.warn( "Missing property value for [" + propertyName + "]"
-                    // );
+        return template;
+    }
 
-                    // buf.append( "${" ).append( propertyName ).append( '}' );
-                }
+    /**
+     * Splits the specified content into literal and property segments in the same way as expandFrom
+     * would process it, stopping at the first nested expansion
+     */
+
+    private static ExpansionTemplate compileTemplate(String content) {
+        ExpansionTemplate template = new ExpansionTemplate();
+
+        int lastIx = 0;
+        int ix = content.indexOf("${");
+        while (ix != -1) {
+            if (ix > lastIx && content.charAt(ix - 1) == '$') {
+                template.addLiteral(lastIx, ix - 1);
+                lastIx = ix;
+                ix = content.indexOf("${", lastIx + 1);
+                continue;
+            }
 
-                lastIx = ix2 + 1;
-                ix = content.indexOf("${", lastIx);
+            template.addLiteral(lastIx, ix);
+
+            int ix2 = content.indexOf('}', ix + 2);
+            if (ix2 == -1) {
+                break;
             }
 
-            if (lastIx < content.length()) {
-                buf.append(content.substring(lastIx));
+            if (content.lastIndexOf("${", ix2) != ix) {
+                template.scanFrom = ix;
+                return template;
             }
 
-            return buf.toString();
-        } finally {
-            clState.restore();
+            template.addProperty(content.substring(ix + 2, ix2));
+
+            lastIx = ix2 + 1;
+            ix = content.indexOf("${", lastIx);
+        }
+
+        template.addLiteral(lastIx, content.length());
+        return template;
+    }
+
+    private static final class ExpansionTemplate {
+        private final List<ExpansionSegment> segments = new ArrayList<ExpansionSegment>();
+        private int propertyCount;
+        private int scanFrom = -1;
+
+        private void addLiteral(int start, int end) {
+            if (end > start) {
+                segments.add(new ExpansionSegment(start, end, null));
+            }
+        }
+
+        private void addProperty(String propertyName) {
+            segments.add(new ExpansionSegment(0, 0, propertyName));
+            propertyCount++;
+        }
+    }
+
+    /**
+     * Either a literal range of the content or a property reference
+     */
+
+    private static final class ExpansionSegment {
+        private final int start;
+        private final int end;
+        private final String propertyName;
+
+        private ExpansionSegment(int start, int end, String propertyName) {
+            this.start = start;
+            this.end = end;
+            this.propertyName = propertyName;
         }
     }
 
@@ -20,21 +20,17 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.eviware.soapui.impl.wsdl.mock.DispatchException;
-import com.eviware.soapui.impl.wsdl.mock.WsdlMockResult;
 import com.eviware.soapui.model.mock.MockDispatcher;
 import com.eviware.soapui.model.mock.MockResult;
 import com.eviware.soapui.model.mock.MockRunner;
-import org.apache.commons.collections.list.TreeList;
-
-import java.util.Collections;
-import java.util.List;
 
 public abstract class AbstractMockDispatcher implements MockDispatcher {
+    private static final int DEFAULT_MAX_RESULTS = 100;
 
-    private final List<WsdlMockResult> mockResults = Collections.synchronizedList(new TreeList());
-    private long maxResults = 100;
-    private int removed = 0;
-    private boolean logEnabled = true;
+    private final MockResultLog mockResults = new MockResultLog(DEFAULT_MAX_RESULTS);
+    private final MockResultStatistics statistics = new MockResultStatistics();
+    private volatile long maxResults = DEFAULT_MAX_RESULTS;
+    private volatile boolean logEnabled = true;
 
 
     public MockResult dispatchGetRequest(HttpServletRequest request, HttpServletResponse response)
@@ -88,26 +84,27 @@ public abstract class AbstractMockDispatcher implements MockDispatcher {
         throw new DispatchException("Unsupported HTTP Method: " + method);
     }
 
-    public synchronized void addMockResult(WsdlMockResult mockResult) {
+    public void addMockResult(MockResult mockResult) {
+        statistics.record(mockResult);
+
         if (maxResults > 0 && logEnabled) {
             mockResults.add(mockResult);
         }
-
-        while (mockResults.size() > maxResults) {
-            mockResults.remove(0);
-            removed++;
-        }
     }
 
+    /**
+     * Returns the result with the specified index, or null if it is no longer kept in the log
+     */
+
     public MockResult getMockResultAt(int index) {
-        return index <= removed ? null : mockResults.get(index - removed);
+        return mockResults.get(index);
     }
 
     public int getMockResultCount() {
-        return mockResults.size() + removed;
+        return (int) mockResults.getCount();
     }
 
-    public synchronized void clearResults() {
+    public void clearResults() {
         mockResults.clear();
     }
 
@@ -115,15 +112,37 @@ public abstract class AbstractMockDispatcher implements MockDispatcher {
         return maxResults;
     }
 
-    public synchronized void setMaxResults(long maxNumberOfResults) {
+    public void setMaxResults(long maxNumberOfResults) {
         this.maxResults = maxNumberOfResults;
 
-        while (mockResults.size() > maxNumberOfResults) {
-            mockResults.remove(0);
-            removed++;
+        if (maxNumberOfResults > 0) {
+            mockResults.setCapacity((int) Math.min(maxNumberOfResults, Integer.MAX_VALUE));
+        } else {
+            mockResults.clear();
         }
     }
 
+    /**
+     * Sets the percentage of logged results that keep their request and response bodies; the others are
+     * kept as MockResultSummary
+     */
+
+    public void setResultSamplePercentage(int percentage) {
+        mockResults.setSamplePercentage(percentage);
+    }
+
+    public int getResultSamplePercentage() {
+        return mockResults.getSamplePercentage();
+    }
+
+    /**
+     * Returns request counts and latencies of all dispatched requests, including those not kept in the log
+     */
+
+    public MockResultStatistics getStatistics() {
+        return statistics;
+    }
+
     public void setLogEnabled(boolean logEnabled) {
         this.logEnabled = logEnabled;
     }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.model.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.eviware.soapui.model.mock.MockResult;
+
+/**
+ * Fixed-capacity, lock-free log of the most recent MockResults. Only a sample of the results is kept with
+ * request and response bodies, the others are reduced to a MockResultSummary.
+ * <p/>
+ * Results are numbered in the order they were added; a result is available until capacity newer results
+ * have been added after it.
+ */
+
+public class MockResultLog {
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile AtomicReferenceArray<Entry> slots;
+    private volatile int samplePercentage = 100;
+
+    public MockResultLog(int capacity) {
+        slots = new AtomicReferenceArray<Entry>(Math.max(capacity, 1));
+    }
+
+    public void add(MockResult result) {
+        long index = sequence.getAndIncrement();
+        AtomicReferenceArray<Entry> current = slots;
+
+        MockResult logged = isSampled(index) ? result : new MockResultSummary(result);
+        current.set((int) (index % current.length()), new Entry(index, logged));
+    }
+
+    /**
+     * Spreads the retained results evenly, e.g. every tenth result for 10 percent
+     */
+
+    private boolean isSampled(long index) {
+        int percentage = samplePercentage;
+        return percentage >= 100 || ((index + 1) * percentage) / 100 > (index * percentage) / 100;
+    }
+
+    /**
+     * Returns the result with the specified number, or null if it has been overwritten or cleared
+     */
+
+    public MockResult get(long index) {
+        AtomicReferenceArray<Entry> current = slots;
+        if (index < 0 || index >= sequence.get()) {
+            return null;
+        }
+
+        Entry entry = current.get((int) (index % current.length()));
+        return entry != null && entry.index == index ? entry.result : null;
+    }
+
+    /**
+     * Returns the total number of results added, including those no longer available
+     */
+
+    public long getCount() {
+        return sequence.get();
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * Changes the capacity, keeping the most recent results; results added concurrently may be lost
+     */
+
+    public synchronized void setCapacity(int capacity) {
+        AtomicReferenceArray<Entry> current = slots;
+        AtomicReferenceArray<Entry> resized = new AtomicReferenceArray<Entry>(Math.max(capacity, 1));
+
+        for (int c = 0; c < current.length(); c++) {
+            Entry entry = current.get(c);
+            if (entry != null && entry.index >= sequence.get() - resized.length()) {
+                resized.set((int) (entry.index % resized.length()), entry);
+            }
+        }
+
+        slots = resized;
+    }
+
+    public int getSamplePercentage() {
+        return samplePercentage;
+    }
+
+    /**
+     * Sets the percentage of results kept with their bodies, 100 keeps all of them
+     */
+
+    public void setSamplePercentage(int samplePercentage) {
+        this.samplePercentage = Math.max(0, Math.min(samplePercentage, 100));
+    }
+
+    public void clear() {
+        AtomicReferenceArray<Entry> current = slots;
+        for (int c = 0; c < current.length(); c++) {
+            current.set(c, null);
+        }
+    }
+
+    private static class Entry {
+        private final long index;
+        private final MockResult result;
+
+        private Entry(long index, MockResult result) {
+            this.index = index;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.model.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.eviware.soapui.impl.wsdl.loadtest.data.LatencyHistogram;
+import com.eviware.soapui.model.mock.MockResult;
+
+/**
+ * Request counts and latency histograms per mock operation, recorded for every dispatched request
+ * regardless of whether it is kept in the MockResultLog
+ */
+
+public class MockResultStatistics {
+    private final ConcurrentMap<String, LatencyHistogram> operations = new ConcurrentHashMap<String, LatencyHistogram>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private volatile long startTime = System.currentTimeMillis();
+
+    public void record(MockResult result) {
+        String operationName = result.getMockOperation() == null ? "" : result.getMockOperation().getName();
+
+        LatencyHistogram histogram = operations.get(operationName);
+        if (histogram == null) {
+            LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = operations.putIfAbsent(operationName, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+
+        histogram.recordValue(result.getTimeTaken());
+        requestCount.incrementAndGet();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Average rate since the statistics were created or last reset
+     */
+
+    public double getRequestsPerSecond() {
+        long elapsed = System.currentTimeMillis() - startTime;
+        return elapsed <= 0 ? 0 : (requestCount.get() * 1000.0) / elapsed;
+    }
+
+    public List<String> getOperationNames() {
+        List<String> names = new ArrayList<String>(operations.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Returns the latency histogram in milliseconds of the specified operation, or null if no request has
+     * been dispatched to it
+     */
+
+    public LatencyHistogram getLatencyHistogram(String operationName) {
+        return operations.get(operationName);
+    }
+
+    public long getRequestCount(String operationName) {
+        LatencyHistogram histogram = operations.get(operationName);
+        return histogram == null ? 0 : histogram.getTotalCount();
+    }
+
+    public void reset() {
+        operations.clear();
+        requestCount.set(0);
+        startTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("requests=").append(getRequestCount()).append(", requests/s=")
+                .append(String.format("%.1f", getRequestsPerSecond()));
+
+        for (String operationName : getOperationNames()) {
+            LatencyHistogram histogram = operations.get(operationName);
+            builder.append("\n  ").append(operationName).append(": count=").append(histogram.getTotalCount())
+                    .append(", median=").append(histogram.getValueAtPercentile(50)).append("ms, p99=")
+                    .append(histogram.getValueAtPercentile(99)).append("ms, max=").append(histogram.getMaxValue())
+                    .append("ms");
+        }
+
+        return builder.toString();
+    }
+}
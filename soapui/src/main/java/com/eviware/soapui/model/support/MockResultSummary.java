@@ -0,0 +1,105 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.model.support;
+
+import java.io.IOException;
+
+import com.eviware.soapui.model.mock.MockOperation;
+import com.eviware.soapui.model.mock.MockRequest;
+import com.eviware.soapui.model.mock.MockResponse;
+import com.eviware.soapui.model.mock.MockResult;
+import com.eviware.soapui.support.action.swing.ActionList;
+import com.eviware.soapui.support.action.swing.DefaultActionList;
+import com.eviware.soapui.support.types.StringToStringsMap;
+
+/**
+ * Read-only MockResult that keeps the operation, response and timing of a handled request but not its
+ * request, headers or content, used by the MockResultLog for results that were not sampled
+ */
+
+public class MockResultSummary implements MockResult {
+    private final MockOperation mockOperation;
+    private final MockResponse mockResponse;
+    private final long timeTaken;
+    private final long timestamp;
+
+    public MockResultSummary(MockResult result) {
+        mockOperation = result.getMockOperation();
+        mockResponse = result.getMockResponse();
+        timeTaken = result.getTimeTaken();
+        timestamp = result.getTimestamp();
+    }
+
+    public MockRequest getMockRequest() {
+        return null;
+    }
+
+    public StringToStringsMap getResponseHeaders() {
+        return new StringToStringsMap();
+    }
+
+    public String getResponseContent() {
+        return null;
+    }
+
+    public MockResponse getMockResponse() {
+        return mockResponse;
+    }
+
+    public MockOperation getMockOperation() {
+        return mockOperation;
+    }
+
+    public ActionList getActions() {
+        return new DefaultActionList();
+    }
+
+    public long getTimeTaken() {
+        return timeTaken;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void finish() {
+    }
+
+    public byte[] getRawResponseData() {
+        return null;
+    }
+
+    public void addHeader(String name, String value) {
+        throw new UnsupportedOperationException("MockResult summaries are read-only");
+    }
+
+    public boolean isCommitted() {
+        return true;
+    }
+
+    public void setResponseContent(String responseContent) {
+        throw new UnsupportedOperationException("MockResult summaries are read-only");
+    }
+
+    public void setContentType(String contentTypeHttpHeader) {
+        throw new UnsupportedOperationException("MockResult summaries are read-only");
+    }
+
+    public void writeRawResponseData(byte[] data) throws IOException {
+        throw new UnsupportedOperationException("MockResult summaries are read-only");
+    }
+}
@@ -27,7 +27,6 @@ import com.eviware.soapui.model.propertyexpansion.PropertyExpander;
 import com.eviware.soapui.settings.HttpSettings;
 import com.eviware.soapui.settings.SSLSettings;
 import com.eviware.soapui.support.StringUtils;
-import com.eviware.soapui.support.Tools;
 import com.eviware.soapui.support.UISupport;
 import com.eviware.soapui.support.log.JettyLogger;
 import org.apache.log4j.Logger;
@@ -52,10 +51,9 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.io.StringReader;
 import java.nio.channels.SocketChannel;
@@ -76,6 +74,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class JettyMockEngine implements MockEngine {
     public final static Logger log = Logger.getLogger(JettyMockEngine.class);
 
+    public static final long DEFAULT_BODY_SPILL_THRESHOLD = 1024 * 1024;
+
     private Server server;
     private Map<Integer, Map<String, List<MockRunner>>> runners = new HashMap<Integer, Map<String, List<MockRunner>>>();
     private Map<Integer, SoapUIConnector> connectors = new HashMap<Integer, SoapUIConnector>();
@@ -121,7 +121,7 @@ public class JettyMockEngine implements MockEngine {
             }
 
             if (!runners.containsKey(port)) {
-                SoapUIConnector connector = new SoapUIConnector();
+                SoapUIConnector connector = new SoapUIConnector(port);
                 PropertySupport.applySystemProperties(connector, "soapui.mock.connector", runner.getMockContext().getMockService());
 
                 connector.setPort(port);
@@ -157,6 +157,7 @@ public class JettyMockEngine implements MockEngine {
 
                 connectors.put(port, connector);
                 runners.put(port, new HashMap<String, List<MockRunner>>());
+                connector.getMockThreadPool().registerMBean(port);
             }
 
             Map<String, List<MockRunner>> map = runners.get(port);
@@ -171,6 +172,15 @@ public class JettyMockEngine implements MockEngine {
         }
     }
 
+    /**
+     * Returns the request thread pool metrics of the specified port, or null if no mock is running on it
+     */
+
+    public MockEngineThreadPoolMBean getThreadPoolStatistics(int port) {
+        SoapUIConnector connector = connectors.get(port);
+        return connector == null ? null : connector.getMockThreadPool();
+    }
+
     private void initServer() throws Exception {
         server = new Server();
         server.setThreadPool(new SoapUIJettyThreadPool());
@@ -233,6 +243,8 @@ public class JettyMockEngine implements MockEngine {
                 } catch (Exception e) {
                     SoapUI.logError(e);
                 }
+                log.info(connector.getMockThreadPool());
+                connector.getMockThreadPool().unregisterMBean();
                 server.removeConnector(connector);
                 runners.remove(port);
                 if (runners.isEmpty()) {
@@ -254,6 +266,23 @@ public class JettyMockEngine implements MockEngine {
 
     private class SoapUIConnector extends SelectChannelConnector {
         private Set<HttpConnection> connections = new HashSet<HttpConnection>();
+        private final MockEngineThreadPool mockThreadPool;
+
+        public SoapUIConnector(int port) {
+            // each acceptor also runs a selector, both permanently occupying a pool thread
+            int acceptors = Math.max(1, (int) SoapUI.getSettings().getLong(HttpSettings.MOCK_ACCEPTORS, 1));
+            mockThreadPool = MockEngineThreadPool.createForPort(port, SoapUI.getSettings());
+            if (mockThreadPool.getMaxThreads() <= acceptors * 2) {
+                mockThreadPool.setMaxThreads(acceptors * 2 + 1);
+            }
+
+            setAcceptors(acceptors);
+            setThreadPool(mockThreadPool);
+        }
+
+        public MockEngineThreadPool getMockThreadPool() {
+            return mockThreadPool;
+        }
 
         @Override
         protected void connectionClosed(HttpConnection arg0) {
@@ -293,6 +322,33 @@ public class JettyMockEngine implements MockEngine {
         }
     }
 
+    /**
+     * Returns the logger of the jetty log area if mock wire logging is enabled and there is a log monitor to
+     * show it, otherwise null so that bodies are not captured at all
+     */
+
+    private static Logger getWireLogger() {
+        if (!SoapUI.getSettings().getBoolean(HttpSettings.ENABLE_MOCK_WIRE_LOG)) {
+            return null;
+        }
+
+        if (SoapUI.getLogMonitor() == null || SoapUI.getLogMonitor().getLogArea("jetty log") == null
+                || SoapUI.getLogMonitor().getLogArea("jetty log").getLoggers() == null) {
+            return null;
+        }
+
+        return SoapUI.getLogMonitor().getLogArea("jetty log").getLoggers()[0];
+    }
+
+    private static long getSpillThreshold() {
+        return SoapUI.getSettings().getLong(HttpSettings.MOCK_BODY_SPILL_THRESHOLD, DEFAULT_BODY_SPILL_THRESHOLD);
+    }
+
+    /**
+     * Keeps the request and capture streams for the duration of a single request, releasing their buffers
+     * when the connection is reset for the next one
+     */
+
     private class SoapUIHttpConnection extends HttpConnection {
         private CapturingServletInputStream capturingServletInputStream;
         private BufferedServletInputStream bufferedServletInputStream;
@@ -304,13 +360,13 @@ public class JettyMockEngine implements MockEngine {
 
         @Override
         public ServletInputStream getInputStream() {
-            if (SoapUI.getSettings().getBoolean(HttpSettings.ENABLE_MOCK_WIRE_LOG)) {
-                if (capturingServletInputStream == null) {
+            if (bufferedServletInputStream == null) {
+                if (getWireLogger() != null) {
                     capturingServletInputStream = new CapturingServletInputStream(super.getInputStream());
                     bufferedServletInputStream = new BufferedServletInputStream(capturingServletInputStream);
+                } else {
+                    bufferedServletInputStream = new BufferedServletInputStream(super.getInputStream());
                 }
-            } else {
-                bufferedServletInputStream = new BufferedServletInputStream(super.getInputStream());
             }
 
             return bufferedServletInputStream;
@@ -318,20 +374,46 @@ public class JettyMockEngine implements MockEngine {
 
         @Override
         public ServletOutputStream getOutputStream() {
-            if (SoapUI.getSettings().getBoolean(HttpSettings.ENABLE_MOCK_WIRE_LOG)) {
-                if (capturingServletOutputStream == null) {
-                    capturingServletOutputStream = new CapturingServletOutputStream(super.getOutputStream());
-                }
-                return capturingServletOutputStream;
-            } else {
-                return super.getOutputStream();
+            if (capturingServletOutputStream == null && getWireLogger() != null) {
+                capturingServletOutputStream = new CapturingServletOutputStream(super.getOutputStream());
+            }
+
+            return capturingServletOutputStream == null ? super.getOutputStream() : capturingServletOutputStream;
+        }
+
+        @Override
+        public void reset(boolean returnBuffers) {
+            super.reset(returnBuffers);
+            releaseStreams();
+        }
+
+        @Override
+        public void destroy() {
+            super.destroy();
+            releaseStreams();
+        }
+
+        private void releaseStreams() {
+            if (bufferedServletInputStream != null) {
+                bufferedServletInputStream.release();
+                bufferedServletInputStream = null;
+            }
+
+            if (capturingServletInputStream != null) {
+                capturingServletInputStream.captureBuffer.release();
+                capturingServletInputStream = null;
+            }
+
+            if (capturingServletOutputStream != null) {
+                capturingServletOutputStream.captureBuffer.release();
+                capturingServletOutputStream = null;
             }
         }
     }
 
     private class BufferedServletInputStream extends ServletInputStream {
         private InputStream source = null;
-        private byte[] data = null;
+        private MockCaptureBuffer data = null;
         private InputStream buffer1 = null;
 
         public BufferedServletInputStream(InputStream is) {
@@ -340,20 +422,45 @@ public class JettyMockEngine implements MockEngine {
         }
 
         public InputStream getBuffer() throws IOException {
-            if (source.available() > 0) {
+            if (source.available() > 0 && data != null) {
                 // New request content available
-                data = null;
+                release();
             }
             if (data == null) {
-                ByteArrayOutputStream out = Tools.readAll(source, Tools.READ_ALL);
-                data = out.toByteArray();
+                data = new MockCaptureBuffer(getSpillThreshold());
+                byte[] transfer = new byte[MockCaptureBuffer.CHUNK_SIZE];
+                int count = source.read(transfer);
+                while (count != -1) {
+                    data.write(transfer, 0, count);
+                    count = source.read(transfer);
+                }
             }
             if (buffer1 == null) {
-                buffer1 = new ByteArrayInputStream(data);
+                buffer1 = data.getInputStream();
             }
             return buffer1;
         }
 
+        public void release() {
+            closeBuffer();
+            if (data != null) {
+                data.release();
+                data = null;
+            }
+        }
+
+        private void closeBuffer() {
+            // streams over spilled bodies hold the spill file open
+            if (buffer1 != null) {
+                try {
+                    buffer1.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close request buffer: " + e);
+                }
+                buffer1 = null;
+            }
+        }
+
         public int read() throws IOException {
             return getBuffer().read();
         }
@@ -404,13 +511,13 @@ public class JettyMockEngine implements MockEngine {
         }
 
         public void reset() throws IOException {
-            buffer1 = null;
+            closeBuffer();
         }
     }
 
     private class CapturingServletOutputStream extends ServletOutputStream {
         private ServletOutputStream outputStream;
-        private ByteArrayOutputStream captureOutputStream = new ByteArrayOutputStream();
+        private MockCaptureBuffer captureBuffer = new MockCaptureBuffer(getSpillThreshold());
 
         public CapturingServletOutputStream(ServletOutputStream outputStream) {
             this.outputStream = outputStream;
@@ -477,17 +584,17 @@ public class JettyMockEngine implements MockEngine {
         }
 
         public void write(int b) throws IOException {
-            captureOutputStream.write(b);
+            captureBuffer.write(b);
             outputStream.write(b);
         }
 
         public void write(byte[] b) throws IOException {
-            captureOutputStream.write(b);
+            captureBuffer.write(b, 0, b.length);
             outputStream.write(b);
         }
 
         public void write(byte[] b, int off, int len) throws IOException {
-            captureOutputStream.write(b, off, len);
+            captureBuffer.write(b, off, len);
             outputStream.write(b, off, len);
         }
 
@@ -498,13 +605,13 @@ public class JettyMockEngine implements MockEngine {
         public void close() throws IOException {
             outputStream.close();
             // log.info( "Closing output stream, captured: " +
-            // captureOutputStream.toString() );
+            // captureBuffer.size() );
         }
     }
 
     private class CapturingServletInputStream extends ServletInputStream {
         private ServletInputStream inputStream;
-        private ByteArrayOutputStream captureOutputStream = new ByteArrayOutputStream();
+        private MockCaptureBuffer captureBuffer = new MockCaptureBuffer(getSpillThreshold());
 
         public CapturingServletInputStream(ServletInputStream inputStream) {
             this.inputStream = inputStream;
@@ -512,26 +619,28 @@ public class JettyMockEngine implements MockEngine {
 
         public int read() throws IOException {
             int i = inputStream.read();
-            captureOutputStream.write(i);
+            if (i != -1) {
+                captureBuffer.write(i);
+            }
             return i;
         }
 
         public int readLine(byte[] bytes, int i, int i1) throws IOException {
             int result = inputStream.readLine(bytes, i, i1);
-            captureOutputStream.write(bytes, i, i1);
+            if (result > 0) {
+                captureBuffer.write(bytes, i, result);
+            }
             return result;
         }
 
         public int read(byte[] b) throws IOException {
-            int i = inputStream.read(b);
-            captureOutputStream.write(b);
-            return i;
+            return read(b, 0, b.length);
         }
 
         public int read(byte[] b, int off, int len) throws IOException {
             int result = inputStream.read(b, off, len);
-            if (result != -1) {
-                captureOutputStream.write(b, off, result);
+            if (result > 0) {
+                captureBuffer.write(b, off, result);
             }
             return result;
         }
@@ -564,6 +673,13 @@ public class JettyMockEngine implements MockEngine {
     private class ServerHandler extends AbstractHandler {
         public void handle(String target, HttpServletRequest request, HttpServletResponse response, int dispatch)
                 throws IOException, ServletException {
+            if (isOverloaded(request.getLocalPort())) {
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader("Retry-After", "1");
+                response.flushBuffer();
+                return;
+            }
+
             // find mockService
             Map<String, List<MockRunner>> map = runners.get(request.getLocalPort());
 
@@ -634,6 +750,26 @@ public class JettyMockEngine implements MockEngine {
             response.flushBuffer();
         }
 
+        private boolean isOverloaded(int port) {
+            SoapUIConnector connector = connectors.get(port);
+            if (connector == null) {
+                return false;
+            }
+
+            MockEngineThreadPool threadPool = connector.getMockThreadPool();
+            if (threadPool.isQueueFull()) {
+                threadPool.requestRejected();
+                return true;
+            }
+
+            if (SoapUI.getSettings().getBoolean(HttpSettings.MOCK_OVERLOAD_RESPONSE) && threadPool.isOverloaded()) {
+                threadPool.overloadResponseSent();
+                return true;
+            }
+
+            return false;
+        }
+
         private void printMockServiceList(HttpServletResponse response) throws IOException {
             response.setStatus(HttpServletResponse.SC_OK);
             response.setContentType("text/html");
@@ -658,52 +794,56 @@ public class JettyMockEngine implements MockEngine {
 
     private class MockRequestLog extends AbstractLifeCycle implements RequestLog {
         public void log(Request request, Response response) {
-            if (!SoapUI.getSettings().getBoolean(HttpSettings.ENABLE_MOCK_WIRE_LOG)) {
+            Logger logger = getWireLogger();
+            if (logger == null) {
                 return;
             }
 
-            if (SoapUI.getLogMonitor() == null || SoapUI.getLogMonitor().getLogArea("jetty log") == null
-                    || SoapUI.getLogMonitor().getLogArea("jetty log").getLoggers() == null) {
+            HttpConnection connection = HttpConnection.getCurrentConnection();
+            if (!(connection instanceof SoapUIHttpConnection)) {
                 return;
             }
 
-            Logger logger = SoapUI.getLogMonitor().getLogArea("jetty log").getLoggers()[0];
+            SoapUIHttpConnection soapUIConnection = (SoapUIHttpConnection) connection;
 
             try {
-                ServletInputStream inputStream = request.getInputStream();
-                if (inputStream instanceof CapturingServletInputStream) {
-                    ByteArrayOutputStream byteArrayOutputStream = ((CapturingServletInputStream) inputStream).captureOutputStream;
-                    String str = request.toString() + byteArrayOutputStream.toString();
-                    BufferedReader reader = new BufferedReader(new StringReader(str));
-                    ((CapturingServletInputStream) inputStream).captureOutputStream = new ByteArrayOutputStream();
-
-                    String line = reader.readLine();
-                    while (line != null) {
-                        logger.info(">> \"" + line + "\"");
-                        line = reader.readLine();
-                    }
+                if (soapUIConnection.capturingServletInputStream != null) {
+                    logLines(logger, ">> ", request.toString(),
+                            soapUIConnection.capturingServletInputStream.captureBuffer);
                 }
             } catch (Exception e) {
                 SoapUI.logError(e);
             }
 
             try {
-                ServletOutputStream outputStream = response.getOutputStream();
-                if (outputStream instanceof CapturingServletOutputStream) {
-                    ByteArrayOutputStream byteArrayOutputStream = ((CapturingServletOutputStream) outputStream).captureOutputStream;
-                    String str = request.toString() + byteArrayOutputStream.toString();
-                    BufferedReader reader = new BufferedReader(new StringReader(str));
-                    ((CapturingServletOutputStream) outputStream).captureOutputStream = new ByteArrayOutputStream();
-
-                    String line = reader.readLine();
-                    while (line != null) {
-                        logger.info("<< \"" + line + "\"");
-                        line = reader.readLine();
-                    }
+                if (soapUIConnection.capturingServletOutputStream != null) {
+                    logLines(logger, "<< ", request.toString(),
+                            soapUIConnection.capturingServletOutputStream.captureBuffer);
                 }
             } catch (Exception e) {
                 SoapUI.logError(e);
             }
         }
+
+        private void logLines(Logger logger, String prefix, String head, MockCaptureBuffer body) throws IOException {
+            BufferedReader reader = new BufferedReader(new StringReader(head));
+            String line = reader.readLine();
+            while (line != null) {
+                logger.info(prefix + "\"" + line + "\"");
+                line = reader.readLine();
+            }
+
+            // read the captured body in place rather than copying it into a String first
+            reader = new BufferedReader(new InputStreamReader(body.getInputStream()));
+            try {
+                line = reader.readLine();
+                while (line != null) {
+                    logger.info(prefix + "\"" + line + "\"");
+                    line = reader.readLine();
+                }
+            } finally {
+                reader.close();
+            }
+        }
     }
 }
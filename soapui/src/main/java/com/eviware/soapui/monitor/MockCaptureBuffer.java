@@ -0,0 +1,301 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.monitor;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.support.SpillFiles;
+
+/**
+ * Holds a captured mock request or response body in pooled direct buffers, spilling to a temporary file
+ * once it grows beyond a threshold. Buffers are returned to the pool by release(), so a busy mock engine
+ * reuses the same memory instead of allocating byte arrays for every request.
+ */
+
+public class MockCaptureBuffer extends OutputStream {
+    public static final int CHUNK_SIZE = 16 * 1024;
+    private static final int MAX_POOLED_CHUNKS = 256;
+
+    private static final Queue<ByteBuffer> chunkPool = new ConcurrentLinkedQueue<ByteBuffer>();
+    private static final AtomicInteger pooledChunks = new AtomicInteger();
+
+    private final long spillThreshold;
+    private List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+    private File file;
+    private OutputStream fileOut;
+    private long size;
+
+    /**
+     * @param spillThreshold number of bytes kept in memory before the content is moved to a file, 0 to
+     *                       always keep it in memory
+     */
+
+    public MockCaptureBuffer(long spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (chunks != null && fileOut == null && (spillThreshold <= 0 || size < spillThreshold)) {
+            currentChunk().put((byte) b);
+            size++;
+        } else {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (chunks == null) {
+            throw new IOException("Capture buffer has been released");
+        }
+
+        if (fileOut == null && spillThreshold > 0 && size + len > spillThreshold) {
+            spill();
+        }
+
+        if (fileOut != null) {
+            fileOut.write(b, off, len);
+        } else {
+            int remaining = len;
+            while (remaining > 0) {
+                ByteBuffer chunk = currentChunk();
+                int count = Math.min(remaining, chunk.remaining());
+                chunk.put(b, off + len - remaining, count);
+                remaining -= count;
+            }
+        }
+
+        size += len;
+    }
+
+    private ByteBuffer currentChunk() {
+        ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || !chunk.hasRemaining()) {
+            chunk = acquireChunk();
+            chunks.add(chunk);
+        }
+
+        return chunk;
+    }
+
+    private void spill() throws IOException {
+        file = SpillFiles.createTempFile("soapui-mock-");
+        fileOut = new BufferedOutputStream(new FileOutputStream(file));
+
+        byte[] transfer = new byte[CHUNK_SIZE];
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer view = (ByteBuffer) chunk.duplicate().flip();
+            int count = view.remaining();
+            view.get(transfer, 0, count);
+            fileOut.write(transfer, 0, count);
+        }
+
+        releaseChunks();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns a new stream over the content written so far, reading directly from the pooled buffers or
+     * the spill file
+     */
+
+    public InputStream getInputStream() throws IOException {
+        if (fileOut != null) {
+            fileOut.flush();
+            return new LimitedFileInputStream(file, size);
+        }
+
+        return new ChunkInputStream(chunks == null ? new ArrayList<ByteBuffer>() : chunks);
+    }
+
+    /**
+     * Returns the buffers to the pool and deletes the spill file; the content is no longer available
+     * afterwards
+     */
+
+    public void release() {
+        if (fileOut != null) {
+            try {
+                fileOut.close();
+            } catch (IOException e) {
+                SoapUI.logError(e);
+            }
+            fileOut = null;
+        }
+
+        if (file != null && !file.delete()) {
+            SoapUI.log.warn("Failed to delete mock capture file [" + file + "], it is removed with the spill directory");
+        }
+        file = null;
+
+        if (chunks != null) {
+            releaseChunks();
+            chunks = null;
+        }
+
+        size = 0;
+    }
+
+    private void releaseChunks() {
+        for (ByteBuffer chunk : chunks) {
+            if (pooledChunks.incrementAndGet() <= MAX_POOLED_CHUNKS) {
+                chunk.clear();
+                chunkPool.offer(chunk);
+            } else {
+                pooledChunks.decrementAndGet();
+            }
+        }
+
+        chunks.clear();
+    }
+
+    private static ByteBuffer acquireChunk() {
+        ByteBuffer chunk = chunkPool.poll();
+        if (chunk != null) {
+            pooledChunks.decrementAndGet();
+            return chunk;
+        }
+
+        return ByteBuffer.allocateDirect(CHUNK_SIZE);
+    }
+
+    private static class ChunkInputStream extends InputStream {
+        private final ByteBuffer[] views;
+        private int current;
+
+        private ChunkInputStream(List<ByteBuffer> chunks) {
+            views = new ByteBuffer[chunks.size()];
+            for (int c = 0; c < views.length; c++) {
+                views[c] = (ByteBuffer) chunks.get(c).duplicate().flip();
+            }
+        }
+
+        private ByteBuffer currentView() {
+            while (current < views.length && !views[current].hasRemaining()) {
+                current++;
+            }
+
+            return current < views.length ? views[current] : null;
+        }
+
+        @Override
+        public int read() throws IOException {
+            ByteBuffer view = currentView();
+            return view == null ? -1 : view.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            ByteBuffer view = currentView();
+            if (view == null) {
+                return -1;
+            }
+
+            int count = Math.min(len, view.remaining());
+            view.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            int available = 0;
+            for (int c = current; c < views.length; c++) {
+                available += views[c].remaining();
+            }
+
+            return available;
+        }
+    }
+
+    /**
+     * Reads no further than the size at creation, so that content written afterwards is not seen
+     */
+
+    private static class LimitedFileInputStream extends FileInputStream {
+        private long remaining;
+
+        private LimitedFileInputStream(File file, long size) throws IOException {
+            super(file);
+            remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int result = super.read();
+            if (result != -1) {
+                remaining--;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b) throws IOException {
+            return read(b, 0, b.length);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int result = super.read(b, off, (int) Math.min(len, remaining));
+            if (result > 0) {
+                remaining -= result;
+            }
+            return result;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+}
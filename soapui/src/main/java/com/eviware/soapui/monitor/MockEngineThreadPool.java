@@ -0,0 +1,235 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+import org.mortbay.jetty.AbstractConnector;
+import org.mortbay.thread.QueuedThreadPool;
+
+import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.SoapUICore;
+import com.eviware.soapui.impl.wsdl.loadtest.data.LatencyHistogram;
+import com.eviware.soapui.model.settings.Settings;
+import com.eviware.soapui.settings.HttpSettings;
+
+/**
+ * Request thread pool owned by a single MockEngine port, so that mock services neither compete with test
+ * runners for the shared SoapUI thread pool nor with each other. Jobs are always dispatched, since jetty
+ * selects an endpoint again right away when its dispatch fails; if the queue of waiting jobs is bounded,
+ * requests are instead answered with 503 Service Unavailable once the queue is full.
+ */
+
+public class MockEngineThreadPool extends QueuedThreadPool implements MockEngineThreadPoolMBean {
+    private final static Logger log = Logger.getLogger(MockEngineThreadPool.class);
+
+    public static final String OBJECT_NAME_PREFIX = "com.eviware.soapui:type=MockEngineThreadPool,port=";
+    public static final int DEFAULT_MIN_THREADS = 2;
+    public static final int DEFAULT_MAX_THREADS = 100;
+
+    private final int queueLimit;
+    private final LatencyHistogram queueWaitHistogram = new LatencyHistogram();
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong overloadResponseCount = new AtomicLong();
+    private final AtomicInteger peakThreads = new AtomicInteger();
+    private ObjectName registeredName;
+
+    public MockEngineThreadPool(String name, int minThreads, int maxThreads, int queueLimit) {
+        super(Math.max(maxThreads, 1));
+        setMinThreads(Math.max(1, Math.min(minThreads, getMaxThreads())));
+        setName(name);
+        setDaemon(true);
+        this.queueLimit = Math.max(queueLimit, 0);
+    }
+
+    /**
+     * Creates a pool for the specified port configured from the HttpSettings
+     */
+
+    public static MockEngineThreadPool createForPort(int port, Settings settings) {
+        int minThreads = (int) settings.getLong(HttpSettings.MOCK_MIN_THREADS, DEFAULT_MIN_THREADS);
+        int maxThreads = (int) settings.getLong(HttpSettings.MOCK_MAX_THREADS, DEFAULT_MAX_THREADS);
+        int queueLimit = (int) settings.getLong(HttpSettings.MOCK_MAX_QUEUED, 0);
+
+        return new MockEngineThreadPool("SoapUI MockEngine [" + port + "]", minThreads, maxThreads, queueLimit);
+    }
+
+    @Override
+    public boolean dispatch(Runnable job) {
+        // acceptors run as long as the connector, their wait would only skew the queue statistics
+        if (job.getClass().getEnclosingClass() == AbstractConnector.class) {
+            return super.dispatch(job);
+        }
+
+        if (!super.dispatch(new QueuedJob(job))) {
+            return false;
+        }
+
+        dispatchedCount.incrementAndGet();
+
+        int threads = getThreads();
+        int peak = peakThreads.get();
+        while (threads > peak && !peakThreads.compareAndSet(peak, threads)) {
+            peak = peakThreads.get();
+        }
+
+        return true;
+    }
+
+    /**
+     * Overloaded when all threads are busy and jobs are waiting in the queue
+     */
+
+    public boolean isOverloaded() {
+        return getThreads() >= getMaxThreads() && getIdleThreads() == 0 && getQueueSize() > 0;
+    }
+
+    /**
+     * Full when a queue limit is set and as many jobs are waiting for a thread
+     */
+
+    public boolean isQueueFull() {
+        return queueLimit > 0 && getQueueSize() >= queueLimit;
+    }
+
+    void overloadResponseSent() {
+        overloadResponseCount.incrementAndGet();
+    }
+
+    void requestRejected() {
+        rejectedCount.incrementAndGet();
+    }
+
+    public int getQueueLimit() {
+        return queueLimit;
+    }
+
+    public int getBusyThreads() {
+        return Math.max(0, getThreads() - getIdleThreads());
+    }
+
+    public double getUtilization() {
+        return (double) getBusyThreads() / getMaxThreads();
+    }
+
+    public int getPeakThreads() {
+        return peakThreads.get();
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getOverloadResponseCount() {
+        return overloadResponseCount.get();
+    }
+
+    public long getQueueWaitMedian() {
+        return queueWaitHistogram.getValueAtPercentile(50);
+    }
+
+    public long getQueueWait99thPercentile() {
+        return queueWaitHistogram.getValueAtPercentile(99);
+    }
+
+    public long getQueueWaitMax() {
+        return queueWaitHistogram.getMaxValue();
+    }
+
+    public void reset() {
+        queueWaitHistogram.reset();
+        dispatchedCount.set(0);
+        rejectedCount.set(0);
+        overloadResponseCount.set(0);
+        peakThreads.set(getThreads());
+    }
+
+    public synchronized void registerMBean(int port) {
+        if (registeredName != null) {
+            return;
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME_PREFIX + port);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                registeredName = name;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to register mock thread pool MBean: " + e);
+        }
+    }
+
+    public synchronized void unregisterMBean() {
+        if (registeredName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (Exception e) {
+            log.warn("Failed to unregister mock thread pool MBean: " + e);
+        } finally {
+            registeredName = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getName() + ": threads=" + getThreads() + "/" + getMaxThreads() + ", busy=" + getBusyThreads()
+                + ", peak=" + getPeakThreads() + ", queued=" + getQueueSize() + ", dispatched=" + getDispatchedCount()
+                + ", rejected=" + getRejectedCount() + ", overloaded=" + getOverloadResponseCount()
+                + ", queueWait[median=" + getQueueWaitMedian() + "ms, p99=" + getQueueWait99thPercentile() + "ms]";
+    }
+
+    /**
+     * Records the time a job waited for a thread and runs it with the extension class loader, as the shared
+     * SoapUI thread pool does
+     */
+
+    private class QueuedJob implements Runnable {
+        private final Runnable job;
+        private final long dispatchTime = System.currentTimeMillis();
+
+        private QueuedJob(Runnable job) {
+            this.job = job;
+        }
+
+        public void run() {
+            queueWaitHistogram.recordValue(System.currentTimeMillis() - dispatchTime);
+
+            SoapUICore core = SoapUI.getSoapUICore();
+            if (core != null) {
+                Thread.currentThread().setContextClassLoader(core.getExtensionClassLoader());
+            }
+
+            job.run();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.monitor;
+
+/**
+ * JMX view of the request thread pool of a MockEngine port, registered as
+ * {@value MockEngineThreadPool#OBJECT_NAME_PREFIX}&lt;port&gt;
+ */
+
+public interface MockEngineThreadPoolMBean {
+    int getMinThreads();
+
+    int getMaxThreads();
+
+    int getQueueLimit();
+
+    int getThreads();
+
+    int getIdleThreads();
+
+    int getBusyThreads();
+
+    double getUtilization();
+
+    int getQueueSize();
+
+    int getPeakThreads();
+
+    long getDispatchedCount();
+
+    long getRejectedCount();
+
+    long getOverloadResponseCount();
+
+    long getQueueWaitMedian();
+
+    long getQueueWait99thPercentile();
+
+    long getQueueWaitMax();
+
+    boolean isLowOnThreads();
+
+    void reset();
+}
@@ -16,12 +16,18 @@
 
 package com.eviware.soapui.monitor;
 
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.mortbay.thread.ThreadPool;
 
 import com.eviware.soapui.SoapUI;
 
+/**
+ * Server-wide Jetty thread pool backed by the shared SoapUI thread pool; each mock port has its own
+ * MockEngineThreadPool instead
+ */
+
 public final class SoapUIJettyThreadPool implements ThreadPool {
     @Override
     public boolean dispatch(Runnable arg0) {
@@ -31,7 +37,8 @@ public final class SoapUIJettyThreadPool implements ThreadPool {
 
     @Override
     public int getIdleThreads() {
-        return 0;
+        ThreadPoolExecutor threadPool = SoapUI.getThreadPool();
+        return Math.max(0, threadPool.getPoolSize() - threadPool.getActiveCount());
     }
 
     @Override
@@ -41,7 +48,8 @@ public final class SoapUIJettyThreadPool implements ThreadPool {
 
     @Override
     public boolean isLowOnThreads() {
-        return false;
+        ThreadPoolExecutor threadPool = SoapUI.getThreadPool();
+        return threadPool.getActiveCount() >= threadPool.getMaximumPoolSize() && !threadPool.getQueue().isEmpty();
     }
 
     @Override
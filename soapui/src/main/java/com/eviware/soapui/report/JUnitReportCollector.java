@@ -50,6 +50,12 @@ import com.eviware.soapui.support.xml.XmlUtils;
  */
 
 public class JUnitReportCollector implements TestRunListener, TestSuiteRunListener, ProjectRunListener {
+    /**
+     * TestCase setting for including complete TestStep logs in failures; the constant is defined in pro
+     */
+
+    public static final String COMPLETE_ERROR_LOGS = "Complete Error Logs";
+
     HashMap<String, JUnitReport> reports;
     HashMap<TestCase, String> failures;
     HashMap<TestCase, Integer> errorCount;
@@ -105,24 +111,32 @@ public class JUnitReportCollector implements TestRunListener, TestSuiteRunListen
     }
 
     public void afterRun(TestCaseRunner testRunner, TestCaseRunContext runContext) {
-        TestCase testCase = testRunner.getTestCase();
-        JUnitReport report = reports.get(testCase.getTestSuite().getName());
-
         if (Status.INITIALIZED != testRunner.getStatus() && Status.RUNNING != testRunner.getStatus()) {
-            if (Status.CANCELED == testRunner.getStatus()) {
-                report.addTestCase(testCase.getName(), testRunner.getTimeTaken());
-            }
-            if (Status.FAILED == testRunner.getStatus()) {
-                String msg = "";
-                if (failures.containsKey(testCase)) {
-                    msg = failures.get(testCase).toString();
-                }
-                report.addTestCaseWithFailure(testCase.getName(), testRunner.getTimeTaken(), testRunner.getReason(), msg);
-            }
-            if (Status.FINISHED == testRunner.getStatus()) {
-                report.addTestCase(testCase.getName(), testRunner.getTimeTaken());
-            }
+            addTestCaseResult(testRunner.getTestCase(), testRunner.getStatus(), testRunner.getTimeTaken(),
+                    testRunner.getReason());
+        }
+    }
 
+    /**
+     * Adds the outcome of a finished TestCase to the report of its TestSuite, also used for results that were
+     * not collected by listening to a local run
+     */
+
+    public void addTestCaseResult(TestCase testCase, Status status, long timeTaken, String reason) {
+        JUnitReport report = getReport(testCase.getTestSuite());
+
+        if (Status.CANCELED == status) {
+            report.addTestCase(testCase.getName(), timeTaken);
+        }
+        if (Status.FAILED == status) {
+            String msg = "";
+            if (failures.containsKey(testCase)) {
+                msg = failures.get(testCase).toString();
+            }
+            report.addTestCaseWithFailure(testCase.getName(), timeTaken, reason, msg);
+        }
+        if (Status.FINISHED == status) {
+            report.addTestCase(testCase.getName(), timeTaken);
         }
     }
 
@@ -130,62 +144,88 @@ public class JUnitReportCollector implements TestRunListener, TestSuiteRunListen
         TestStep currentStep = result.getTestStep();
         TestCase testCase = currentStep.getTestCase();
 
-        if (result.getStatus() == TestStepStatus.FAILED) {
-            if (maxErrors > 0) {
-                Integer errors = errorCount.get(testCase);
-                if (errors == null) {
-                    errors = 0;
-                }
+        if (result.getStatus() == TestStepStatus.FAILED && countFailure(testCase)) {
+            String log = null;
+            if (testRunner.getTestCase().getSettings().getBoolean(COMPLETE_ERROR_LOGS)) {
+                StringWriter stringWriter = new StringWriter();
+                PrintWriter writer = new PrintWriter(stringWriter);
+                result.writeTo(writer);
+                log = stringWriter.toString();
+            }
 
-                if (errors >= maxErrors) {
-                    return;
-                }
+            appendFailure(testCase, currentStep.getName(), result.getMessages(), log);
+        }
+    }
 
-                errorCount.put(testCase, errors + 1);
-            }
+    /**
+     * Adds a failed TestStep to the failure text of its TestCase, the optional log is added as is
+     */
 
-            StringBuffer buf = new StringBuffer();
-            if (failures.containsKey(testCase)) {
-                buf.append(failures.get(testCase));
+    public void addFailedStep(TestCase testCase, String testStepName, String[] messages, String log) {
+        if (countFailure(testCase)) {
+            appendFailure(testCase, testStepName, messages, log);
+        }
+    }
+
+    private boolean countFailure(TestCase testCase) {
+        if (maxErrors > 0) {
+            Integer errors = errorCount.get(testCase);
+            if (errors == null) {
+                errors = 0;
             }
 
-            buf.append("<h3><b>").append(XmlUtils.entitize(result.getTestStep().getName()))
-                    .append(" Failed</b></h3><pre>");
-            for (String message : result.getMessages()) {
-                if (message.toLowerCase().startsWith("url:")) {
-                    String url = XmlUtils.entitize(message.substring(4).trim());
-                    buf.append("URL: <a target=\"new\" href=\"").append(url).append("\">").append(url)
-                            .append("</a>");
-                } else {
-                    buf.append(message);
-                }
-
-                buf.append("\r\n");
+            if (errors >= maxErrors) {
+                return false;
             }
 
-            // use string value since constant is defined in pro.. duh..
-            if (testRunner.getTestCase().getSettings().getBoolean("Complete Error Logs")) {
-                StringWriter stringWriter = new StringWriter();
-                PrintWriter writer = new PrintWriter(stringWriter);
-                result.writeTo(writer);
+            errorCount.put(testCase, errors + 1);
+        }
+
+        return true;
+    }
 
-                buf.append(XmlUtils.entitize(stringWriter.toString()));
+    protected void appendFailure(TestCase testCase, String testStepName, String[] messages, String log) {
+        StringBuilder buf = new StringBuilder();
+        if (failures.containsKey(testCase)) {
+            buf.append(failures.get(testCase));
+        }
+
+        buf.append("<h3><b>").append(XmlUtils.entitize(testStepName))
+                .append(" Failed</b></h3><pre>");
+        for (String message : messages) {
+            if (message.toLowerCase().startsWith("url:")) {
+                String url = XmlUtils.entitize(message.substring(4).trim());
+                buf.append("URL: <a target=\"new\" href=\"").append(url).append("\">").append(url)
+                        .append("</a>");
+            } else {
+                buf.append(message);
             }
 
-            buf.append("</pre><hr/>");
+            buf.append("\r\n");
+        }
 
-            failures.put(testCase, buf.toString());
+        if (log != null) {
+            buf.append(XmlUtils.entitize(log));
         }
+
+        buf.append("</pre><hr/>");
+
+        failures.put(testCase, buf.toString());
     }
 
     public void beforeRun(TestCaseRunner testRunner, TestCaseRunContext runContext) {
-        TestCase testCase = testRunner.getTestCase();
-        TestSuite testSuite = testCase.getTestSuite();
-        if (!reports.containsKey(testSuite.getName())) {
-            JUnitReport report = new JUnitReport();
+        getReport(testRunner.getTestCase().getTestSuite());
+    }
+
+    protected JUnitReport getReport(TestSuite testSuite) {
+        JUnitReport report = reports.get(testSuite.getName());
+        if (report == null) {
+            report = new JUnitReport();
             report.setTestSuiteName(testSuite.getProject().getName() + "." + testSuite.getName());
             reports.put(testSuite.getName(), report);
         }
+
+        return report;
     }
 
     public void beforeStep(TestCaseRunner testRunner, TestCaseRunContext runContext) {
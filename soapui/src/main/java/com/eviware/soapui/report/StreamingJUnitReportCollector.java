@@ -0,0 +1,292 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.report;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.model.testsuite.TestCase;
+import com.eviware.soapui.model.testsuite.TestCaseRunContext;
+import com.eviware.soapui.model.testsuite.TestCaseRunner;
+import com.eviware.soapui.model.testsuite.TestRunner.Status;
+import com.eviware.soapui.model.testsuite.TestStepResult;
+import com.eviware.soapui.model.testsuite.TestSuite;
+import com.eviware.soapui.model.testsuite.TestSuiteRunContext;
+import com.eviware.soapui.model.testsuite.TestSuiteRunner;
+import com.eviware.soapui.support.StringUtils;
+import com.eviware.soapui.support.Tools;
+
+/**
+ * JUnitReportCollector that streams each finished TestCase to disk instead of keeping the reports in memory.
+ * TestCases are written to a temporary part file for their TestSuite, which is turned into the final report
+ * when the TestSuite is finished with {@link #finishTestSuite(TestSuite)} or when the reports are saved.
+ * Failure texts are only kept while their TestCase runs and are truncated at a maximum length.
+ */
+
+public class StreamingJUnitReportCollector extends JUnitReportCollector {
+    public static final int DEFAULT_MAX_FAILURE_LENGTH = 64 * 1024;
+    private static final String TRUNCATED = "\r\n... [truncated]";
+
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+    private final File folder;
+    private final int maxFailureLength;
+    private final Map<String, SuiteReportWriter> activeReports = new HashMap<String, SuiteReportWriter>();
+    private final Map<String, Integer> finishedReports = new HashMap<String, Integer>();
+    private final List<String> reportFiles = new ArrayList<String>();
+
+    public StreamingJUnitReportCollector(String folder) {
+        this(folder, 0, DEFAULT_MAX_FAILURE_LENGTH);
+    }
+
+    public StreamingJUnitReportCollector(String folder, int maxErrors, int maxFailureLength) {
+        super(maxErrors);
+        this.folder = new File(folder == null ? "" : folder);
+        this.maxFailureLength = maxFailureLength;
+    }
+
+    @Override
+    public synchronized void beforeRun(TestCaseRunner testRunner, TestCaseRunContext runContext) {
+        try {
+            getWriter(testRunner.getTestCase().getTestSuite());
+        } catch (Exception e) {
+            SoapUI.logError(e, "Failed to create JUnit report");
+        }
+    }
+
+    @Override
+    public synchronized void afterStep(TestCaseRunner testRunner, TestCaseRunContext runContext, TestStepResult result) {
+        super.afterStep(testRunner, runContext, result);
+    }
+
+    @Override
+    public synchronized void addTestCaseResult(TestCase testCase, Status status, long timeTaken, String reason) {
+        String failure = failures.remove(testCase);
+        errorCount.remove(testCase);
+
+        if (Status.CANCELED != status && Status.FAILED != status && Status.FINISHED != status) {
+            return;
+        }
+
+        try {
+            getWriter(testCase.getTestSuite()).addTestCase(testCase.getName(), timeTaken,
+                    Status.FAILED == status ? reason : null, failure == null ? "" : failure);
+        } catch (Exception e) {
+            SoapUI.logError(e, "Failed to write JUnit report for TestCase [" + testCase.getName() + "]");
+        }
+    }
+
+    @Override
+    protected void appendFailure(TestCase testCase, String testStepName, String[] messages, String log) {
+        String failure = failures.get(testCase);
+        if (failure != null && failure.length() >= maxFailureLength) {
+            return;
+        }
+
+        super.appendFailure(testCase, testStepName, messages, log);
+
+        failure = failures.get(testCase);
+        if (failure.length() > maxFailureLength) {
+            failures.put(testCase, failure.substring(0, maxFailureLength) + TRUNCATED);
+        }
+    }
+
+    @Override
+    public void afterRun(TestSuiteRunner testRunner, TestSuiteRunContext runContext) {
+        finishTestSuite(testRunner.getTestSuite());
+    }
+
+    /**
+     * Writes the report of the specified TestSuite, later results for it will go to a new report
+     */
+
+    public synchronized void finishTestSuite(TestSuite testSuite) {
+        SuiteReportWriter writer = activeReports.remove(testSuite.getName());
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            reportFiles.add(writer.finish());
+        } catch (Exception e) {
+            SoapUI.logError(e, "Failed to write JUnit report for TestSuite [" + testSuite.getName() + "]");
+        }
+    }
+
+    /**
+     * Finishes the reports of all TestSuites still running; reports are always written to the folder this
+     * collector was created with
+     *
+     * @return the names of all report files written
+     */
+
+    @Override
+    public synchronized List<String> saveReports(String path) throws Exception {
+        for (SuiteReportWriter writer : activeReports.values()) {
+            reportFiles.add(writer.finish());
+        }
+
+        activeReports.clear();
+        return new ArrayList<String>(reportFiles);
+    }
+
+    @Override
+    public synchronized void reset() {
+        super.reset();
+
+        for (SuiteReportWriter writer : activeReports.values()) {
+            writer.discard();
+        }
+
+        activeReports.clear();
+        finishedReports.clear();
+        reportFiles.clear();
+    }
+
+    private SuiteReportWriter getWriter(TestSuite testSuite) throws IOException, XMLStreamException {
+        SuiteReportWriter writer = activeReports.get(testSuite.getName());
+        if (writer == null) {
+            Integer count = finishedReports.get(testSuite.getName());
+            count = count == null ? 1 : count + 1;
+            finishedReports.put(testSuite.getName(), count);
+
+            String fileName = "TEST-" + StringUtils.createFileName(testSuite.getName(), '_')
+                    + (count > 1 ? "-" + count : "") + ".xml";
+            writer = new SuiteReportWriter(testSuite.getProject().getName() + "." + testSuite.getName(), new File(
+                    folder, fileName));
+            activeReports.put(testSuite.getName(), writer);
+        }
+
+        return writer;
+    }
+
+    /**
+     * Streams the testcase elements of one TestSuite to a part file; the testsuite element is only written
+     * when finished, since its attributes hold the totals.
+     */
+
+    private class SuiteReportWriter {
+        private final String name;
+        private final File file;
+        private final File partFile;
+        private final OutputStream partStream;
+        private final XMLStreamWriter partWriter;
+        private int tests;
+        private int failures;
+        private double totalTime;
+
+        public SuiteReportWriter(String name, File file) throws IOException, XMLStreamException {
+            this.name = name;
+            this.file = file;
+
+            folder.mkdirs();
+            partFile = File.createTempFile("TEST-", ".part", folder);
+            partStream = new BufferedOutputStream(new FileOutputStream(partFile));
+            partWriter = outputFactory.createXMLStreamWriter(partStream, "UTF-8");
+        }
+
+        public void addTestCase(String testCaseName, double time, String failure, String stacktrace)
+                throws XMLStreamException {
+            partWriter.writeStartElement("testcase");
+            partWriter.writeAttribute("name", testCaseName);
+            partWriter.writeAttribute("time", String.valueOf(time / 1000));
+
+            if (failure != null) {
+                partWriter.writeStartElement("failure");
+                partWriter.writeAttribute("type", failure);
+                partWriter.writeAttribute("message", failure);
+                partWriter.writeCharacters(stacktrace);
+                partWriter.writeEndElement();
+                failures++;
+            }
+
+            partWriter.writeEndElement();
+            partWriter.flush();
+
+            tests++;
+            totalTime += time;
+        }
+
+        public String finish() throws IOException, XMLStreamException {
+            partWriter.close();
+            partStream.close();
+
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+            try {
+                XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out, "UTF-8");
+                writer.writeStartDocument("UTF-8", "1.0");
+                writer.writeStartElement("testsuite");
+                writer.writeAttribute("name", name);
+                writer.writeAttribute("tests", String.valueOf(tests));
+                writer.writeAttribute("failures", String.valueOf(failures));
+                writer.writeAttribute("errors", "0");
+                writer.writeAttribute("time", String.valueOf(totalTime / 1000));
+
+                writer.writeStartElement("properties");
+                for (Object key : System.getProperties().keySet()) {
+                    writer.writeEmptyElement("property");
+                    writer.writeAttribute("name", key.toString());
+                    writer.writeAttribute("value", String.valueOf(System.getProperty(key.toString())));
+                }
+                writer.writeEndElement();
+
+                // copy the streamed testcase elements as is
+                writer.flush();
+                InputStream in = new FileInputStream(partFile);
+                try {
+                    Tools.writeAll(out, in);
+                } finally {
+                    in.close();
+                }
+
+                writer.writeEndElement();
+                writer.writeEndDocument();
+                writer.close();
+            } finally {
+                out.close();
+                partFile.delete();
+            }
+
+            return file.getAbsolutePath();
+        }
+
+        public void discard() {
+            try {
+                partWriter.close();
+                partStream.close();
+            } catch (Exception e) {
+                SoapUI.logError(e);
+            }
+
+            partFile.delete();
+        }
+    }
+}
@@ -91,6 +91,10 @@ public interface HttpSettings {
     @Setting(name = "Max response size", description = "Maximum size to read from response (0 = no limit)")
     public final static String MAX_RESPONSE_SIZE = HttpSettings.class.getSimpleName() + "@" + "max_response_size";
 
+    @Setting(name = "Response Streaming Threshold", description = "Keeps response bodies larger than this many bytes in a temporary file and reads them on demand (0 = disabled)")
+    public final static String RESPONSE_STREAMING_THRESHOLD = HttpSettings.class.getSimpleName() + "@"
+            + "response_streaming_threshold";
+
     @Setting(name = "Max Connections Per Host", description = "Maximum number of Connections Per Host")
     public static final String MAX_CONNECTIONS_PER_HOST = HttpSettings.class.getSimpleName() + "@"
             + "max_connections_per_host";
@@ -99,12 +103,40 @@ public interface HttpSettings {
     public static final String MAX_TOTAL_CONNECTIONS = HttpSettings.class.getSimpleName() + "@"
             + "max_total_connections";
 
+    @Setting(name = "Route Connection Policies", description = "Per-route connection limits and keep-alive times as host[:port]=maxConnections[/keepAliveSeconds], separated by ';'")
+    public static final String ROUTE_CONNECTION_POLICIES = HttpSettings.class.getSimpleName() + "@"
+            + "route_connection_policies";
+
     @Setting(name = "Leave MockEngine", description = "Leave MockEngine running when stopping MockServices", type = SettingType.BOOLEAN)
     public static final String LEAVE_MOCKENGINE = HttpSettings.class.getSimpleName() + "@" + "leave_mockengine";
 
     @Setting(name = "Enable Mock HTTP Log", description = "Logs wire content of all mock requests", type = SettingType.BOOLEAN)
     public static final String ENABLE_MOCK_WIRE_LOG = HttpSettings.class.getSimpleName() + "@" + "enable_mock_wire_log";
 
+    @Setting(name = "Mock Min Threads", description = "Minimum number of request threads per MockEngine port")
+    public static final String MOCK_MIN_THREADS = HttpSettings.class.getSimpleName() + "@" + "mock_min_threads";
+
+    @Setting(name = "Mock Max Threads", description = "Maximum number of request threads per MockEngine port")
+    public static final String MOCK_MAX_THREADS = HttpSettings.class.getSimpleName() + "@" + "mock_max_threads";
+
+    @Setting(name = "Mock Max Queued", description = "Maximum number of queued mock requests per port, further requests are answered with 503 Service Unavailable (0 = no limit)")
+    public static final String MOCK_MAX_QUEUED = HttpSettings.class.getSimpleName() + "@" + "mock_max_queued";
+
+    @Setting(name = "Mock Overload Response", description = "Responds with 503 Service Unavailable while a MockEngine port is out of threads", type = SettingType.BOOLEAN)
+    public static final String MOCK_OVERLOAD_RESPONSE = HttpSettings.class.getSimpleName() + "@"
+            + "mock_overload_response";
+
+    @Setting(name = "Mock Acceptors", description = "Number of acceptor and selector threads per MockEngine port")
+    public static final String MOCK_ACCEPTORS = HttpSettings.class.getSimpleName() + "@" + "mock_acceptors";
+
+    @Setting(name = "Mock Body Spill Threshold", description = "Mock request and captured bodies larger than this many bytes are kept in a temporary file (0 = never)")
+    public static final String MOCK_BODY_SPILL_THRESHOLD = HttpSettings.class.getSimpleName() + "@"
+            + "mock_body_spill_threshold";
+
+    @Setting(name = "Mock Result Sample Percentage", description = "Percentage of logged mock results that keep their request and response content")
+    public static final String MOCK_RESULT_SAMPLE_PERCENTAGE = HttpSettings.class.getSimpleName() + "@"
+            + "mock_result_sample_percentage";
+
     @Setting(name = "Start REST MockService", description = "Start REST MockService after creation", type = SettingType.BOOLEAN)
     public static final String START_MOCK_SERVICE = HttpSettings.class.getSimpleName() + "@" + "start_mock_service";
 }
@@ -36,4 +36,11 @@ public interface ProjectSettings {
     @Setting(name = "Hermes Config", description = "hermes", type = SettingType.FOLDER)
     public final static String HERMES_CONFIG = ProjectSettings.class.getSimpleName() + "@" + "hermesConfig";
 
+    @Setting(name = "Async HTTP Transport", description = "send HTTP requests with the non-blocking transport", type = SettingType.BOOLEAN)
+    public final static String ASYNC_HTTP_TRANSPORT = ProjectSettings.class.getSimpleName() + "@" + "asyncHttpTransport";
+
+    @Setting(name = "Max Parallel TestCases", description = "maximum number of TestCases running at the same time in parallel runs, 0 for no limit", type = SettingType.INT)
+    public final static String MAX_PARALLEL_TEST_CASES = ProjectSettings.class.getSimpleName() + "@"
+            + "maxParallelTestCases";
+
 }
@@ -56,4 +56,18 @@ public interface SSLSettings {
     @Setting(name = "Client Authentication", description = "requires client authentication", type = SettingType.BOOLEAN)
     public final static String CLIENT_AUTHENTICATION = SSLSettings.class.getSimpleName() + "@"
             + "needClientAuthentication";
+
+    @Setting(name = "Disable Session Resumption", description = "performs a full TLS handshake for every new connection", type = SettingType.BOOLEAN)
+    public final static String DISABLE_SESSION_RESUMPTION = SSLSettings.class.getSimpleName() + "@"
+            + "disableSessionResumption";
+
+    @Setting(name = "Disable Session Tickets", description = "resumes TLS sessions by session ID only (requires restart)", type = SettingType.BOOLEAN)
+    public final static String DISABLE_SESSION_TICKETS = SSLSettings.class.getSimpleName() + "@"
+            + "disableSessionTickets";
+
+    @Setting(name = "Session Cache Size", description = "maximum number of cached TLS client sessions (0 = JVM default)", type = SettingType.INT)
+    public final static String SESSION_CACHE_SIZE = SSLSettings.class.getSimpleName() + "@" + "sessionCacheSize";
+
+    @Setting(name = "Session Timeout", description = "seconds a cached TLS client session can be resumed (0 = JVM default)", type = SettingType.INT)
+    public final static String SESSION_TIMEOUT = SSLSettings.class.getSimpleName() + "@" + "sessionTimeout";
 }
@@ -56,6 +56,16 @@ public interface WsdlSettings {
     @Setting(name = "Schema Directory", description = "local directory containing schemas that should be added to loading/validation", type = SettingType.FOLDER)
     public static final String SCHEMA_DIRECTORY = WsdlSettings.class.getSimpleName() + "@" + "schema-directory";
 
+    @Setting(name = "Cache Schema Types", description = "stores compiled schema types on disk and reuses them for unchanged definitions", type = SettingType.BOOLEAN)
+    public final static String CACHE_SCHEMA_TYPES = WsdlSettings.class.getSimpleName() + "@" + "cache-schema-types";
+
+    @Setting(name = "Schema Cache Directory", description = "local directory for cached schema types, defaults to .soapui/schema-cache in the user home", type = SettingType.FOLDER)
+    public final static String SCHEMA_CACHE_DIRECTORY = WsdlSettings.class.getSimpleName() + "@"
+            + "schema-cache-directory";
+
+    @Setting(name = "Preload Definitions", description = "loads cached definitions of opened projects in the background", type = SettingType.BOOLEAN)
+    public final static String PRELOAD_DEFINITIONS = WsdlSettings.class.getSimpleName() + "@" + "preload-definitions";
+
     @Setting(name = "Name with Binding", description = "uses the WSDL binding name (instead of portType) for imported Interfaces", type = SettingType.BOOLEAN)
     public final static String NAME_WITH_BINDING = WsdlSettings.class.getSimpleName() + "@" + "name-with-binding";
 
@@ -68,6 +78,10 @@ public interface WsdlSettings {
     @Setting(name = "Compression Limit", description = "minimum message size to compress", type = SettingType.INT)
     public final static String COMPRESSION_LIMIT = WsdlSettings.class.getSimpleName() + "@" + "compression-limit";
 
+    @Setting(name = "Line Numbers Limit", description = "maximum message size for which validation errors include line numbers, 0 for no limit", type = SettingType.INT)
+    public final static String VALIDATION_LINE_NUMBERS_LIMIT = WsdlSettings.class.getSimpleName() + "@"
+            + "validation-line-numbers-limit";
+
     @Setting(name = "Pretty Print Project Files", description = "pretty prints project files", type = SettingType.BOOLEAN)
     public final static String PRETTY_PRINT_PROJECT_FILES = WsdlSettings.class.getSimpleName() + "@"
             + "pretty-print-project-files";
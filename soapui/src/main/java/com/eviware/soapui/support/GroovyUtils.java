@@ -45,6 +45,7 @@ import com.eviware.soapui.model.propertyexpansion.PropertyExpansionContext;
 import com.eviware.soapui.model.support.ModelSupport;
 import com.eviware.soapui.model.testsuite.TestCaseRunContext;
 import com.eviware.soapui.model.testsuite.TestStep;
+import com.eviware.soapui.support.xml.ParsedContentCache;
 import com.eviware.soapui.support.xml.XmlUtils;
 
 public class GroovyUtils {
@@ -66,7 +67,7 @@ public class GroovyUtils {
         try {
             // return new XmlHolder( XmlObject.Factory.parse( xmlPropertyOrString )
             // );
-            return new XmlHolder(XmlUtils.createXmlObject(xmlPropertyOrString));
+            return new XmlHolder(ParsedContentCache.getXmlObject(context, xmlPropertyOrString, false), context != null);
         } catch (Exception e) {
             return new XmlHolder(context, xmlPropertyOrString);
         }
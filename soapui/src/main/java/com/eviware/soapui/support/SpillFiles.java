@@ -0,0 +1,166 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Creates the temporary files that large message bodies are spilled to. All files of this process are
+ * created in one directory below <code>java.io.tmpdir/soapui-spill</code>, which is removed by a single
+ * shutdown hook; directories left behind by processes that did not shut down cleanly are swept when the
+ * first file is created. Owners delete their files themselves when they are released, so no per-file
+ * <code>deleteOnExit</code> registrations accumulate during long runs.
+ */
+
+public final class SpillFiles {
+    private final static Logger log = Logger.getLogger(SpillFiles.class);
+
+    static final String LOCK_FILE = ".lock";
+
+    private static File directory;
+    private static FileLock directoryLock;
+    private static boolean cleanupRegistered;
+
+    private SpillFiles() {
+    }
+
+    public static File createTempFile(String prefix) throws IOException {
+        return File.createTempFile(prefix, ".tmp", getDirectory());
+    }
+
+    public static synchronized File getDirectory() throws IOException {
+        if (directory == null || !directory.isDirectory()) {
+            // the directory may have been removed by an external temp cleaner
+            cleanup();
+
+            File root = new File(System.getProperty("java.io.tmpdir"), "soapui-spill");
+            sweep(root);
+            directory = createDirectory(root);
+
+            if (!cleanupRegistered) {
+                Runtime.getRuntime().addShutdownHook(new Thread("SpillFiles cleanup") {
+                    @Override
+                    public void run() {
+                        cleanup();
+                    }
+                });
+                cleanupRegistered = true;
+            }
+        }
+
+        return directory;
+    }
+
+    private static File createDirectory(File root) throws IOException {
+        if (!root.isDirectory() && !root.mkdirs()) {
+            throw new IOException("Failed to create spill directory [" + root + "]");
+        }
+
+        File dir = File.createTempFile("run-", "", root);
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Failed to create spill directory [" + dir + "]");
+        }
+
+        // the lock is held for the lifetime of the process and tells other processes that the directory is in use
+        RandomAccessFile lockFile = new RandomAccessFile(new File(dir, LOCK_FILE), "rw");
+        directoryLock = lockFile.getChannel().lock();
+        return dir;
+    }
+
+    /**
+     * Deletes all directories below root that are not locked by a running process
+     */
+
+    static void sweep(File root) {
+        File[] dirs = root.listFiles();
+        if (dirs == null) {
+            return;
+        }
+
+        for (File dir : dirs) {
+            if (dir.isDirectory() && !dir.equals(directory) && !isInUse(dir)) {
+                delete(dir);
+            }
+        }
+    }
+
+    private static boolean isInUse(File dir) {
+        File lock = new File(dir, LOCK_FILE);
+        if (!lock.exists()) {
+            return false;
+        }
+
+        try {
+            RandomAccessFile lockFile = new RandomAccessFile(lock, "rw");
+            try {
+                FileChannel channel = lockFile.getChannel();
+                FileLock fileLock = channel.tryLock();
+                if (fileLock == null) {
+                    return true;
+                }
+                fileLock.release();
+                return false;
+            } finally {
+                lockFile.close();
+            }
+        } catch (OverlappingFileLockException e) {
+            return true;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static synchronized void cleanup() {
+        if (directory == null) {
+            return;
+        }
+
+        try {
+            if (directoryLock != null) {
+                directoryLock.release();
+                directoryLock.channel().close();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to release spill directory lock: " + e);
+        }
+
+        delete(directory);
+        directory = null;
+        directoryLock = null;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+
+        if (!file.delete() && file.exists()) {
+            log.debug("Failed to delete spill file [" + file + "]");
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.w3c.dom.Node;
 
 import com.eviware.soapui.model.propertyexpansion.PropertyExpansionContext;
 import com.eviware.soapui.support.types.StringToStringMap;
+import com.eviware.soapui.support.xml.ParsedContentCache;
 import com.eviware.soapui.support.xml.XmlUtils;
 
 public class XmlHolder implements Map<String, Object> {
@@ -34,6 +35,7 @@ public class XmlHolder implements Map<String, Object> {
     private StringToStringMap declaredNamespaces;
     private PropertyExpansionContext context;
     private String propertyRef;
+    private boolean shared;
 
     public XmlHolder(String xml) throws XmlException {
         // xmlObject = XmlObject.Factory.parse( xml );
@@ -49,8 +51,18 @@ public class XmlHolder implements Map<String, Object> {
         this.xmlObject = xmlObject;
     }
 
+    /**
+     * Creates a holder for a document that may be shared with others, for example one taken from the
+     * ParsedContentCache; it is copied before the first modification or handout of live nodes.
+     */
+
+    XmlHolder(XmlObject xmlObject, boolean shared) {
+        this.xmlObject = xmlObject;
+        this.shared = shared;
+    }
+
     public XmlHolder(PropertyExpansionContext context, String propertyRef) throws XmlException {
-        this(String.valueOf(context.getProperty(propertyRef)));
+        this(ParsedContentCache.getXmlObject(context, String.valueOf(context.getProperty(propertyRef)), false), true);
 
         this.context = context;
         this.propertyRef = propertyRef;
@@ -107,6 +119,7 @@ public class XmlHolder implements Map<String, Object> {
 
     public void setNodeValue(String xpath, Object value) throws XmlException {
         xpath = initXPathNamespaces(xpath);
+        ensureWritable();
 
         XmlCursor cursor = xmlObject.newCursor();
         try {
@@ -121,19 +134,29 @@ public class XmlHolder implements Map<String, Object> {
     }
 
     public XmlObject getXmlObject() {
+        ensureWritable();
         return xmlObject;
     }
 
     public Node getDomNode(String xpath) throws XmlException {
         xpath = initXPathNamespaces(xpath);
+        ensureWritable();
         return XmlUtils.selectFirstDomNode(xmlObject, xpath);
     }
 
     public Node[] getDomNodes(String xpath) throws XmlException {
         xpath = initXPathNamespaces(xpath);
+        ensureWritable();
         return XmlUtils.selectDomNodes(xmlObject, xpath);
     }
 
+    private void ensureWritable() {
+        if (shared) {
+            xmlObject = xmlObject.copy();
+            shared = false;
+        }
+    }
+
     public void removeDomNodes(String xpath) throws XmlException {
         xpath = initXPathNamespaces(xpath);
         Node[] nodes = getDomNodes(xpath);
@@ -154,12 +177,8 @@ public class XmlHolder implements Map<String, Object> {
     }
 
     public boolean containsKey(Object key) {
-        try {
-            return getDomNode(key.toString()) != null;
-        } catch (XmlException e) {
-            e.printStackTrace();
-            return false;
-        }
+        // no need to copy a shared document just to look
+        return XmlUtils.selectFirstDomNode(xmlObject, initXPathNamespaces(key.toString())) != null;
     }
 
     public boolean containsValue(Object value) {
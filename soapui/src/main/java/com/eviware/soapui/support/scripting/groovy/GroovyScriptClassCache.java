@@ -0,0 +1,206 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support.scripting.groovy;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.Script;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+
+/**
+ * Cache of compiled Groovy script classes shared by all SoapUIGroovyScriptEngines, so that identical scripts
+ * run by many engines (for example by the threads of a LoadTest) are only compiled and loaded once. Each
+ * script is compiled by its own GroovyClassLoader so its classes can be unloaded once the entry is evicted.
+ * <p/>
+ * Neither the parent classloaders nor the compiled classes, which reference their parent classloader, are held
+ * strongly: a script stays cached while an engine uses its class, and its entry is evicted once the class has
+ * been collected, which is a precondition for collecting the parent classloader of a closed project.
+ * <p/>
+ * The maximum number of cached scripts can be set with the soapui.scripting.cache.size system property, 0
+ * disables the cache.
+ */
+
+public class GroovyScriptClassCache {
+    public static final String CACHE_SIZE_SYSTEM_PROPERTY = "soapui.scripting.cache.size";
+    private static final int DEFAULT_CACHE_SIZE = 250;
+
+    private static GroovyScriptClassCache instance;
+
+    private final int maxSize;
+    private final Map<CacheKey, CacheEntry> entries;
+    private final ReferenceQueue<Class<? extends Script>> collectedClasses = new ReferenceQueue<Class<? extends Script>>();
+    private int scriptCount;
+
+    public GroovyScriptClassCache(final int maxSize) {
+        this.maxSize = maxSize;
+
+        entries = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public static synchronized GroovyScriptClassCache getInstance() {
+        if (instance == null) {
+            instance = new GroovyScriptClassCache(Integer.getInteger(CACHE_SIZE_SYSTEM_PROPERTY, DEFAULT_CACHE_SIZE));
+        }
+
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Returns the compiled class for the specified script, compiling it with a child of the specified
+     * classloader if it is not cached yet
+     */
+
+    public Class<? extends Script> getScriptClass(ClassLoader parentClassLoader, String scriptText) {
+        CacheKey key = new CacheKey(parentClassLoader, scriptText);
+        CacheEntry entry;
+
+        synchronized (this) {
+            expungeCollectedClasses();
+
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new CacheEntry(key, "Script" + (++scriptCount) + ".groovy");
+                if (isEnabled()) {
+                    entries.put(key, entry);
+                }
+            }
+        }
+
+        // compile outside the cache lock so different scripts can be compiled in parallel
+        return entry.getScriptClass(parentClassLoader, collectedClasses);
+    }
+
+    private void expungeCollectedClasses() {
+        for (Reference<?> reference = collectedClasses.poll(); reference != null; reference = collectedClasses.poll()) {
+            CacheEntry entry = ((ScriptClassReference) reference).entry;
+
+            // the entry may have compiled its script again since
+            if (entry.scriptClass == reference && entries.get(entry.key) == entry) {
+                entries.remove(entry.key);
+            }
+        }
+    }
+
+    /**
+     * Removes the specified script from the cache, called when a script has been modified
+     */
+
+    public synchronized void remove(ClassLoader parentClassLoader, String scriptText) {
+        if (scriptText != null) {
+            entries.remove(new CacheKey(parentClassLoader, scriptText));
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        expungeCollectedClasses();
+        return entries.size();
+    }
+
+    /**
+     * Identifies a script by its text and the identity of its parent classloader, which is only referenced weakly
+     */
+
+    private static final class CacheKey {
+        private final WeakReference<ClassLoader> parentClassLoader;
+        private final int parentClassLoaderHash;
+        private final String scriptText;
+
+        public CacheKey(ClassLoader parentClassLoader, String scriptText) {
+            this.parentClassLoader = new WeakReference<ClassLoader>(parentClassLoader);
+            this.parentClassLoaderHash = System.identityHashCode(parentClassLoader);
+            this.scriptText = scriptText;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+
+            CacheKey other = (CacheKey) obj;
+            ClassLoader classLoader = parentClassLoader.get();
+            return classLoader != null && classLoader == other.parentClassLoader.get()
+                    && scriptText.equals(other.scriptText);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * parentClassLoaderHash + scriptText.hashCode();
+        }
+    }
+
+    private static final class ScriptClassReference extends WeakReference<Class<? extends Script>> {
+        private final CacheEntry entry;
+
+        public ScriptClassReference(Class<? extends Script> scriptClass, CacheEntry entry,
+                                    ReferenceQueue<Class<? extends Script>> queue) {
+            super(scriptClass, queue);
+            this.entry = entry;
+        }
+    }
+
+    private static final class CacheEntry {
+        private final CacheKey key;
+        private final String fileName;
+        private volatile ScriptClassReference scriptClass;
+
+        public CacheEntry(CacheKey key, String fileName) {
+            this.key = key;
+            this.fileName = fileName;
+        }
+
+        @SuppressWarnings("unchecked")
+        public synchronized Class<? extends Script> getScriptClass(ClassLoader parentClassLoader,
+                                                                   ReferenceQueue<Class<? extends Script>> queue) {
+            Class<? extends Script> result = scriptClass == null ? null : scriptClass.get();
+            if (result == null) {
+                CompilerConfiguration config = new CompilerConfiguration();
+                config.setDebug(true);
+                config.setVerbose(true);
+                config.setScriptBaseClass(Script.class.getName());
+
+                GroovyClassLoader classLoader = new GroovyClassLoader(parentClassLoader, config);
+                result = classLoader.parseClass(key.scriptText, fileName);
+                scriptClass = new ScriptClassReference(result, this, queue);
+            }
+
+            return result;
+        }
+    }
+}
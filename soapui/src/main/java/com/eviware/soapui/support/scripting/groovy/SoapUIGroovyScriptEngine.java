@@ -22,6 +22,7 @@ import groovy.lang.GroovyShell;
 import groovy.lang.Script;
 
 import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.runtime.InvokerHelper;
 
 import com.eviware.soapui.SoapUIExtensionClassLoader;
 import com.eviware.soapui.SoapUIExtensionClassLoader.SoapUIClassLoaderState;
@@ -35,6 +36,7 @@ import com.eviware.soapui.support.scripting.SoapUIScriptEngine;
  */
 
 public class SoapUIGroovyScriptEngine implements SoapUIScriptEngine {
+    private final ClassLoader parentClassLoader;
     private GroovyClassLoader classLoader;
     private GroovyShell shell;
     private Binding binding;
@@ -43,6 +45,7 @@ public class SoapUIGroovyScriptEngine implements SoapUIScriptEngine {
     protected ScriptSaver saver = new ScriptSaver();
 
     public SoapUIGroovyScriptEngine(ClassLoader parentClassLoader) {
+        this.parentClassLoader = parentClassLoader;
         classLoader = new GroovyClassLoader(parentClassLoader);
         binding = new Binding();
         CompilerConfiguration config = new CompilerConfiguration();
@@ -114,6 +117,9 @@ public class SoapUIGroovyScriptEngine implements SoapUIScriptEngine {
             classLoader.clearCache();
         }
 
+        // the previous version of the script will not be needed by other engines either
+        GroovyScriptClassCache.getInstance().remove(parentClassLoader, this.scriptText);
+
         this.scriptText = scriptText;
     }
 
@@ -135,8 +141,13 @@ public class SoapUIGroovyScriptEngine implements SoapUIScriptEngine {
         if (script == null) {
             SoapUIClassLoaderState state = SoapUIExtensionClassLoader.ensure();
             try {
-                script = shell.parse(scriptText);
-                script.setBinding(binding);
+                GroovyScriptClassCache cache = GroovyScriptClassCache.getInstance();
+                if (cache.isEnabled()) {
+                    script = InvokerHelper.createScript(cache.getScriptClass(parentClassLoader, scriptText), binding);
+                } else {
+                    script = shell.parse(scriptText);
+                    script.setBinding(binding);
+                }
             } finally {
                 state.restore();
             }
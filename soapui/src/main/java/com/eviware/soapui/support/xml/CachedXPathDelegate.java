@@ -0,0 +1,145 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support.xml;
+
+import net.sf.saxon.Configuration;
+import net.sf.saxon.dom.NodeWrapper;
+import net.sf.saxon.event.Builder;
+import net.sf.saxon.om.Item;
+import net.sf.saxon.om.NodeInfo;
+import net.sf.saxon.om.VirtualNode;
+import net.sf.saxon.sxpath.IndependentContext;
+import net.sf.saxon.sxpath.XPathDynamicContext;
+import net.sf.saxon.sxpath.XPathEvaluator;
+import net.sf.saxon.sxpath.XPathExpression;
+import net.sf.saxon.sxpath.XPathVariable;
+import net.sf.saxon.value.Value;
+import org.apache.xmlbeans.impl.store.PathDelegate;
+import org.w3c.dom.Node;
+
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * XmlBeans path delegate that evaluates XPath expressions with Saxon like the default XmlBeans delegate does,
+ * but compiles each expression only once and keeps it in the {@link XPathExpressionCache}.
+ */
+
+public class CachedXPathDelegate implements PathDelegate.SelectPathInterface {
+    private final String path;
+    private final String contextVar;
+    private final Map<String, String> namespaceMap;
+    private final String defaultNS;
+    private final String key;
+
+    @SuppressWarnings("unchecked")
+    public CachedXPathDelegate(String path, String contextVar, Map namespaceMap, String defaultNS) {
+        this.path = path;
+        this.contextVar = contextVar;
+        this.namespaceMap = new TreeMap<String, String>(namespaceMap);
+        this.defaultNS = defaultNS;
+
+        key = "xpath\n" + contextVar + "\n" + defaultNS + "\n" + this.namespaceMap + "\n" + path;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List selectPath(Object node) {
+        try {
+            CompiledXPath compiledXPath = getCompiledXPath();
+
+            NodeInfo contextItem = compiledXPath.config.unravel(new DOMSource((Node) node));
+            XPathDynamicContext dynamicContext = compiledXPath.expression.createDynamicContext(null);
+            dynamicContext.setContextItem(contextItem);
+            dynamicContext.setVariable(compiledXPath.contextVariable, contextItem);
+
+            List result = compiledXPath.expression.evaluate(dynamicContext);
+            for (ListIterator it = result.listIterator(); it.hasNext(); ) {
+                Object item = it.next();
+                if (item instanceof NodeInfo) {
+                    if (item instanceof NodeWrapper) {
+                        it.set(getUnderlyingNode((NodeWrapper) item));
+                    } else {
+                        it.set(((NodeInfo) item).getStringValue());
+                    }
+                } else if (item instanceof Item) {
+                    it.set(Value.convertToJava((Item) item));
+                }
+            }
+
+            return result;
+        } catch (TransformerException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private CompiledXPath getCompiledXPath() throws TransformerException {
+        XPathExpressionCache cache = XPathExpressionCache.getInstance();
+        CompiledXPath compiledXPath = (CompiledXPath) cache.get(key);
+        if (compiledXPath == null) {
+            compiledXPath = new CompiledXPath(path, contextVar, namespaceMap, defaultNS);
+            cache.put(key, compiledXPath);
+        }
+
+        return compiledXPath;
+    }
+
+    private static Node getUnderlyingNode(VirtualNode node) {
+        Object underlyingNode = node;
+        while (underlyingNode instanceof VirtualNode) {
+            underlyingNode = ((VirtualNode) underlyingNode).getUnderlyingNode();
+        }
+
+        return (Node) underlyingNode;
+    }
+
+    /**
+     * A compiled expression together with the configuration it was compiled with; both can be used by several
+     * threads at once since all evaluation state lives in the dynamic context.
+     */
+
+    private static class CompiledXPath {
+        private final Configuration config;
+        private final XPathVariable contextVariable;
+        private final XPathExpression expression;
+
+        public CompiledXPath(String path, String contextVar, Map<String, String> namespaceMap, String defaultNS)
+                throws TransformerException {
+            config = new Configuration();
+            config.setDOMLevel(2);
+            config.setTreeModel(Builder.STANDARD_TREE);
+
+            IndependentContext context = new IndependentContext(config);
+            if (defaultNS != null) {
+                context.setDefaultElementNamespace(defaultNS);
+            }
+
+            for (Map.Entry<String, String> entry : namespaceMap.entrySet()) {
+                context.declareNamespace(entry.getKey(), entry.getValue());
+            }
+
+            XPathEvaluator evaluator = new XPathEvaluator();
+            evaluator.setStaticContext(context);
+            contextVariable = evaluator.declareVariable("", contextVar);
+            expression = evaluator.createExpression(path);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support.xml;
+
+import org.apache.xmlbeans.impl.store.QueryDelegate;
+import org.apache.xmlbeans.impl.xquery.saxon.XBeansXQuery;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * XmlBeans query delegate that reuses the compiled Saxon queries of the default XmlBeans delegate from the
+ * {@link XPathExpressionCache} instead of compiling each query again for every evaluation.
+ */
+
+public class CachedXQueryDelegate implements QueryDelegate.QueryInterface {
+    private final QueryDelegate.QueryInterface query;
+
+    public CachedXQueryDelegate(String query, String contextVar, Integer boundary) {
+        String key = "xquery\n" + contextVar + "\n" + boundary + "\n" + query;
+
+        XPathExpressionCache cache = XPathExpressionCache.getInstance();
+        QueryDelegate.QueryInterface compiledQuery = (QueryDelegate.QueryInterface) cache.get(key);
+        if (compiledQuery == null) {
+            compiledQuery = new XBeansXQuery(query, contextVar, boundary);
+            cache.put(key, compiledQuery);
+        }
+
+        this.query = compiledQuery;
+    }
+
+    public List execQuery(Object node, Map variableBindings) {
+        return query.execQuery(node, variableBindings);
+    }
+}
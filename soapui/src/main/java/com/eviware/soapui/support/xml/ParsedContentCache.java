@@ -0,0 +1,114 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support.xml;
+
+import com.eviware.soapui.model.propertyexpansion.PropertyExpansionContext;
+import com.eviware.soapui.model.testsuite.TestCaseRunContext;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+
+/**
+ * Holds the XmlObjects parsed from the messages most recently read in a TestCase run context, so that the
+ * assertions, property transfers and scripts working on the same message exchange parse it only once. The
+ * TestCase runner releases the cache after each TestStep, other contexts are not cached. Content is matched by
+ * identity first and by value second, so changed content is parsed again; documents parsed with and without
+ * comments are kept apart.
+ * <p/>
+ * A run context is used by a single thread; the returned XmlObjects are shared and must not be modified, copy
+ * them first if needed.
+ */
+
+public class ParsedContentCache {
+    public static final String PARSEDCONTENTCACHE_PROPERTY = ParsedContentCache.class.getName();
+
+    /**
+     * Enough for the request and response of an exchange, with and without comments
+     */
+
+    public static final int SIZE = 4;
+
+    private final Entry[] entries = new Entry[SIZE];
+    private int next;
+
+    public static XmlObject getXmlObject(PropertyExpansionContext context, String content, boolean stripComments)
+            throws XmlException {
+        if (!(context instanceof TestCaseRunContext) || content == null) {
+            return parse(content, stripComments);
+        }
+
+        ParsedContentCache cache = (ParsedContentCache) context.getProperty(PARSEDCONTENTCACHE_PROPERTY);
+        if (cache == null) {
+            cache = new ParsedContentCache();
+            context.setProperty(PARSEDCONTENTCACHE_PROPERTY, cache);
+        }
+
+        return cache.get(content, stripComments);
+    }
+
+    /**
+     * Drops the documents cached in the specified context, called after each TestStep
+     */
+
+    public static void release(PropertyExpansionContext context) {
+        context.removeProperty(PARSEDCONTENTCACHE_PROPERTY);
+    }
+
+    public synchronized XmlObject get(String content, boolean stripComments) throws XmlException {
+        for (Entry entry : entries) {
+            if (entry != null && entry.stripComments == stripComments
+                    && (entry.content == content || entry.content.equals(content))) {
+                return entry.xmlObject;
+            }
+        }
+
+        XmlObject xmlObject = parse(content, stripComments);
+        entries[next] = new Entry(content, stripComments, xmlObject);
+        next = (next + 1) % SIZE;
+
+        return xmlObject;
+    }
+
+    public synchronized void clear() {
+        for (int c = 0; c < SIZE; c++) {
+            entries[c] = null;
+        }
+    }
+
+    private static XmlObject parse(String content, boolean stripComments) throws XmlException {
+        if (!stripComments) {
+            return XmlUtils.createXmlObject(content);
+        }
+
+        XmlOptions options = new XmlOptions();
+        options.setLoadStripComments();
+        return XmlUtils.createXmlObject(content, options);
+    }
+
+    private static class Entry {
+        private final String content;
+        private final boolean stripComments;
+        private final XmlObject xmlObject;
+
+        public Entry(String content, boolean stripComments, XmlObject xmlObject) {
+            this.content = content;
+            this.stripComments = stripComments;
+            this.xmlObject = xmlObject;
+        }
+    }
+}
@@ -0,0 +1,594 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support.xml;
+
+import org.w3c.dom.Node;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates a forward-only subset of XPath over a StAX stream, so that a value can be selected from a large
+ * message without building an XmlObject for all of it. Supported are absolute paths of child and descendant
+ * element steps, with predicates testing attributes and, on the last element step, text nodes, optionally
+ * followed by an attribute or text() step, for example
+ * <p/>
+ * <code>declare namespace ns='urn:x'; //ns:order[@id='1']/ns:item[text()='a']</code>
+ * <p/>
+ * {@link #compile(String)} returns null for any other expression, callers then fall back to XmlBeans.
+ */
+
+public class StreamingXPath {
+    private static final XMLInputFactory inputFactory = createInputFactory();
+    private static final int MAX_STEPS = 62;
+
+    public enum Target {
+        ELEMENT, ATTRIBUTE, TEXT
+    }
+
+    private final List<Step> steps;
+    private final Target target;
+    private final String attributeNamespace;
+    private final String attributeName;
+
+    private StreamingXPath(List<Step> steps, Target target, String attributeNamespace, String attributeName) {
+        this.steps = steps;
+        this.target = target;
+        this.attributeNamespace = attributeNamespace;
+        this.attributeName = attributeName;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Compiles the specified expression, including leading namespace declarations, or returns null if it is not
+     * in the supported subset.
+     */
+
+    public static StreamingXPath compile(String xpath) {
+        if (xpath == null) {
+            return null;
+        }
+
+        return new ExpressionParser(xpath).parse();
+    }
+
+    /**
+     * Returns what the expression selects: elements, attributes of the last element step or text nodes of
+     * the last element step.
+     */
+
+    public Target getTarget() {
+        return target;
+    }
+
+    /**
+     * Selects matches from the specified content in document order. Selected elements have the value of their
+     * first child node if that is a text node, as returned by {@link XmlUtils#getElementText}. Reading stops
+     * as soon as maxMatches matches are complete, use 0 to select all matches.
+     *
+     * @throws XMLStreamException if the content is not well-formed or uses a DTD
+     */
+
+    public List<Match> select(String content, boolean stripComments, int maxMatches) throws XMLStreamException {
+        List<Match> matches = new ArrayList<Match>();
+
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(content));
+        try {
+            int depth = 0;
+            long[] matched = new long[16];
+            long[] inherited = new long[16];
+            SelectedElement[] selected = new SelectedElement[16];
+            matched[0] = 1;
+            inherited[0] = 1;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        endRun(selected[depth], matches);
+
+                        depth++;
+                        if (depth == matched.length) {
+                            matched = grow(matched);
+                            inherited = grow(inherited);
+                            SelectedElement[] newSelected = new SelectedElement[depth * 2];
+                            System.arraycopy(selected, 0, newSelected, 0, depth);
+                            selected = newSelected;
+                        }
+
+                        matched[depth] = matchSteps(reader, matched[depth - 1], inherited[depth - 1]);
+                        inherited[depth] = inherited[depth - 1] | matched[depth];
+                        selected[depth] = select(reader, matched[depth], matches);
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        SelectedElement element = selected[depth];
+                        if (element != null) {
+                            endRun(element, matches);
+                            if (element.textValue != null && !element.textValueFound) {
+                                matches.remove(element.match);
+                            }
+                            element.match.complete = true;
+                            selected[depth] = null;
+                        }
+                        depth--;
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (selected[depth] != null) {
+                            selected[depth].run.append(reader.getTextCharacters(), reader.getTextStart(),
+                                    reader.getTextLength());
+                        }
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        if (!stripComments) {
+                            endRun(selected[depth], matches);
+                        }
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        endRun(selected[depth], matches);
+                        break;
+                    case XMLStreamConstants.DTD:
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                        throw new XMLStreamException("DTDs are not supported by streaming XPath evaluation");
+                    default:
+                        break;
+                }
+
+                if (maxMatches > 0 && isComplete(matches, maxMatches)) {
+                    return new ArrayList<Match>(matches.subList(0, maxMatches));
+                }
+            }
+
+            return matches;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private long matchSteps(XMLStreamReader reader, long parentMatched, long parentInherited) {
+        long result = 0;
+        for (int c = 0; c < steps.size(); c++) {
+            Step step = steps.get(c);
+            long bit = 1L << c;
+            boolean reachable = step.descendant ? (parentInherited & bit) != 0 : (parentMatched & bit) != 0;
+            if (reachable && step.matches(reader)) {
+                result |= bit << 1;
+            }
+        }
+
+        return result;
+    }
+
+    private SelectedElement select(XMLStreamReader reader, long matched, List<Match> matches) {
+        if ((matched & (1L << steps.size())) == 0) {
+            return null;
+        }
+
+        if (target == Target.ATTRIBUTE) {
+            int index = findAttribute(reader, attributeNamespace, attributeName);
+            if (index != -1) {
+                Match match = new Match(Node.ATTRIBUTE_NODE, reader.getAttributeValue(index));
+                match.complete = true;
+                matches.add(match);
+            }
+            return null;
+        }
+
+        SelectedElement element = new SelectedElement();
+        element.textValue = steps.get(steps.size() - 1).textValue;
+        if (target == Target.ELEMENT) {
+            element.match = new Match(Node.ELEMENT_NODE, null);
+            matches.add(element.match);
+        } else {
+            element.match = new Match(Node.TEXT_NODE, null);
+        }
+
+        return element;
+    }
+
+    private void endRun(SelectedElement element, List<Match> matches) {
+        if (element == null) {
+            return;
+        }
+
+        String text = element.run.length() == 0 ? null : element.run.toString();
+        element.run.setLength(0);
+
+        if (!element.firstChildSeen) {
+            element.firstChildSeen = true;
+            if (target == Target.ELEMENT) {
+                element.match.value = text;
+                element.match.complete = element.textValue == null;
+            }
+        }
+
+        if (text != null) {
+            if (target == Target.TEXT) {
+                Match match = new Match(Node.TEXT_NODE, text);
+                match.complete = true;
+                matches.add(match);
+            } else if (text.equals(element.textValue)) {
+                element.textValueFound = true;
+            }
+        }
+    }
+
+    private static boolean isComplete(List<Match> matches, int count) {
+        if (matches.size() < count) {
+            return false;
+        }
+
+        for (int c = 0; c < count; c++) {
+            if (!matches.get(c).complete) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int findAttribute(XMLStreamReader reader, String namespace, String localName) {
+        for (int c = 0; c < reader.getAttributeCount(); c++) {
+            String attributeNamespace = reader.getAttributeNamespace(c);
+            if (localName.equals(reader.getAttributeLocalName(c))
+                    && namespace.equals(attributeNamespace == null ? "" : attributeNamespace)) {
+                return c;
+            }
+        }
+
+        return -1;
+    }
+
+    private static long[] grow(long[] array) {
+        long[] result = new long[array.length * 2];
+        System.arraycopy(array, 0, result, 0, array.length);
+        return result;
+    }
+
+    /**
+     * A selected node; value is the attribute value, the text, or for elements the leading text as described
+     * in {@link StreamingXPath#select}.
+     */
+
+    public static class Match {
+        private final short nodeType;
+        private String value;
+        private boolean complete;
+
+        private Match(short nodeType, String value) {
+            this.nodeType = nodeType;
+            this.value = value;
+        }
+
+        /**
+         * Returns one of Node.ELEMENT_NODE, Node.ATTRIBUTE_NODE or Node.TEXT_NODE
+         */
+
+        public short getNodeType() {
+            return nodeType;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    private static class SelectedElement {
+        private Match match;
+        private final StringBuilder run = new StringBuilder();
+        private boolean firstChildSeen;
+        private String textValue;
+        private boolean textValueFound;
+    }
+
+    private static class Step {
+        private final boolean descendant;
+        private final String namespace;
+        private final String localName;
+        private final List<String[]> attributeTests = new ArrayList<String[]>();
+        private String textValue;
+
+        public Step(boolean descendant, String namespace, String localName) {
+            this.descendant = descendant;
+            this.namespace = namespace;
+            this.localName = localName;
+        }
+
+        public boolean matches(XMLStreamReader reader) {
+            if (localName != null && !localName.equals(reader.getLocalName())) {
+                return false;
+            }
+
+            if (namespace != null) {
+                String elementNamespace = reader.getNamespaceURI();
+                if (!namespace.equals(elementNamespace == null ? "" : elementNamespace)) {
+                    return false;
+                }
+            }
+
+            for (String[] test : attributeTests) {
+                int index = findAttribute(reader, test[0], test[1]);
+                if (index == -1 || (test[2] != null && !test[2].equals(reader.getAttributeValue(index)))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Recursive descent parser for the supported subset; every method returns null or false at the first
+     * construct outside of it.
+     */
+
+    private static class ExpressionParser {
+        private final String expression;
+        private final Map<String, String> namespaces = new HashMap<String, String>();
+        private int pos;
+
+        public ExpressionParser(String expression) {
+            this.expression = expression;
+        }
+
+        public StreamingXPath parse() {
+            skipWhitespace();
+            while (expression.startsWith("declare", pos)) {
+                if (!parseNamespaceDeclaration()) {
+                    return null;
+                }
+                skipWhitespace();
+            }
+
+            List<Step> steps = new ArrayList<Step>();
+            while (pos < expression.length()) {
+                if (expression.charAt(pos) != '/') {
+                    return null;
+                }
+                pos++;
+
+                boolean descendant = false;
+                if (pos < expression.length() && expression.charAt(pos) == '/') {
+                    descendant = true;
+                    pos++;
+                }
+
+                if (expression.startsWith("@", pos)) {
+                    return descendant || steps.isEmpty() ? null : parseAttributeTarget(steps);
+                } else if (expression.startsWith("text()", pos)) {
+                    pos += "text()".length();
+                    return descendant || steps.isEmpty() || !atEnd() ? null : new StreamingXPath(steps,
+                            Target.TEXT, null, null);
+                }
+
+                Step step = parseElementStep(descendant);
+                if (step == null || steps.size() == MAX_STEPS) {
+                    return null;
+                }
+                steps.add(step);
+
+                // a text test can only be decided at the end of the element, so it must be the last step
+                if (step.textValue != null && !atEnd()) {
+                    return null;
+                }
+            }
+
+            return steps.isEmpty() ? null : new StreamingXPath(steps, Target.ELEMENT, null, null);
+        }
+
+        private boolean parseNamespaceDeclaration() {
+            pos += "declare".length();
+            if (!skipWhitespace() || !expression.startsWith("namespace", pos)) {
+                return false;
+            }
+            pos += "namespace".length();
+            if (!skipWhitespace()) {
+                return false;
+            }
+
+            String prefix = parseName();
+            skipWhitespace();
+            if (prefix == null || !expect('=')) {
+                return false;
+            }
+            skipWhitespace();
+
+            String uri = parseLiteral();
+            skipWhitespace();
+            if (uri == null || !expect(';')) {
+                return false;
+            }
+
+            namespaces.put(prefix, uri);
+            return true;
+        }
+
+        private StreamingXPath parseAttributeTarget(List<Step> steps) {
+            pos++;
+            String[] name = parseQName(false);
+            if (name == null || !atEnd()) {
+                return null;
+            }
+
+            return new StreamingXPath(steps, Target.ATTRIBUTE, name[0], name[1]);
+        }
+
+        private Step parseElementStep(boolean descendant) {
+            String[] name = parseQName(true);
+            if (name == null) {
+                return null;
+            }
+
+            Step step = new Step(descendant, name[0], name[1]);
+            while (pos < expression.length() && expression.charAt(pos) == '[') {
+                pos++;
+                skipWhitespace();
+
+                if (expression.startsWith("@", pos)) {
+                    pos++;
+                    String[] attributeName = parseQName(false);
+                    if (attributeName == null) {
+                        return null;
+                    }
+
+                    skipWhitespace();
+                    String value = null;
+                    if (expect('=')) {
+                        skipWhitespace();
+                        value = parseLiteral();
+                        if (value == null) {
+                            return null;
+                        }
+                    }
+
+                    step.attributeTests.add(new String[]{attributeName[0], attributeName[1], value});
+                } else if (expression.startsWith("text()", pos) && step.textValue == null) {
+                    pos += "text()".length();
+                    skipWhitespace();
+                    if (!expect('=')) {
+                        return null;
+                    }
+                    skipWhitespace();
+
+                    step.textValue = parseLiteral();
+                    if (step.textValue == null) {
+                        return null;
+                    }
+                } else {
+                    return null;
+                }
+
+                skipWhitespace();
+                if (!expect(']')) {
+                    return null;
+                }
+            }
+
+            return step;
+        }
+
+        /**
+         * Returns namespace and local name, where null stands for a wildcard; unprefixed names are in no
+         * namespace as in XPath 1.0.
+         */
+
+        private String[] parseQName(boolean allowWildcard) {
+            if (allowWildcard && expect('*')) {
+                return new String[]{null, null};
+            }
+
+            String name = parseName();
+            if (name == null) {
+                return null;
+            }
+
+            if (!expect(':')) {
+                return pos < expression.length() && expression.charAt(pos) == '(' ? null : new String[]{"", name};
+            }
+
+            String namespace = namespaces.get(name);
+            if (namespace == null) {
+                return null;
+            }
+
+            if (allowWildcard && expect('*')) {
+                return new String[]{namespace, null};
+            }
+
+            String localName = parseName();
+            if (localName == null || (pos < expression.length() && expression.charAt(pos) == '(')) {
+                return null;
+            }
+
+            return new String[]{namespace, localName};
+        }
+
+        private String parseName() {
+            int start = pos;
+            while (pos < expression.length()) {
+                char ch = expression.charAt(pos);
+                if (Character.isLetter(ch) || ch == '_' || (pos > start && (Character.isDigit(ch) || ch == '-'
+                        || ch == '.'))) {
+                    pos++;
+                } else {
+                    break;
+                }
+            }
+
+            return pos == start ? null : expression.substring(start, pos);
+        }
+
+        private String parseLiteral() {
+            if (pos >= expression.length()) {
+                return null;
+            }
+
+            char quote = expression.charAt(pos);
+            if (quote != '\'' && quote != '"') {
+                return null;
+            }
+
+            int end = expression.indexOf(quote, pos + 1);
+            if (end == -1) {
+                return null;
+            }
+
+            String literal = expression.substring(pos + 1, end);
+            pos = end + 1;
+            return literal;
+        }
+
+        private boolean expect(char ch) {
+            if (pos < expression.length() && expression.charAt(pos) == ch) {
+                pos++;
+                return true;
+            }
+
+            return false;
+        }
+
+        private boolean skipWhitespace() {
+            int start = pos;
+            while (pos < expression.length() && Character.isWhitespace(expression.charAt(pos))) {
+                pos++;
+            }
+
+            return pos > start;
+        }
+
+        private boolean atEnd() {
+            skipWhitespace();
+            return pos == expression.length();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support.xml;
+
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.apache.xmlbeans.impl.store.Path;
+import org.apache.xmlbeans.impl.store.Query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared cache of compiled XPath and XQuery expressions. XmlBeans hands every path it cannot evaluate itself, and
+ * every query, to a Saxon based delegate which compiles the expression again on each evaluation; the options
+ * returned by {@link #getOptions()} replace those delegates with {@link CachedXPathDelegate} and
+ * {@link CachedXQueryDelegate}, which keep the compiled expressions here in least-recently-used order.
+ * <p/>
+ * Entries are keyed by the expression together with its namespace declarations, so the same path declared with
+ * different prefix bindings is compiled separately.
+ */
+
+public class XPathExpressionCache {
+    public static final int DEFAULT_MAX_SIZE = 500;
+
+    private static final XPathExpressionCache instance = new XPathExpressionCache(DEFAULT_MAX_SIZE);
+
+    private final Map<String, Object> expressions;
+
+    public XPathExpressionCache(final int maxSize) {
+        expressions = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public static XPathExpressionCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns new XmlOptions for selectPath and execQuery calls that should use the cached delegates
+     */
+
+    public XmlOptions getOptions() {
+        XmlOptions options = new XmlOptions();
+        options.put(Path.PATH_DELEGATE_INTERFACE, CachedXPathDelegate.class.getName());
+        options.put(Query.QUERY_DELEGATE_INTERFACE, CachedXQueryDelegate.class.getName());
+        return options;
+    }
+
+    public XmlObject[] selectPath(XmlObject xmlObject, String path) {
+        return xmlObject.selectPath(path, getOptions());
+    }
+
+    public XmlObject[] execQuery(XmlObject xmlObject, String query) {
+        return xmlObject.execQuery(query, getOptions());
+    }
+
+    public Object get(String key) {
+        synchronized (expressions) {
+            return expressions.get(key);
+        }
+    }
+
+    public void put(String key, Object compiledExpression) {
+        synchronized (expressions) {
+            expressions.put(key, compiledExpression);
+        }
+    }
+
+    public int size() {
+        synchronized (expressions) {
+            return expressions.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (expressions) {
+            expressions.clear();
+        }
+    }
+}
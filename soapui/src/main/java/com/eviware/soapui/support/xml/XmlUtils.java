@@ -1171,7 +1171,11 @@ public final class XmlUtils {
     }
 
     public static String[] selectNodeValues(XmlObject xmlObject, String xpath) {
-        Node[] nodes = selectDomNodes(xmlObject, xpath);
+        return selectNodeValues(xmlObject, xpath, null);
+    }
+
+    public static String[] selectNodeValues(XmlObject xmlObject, String xpath, XmlOptions options) {
+        Node[] nodes = selectDomNodes(xmlObject, xpath, options);
 
         String[] result = new String[nodes.length];
         for (int c = 0; c < nodes.length; c++) {
@@ -1197,11 +1201,15 @@ public final class XmlUtils {
     }
 
     public static Node[] selectDomNodes(XmlObject xmlObject, String xpath) {
+        return selectDomNodes(xmlObject, xpath, null);
+    }
+
+    public static Node[] selectDomNodes(XmlObject xmlObject, String xpath, XmlOptions options) {
         List<Node> result = new ArrayList<Node>();
 
         XmlCursor cursor = xmlObject.newCursor();
         try {
-            cursor.selectPath(xpath);
+            cursor.selectPath(xpath, options);
 
             while (cursor.toNextSelection()) {
                 result.add(cursor.getDomNode());
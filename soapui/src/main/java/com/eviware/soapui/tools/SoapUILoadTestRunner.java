@@ -26,10 +26,13 @@ import org.apache.commons.cli.CommandLine;
 import com.eviware.soapui.SoapUI;
 import com.eviware.soapui.impl.wsdl.WsdlProject;
 import com.eviware.soapui.impl.wsdl.loadtest.WsdlLoadTest;
+import com.eviware.soapui.impl.wsdl.loadtest.data.HttpPhaseStatistics;
 import com.eviware.soapui.impl.wsdl.loadtest.data.actions.ExportLoadTestLogAction;
 import com.eviware.soapui.impl.wsdl.loadtest.data.actions.ExportStatisticsAction;
 import com.eviware.soapui.impl.wsdl.loadtest.log.LoadTestLog;
 import com.eviware.soapui.impl.wsdl.loadtest.log.LoadTestLogEntry;
+import com.eviware.soapui.impl.wsdl.support.http.ConnectionPoolStatistics;
+import com.eviware.soapui.impl.wsdl.support.http.HttpClientSupport;
 import com.eviware.soapui.model.project.ProjectFactoryRegistry;
 import com.eviware.soapui.model.testsuite.LoadTestRunContext;
 import com.eviware.soapui.model.testsuite.LoadTestRunListener;
@@ -352,6 +355,10 @@ public class SoapUILoadTestRunner extends AbstractSoapUITestRunner implements Lo
                 loadTest.setThreadCount(threadCount);
             }
 
+            // pool statistics are shared by all requests, only count the ones of this LoadTest
+            ConnectionPoolStatistics poolStatistics = HttpClientSupport.getConnectionPoolStatistics();
+            poolStatistics.reset();
+
             loadTest.addLoadTestRunListener(this);
             LoadTestRunner runner = loadTest.run();
 
@@ -365,6 +372,7 @@ public class SoapUILoadTestRunner extends AbstractSoapUITestRunner implements Lo
             }
 
             log.info("LoadTest [" + loadTest.getName() + "] finished with status " + runner.getStatus().toString());
+            log.info("LoadTest [" + loadTest.getName() + "] connection pool: " + poolStatistics);
 
             if (printReport) {
                 log.info("Exporting log and statistics for LoadTest [" + loadTest.getName() + "]");
@@ -373,6 +381,8 @@ public class SoapUILoadTestRunner extends AbstractSoapUITestRunner implements Lo
 
                 exportLog(loadTest);
                 exportStatistics(loadTest);
+                exportPhaseStatistics(loadTest);
+                exportConnectionPoolStatistics(loadTest, poolStatistics);
             }
         } catch (Exception e) {
             SoapUI.logError(e);
@@ -392,6 +402,36 @@ public class SoapUILoadTestRunner extends AbstractSoapUITestRunner implements Lo
         log.info("Exported " + cnt + " statistics to [" + statisticsFileName + "]");
     }
 
+    private void exportPhaseStatistics(WsdlLoadTest loadTest) throws IOException {
+        HttpPhaseStatistics phaseStatistics = loadTest.getStatisticsModel().getPhaseStatistics();
+        List<String> stepNames = new ArrayList<String>();
+        for (TestStep testStep : loadTest.getTestCase().getTestStepList()) {
+            stepNames.add(testStep.getName());
+        }
+
+        String fileNameBase = StringUtils.createFileName(loadTest.getName(), '_') + "-http-phases";
+        if (getOutputFolder() != null) {
+            ensureOutputFolder(loadTest);
+            fileNameBase = getAbsoluteOutputFolder(loadTest) + File.separator + fileNameBase;
+        }
+
+        int cnt = phaseStatistics.exportToCsv(new File(fileNameBase + ".csv"), stepNames);
+        phaseStatistics.exportToJson(new File(fileNameBase + ".json"), stepNames);
+        log.info("Exported " + cnt + " HTTP phase statistics to [" + fileNameBase + ".csv/.json]");
+    }
+
+    private void exportConnectionPoolStatistics(WsdlLoadTest loadTest, ConnectionPoolStatistics poolStatistics)
+            throws IOException {
+        String fileName = StringUtils.createFileName(loadTest.getName(), '_') + "-connection-pool.csv";
+        if (getOutputFolder() != null) {
+            ensureOutputFolder(loadTest);
+            fileName = getAbsoluteOutputFolder(loadTest) + File.separator + fileName;
+        }
+
+        poolStatistics.exportToCsv(new File(fileName));
+        log.info("Exported connection pool statistics to [" + fileName + "]");
+    }
+
     private void exportLog(WsdlLoadTest loadTest) throws IOException {
         // export log first
         LoadTestLog loadTestLog = loadTest.getLoadTestLog();
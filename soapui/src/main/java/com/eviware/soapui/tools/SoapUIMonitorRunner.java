@@ -0,0 +1,208 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.tools;
+
+import java.io.File;
+
+import org.apache.commons.cli.CommandLine;
+
+import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.impl.wsdl.WsdlProject;
+import com.eviware.soapui.impl.wsdl.monitor.HeadlessSoapMonitor;
+import com.eviware.soapui.impl.wsdl.monitor.MonitorCaptureQueue;
+import com.eviware.soapui.model.project.ProjectFactoryRegistry;
+
+/**
+ * Runs the HTTP Monitor without a user interface, streaming the captured exchanges to a monitor log. Can be used
+ * from the command-line or directly from other classes.
+ */
+
+public class SoapUIMonitorRunner extends AbstractSoapUIRunner {
+    public static final int DEFAULT_PORT = 8081;
+
+    private int port = DEFAULT_PORT;
+    private String tunnelEndpoint;
+    private String outputFile;
+    private int queueCapacity = MonitorCaptureQueue.DEFAULT_CAPACITY;
+    private long maxQueuedBytes = MonitorCaptureQueue.DEFAULT_MAX_BYTES;
+    private boolean block;
+    private String projectPassword;
+    private HeadlessSoapMonitor monitor;
+
+    public static String TITLE = "SoapUI " + SoapUI.SOAPUI_VERSION + " HTTP Monitor Runner";
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new SoapUIMonitorRunner().runFromCommandLine(args));
+    }
+
+    public SoapUIMonitorRunner() {
+        super(TITLE);
+    }
+
+    public SoapUIMonitorRunner(String title) {
+        super(title);
+    }
+
+    public boolean runRunner() throws Exception {
+        initGroovyLog();
+
+        String projectFile = getProjectFile();
+        WsdlProject project = (WsdlProject) ProjectFactoryRegistry.getProjectFactory("wsdl").createNew(projectFile,
+                projectPassword);
+        if (project.isDisabled()) {
+            throw new Exception("Failed to load SoapUI project file [" + projectFile + "]");
+        }
+
+        initProjectProperties(project);
+
+        monitor = new HeadlessSoapMonitor(project, port, tunnelEndpoint, outputFile == null ? null : new File(
+                outputFile), new MonitorCaptureQueue(queueCapacity, maxQueuedBytes));
+        monitor.start();
+
+        if (block) {
+            System.out.println("Press any key to terminate...");
+            long lastReport = System.currentTimeMillis();
+            while (System.in.available() == 0 && monitor.isRunning()) {
+                Thread.sleep(1000);
+
+                if (System.currentTimeMillis() - lastReport >= 60000) {
+                    lastReport = System.currentTimeMillis();
+                    MonitorCaptureQueue queue = monitor.getQueue();
+                    log.info("Captured " + queue.getAddedCount() + " exchanges, dropped " + queue.getDroppedCount()
+                            + ", logged " + monitor.getLoggedCount() + ", queued " + queue.size());
+                }
+            }
+
+            if (System.in.available() > 0) {
+                System.in.read();
+            }
+
+            monitor.stop();
+        }
+
+        return block;
+    }
+
+    public void stop() {
+        if (monitor != null) {
+            monitor.stop();
+        }
+    }
+
+    public HeadlessSoapMonitor getMonitor() {
+        return monitor;
+    }
+
+    @Override
+    protected SoapUIOptions initCommandLineOptions() {
+        SoapUIOptions options = new SoapUIOptions("monitorrunner");
+        options.addOption("p", true, "Sets the local port to listen on");
+        options.addOption("t", true, "Sets the endpoint to tunnel to, runs as HTTP proxy if not set");
+        options.addOption("o", true, "Sets the file to log captured exchanges to");
+        options.addOption("q", true, "Sets the maximum number of exchanges waiting to be logged");
+        options.addOption("m", true, "Sets the maximum size in MB of the exchanges waiting to be logged");
+        options.addOption("s", true, "Sets the soapui-settings.xml file to use");
+        options.addOption("b", false, "Turns off blocking read for termination");
+        options.addOption("x", true, "Sets project password for decryption if project is encrypted");
+        options.addOption("v", true, "Sets password for soapui-settings.xml file");
+        options.addOption("D", true, "Sets system property with name=value");
+        options.addOption("G", true, "Sets global property with name=value");
+        options.addOption("P", true, "Sets or overrides project property with name=value");
+
+        return options;
+    }
+
+    @Override
+    protected boolean processCommandLine(CommandLine cmd) {
+        if (cmd.hasOption("p")) {
+            setPort(Integer.parseInt(cmd.getOptionValue("p")));
+        }
+
+        if (cmd.hasOption("t")) {
+            setTunnelEndpoint(cmd.getOptionValue("t"));
+        }
+
+        if (cmd.hasOption("o")) {
+            setOutputFile(getCommandLineOptionSubstSpace(cmd, "o"));
+        }
+
+        if (cmd.hasOption("q")) {
+            setQueueCapacity(Integer.parseInt(cmd.getOptionValue("q")));
+        }
+
+        if (cmd.hasOption("m")) {
+            setMaxQueuedBytes(Long.parseLong(cmd.getOptionValue("m")) * 1024 * 1024);
+        }
+
+        if (cmd.hasOption("s")) {
+            setSettingsFile(getCommandLineOptionSubstSpace(cmd, "s"));
+        }
+
+        setBlock(!cmd.hasOption('b'));
+
+        if (cmd.hasOption("x")) {
+            setProjectPassword(cmd.getOptionValue("x"));
+        }
+
+        if (cmd.hasOption("v")) {
+            setSoapUISettingsPassword(cmd.getOptionValue("v"));
+        }
+
+        if (cmd.hasOption("D")) {
+            setSystemProperties(cmd.getOptionValues("D"));
+        }
+
+        if (cmd.hasOption("G")) {
+            setGlobalProperties(cmd.getOptionValues("G"));
+        }
+
+        if (cmd.hasOption("P")) {
+            setProjectProperties(cmd.getOptionValues("P"));
+        }
+
+        return true;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public void setTunnelEndpoint(String tunnelEndpoint) {
+        this.tunnelEndpoint = tunnelEndpoint;
+    }
+
+    public void setOutputFile(String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setMaxQueuedBytes(long maxQueuedBytes) {
+        this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    public void setBlock(boolean block) {
+        this.block = block;
+    }
+
+    public void setProjectPassword(String projectPassword) {
+        this.projectPassword = projectPassword;
+    }
+}
@@ -20,17 +20,24 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
 
 import com.eviware.soapui.SoapUI;
 import com.eviware.soapui.impl.wsdl.WsdlProject;
 import com.eviware.soapui.impl.wsdl.WsdlTestSuite;
+import com.eviware.soapui.impl.wsdl.loadtest.data.HttpPhaseStatistics;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.support.metrics.SoapUIMetrics;
+import com.eviware.soapui.impl.wsdl.testcase.TestCaseScheduler;
 import com.eviware.soapui.impl.wsdl.testcase.WsdlProjectRunner;
 import com.eviware.soapui.impl.wsdl.testcase.WsdlTestCase;
 import com.eviware.soapui.impl.wsdl.testcase.WsdlTestCaseRunner;
@@ -61,6 +68,7 @@ import com.eviware.soapui.model.testsuite.TestSuite.TestSuiteRunType;
 import com.eviware.soapui.model.testsuite.TestSuiteRunner;
 import com.eviware.soapui.report.JUnitReportCollector;
 import com.eviware.soapui.report.JUnitSecurityReportCollector;
+import com.eviware.soapui.report.StreamingJUnitReportCollector;
 import com.eviware.soapui.report.TestCaseRunLogReport;
 import com.eviware.soapui.support.StringUtils;
 import com.eviware.soapui.support.Tools;
@@ -81,6 +89,19 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
     public static final String SOAPUI_EXPORT_SEPARATOR = "soapui.export.separator";
     public static final String TITLE = "SoapUI " + SoapUI.SOAPUI_VERSION + " TestCase Runner";
 
+    /**
+     * Options that only apply to the coordinator and are not passed on to worker processes
+     */
+
+    private static final Set<String> COORDINATOR_OPTIONS = new HashSet<String>(Arrays.asList("s", "c", "r", "M",
+            "j", "J", "S", "N", "L", "K"));
+
+    /**
+     * Options holding secrets, passed on to worker processes in their environment instead of their command line
+     */
+
+    private static final Set<String> SECRET_OPTIONS = new HashSet<String>(Arrays.asList("p", "x", "v"));
+
     private String testSuite;
     private String testCase;
     private List<TestAssertion> assertions = new ArrayList<TestAssertion>();
@@ -98,12 +119,19 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
     private boolean exportAll;
     private boolean ignoreErrors;
     private boolean junitReport;
+    private boolean streamingJUnitReport;
     private int exportCount;
-    private int maxErrors = 5;
+    private int maxErrors;
     private JUnitReportCollector reportCollector;
     private String projectPassword;
     private boolean saveAfterRun;
     private TestCaseRunLogReport testCaseRunLogReport;
+    private Map<TestCase, HttpPhaseStatistics> phaseStatistics = new HashMap<TestCase, HttpPhaseStatistics>();
+    private int shardWorkers;
+    private int shardPort = -1;
+    private String coordinatorAddress;
+    private String shardToken;
+    private List<String> workerArguments = new ArrayList<String>();
 
     /**
      * Runs the tests in the specified soapUI project file, see SoapUI xdocs for
@@ -198,7 +226,8 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
             System.setProperty(SOAPUI_EXPORT_SEPARATOR, File.separator);
         }
 
-        setJUnitReport(cmd.hasOption("j"));
+        setJUnitReport(cmd.hasOption("j") || cmd.hasOption("J"));
+        setStreamingJUnitReport(cmd.hasOption("J"));
 
         if (cmd.hasOption("m")) {
             setMaxErrors(Integer.parseInt(cmd.getOptionValue("m")));
@@ -206,6 +235,27 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
 
         setSaveAfterRun(cmd.hasOption("S"));
 
+        if (cmd.hasOption("N")) {
+            setShardWorkers(Integer.parseInt(cmd.getOptionValue("N")));
+        }
+
+        if (cmd.hasOption("L")) {
+            setShardPort(Integer.parseInt(cmd.getOptionValue("L")));
+        }
+
+        if (cmd.hasOption("K")) {
+            setCoordinatorAddress(cmd.getOptionValue("K"));
+            readWorkerSecrets();
+        }
+
+        if (System.getenv(TestCaseShardProtocol.TOKEN_VARIABLE) != null) {
+            setShardToken(System.getenv(TestCaseShardProtocol.TOKEN_VARIABLE));
+        } else if (cmd.hasOption("L") || cmd.hasOption("K")) {
+            message += "Missing token for remote workers, set it in " + TestCaseShardProtocol.TOKEN_VARIABLE;
+        }
+
+        workerArguments = createWorkerArguments(cmd);
+
         if (message.length() > 0) {
             log.error(message);
             return false;
@@ -214,6 +264,77 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
         return true;
     }
 
+    /**
+     * Creates the arguments passed on to worker processes from the arguments of this runner
+     */
+
+    protected List<String> createWorkerArguments(CommandLine cmd) {
+        List<String> result = new ArrayList<String>();
+        Set<String> added = new HashSet<String>();
+
+        for (Option option : cmd.getOptions()) {
+            String name = option.getOpt();
+            if (COORDINATOR_OPTIONS.contains(name) || SECRET_OPTIONS.contains(name) || !added.add(name)) {
+                continue;
+            }
+
+            String[] values = cmd.getOptionValues(name);
+            if (values == null) {
+                result.add("-" + name);
+            } else {
+                for (String value : values) {
+                    result.add("-" + name);
+                    result.add(value);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates the environment variables passing the secrets of this runner on to worker processes
+     */
+
+    protected Map<String, String> createWorkerEnvironment() {
+        Map<String, String> result = new HashMap<String, String>();
+        if (getPassword() != null) {
+            result.put(TestCaseShardProtocol.PASSWORD_VARIABLE, getPassword());
+        }
+
+        if (getProjectPassword() != null) {
+            result.put(TestCaseShardProtocol.PROJECT_PASSWORD_VARIABLE, getProjectPassword());
+        }
+
+        if (getSoapUISettingsPassword() != null) {
+            result.put(TestCaseShardProtocol.SETTINGS_PASSWORD_VARIABLE, getSoapUISettingsPassword());
+        }
+
+        return result;
+    }
+
+    private void readWorkerSecrets() {
+        String value = System.getenv(TestCaseShardProtocol.PASSWORD_VARIABLE);
+        if (value != null && getPassword() == null) {
+            setPassword(value);
+        }
+
+        value = System.getenv(TestCaseShardProtocol.PROJECT_PASSWORD_VARIABLE);
+        if (value != null && getProjectPassword() == null) {
+            setProjectPassword(value);
+        }
+
+        value = System.getenv(TestCaseShardProtocol.SETTINGS_PASSWORD_VARIABLE);
+        if (value != null && getSoapUISettingsPassword() == null) {
+            setSoapUISettingsPassword(value);
+        }
+    }
+
+    /**
+     * Sets the maximum number of TestStep errors saved for each TestCase in streamed JUnit reports, 0 saves all
+     * errors like the in-memory report does
+     */
+
     public void setMaxErrors(int maxErrors) {
         this.maxErrors = maxErrors;
     }
@@ -253,7 +374,8 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
         options.addOption( "M", false, "Creates a Test Run Log Report in XML format" );
         options.addOption( "f", true, "Sets the output folder to export results to" );
         options.addOption( "j", false, "Sets the output to include JUnit XML reports" );
-        options.addOption( "m", false, "Sets the maximum number of TestStep errors to save for each testcase" );
+        options.addOption( "J", false, "Sets the output to include JUnit XML reports, written as each TestSuite finishes" );
+        options.addOption( "m", true, "Sets the maximum number of TestStep errors to save for each testcase in streamed JUnit reports, 0 (default) for all" );
         options.addOption( "a", false, "Turns on exporting of all results" );
         options.addOption( "A", false, "Turns on exporting of all results using folders instead of long filenames" );
         options.addOption( "t", true, "Sets the soapui-settings.xml file to use" );
@@ -265,6 +387,9 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
         options.addOption( "I", false, "Do not stop if error occurs, ignore them" );
         options.addOption( "S", false , "Saves the project after running the tests" );
         options.addOption( "H", true , "Adds a custom HTTP Header to all outgoing requests (name=value), can be specified multiple times" );
+        options.addOption( "N", true, "Runs the TestCases in the specified number of local worker processes" );
+        options.addOption( "L", true, "Sets the port on which to accept remote worker agents when running in workers, agents must present the token set in SOAPUI_SHARD_TOKEN" );
+        options.addOption( "K", true, "Runs as worker agent for the coordinator at the specified host:port, presenting the token set in SOAPUI_SHARD_TOKEN" );
 
         return options;
     }
@@ -288,6 +413,34 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
         return new JUnitSecurityReportCollector();
     }
 
+    /**
+     * Controls if JUnit reports are streamed to the output folder as TestSuites finish instead of being
+     * collected in memory until the run ends; only applies if JUnit reports are enabled
+     */
+
+    public void setStreamingJUnitReport(boolean streamingJUnitReport) {
+        this.streamingJUnitReport = streamingJUnitReport;
+    }
+
+    public boolean isStreamingJUnitReport() {
+        return streamingJUnitReport;
+    }
+
+    protected JUnitReportCollector createStreamingJUnitReportCollector(String folder) {
+        return new StreamingJUnitReportCollector(folder, getMaxErrors(),
+                StreamingJUnitReportCollector.DEFAULT_MAX_FAILURE_LENGTH);
+    }
+
+    /**
+     * Writes the JUnit report of the specified TestSuite if reports are streamed
+     */
+
+    protected void finishJUnitReport(TestSuite suite) {
+        if (junitReport && reportCollector instanceof StreamingJUnitReportCollector) {
+            ((StreamingJUnitReportCollector) reportCollector).finishTestSuite(suite);
+        }
+    }
+
     public SoapUITestCaseRunner() {
         super(SoapUITestCaseRunner.TITLE);
     }
@@ -336,6 +489,10 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
         initProject(project);
         ensureOutputFolder(project);
 
+        if (junitReport && streamingJUnitReport) {
+            reportCollector = createStreamingJUnitReportCollector(getAbsoluteOutputFolder(project));
+        }
+
         if (this.printAlertSiteReport) {
             testCaseRunLogReport = new TestCaseRunLogReport(getAbsoluteOutputFolder(project));
         }
@@ -344,28 +501,13 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
 
         long startTime = System.nanoTime();
 
-        List<TestCase> testCasesToRun = new ArrayList<TestCase>();
-
         // validate testSuite argument
         if (testSuite != null && project.getTestSuiteByName(testSuite) == null) {
             throw new Exception("TestSuite with name [" + testSuite + "] is missing in Project [" + project.getName()
                     + "]");
         }
 
-        // start by listening to all testcases.. (since one testcase can call
-        // another)
-        for (int c = 0; c < project.getTestSuiteCount(); c++) {
-            TestSuite suite = project.getTestSuiteAt(c);
-            for (int i = 0; i < suite.getTestCaseCount(); i++) {
-                TestCase tc = suite.getTestCaseAt(i);
-                if ((testSuite == null || suite.getName().equals(testSuite)) && testCase != null
-                        && tc.getName().equals(testCase)) {
-                    testCasesToRun.add(tc);
-                }
-
-                addListeners(tc);
-            }
-        }
+        List<TestCase> testCasesToRun = selectTestCases(project);
 
         try {
             // validate testSuite argument
@@ -380,7 +522,12 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
             }
 
             // decide what to run
-            if (testCasesToRun.size() > 0) {
+            if (coordinatorAddress != null) {
+                new TestCaseShardWorker(coordinatorAddress, shardToken).run(project, this);
+                return true;
+            } else if (isSharded()) {
+                runSharded(project, testCasesToRun);
+            } else if (testCasesToRun.size() > 0) {
                 for (TestCase testCase : testCasesToRun) {
                     runTestCase((WsdlTestCase) testCase);
                 }
@@ -418,13 +565,50 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
             return true;
         } finally {
             for (int c = 0; c < project.getTestSuiteCount(); c++) {
-                TestSuite suite = project.getTestSuiteAt(c);
+                WsdlTestSuite suite = project.getTestSuiteAt(c);
+                if (suite.isTestCasesLoaded()) {
+                    for (int i = 0; i < suite.getTestCaseCount(); i++) {
+                        removeListeners(suite.getTestCaseAt(i));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the TestCases selected by name and adds listeners to all loaded TestCases, since one TestCase
+     * can call another. Only the TestSuites that can run are loaded; loading them also loads the targets of
+     * their Run TestCase steps.
+     */
+
+    protected List<TestCase> selectTestCases(WsdlProject project) {
+        List<TestCase> result = new ArrayList<TestCase>();
+
+        for (int c = 0; c < project.getTestSuiteCount(); c++) {
+            WsdlTestSuite suite = project.getTestSuiteAt(c);
+            if ((testSuite != null && !suite.getName().equals(testSuite))
+                    || (testSuite == null && testCase != null && !suite.containsTestCase(testCase))) {
+                continue;
+            }
+
+            for (int i = 0; i < suite.getTestCaseCount(); i++) {
+                TestCase tc = suite.getTestCaseAt(i);
+                if (testCase != null && tc.getName().equals(testCase)) {
+                    result.add(tc);
+                }
+            }
+        }
+
+        for (int c = 0; c < project.getTestSuiteCount(); c++) {
+            WsdlTestSuite suite = project.getTestSuiteAt(c);
+            if (suite.isTestCasesLoaded()) {
                 for (int i = 0; i < suite.getTestCaseCount(); i++) {
-                    TestCase tc = suite.getTestCaseAt(i);
-                    removeListeners(tc);
+                    addListeners(suite.getTestCaseAt(i));
                 }
             }
         }
+
+        return result;
     }
 
     protected void removeListeners(TestCase tc) {
@@ -451,6 +635,78 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
         }
     }
 
+    /**
+     * Runs the specified TestCases, or all TestCases of the selected TestSuite or project if none are
+     * specified, in worker processes and merges their results. TestSuite and project setup and teardown
+     * scripts are not run in this mode.
+     */
+
+    protected void runSharded(WsdlProject project, List<TestCase> testCases) throws Exception {
+        List<TestCase> selected = new ArrayList<TestCase>(testCases);
+        if (selected.isEmpty()) {
+            for (int c = 0; c < project.getTestSuiteCount(); c++) {
+                TestSuite suite = project.getTestSuiteAt(c);
+                if ((testSuite == null || suite.getName().equals(testSuite)) && !suite.isDisabled()) {
+                    for (TestCase tc : suite.getTestCaseList()) {
+                        if (!tc.isDisabled()) {
+                            selected.add(tc);
+                        }
+                    }
+                }
+            }
+        }
+
+        Set<TestSuite> suites = new HashSet<TestSuite>();
+        for (TestCase tc : selected) {
+            suites.add(tc.getTestSuite());
+        }
+
+        TestCaseShardCoordinator coordinator = new TestCaseShardCoordinator(
+                TestCaseScheduler.orderLongestFirst(selected), new InternalShardListener(),
+                shardToken == null ? TestCaseShardProtocol.createToken() : shardToken);
+        try {
+            int port = coordinator.start(Math.max(shardPort, 0), shardPort >= 0);
+            log.info("Running " + selected.size() + " TestCases in " + shardWorkers
+                    + " local workers, accepting workers on port " + port);
+
+            Map<String, String> environment = createWorkerEnvironment();
+            for (int c = 0; c < shardWorkers; c++) {
+                coordinator.launchWorker(createWorkerCommand("127.0.0.1:" + port), environment);
+            }
+
+            coordinator.awaitCompletion();
+        } finally {
+            coordinator.stop();
+            testSuiteCount += suites.size();
+        }
+    }
+
+    /**
+     * Creates the command starting a local worker process in a JVM configured like this one
+     */
+
+    protected List<String> createWorkerCommand(String coordinatorAddress) {
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            // debugger ports can not be shared
+            if (!argument.startsWith("-agentlib:jdwp") && !argument.startsWith("-Xrunjdwp")) {
+                command.add(argument);
+            }
+        }
+
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(getClass().getName());
+        command.addAll(workerArguments);
+        command.add("-K");
+        command.add(coordinatorAddress);
+        command.add(getProjectFile());
+
+        return command;
+    }
+
     protected void initProject(WsdlProject project) throws Exception {
         initProjectProperties(project);
     }
@@ -459,6 +715,50 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
         if (junitReport) {
             exportJUnitReports(reportCollector, getAbsoluteOutputFolder(project), project);
         }
+
+        if (exportAll) {
+            exportPhaseStatistics(project);
+        }
+    }
+
+    /**
+     * Exports the HTTP phase timings collected for each TestCase to CSV and JSON files
+     */
+
+    protected synchronized void exportPhaseStatistics(WsdlProject project) throws Exception {
+        String exportSeparator = System.getProperty(SOAPUI_EXPORT_SEPARATOR, "-");
+
+        for (Map.Entry<TestCase, HttpPhaseStatistics> entry : phaseStatistics.entrySet()) {
+            TestCase tc = entry.getKey();
+            List<String> stepNames = new ArrayList<String>();
+            for (TestStep testStep : tc.getTestStepList()) {
+                stepNames.add(testStep.getName());
+            }
+
+            String fileNameBase = getAbsoluteOutputFolder(project) + File.separator
+                    + StringUtils.createFileName(tc.getTestSuite().getName(), '_') + exportSeparator
+                    + StringUtils.createFileName(tc.getName(), '_') + "-http-phases";
+
+            entry.getValue().exportToCsv(new File(fileNameBase + ".csv"), stepNames);
+            entry.getValue().exportToJson(new File(fileNameBase + ".json"), stepNames);
+            log.info("Exported HTTP phase statistics to [" + fileNameBase + ".csv/.json]");
+        }
+    }
+
+    private synchronized void recordPhaseStatistics(TestCaseRunContext runContext, TestStepResult result) {
+        SoapUIMetrics metrics = HttpPhaseStatistics.getMetrics(runContext, result);
+        if (metrics == null) {
+            return;
+        }
+
+        TestCase tc = result.getTestStep().getTestCase();
+        HttpPhaseStatistics statistics = phaseStatistics.get(tc);
+        if (statistics == null || statistics.getStepCount() != tc.getTestStepCount()) {
+            statistics = new HttpPhaseStatistics(tc.getTestStepCount());
+            phaseStatistics.put(tc, statistics);
+        }
+
+        statistics.record(tc.getIndexOfTestStep(result.getTestStep()), metrics);
     }
 
     protected void addListeners(TestCase tc) {
@@ -537,6 +837,7 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
             e.printStackTrace();
         } finally {
             testSuiteCount++;
+            finishJUnitReport(suite);
         }
     }
 
@@ -624,6 +925,10 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
 
         runContext.setProperty(countPropertyName, new Long(count.longValue() + 1));
 
+        if (exportAll) {
+            recordPhaseStatistics(runContext, result);
+        }
+
         if (result.getStatus() == TestStepStatus.FAILED || exportAll) {
             try {
                 String exportSeparator = System.getProperty(SOAPUI_EXPORT_SEPARATOR, "-");
@@ -711,10 +1016,46 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
         testCaseCount++;
     }
 
+    protected class InternalShardListener implements TestCaseShardCoordinator.ShardListener {
+        public void stepFinished(TestCase testCase, String testStepName, TestStepStatus status, long timeTaken,
+                                 String[] messages, String stepLog) {
+            if (status == TestStepStatus.FAILED) {
+                log.error("TestStep [" + testStepName + "] in TestCase [" + testCase.getName() + "] failed: "
+                        + Arrays.toString(messages));
+
+                if (junitReport) {
+                    reportCollector.addFailedStep(testCase, testStepName, messages, stepLog);
+                }
+            }
+
+            testStepCount++;
+        }
+
+        public void testCaseFinished(TestCase testCase, Status status, long timeTaken, String reason) {
+            log.info("Finished running SoapUI testcase [" + testCase.getName() + "], time taken: " + timeTaken
+                    + "ms, status: " + status);
+
+            if (status == Status.FAILED) {
+                failedTests.add(testCase);
+            }
+
+            if (timeTaken > 0) {
+                TestCaseScheduler.setLastRunTime(testCase, timeTaken);
+            }
+
+            if (junitReport) {
+                reportCollector.addTestCaseResult(testCase, status, timeTaken, reason);
+            }
+
+            testCaseCount++;
+        }
+    }
+
     protected class InternalProjectRunListener extends ProjectRunListenerAdapter {
         @Override
         public void afterTestSuite(ProjectRunner projectRunner, ProjectRunContext runContext, TestSuiteRunner testRunner) {
             testSuiteCount++;
+            finishJUnitReport(testRunner.getTestSuite());
         }
     }
 
@@ -770,6 +1111,68 @@ public class SoapUITestCaseRunner extends AbstractSoapUITestRunner {
         return assertionResults;
     }
 
+    /**
+     * Sets the number of local worker processes to run the TestCases in, 0 runs them in this process
+     */
+
+    public void setShardWorkers(int shardWorkers) {
+        this.shardWorkers = shardWorkers;
+    }
+
+    public int getShardWorkers() {
+        return shardWorkers;
+    }
+
+    /**
+     * Sets the port remote worker agents can connect to; setting it runs the TestCases in workers even
+     * without local workers
+     */
+
+    public void setShardPort(int shardPort) {
+        this.shardPort = shardPort;
+    }
+
+    public int getShardPort() {
+        return shardPort;
+    }
+
+    public boolean isSharded() {
+        return shardWorkers > 0 || shardPort >= 0;
+    }
+
+    /**
+     * Makes this runner a worker for the coordinator at the specified host:port
+     */
+
+    public void setCoordinatorAddress(String coordinatorAddress) {
+        this.coordinatorAddress = coordinatorAddress;
+    }
+
+    public String getCoordinatorAddress() {
+        return coordinatorAddress;
+    }
+
+    /**
+     * Sets the token workers have to present to the coordinator; a random one is used for local workers if
+     * not set
+     */
+
+    public void setShardToken(String shardToken) {
+        this.shardToken = shardToken;
+    }
+
+    public String getShardToken() {
+        return shardToken;
+    }
+
+    public List<String> getWorkerArguments() {
+        return workerArguments;
+    }
+
+    public void setWorkerArguments(List<String> workerArguments) {
+        this.workerArguments = workerArguments;
+    }
+
     public int getTestStepCount() {
         return testStepCount;
     }
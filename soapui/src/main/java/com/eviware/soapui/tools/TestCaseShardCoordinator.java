@@ -0,0 +1,310 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import com.eviware.soapui.model.testsuite.TestCase;
+import com.eviware.soapui.model.testsuite.TestRunner.Status;
+import com.eviware.soapui.model.testsuite.TestStepResult.TestStepStatus;
+import com.eviware.soapui.model.testsuite.TestSuite;
+
+/**
+ * Hands out TestCases to worker processes and collects their results, see {@link TestCaseShardProtocol}.
+ * Workers pull one TestCase at a time from a shared queue, so handing them out longest first (see
+ * {@link com.eviware.soapui.impl.wsdl.testcase.TestCaseScheduler#orderLongestFirst(List)}) balances the
+ * workers by the historical duration of their TestCases.
+ * <p/>
+ * Local workers are started with {@link #launchWorker(List, Map)}, remote agents can connect to the port
+ * returned by {@link #start(int, boolean)} at any time while TestCases are still pending. Workers have to
+ * present the token of the coordinator, local workers get it in their environment.
+ */
+
+public class TestCaseShardCoordinator {
+    private final static Logger log = Logger.getLogger(TestCaseShardCoordinator.class);
+
+    private final LinkedList<TestCase> queue;
+    private final ShardListener listener;
+    private final String token;
+    private final List<Process> workers = new ArrayList<Process>();
+    private ServerSocket serverSocket;
+    private int pendingTestCases;
+    private int activeConnections;
+    private int exitedWorkers;
+
+    public TestCaseShardCoordinator(List<? extends TestCase> testCases, ShardListener listener, String token) {
+        this.queue = new LinkedList<TestCase>(testCases);
+        this.listener = listener;
+        this.token = token;
+        this.pendingTestCases = testCases.size();
+    }
+
+    /**
+     * Starts accepting workers on the specified port, 0 picks any free port
+     *
+     * @param remote accept workers from other machines; otherwise only the loopback interface is bound
+     * @return the port workers should connect to
+     */
+
+    public synchronized int start(int port, boolean remote) throws IOException {
+        serverSocket = remote ? new ServerSocket(port) : new ServerSocket(port, 0, InetAddress.getByName("127.0.0.1"));
+
+        Thread acceptor = new Thread(new Runnable() {
+            public void run() {
+                acceptConnections();
+            }
+        }, "TestCaseShardCoordinator acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts a local worker process with the specified command and additional environment variables; its
+     * output is forwarded to the log
+     */
+
+    public void launchWorker(List<String> command, Map<String, String> environment) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.environment().putAll(environment);
+        builder.environment().put(TestCaseShardProtocol.TOKEN_VARIABLE, token);
+        builder.redirectErrorStream(true);
+
+        final Process process = builder.start();
+        final String name;
+        synchronized (this) {
+            workers.add(process);
+            name = "worker-" + workers.size();
+        }
+
+        Thread pump = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        log.info("[" + name + "] " + line);
+                    }
+
+                    log.info("[" + name + "] exited with " + process.waitFor());
+                } catch (Exception e) {
+                    log.warn("Failed to read output of " + name + ": " + e);
+                } finally {
+                    synchronized (TestCaseShardCoordinator.this) {
+                        exitedWorkers++;
+                        TestCaseShardCoordinator.this.notifyAll();
+                    }
+                }
+            }
+        }, "TestCaseShardCoordinator " + name);
+        pump.setDaemon(true);
+        pump.start();
+    }
+
+    /**
+     * Waits until all TestCases have finished. If all local workers have exited while TestCases are still
+     * queued and no worker is connected, the remaining TestCases are reported as failed.
+     */
+
+    public synchronized void awaitCompletion() throws InterruptedException {
+        while (pendingTestCases > 0) {
+            if (!workers.isEmpty() && exitedWorkers == workers.size() && activeConnections == 0) {
+                while (!queue.isEmpty()) {
+                    testCaseFinished(queue.removeFirst(), Status.FAILED, 0, "No worker left to run TestCase");
+                }
+            }
+
+            if (pendingTestCases > 0) {
+                wait(1000);
+            }
+        }
+    }
+
+    public synchronized int getPendingTestCases() {
+        return pendingTestCases;
+    }
+
+    /**
+     * Stops accepting workers and kills local workers that are still running
+     */
+
+    public void stop() {
+        List<Process> processes;
+        synchronized (this) {
+            try {
+                if (serverSocket != null) {
+                    serverSocket.close();
+                }
+            } catch (IOException e) {
+                log.warn("Failed to close coordinator socket: " + e);
+            }
+
+            processes = new ArrayList<Process>(workers);
+        }
+
+        for (Process process : processes) {
+            process.destroy();
+        }
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                synchronized (this) {
+                    activeConnections++;
+                }
+
+                Thread handler = new Thread(new Runnable() {
+                    public void run() {
+                        handleConnection(socket);
+                    }
+                }, "TestCaseShardCoordinator " + socket.getRemoteSocketAddress());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.error("Failed to accept worker connection: " + e);
+                }
+            }
+        }
+    }
+
+    private void handleConnection(Socket socket) {
+        TestCase current = null;
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"));
+            log.info("Worker connected from " + socket.getRemoteSocketAddress());
+
+            String line;
+            boolean accepted = false;
+            while ((line = reader.readLine()) != null) {
+                String[] message = TestCaseShardProtocol.decode(line);
+
+                if (!accepted) {
+                    if (!TestCaseShardProtocol.READY.equals(message[0]) || message.length < 2 || !isToken(message[1])) {
+                        log.warn("Rejected worker at " + socket.getRemoteSocketAddress() + " presenting a wrong token");
+                        break;
+                    }
+
+                    accepted = true;
+                }
+
+                if (TestCaseShardProtocol.STEP.equals(message[0]) && current != null && message.length >= 5) {
+                    stepFinished(current, message);
+                } else if (TestCaseShardProtocol.READY.equals(message[0])
+                        || TestCaseShardProtocol.FINISHED.equals(message[0])) {
+                    if (current != null && message.length >= 4) {
+                        testCaseFinished(current, Status.valueOf(message[1]), Long.parseLong(message[2]), message[3]);
+                        current = null;
+                    }
+
+                    current = nextTestCase();
+                    if (current == null) {
+                        TestCaseShardProtocol.send(writer, TestCaseShardProtocol.STOP);
+                        break;
+                    }
+
+                    TestSuite testSuite = current.getTestSuite();
+                    TestCaseShardProtocol.send(writer, TestCaseShardProtocol.RUN,
+                            String.valueOf(testSuite.getProject().getIndexOfTestSuite(testSuite)),
+                            String.valueOf(testSuite.getIndexOfTestCase(current)), testSuite.getName(),
+                            current.getName());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Lost connection to worker at " + socket.getRemoteSocketAddress() + ": " + e);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.warn("Failed to close worker connection: " + e);
+            }
+
+            synchronized (this) {
+                activeConnections--;
+                if (current != null) {
+                    testCaseFinished(current, Status.FAILED, 0, "Worker disconnected while running TestCase");
+                }
+
+                notifyAll();
+            }
+        }
+    }
+
+    private boolean isToken(String value) {
+        try {
+            return MessageDigest.isEqual(token.getBytes("UTF-8"), value.getBytes("UTF-8"));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private synchronized TestCase nextTestCase() {
+        return queue.isEmpty() ? null : queue.removeFirst();
+    }
+
+    private void stepFinished(TestCase testCase, String[] message) {
+        String[] messages = new String[message.length - 5];
+        System.arraycopy(message, 5, messages, 0, messages.length);
+
+        synchronized (listener) {
+            listener.stepFinished(testCase, message[1], TestStepStatus.valueOf(message[2]),
+                    Long.parseLong(message[3]), messages, message[4].length() == 0 ? null : message[4]);
+        }
+    }
+
+    private synchronized void testCaseFinished(TestCase testCase, Status status, long timeTaken, String reason) {
+        try {
+            synchronized (listener) {
+                listener.testCaseFinished(testCase, status, timeTaken, reason);
+            }
+        } finally {
+            pendingTestCases--;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Receives the results streamed back by the workers; calls are serialized on the listener
+     */
+
+    public interface ShardListener {
+        public void stepFinished(TestCase testCase, String testStepName, TestStepStatus status, long timeTaken,
+                                 String[] messages, String log);
+
+        public void testCaseFinished(TestCase testCase, Status status, long timeTaken, String reason);
+    }
+}
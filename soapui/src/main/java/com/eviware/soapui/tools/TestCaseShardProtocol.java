@@ -0,0 +1,145 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.tools;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line based protocol spoken between a {@link TestCaseShardCoordinator} and its workers. Every message is a
+ * single line of tab-separated fields starting with the command; backslashes, tabs and line breaks inside
+ * fields are escaped.
+ * <p/>
+ * A worker connects and sends READY with the token of the coordinator, the coordinator answers with RUN for
+ * the next TestCase or STOP when there is nothing left, and drops workers presenting a wrong token. While running, the worker streams a STEP message for every finished TestStep and
+ * finally sends FINISHED, which the coordinator again answers with RUN or STOP.
+ */
+
+public class TestCaseShardProtocol {
+    public static final String READY = "READY";
+    public static final String RUN = "RUN";
+    public static final String STOP = "STOP";
+    public static final String STEP = "STEP";
+    public static final String FINISHED = "FINISHED";
+
+    /**
+     * Environment variables passing the token and the secrets given on the command line of the coordinator to
+     * workers, since command lines can be seen by other users of the machine
+     */
+
+    public static final String TOKEN_VARIABLE = "SOAPUI_SHARD_TOKEN";
+    public static final String PASSWORD_VARIABLE = "SOAPUI_SHARD_PASSWORD";
+    public static final String PROJECT_PASSWORD_VARIABLE = "SOAPUI_SHARD_PROJECT_PASSWORD";
+    public static final String SETTINGS_PASSWORD_VARIABLE = "SOAPUI_SHARD_SETTINGS_PASSWORD";
+
+    /**
+     * Creates a random token for a coordinator that only accepts local workers
+     */
+
+    public static String createToken() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+
+        StringBuilder buf = new StringBuilder();
+        for (byte b : bytes) {
+            buf.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+
+        return buf.toString();
+    }
+
+    public static String encode(String command, String... fields) {
+        StringBuilder buf = new StringBuilder(command);
+        for (String field : fields) {
+            buf.append('\t');
+            if (field == null) {
+                continue;
+            }
+
+            for (int c = 0; c < field.length(); c++) {
+                char ch = field.charAt(c);
+                switch (ch) {
+                    case '\\':
+                        buf.append("\\\\");
+                        break;
+                    case '\t':
+                        buf.append("\\t");
+                        break;
+                    case '\r':
+                        buf.append("\\r");
+                        break;
+                    case '\n':
+                        buf.append("\\n");
+                        break;
+                    default:
+                        buf.append(ch);
+                }
+            }
+        }
+
+        return buf.toString();
+    }
+
+    public static String[] decode(String line) {
+        List<String> fields = new ArrayList<String>();
+        StringBuilder buf = new StringBuilder();
+
+        for (int c = 0; c < line.length(); c++) {
+            char ch = line.charAt(c);
+            if (ch == '\t') {
+                fields.add(buf.toString());
+                buf.setLength(0);
+            } else if (ch == '\\' && c < line.length() - 1) {
+                char next = line.charAt(++c);
+                buf.append(next == 't' ? '\t' : next == 'r' ? '\r' : next == 'n' ? '\n' : next);
+            } else {
+                buf.append(ch);
+            }
+        }
+
+        fields.add(buf.toString());
+        return fields.toArray(new String[fields.size()]);
+    }
+
+    public static void send(Writer writer, String command, String... fields) throws IOException {
+        synchronized (writer) {
+            writer.write(encode(command, fields));
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    /**
+     * Parses a coordinator address in host:port format, the host defaults to localhost if omitted.
+     */
+
+    public static InetSocketAddress parseAddress(String address) {
+        int ix = address.lastIndexOf(':');
+        if (ix == -1) {
+            return new InetSocketAddress("localhost", Integer.parseInt(address.trim()));
+        }
+
+        String host = address.substring(0, ix).trim();
+        return new InetSocketAddress(host.length() == 0 ? "localhost" : host, Integer.parseInt(address.substring(
+                ix + 1).trim()));
+    }
+}
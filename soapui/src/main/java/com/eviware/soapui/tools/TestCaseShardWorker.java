@@ -0,0 +1,185 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import com.eviware.soapui.impl.wsdl.WsdlProject;
+import com.eviware.soapui.impl.wsdl.WsdlTestSuite;
+import com.eviware.soapui.impl.wsdl.testcase.WsdlTestCase;
+import com.eviware.soapui.model.support.TestRunListenerAdapter;
+import com.eviware.soapui.model.testsuite.TestCaseRunContext;
+import com.eviware.soapui.model.testsuite.TestCaseRunner;
+import com.eviware.soapui.model.testsuite.TestRunner.Status;
+import com.eviware.soapui.model.testsuite.TestStepResult;
+import com.eviware.soapui.model.testsuite.TestStepResult.TestStepStatus;
+import com.eviware.soapui.report.JUnitReportCollector;
+
+/**
+ * Runs the TestCases handed out by a {@link TestCaseShardCoordinator} and streams their results back, see
+ * {@link TestCaseShardProtocol}.
+ */
+
+public class TestCaseShardWorker {
+    private final static Logger log = Logger.getLogger(TestCaseShardWorker.class);
+
+    private final String coordinatorAddress;
+    private final String token;
+
+    public TestCaseShardWorker(String coordinatorAddress, String token) {
+        this.coordinatorAddress = coordinatorAddress;
+        this.token = token;
+    }
+
+    /**
+     * Connects to the coordinator and runs TestCases of the specified project with the specified runner
+     * until told to stop
+     */
+
+    public void run(WsdlProject project, SoapUITestCaseRunner runner) throws IOException {
+        InetSocketAddress address = TestCaseShardProtocol.parseAddress(coordinatorAddress);
+        Socket socket = new Socket(address.getAddress(), address.getPort());
+
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"));
+            log.info("Connected to coordinator at " + coordinatorAddress);
+
+            TestCaseShardProtocol.send(writer, TestCaseShardProtocol.READY, token);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] message = TestCaseShardProtocol.decode(line);
+                if (TestCaseShardProtocol.STOP.equals(message[0])) {
+                    break;
+                }
+
+                if (TestCaseShardProtocol.RUN.equals(message[0]) && message.length >= 5) {
+                    runTestCase(project, runner, message, writer);
+                }
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    private void runTestCase(WsdlProject project, SoapUITestCaseRunner runner, String[] message, Writer writer)
+            throws IOException {
+        WsdlTestCase testCase = findTestCase(project, Integer.parseInt(message[1]), Integer.parseInt(message[2]),
+                message[3], message[4]);
+        if (testCase == null) {
+            TestCaseShardProtocol.send(writer, TestCaseShardProtocol.FINISHED, Status.FAILED.name(), "0",
+                    "TestCase [" + message[4] + "] in TestSuite [" + message[3] + "] not found in worker project");
+            return;
+        }
+
+        StreamingListener listener = new StreamingListener(writer);
+        testCase.addTestRunListener(listener);
+        try {
+            runner.runTestCase(testCase);
+        } finally {
+            testCase.removeTestRunListener(listener);
+        }
+
+        if (listener.error != null) {
+            throw listener.error;
+        }
+
+        TestCaseShardProtocol.send(writer, TestCaseShardProtocol.FINISHED, listener.status.name(),
+                String.valueOf(listener.timeTaken), listener.reason);
+    }
+
+    private WsdlTestCase findTestCase(WsdlProject project, int suiteIndex, int caseIndex, String suiteName,
+                                      String caseName) {
+        if (suiteIndex < 0 || suiteIndex >= project.getTestSuiteCount()) {
+            return null;
+        }
+
+        WsdlTestSuite testSuite = project.getTestSuiteAt(suiteIndex);
+        if (!testSuite.getName().equals(suiteName) || caseIndex < 0 || caseIndex >= testSuite.getTestCaseCount()) {
+            return null;
+        }
+
+        WsdlTestCase testCase = testSuite.getTestCaseAt(caseIndex);
+        return testCase.getName().equals(caseName) ? testCase : null;
+    }
+
+    private static class StreamingListener extends TestRunListenerAdapter {
+        private final Writer writer;
+        private Status status = Status.FAILED;
+        private long timeTaken;
+        private String reason = "TestCase did not finish";
+        private IOException error;
+
+        public StreamingListener(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void afterStep(TestCaseRunner testRunner, TestCaseRunContext runContext, TestStepResult result) {
+            if (error != null) {
+                return;
+            }
+
+            String details = null;
+            if (result.getStatus() == TestStepStatus.FAILED
+                    && testRunner.getTestCase().getSettings().getBoolean(JUnitReportCollector.COMPLETE_ERROR_LOGS)) {
+                StringWriter stringWriter = new StringWriter();
+                result.writeTo(new PrintWriter(stringWriter));
+                details = stringWriter.toString();
+            }
+
+            List<String> fields = new ArrayList<String>();
+            fields.add(result.getTestStep().getName());
+            fields.add(result.getStatus().name());
+            fields.add(String.valueOf(result.getTimeTaken()));
+            fields.add(details);
+            if (result.getStatus() == TestStepStatus.FAILED) {
+                for (String message : result.getMessages()) {
+                    fields.add(message);
+                }
+            }
+
+            try {
+                TestCaseShardProtocol.send(writer, TestCaseShardProtocol.STEP, fields.toArray(new String[fields.size()]));
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        @Override
+        public void afterRun(TestCaseRunner testRunner, TestCaseRunContext runContext) {
+            status = testRunner.getStatus();
+            timeTaken = testRunner.getTimeTaken();
+            reason = testRunner.getReason();
+        }
+    }
+}
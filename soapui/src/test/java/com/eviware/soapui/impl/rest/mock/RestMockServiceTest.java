@@ -157,6 +157,46 @@ public class RestMockServiceTest {
         assertThat(matchingAction, is(nullValue()));
     }
 
+    @Test
+    public void partialPathMatchingShouldBeDoneOnWholeSegments() throws SoapUIException {
+        restMockService.addNewMockAction(restRequest);
+
+        RestMockAction matchingAction = (RestMockAction) restMockService.findBestMatchedOperation(PATH + "123", GET);
+
+        assertThat(matchingAction, is(nullValue()));
+    }
+
+    @Test
+    public void shouldMatchTemplateAndWildcardSegments() throws SoapUIException {
+        RestMockAction templateAction = restMockService.addEmptyMockAction(GET, "/users/{id}/orders");
+        RestMockAction wildcardAction = restMockService.addEmptyMockAction(GET, "/users/*");
+        RestMockAction literalAction = restMockService.addEmptyMockAction(GET, "/users/admin/orders");
+
+        assertThat((RestMockAction) restMockService.findBestMatchedOperation("/users/42/orders/7", GET), is(templateAction));
+        assertThat((RestMockAction) restMockService.findBestMatchedOperation("/users/42", GET), is(wildcardAction));
+        assertThat((RestMockAction) restMockService.findBestMatchedOperation("/users/admin/orders", GET), is(literalAction));
+    }
+
+    @Test
+    public void shouldFindOperationAfterResourcePathChange() throws SoapUIException {
+        RestMockAction restMockAction = restMockService.addEmptyMockAction(GET, PATH);
+
+        restMockAction.setResourcePath("/another/path");
+        restMockAction.setMethod(POST);
+
+        assertThat(restMockService.findBestMatchedOperation(PATH, GET), is(nullValue()));
+        assertThat((RestMockAction) restMockService.findBestMatchedOperation("/another/path/1", POST), is(restMockAction));
+    }
+
+    @Test
+    public void shouldNotFindRemovedOperation() throws SoapUIException {
+        RestMockAction restMockAction = restMockService.addEmptyMockAction(GET, PATH);
+
+        restMockService.removeMockOperation(restMockAction);
+
+        assertThat(restMockService.findBestMatchedOperation(PATH, GET), is(nullValue()));
+    }
+
     @Test
     public void shouldNotFindMatchingOperationForDifferentMethod() throws SoapUIException {
         restRequest.setMethod(TRACE);
@@ -16,6 +16,15 @@
 package com.eviware.soapui.impl.wsdl;
 
 import com.eviware.soapui.config.TestSuiteConfig;
+import com.eviware.soapui.impl.rest.RestMethod;
+import com.eviware.soapui.impl.rest.RestRequest;
+import com.eviware.soapui.impl.rest.RestResource;
+import com.eviware.soapui.impl.rest.RestService;
+import com.eviware.soapui.impl.rest.RestServiceFactory;
+import com.eviware.soapui.impl.wsdl.testcase.WsdlTestCase;
+import com.eviware.soapui.impl.wsdl.teststeps.RestTestRequestStep;
+import com.eviware.soapui.impl.wsdl.teststeps.registry.RestRequestStepFactory;
+import com.eviware.soapui.utils.ModelItemFactory;
 
 import static com.eviware.soapui.utils.ModelItemMatchers.belongsTo;
 import static com.eviware.soapui.utils.ModelItemMatchers.hasATestCaseNamed;
@@ -23,8 +32,13 @@ import static com.eviware.soapui.utils.ModelItemMatchers.hasATestCaseNamed;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+
 import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -65,4 +79,46 @@ public class WsdlTestSuiteTest {
 
     }
 
+    @Test
+    public void createsTestCasesOnFirstAccess() throws Exception {
+        TestSuiteConfig config = TestSuiteConfig.Factory.newInstance();
+        config.addNewTestCase().setName("first");
+        config.addNewTestCase().setName("second");
+
+        WsdlTestSuite lazySuite = new WsdlTestSuite(project, config);
+        lazySuite.afterLoad();
+        assertFalse(lazySuite.isTestCasesLoaded());
+
+        assertEquals(2, lazySuite.getTestCaseCount());
+        assertTrue(lazySuite.isTestCasesLoaded());
+        assertThat(lazySuite, hasATestCaseNamed("second"));
+    }
+
+    @Test
+    public void updatesTestStepsOfUnloadedSuitesOnRename() throws Exception {
+        WsdlProject project = ModelItemFactory.makeWsdlProject();
+        RestService restService = (RestService) project.addNewInterface("RestService", RestServiceFactory.REST_TYPE);
+        RestResource restResource = restService.addNewResource("Root", "/resource");
+        RestRequest restRequest = restResource.addNewMethod("Get").addNewRequest("Request");
+        WsdlTestCase testCase = project.addNewTestSuite("Suite").addNewTestCase("Case");
+        testCase.addTestStep(RestRequestStepFactory.createConfig(restRequest, "Step"));
+        File saveFile = File.createTempFile("soapui", "xml");
+        saveFile.deleteOnExit();
+        project.saveIn(saveFile);
+
+        WsdlProject loadedProject = new WsdlProject(saveFile.getAbsolutePath());
+        WsdlTestSuite loadedSuite = loadedProject.getTestSuiteAt(0);
+        assertFalse(loadedSuite.isTestCasesLoaded());
+
+        RestResource loadedResource = (RestResource) loadedProject.getInterfaceAt(0).getOperationAt(0);
+        RestMethod loadedMethod = loadedResource.getRestMethodAt(0);
+        loadedMethod.setName("Renamed");
+        loadedResource.setPath("/renamed");
+
+        RestTestRequestStep step = (RestTestRequestStep) loadedSuite.getTestCaseAt(0).getTestStepAt(0);
+        assertEquals(loadedMethod, step.getRestMethod());
+        assertEquals("Renamed", step.getRequestStepConfig().getMethodName());
+        assertEquals("/renamed", step.getRequestStepConfig().getResourcePath());
+    }
+
 }
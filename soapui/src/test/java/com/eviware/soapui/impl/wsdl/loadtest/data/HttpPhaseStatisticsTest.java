@@ -0,0 +1,118 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.loadtest.data;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.eviware.soapui.impl.wsdl.loadtest.data.HttpPhaseStatistics.Phase;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.support.metrics.SoapUIMetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HttpPhaseStatisticsTest {
+
+    @Test
+    public void recordsEachPhasePerStep() {
+        HttpPhaseStatistics statistics = new HttpPhaseStatistics(2);
+        statistics.record(0, createMetrics(5, 10, 40, 20));
+        statistics.record(1, createMetrics(0, 0, 100, 2));
+
+        assertEquals(5, statistics.getValueAtPercentile(0, Phase.DNS, 50));
+        assertEquals(10, statistics.getValueAtPercentile(0, Phase.CONNECT, 50));
+        assertEquals(40, statistics.getValueAtPercentile(0, Phase.TIME_TO_FIRST_BYTE, 50));
+        assertEquals(20, statistics.getValueAtPercentile(0, Phase.READ, 50));
+        assertEquals(75, statistics.getValueAtPercentile(0, Phase.TOTAL, 50));
+        assertEquals(100, statistics.getValueAtPercentile(1, Phase.TIME_TO_FIRST_BYTE, 50));
+    }
+
+    @Test
+    public void totalMergesAllSteps() {
+        HttpPhaseStatistics statistics = new HttpPhaseStatistics(2);
+        statistics.record(0, createMetrics(1, 1, 10, 1));
+        statistics.record(1, createMetrics(1, 1, 30, 1));
+
+        assertEquals(2, statistics.getCount(HttpPhaseStatistics.TOTAL));
+        assertEquals(30, statistics.getValueAtPercentile(HttpPhaseStatistics.TOTAL, Phase.TIME_TO_FIRST_BYTE, 100));
+    }
+
+    @Test
+    public void ignoresUnfinishedRequestsAndUnknownSteps() {
+        HttpPhaseStatistics statistics = new HttpPhaseStatistics(1);
+        statistics.record(0, new SoapUIMetrics(null, null));
+        statistics.record(1, createMetrics(1, 1, 1, 1));
+        statistics.record(-1, createMetrics(1, 1, 1, 1));
+        statistics.record(0, null);
+
+        assertEquals(0, statistics.getCount(0));
+    }
+
+    @Test
+    public void countsFullAndResumedHandshakes() {
+        HttpPhaseStatistics statistics = new HttpPhaseStatistics(2);
+        SoapUIMetrics full = createMetrics(1, 1, 1, 1);
+        full.setTlsHandshake(SoapUIMetrics.FULL_HANDSHAKE);
+        SoapUIMetrics resumed = createMetrics(1, 1, 1, 1);
+        resumed.setTlsHandshake(SoapUIMetrics.RESUMED_HANDSHAKE);
+
+        statistics.record(0, full);
+        statistics.record(0, resumed);
+        statistics.record(0, createMetrics(1, 1, 1, 1));
+        statistics.record(1, resumed);
+
+        assertEquals(1, statistics.getHandshakeCount(0, false));
+        assertEquals(1, statistics.getHandshakeCount(0, true));
+        assertEquals(0, statistics.getHandshakeCount(1, false));
+        assertEquals(2, statistics.getHandshakeCount(HttpPhaseStatistics.TOTAL, true));
+
+        statistics.reset();
+        assertEquals(0, statistics.getHandshakeCount(HttpPhaseStatistics.TOTAL, true));
+    }
+
+    @Test
+    public void exportsOneCsvRowPerStepAndPhase() throws Exception {
+        HttpPhaseStatistics statistics = new HttpPhaseStatistics(1);
+        statistics.record(0, createMetrics(2, 3, 4, 5));
+
+        File file = File.createTempFile("http-phases", ".csv");
+        file.deleteOnExit();
+
+        int cnt = statistics.exportToCsv(file, Arrays.asList("Request 1"));
+        String content = FileUtils.readFileToString(file);
+
+        assertEquals(2 * Phase.values().length, cnt);
+        assertTrue(content.startsWith("Test Step,phase,cnt,p50,p90,p99,p99.9,max"));
+        assertTrue(content.contains("Request 1,ttfb,1,4,4,4,4,4"));
+        assertTrue(content.contains("TestCase:,total,1,14,14,14,14,14"));
+    }
+
+    private static SoapUIMetrics createMetrics(long dns, long connect, long timeToFirstByte, long read) {
+        SoapUIMetrics metrics = new SoapUIMetrics(null, null);
+        long start = 1000;
+        metrics.getDNSTimer().set(start, start + dns);
+        metrics.getConnectTimer().set(start + dns, start + dns + connect);
+        metrics.getTimeToFirstByteTimer().set(start + dns + connect, start + dns + connect + timeToFirstByte);
+        metrics.getReadTimer().set(start + dns + connect + timeToFirstByte, start + dns + connect + timeToFirstByte
+                + read);
+        metrics.getTotalTimer().set(start, start + dns + connect + timeToFirstByte + read);
+        return metrics;
+    }
+}
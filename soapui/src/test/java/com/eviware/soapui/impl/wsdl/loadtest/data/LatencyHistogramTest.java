@@ -0,0 +1,100 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.loadtest.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void returnsZeroWhenEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void countsSmallValuesExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int c = 1; c <= 10; c++) {
+            histogram.recordValue(c);
+        }
+
+        assertEquals(10, histogram.getTotalCount());
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(9, histogram.getValueAtPercentile(90));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void keepsRelativeErrorForLargeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int c = 1; c <= 100000; c++) {
+            histogram.recordValue(c);
+        }
+
+        assertWithinError(50000, histogram.getValueAtPercentile(50));
+        assertWithinError(99000, histogram.getValueAtPercentile(99));
+        assertWithinError(99900, histogram.getValueAtPercentile(99.9));
+        assertEquals(100000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void bucketIndexesAreContiguous() {
+        for (long value = 0; value < 100000; value++) {
+            int index = LatencyHistogram.indexFor(value);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestEquivalentValue(index - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    public void clampsValuesAboveHighestTrackable() {
+        LatencyHistogram histogram = new LatencyHistogram(10);
+        histogram.recordValue(-5);
+        histogram.recordValue(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(1023, histogram.getMaxValue());
+    }
+
+    @Test
+    public void mergesHistograms() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.recordValue(10);
+        second.recordValue(20);
+        second.recordValue(30);
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(first);
+        merged.add(second);
+
+        assertEquals(3, merged.getTotalCount());
+        assertEquals(30, merged.getMaxValue());
+        assertEquals(20, merged.getValueAtPercentile(50));
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual, Math.abs(expected - actual) <= expected * 0.02);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.loadtest.strategy;
+
+import com.eviware.soapui.support.xml.XmlObjectConfigurationBuilder;
+import org.apache.xmlbeans.XmlObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArrivalRateLoadStrategyTest {
+
+    @Test
+    public void constantRateGivesFixedInterval() {
+        ArrivalRateLoadStrategy strategy = createStrategy(ArrivalRateLoadStrategy.CONSTANT_MODE, 20, 100, 10000);
+
+        assertEquals(50.0, strategy.getNextArrivalInterval(0), 0.001);
+        assertEquals(50.0, strategy.getNextArrivalInterval(60000), 0.001);
+    }
+
+    @Test
+    public void rampIncreasesLinearlyToTarget() {
+        ArrivalRateLoadStrategy strategy = createStrategy(ArrivalRateLoadStrategy.RAMP_MODE, 10, 110, 10000);
+
+        assertEquals(10.0, strategy.getArrivalRate(0), 0.001);
+        assertEquals(60.0, strategy.getArrivalRate(5000), 0.001);
+        assertEquals(110.0, strategy.getArrivalRate(20000), 0.001);
+    }
+
+    @Test
+    public void stepIncreasesByRateEachInterval() {
+        ArrivalRateLoadStrategy strategy = createStrategy(ArrivalRateLoadStrategy.STEP_MODE, 10, 25, 10000);
+
+        assertEquals(10.0, strategy.getArrivalRate(9999), 0.001);
+        assertEquals(20.0, strategy.getArrivalRate(10000), 0.001);
+        assertEquals(25.0, strategy.getArrivalRate(20000), 0.001);
+    }
+
+    @Test
+    public void poissonIntervalsAverageToRate() {
+        ArrivalRateLoadStrategy strategy = createStrategy(ArrivalRateLoadStrategy.POISSON_MODE, 100, 100, 10000);
+
+        double sum = 0;
+        for (int c = 0; c < 10000; c++) {
+            double interval = strategy.getNextArrivalInterval(0);
+            assertTrue(interval >= 0);
+            sum += interval;
+        }
+
+        assertEquals(10.0, sum / 10000, 0.5);
+    }
+
+    @Test
+    public void readsConfigurationWrittenByGetConfig() {
+        ArrivalRateLoadStrategy strategy = createStrategy(ArrivalRateLoadStrategy.RAMP_MODE, 5, 50, 30000);
+        ArrivalRateLoadStrategy copy = new ArrivalRateLoadStrategy(strategy.getConfig(), null);
+
+        assertEquals(ArrivalRateLoadStrategy.RAMP_MODE, copy.getMode());
+        assertEquals(5.0, copy.getRate(), 0.001);
+        assertEquals(50.0, copy.getTargetRate(), 0.001);
+        assertEquals(30000, copy.getInterval());
+    }
+
+    private static ArrivalRateLoadStrategy createStrategy(String mode, float rate, float targetRate, long interval) {
+        XmlObjectConfigurationBuilder builder = new XmlObjectConfigurationBuilder();
+        builder.add("mode", mode);
+        builder.add("rate", rate);
+        builder.add("targetRate", targetRate);
+        builder.add("interval", interval);
+        XmlObject config = builder.finish();
+
+        return new ArrivalRateLoadStrategy(config, null);
+    }
+}
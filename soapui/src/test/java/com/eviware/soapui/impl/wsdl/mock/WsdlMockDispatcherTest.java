@@ -0,0 +1,109 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.mock;
+
+import com.eviware.soapui.impl.WsdlInterfaceFactory;
+import com.eviware.soapui.impl.wsdl.WsdlInterface;
+import com.eviware.soapui.impl.wsdl.WsdlOperation;
+import com.eviware.soapui.model.ModelItem;
+import com.eviware.soapui.model.iface.Interface;
+import com.eviware.soapui.model.iface.Operation;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.xml.namespace.QName;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WsdlMockDispatcherTest {
+    private static final QName GET_QUOTE = new QName("urn:quotes", "getQuote");
+    private static final QName GET_QUOTE_V2 = new QName("urn:quotes:v2", "getQuote");
+
+    private WsdlInterface iface;
+    private WsdlOperation operation;
+    private WsdlMockDispatcher dispatcher;
+
+    @Before
+    public void setUp() throws Exception {
+        iface = mock(WsdlInterface.class);
+        when(iface.getInterfaceType()).thenReturn(WsdlInterfaceFactory.WSDL_TYPE);
+        operation = WsdlMockOperationIndexTest.mockOperation(GET_QUOTE, "urn:getQuote", 1);
+
+        WsdlMockService mockService = mock(WsdlMockService.class);
+        when(mockService.getMockedInterfaces()).thenReturn(new WsdlInterface[]{iface});
+        when(mockService.getMockedOperations()).thenReturn(Arrays.asList(operation));
+
+        dispatcher = new WsdlMockDispatcher(mockService, mock(WsdlMockRunContext.class));
+        dispatcher.buildOperationIndex();
+    }
+
+    @Test
+    public void keepsIndexWhileNothingChanges() throws Exception {
+        assertSame(dispatcher.getOperationIndex(), dispatcher.getOperationIndex());
+    }
+
+    @Test
+    public void rebuildsIndexWhenActionChanges() throws Exception {
+        WsdlMockOperationIndex index = dispatcher.getOperationIndex();
+        assertEquals(Arrays.asList(operation), index.getOperationsForSoapAction("urn:getQuote"));
+
+        when(operation.getAction()).thenReturn("urn:getQuote2");
+        firePropertyChange(operation, Operation.ACTION_PROPERTY);
+
+        index = dispatcher.getOperationIndex();
+        assertTrue(index.getOperationsForSoapAction("urn:getQuote").isEmpty());
+        assertEquals(Arrays.asList(operation), index.getOperationsForSoapAction("urn:getQuote2"));
+    }
+
+    @Test
+    public void rebuildsIndexWhenDefinitionChanges() throws Exception {
+        WsdlMockOperationIndex index = dispatcher.getOperationIndex();
+        assertEquals(Arrays.asList(operation), index.getOperationsForBodyElement(GET_QUOTE));
+
+        when(operation.getRequestBodyElementQName()).thenReturn(GET_QUOTE_V2);
+        firePropertyChange(iface, Interface.DEFINITION_PROPERTY);
+
+        WsdlMockOperationIndex rebuilt = dispatcher.getOperationIndex();
+        assertNotSame(index, rebuilt);
+        assertTrue(rebuilt.getOperationsForBodyElement(GET_QUOTE).isEmpty());
+        assertEquals(Arrays.asList(operation), rebuilt.getOperationsForBodyElement(GET_QUOTE_V2));
+    }
+
+    @Test
+    public void ignoresUnrelatedChanges() throws Exception {
+        WsdlMockOperationIndex index = dispatcher.getOperationIndex();
+        firePropertyChange(operation, ModelItem.DESCRIPTION_PROPERTY);
+        assertSame(index, dispatcher.getOperationIndex());
+    }
+
+    private static void firePropertyChange(ModelItem modelItem, String propertyName) {
+        ArgumentCaptor<PropertyChangeListener> listener = ArgumentCaptor.forClass(PropertyChangeListener.class);
+        verify(modelItem).addPropertyChangeListener(listener.capture());
+        listener.getValue().propertyChange(new PropertyChangeEvent(modelItem, propertyName, null, null));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.mock;
+
+import com.eviware.soapui.impl.wsdl.WsdlOperation;
+import com.eviware.soapui.impl.wsdl.support.soap.SoapEnvelopeScan;
+import com.eviware.soapui.impl.wsdl.support.soap.SoapVersion;
+import com.eviware.soapui.model.iface.Attachment;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.wsdl.BindingOperation;
+import javax.wsdl.Input;
+import javax.wsdl.Message;
+import javax.wsdl.Operation;
+import javax.wsdl.Part;
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WsdlMockOperationIndexTest {
+    private static final String SOAP11_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final QName GET_QUOTE = new QName("urn:quotes", "getQuote");
+    private static final QName GET_PRICE = new QName("urn:quotes", "getPrice");
+
+    private WsdlMockRequest mockRequest;
+
+    @Before
+    public void setUp() throws Exception {
+        mockRequest = mock(WsdlMockRequest.class);
+        when(mockRequest.getRequestAttachments()).thenReturn(new Attachment[0]);
+    }
+
+    @Test
+    public void routesByBodyElement() throws Exception {
+        WsdlOperation getQuote = mockOperation(GET_QUOTE, "urn:getQuote", 1);
+        WsdlOperation getPrice = mockOperation(GET_PRICE, "urn:getPrice", 1);
+        WsdlMockOperationIndex index = new WsdlMockOperationIndex(Arrays.asList(getQuote, getPrice));
+
+        assertSame(getPrice, index.findOperationForRequest(scan("<m:getPrice xmlns:m=\"urn:quotes\"/>"),
+                SoapVersion.Soap11, null, mockRequest, false, false));
+        assertNull(index.findOperationForRequest(scan("<m:getVolume xmlns:m=\"urn:quotes\"/>"), SoapVersion.Soap11,
+                null, mockRequest, false, false));
+    }
+
+    @Test
+    public void routesBySoapActionAmongOperationsWithSameBodyElement() throws Exception {
+        WsdlOperation first = mockOperation(GET_QUOTE, "urn:first", 1);
+        WsdlOperation second = mockOperation(GET_QUOTE, "urn:second", 1);
+        WsdlMockOperationIndex index = new WsdlMockOperationIndex(Arrays.asList(first, second));
+        SoapEnvelopeScan scan = scan("<m:getQuote xmlns:m=\"urn:quotes\"/>");
+
+        assertSame(second, index.findOperationForRequest(scan, SoapVersion.Soap11, "urn:second", mockRequest, false,
+                true));
+        assertNull(index.findOperationForRequest(scan, SoapVersion.Soap11, "urn:third", mockRequest, false, true));
+
+        // without a required SOAPAction the first operation in mocked order wins
+        assertSame(first, index.findOperationForRequest(scan, SoapVersion.Soap11, "urn:second", mockRequest, false,
+                false));
+    }
+
+    @Test
+    public void routesRequestsWithoutBodyElementBySoapAction() throws Exception {
+        WsdlOperation getQuote = mockOperation(GET_QUOTE, "urn:getQuote", 1);
+        WsdlOperation ping = mockOperation(null, "urn:ping", 0);
+        WsdlMockOperationIndex index = new WsdlMockOperationIndex(Arrays.asList(getQuote, ping));
+        SoapEnvelopeScan scan = scan("");
+
+        assertSame(ping, index.findOperationForRequest(scan, SoapVersion.Soap11, "urn:ping", mockRequest, false,
+                false));
+
+        // operations expecting input are never chosen for an empty body
+        assertNull(index.findOperationForRequest(scan, SoapVersion.Soap11, "urn:getQuote", mockRequest, false,
+                false));
+        assertNull(index.findOperationForRequest(scan, SoapVersion.Soap11, null, mockRequest, false, false));
+    }
+
+    private static SoapEnvelopeScan scan(String bodyContent) {
+        return SoapEnvelopeScan.scan("<s:Envelope xmlns:s=\"" + SOAP11_NS + "\"><s:Body>" + bodyContent
+                + "</s:Body></s:Envelope>");
+    }
+
+    static WsdlOperation mockOperation(QName bodyElement, String action, int inputPartCount) throws Exception {
+        Map<String, Part> parts = new HashMap<String, Part>();
+        for (int c = 0; c < inputPartCount; c++) {
+            parts.put("part" + c, mock(Part.class));
+        }
+
+        Message message = mock(Message.class);
+        when(message.getParts()).thenReturn(parts);
+        when(message.getOrderedParts(null)).thenReturn(new ArrayList<Part>());
+        Input input = mock(Input.class);
+        when(input.getMessage()).thenReturn(message);
+        Operation wsdlOperation = mock(Operation.class);
+        when(wsdlOperation.getInput()).thenReturn(input);
+        BindingOperation bindingOperation = mock(BindingOperation.class);
+        when(bindingOperation.getOperation()).thenReturn(wsdlOperation);
+
+        WsdlOperation operation = mock(WsdlOperation.class);
+        when(operation.getName()).thenReturn(bodyElement == null ? action : bodyElement.getLocalPart());
+        when(operation.getRequestBodyElementQName()).thenReturn(bodyElement);
+        when(operation.getAction()).thenReturn(action);
+        when(operation.getStyle()).thenReturn(WsdlOperation.STYLE_DOCUMENT);
+        when(operation.getBindingOperation()).thenReturn(bindingOperation);
+        return operation;
+    }
+}
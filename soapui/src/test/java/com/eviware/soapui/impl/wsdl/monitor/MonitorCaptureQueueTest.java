@@ -0,0 +1,82 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.monitor;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MonitorCaptureQueueTest {
+
+    @Test
+    public void returnsExchangesInCaptureOrder() throws Exception {
+        MonitorCaptureQueue queue = new MonitorCaptureQueue(4, 0);
+        WsdlMonitorMessageExchange first = exchangeOfSize(10);
+        WsdlMonitorMessageExchange second = exchangeOfSize(10);
+
+        queue.offer(first);
+        queue.offer(second);
+
+        assertThat(queue.poll(), is(sameInstance(first)));
+        assertThat(queue.poll(), is(sameInstance(second)));
+        assertThat(queue.poll(), is(nullValue()));
+        assertThat(queue.isEmpty(), is(true));
+    }
+
+    @Test
+    public void dropsExchangesWhenFull() throws Exception {
+        MonitorCaptureQueue queue = new MonitorCaptureQueue(2, 0);
+
+        assertThat(queue.offer(exchangeOfSize(10)), is(true));
+        assertThat(queue.offer(exchangeOfSize(10)), is(true));
+        assertThat(queue.offer(exchangeOfSize(10)), is(false));
+
+        assertThat(queue.getAddedCount(), is(2L));
+        assertThat(queue.getDroppedCount(), is(1L));
+
+        queue.poll();
+        assertThat(queue.offer(exchangeOfSize(10)), is(true));
+    }
+
+    @Test
+    public void dropsExchangesExceedingMaxBytes() throws Exception {
+        MonitorCaptureQueue queue = new MonitorCaptureQueue(16, 100);
+
+        assertThat(queue.offer(exchangeOfSize(60)), is(true));
+        assertThat(queue.offer(exchangeOfSize(60)), is(false));
+        assertThat(queue.getPendingBytes(), is(60L));
+
+        queue.poll();
+        assertThat(queue.getPendingBytes(), is(0L));
+        assertThat(queue.offer(exchangeOfSize(500)), is(true));
+    }
+
+    private WsdlMonitorMessageExchange exchangeOfSize(int size) {
+        WsdlMonitorMessageExchange messageExchange = mock(WsdlMonitorMessageExchange.class);
+        when(messageExchange.getRawRequestData()).thenReturn(new byte[size / 2]);
+        when(messageExchange.getRawResponseData()).thenReturn(new byte[size - size / 2]);
+        when(messageExchange.getRequestContentLength()).thenReturn(-1L);
+        when(messageExchange.getResponseContentLength()).thenReturn(-1L);
+        return messageExchange;
+    }
+}
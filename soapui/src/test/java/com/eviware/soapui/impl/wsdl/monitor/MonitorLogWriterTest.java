@@ -0,0 +1,110 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.monitor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class MonitorLogWriterTest {
+
+    @Test
+    public void recordsCanBeReadBack() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MonitorLogWriter writer = new MonitorLogWriter(out);
+        writer.write(new MonitorLogRecord(1000, 15, "POST", "http://localhost:8080/service", "127.0.0.1", 200,
+                "POST / HTTP/1.1\r\n\r\n<request/>".getBytes("UTF-8"), null));
+        writer.write(new MonitorLogRecord(2000, 5, "GET", null, "127.0.0.1", 404, new byte[0], new byte[0]));
+        writer.close();
+
+        MonitorLogReader reader = new MonitorLogReader(new ByteArrayInputStream(out.toByteArray()));
+        MonitorLogRecord first = reader.next();
+        MonitorLogRecord second = reader.next();
+
+        assertThat(first.getTimestamp(), is(1000L));
+        assertThat(first.getTimeTaken(), is(15L));
+        assertThat(first.getTargetUrl(), is("http://localhost:8080/service"));
+        assertThat(first.getResponseStatusCode(), is(200));
+        assertTrue(Arrays.equals("POST / HTTP/1.1\r\n\r\n<request/>".getBytes("UTF-8"), first.getRawRequestData()));
+        assertThat(first.getRawResponseData(), is(nullValue()));
+        assertThat(second.getRequestMethod(), is("GET"));
+        assertThat(second.getTargetUrl(), is(nullValue()));
+        assertThat(reader.next(), is(nullValue()));
+        reader.close();
+    }
+
+    @Test
+    public void readsTruncatedLogUpToLastCompleteRecord() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MonitorLogWriter writer = new MonitorLogWriter(out);
+        writer.write(new MonitorLogRecord(1000, 15, "POST", "http://localhost", "127.0.0.1", 200, new byte[100],
+                new byte[100]));
+        writer.flush();
+        writer.write(new MonitorLogRecord(2000, 15, "POST", "http://localhost", "127.0.0.1", 200, new byte[100],
+                new byte[100]));
+        writer.close();
+
+        MonitorLogReader reader = new MonitorLogReader(new ByteArrayInputStream(truncate(out.toByteArray(), 50)));
+        assertThat(reader.next().getTimestamp(), is(1000L));
+        assertThat(reader.next(), is(nullValue()));
+        reader.close();
+    }
+
+    @Test
+    public void flushedRecordsCanBeReadBeforeClose() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MonitorLogWriter writer = new MonitorLogWriter(out);
+        writer.write(new MonitorLogRecord(1000, 15, "POST", "http://localhost", "127.0.0.1", 200, new byte[100],
+                new byte[100]));
+        writer.flush();
+
+        MonitorLogReader reader = new MonitorLogReader(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(reader.next().getTimestamp(), is(1000L));
+        assertThat(reader.next(), is(nullValue()));
+        reader.close();
+        writer.close();
+    }
+
+    /**
+     * Cuts the specified number of bytes off the end of the uncompressed log
+     */
+
+    private static byte[] truncate(byte[] log, int count) throws Exception {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(log));
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+            plain.write(buffer, 0, read);
+        }
+
+        ByteArrayOutputStream truncated = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(truncated);
+        out.write(plain.toByteArray(), 0, plain.size() - count);
+        out.close();
+        return truncated.toByteArray();
+    }
+}
@@ -67,6 +67,30 @@ public class PropertyExpansionTest {
         assertEquals("${exp}", PropertyExpander.expandProperties(context, "${exp}"));
     }
 
+    @Test
+    public void testRepeatedExpansionOfLargeContent() throws Exception {
+        WsdlSubmitContext context = new WsdlSubmitContext(null);
+
+        StringBuilder content = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int c = 0; c < 50; c++) {
+            content.append("<item>${test}</item>$${test}");
+            expected.append("<item>#</item>${test}");
+        }
+
+        for (int c = 0; c < 3; c++) {
+            context.setProperty("test", String.valueOf(c));
+            assertEquals(expected.toString().replace("#", String.valueOf(c)),
+                    PropertyExpander.expandProperties(context, content.toString()));
+        }
+
+        context.setProperty("exp", "exp");
+        context.setProperty("testexp", "nested");
+        content.append("${test${exp}}");
+        expected.append("nested");
+        assertEquals(expected.toString().replace("#", "2"), PropertyExpander.expandProperties(context, content.toString()));
+    }
+
     @Test
     public void testNestedExpansion() throws Exception {
         WsdlSubmitContext context = new WsdlSubmitContext(null);
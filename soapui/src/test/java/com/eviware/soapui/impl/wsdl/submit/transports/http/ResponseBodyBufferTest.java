@@ -0,0 +1,90 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.submit.transports.http;
+
+import java.io.File;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.eviware.soapui.support.SpillFiles;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseBodyBufferTest {
+
+    @Test
+    public void keepsSmallBodiesInMemory() throws Exception {
+        ResponseBodyBuffer buffer = new ResponseBodyBuffer(16);
+        buffer.write("small".getBytes());
+        buffer.close();
+
+        assertFalse(buffer.isSpilled());
+        assertEquals(5, buffer.size());
+        assertArrayEquals("small".getBytes(), buffer.toByteArray());
+    }
+
+    @Test
+    public void spillsLargeBodiesToDisk() throws Exception {
+        byte[] content = new byte[10000];
+        for (int c = 0; c < content.length; c++) {
+            content[c] = (byte) c;
+        }
+
+        ResponseBodyBuffer buffer = new ResponseBodyBuffer(1024);
+        buffer.write(content, 0, 100);
+        buffer.write(content, 100, content.length - 100);
+        buffer.close();
+
+        assertTrue(buffer.isSpilled());
+        assertEquals(content.length, buffer.size());
+        assertArrayEquals(content, buffer.toByteArray());
+
+        InputStream in = buffer.getInputStream();
+        try {
+            assertArrayEquals(content, IOUtils.toByteArray(in));
+        } finally {
+            in.close();
+        }
+
+        buffer.release();
+        assertFalse(buffer.isSpilled());
+    }
+
+    @Test
+    public void deletesTemporaryFileOnRelease() throws Exception {
+        ResponseBodyBuffer buffer = new ResponseBodyBuffer(4);
+        buffer.write("spilled".getBytes());
+        buffer.close();
+
+        File file = buffer.getFile();
+        assertTrue(file.exists());
+        assertEquals(SpillFiles.getDirectory(), file.getParentFile());
+
+        buffer.release();
+        assertFalse(file.exists());
+        assertNull(buffer.getFile());
+
+        // releasing twice is harmless
+        buffer.release();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.http;
+
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.nio.NHttpClientConnection;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncConnectionPoolTest {
+
+    @Test
+    public void queuesRequestsOverTheRouteLimit() throws Exception {
+        AsyncConnectionPool pool = new AsyncConnectionPool(10, 2);
+        TestRequest first = lease(pool, "a");
+        TestRequest second = lease(pool, "a");
+        TestRequest third = lease(pool, "a");
+        TestRequest other = lease(pool, "b");
+
+        assertTrue(first.granted);
+        assertTrue(second.granted);
+        assertFalse(third.granted);
+        assertTrue(other.granted);
+        assertEquals(1, pool.getPendingCount());
+        assertEquals(3, pool.getAllocatedCount());
+
+        pool.connectFailed("a");
+
+        assertTrue(third.granted);
+        assertEquals(0, pool.getPendingCount());
+        assertEquals(3, pool.getAllocatedCount());
+    }
+
+    @Test
+    public void handsReleasedConnectionToQueuedRequest() throws Exception {
+        AsyncConnectionPool pool = new AsyncConnectionPool(10, 1);
+        lease(pool, "a");
+        NHttpClientConnection conn = openConnection();
+        pool.connected("a", conn);
+
+        TestRequest queued = lease(pool, "a");
+        assertNull(queued.leased);
+
+        pool.release(conn);
+
+        assertSame(conn, queued.leased);
+        assertEquals(0, pool.getIdleCount("a"));
+
+        pool.release(conn);
+        TestRequest next = lease(pool, "a");
+
+        assertSame(conn, next.leased);
+        assertEquals(1, pool.getAllocatedCount());
+    }
+
+    @Test
+    public void evictsIdleConnectionOfAnotherRouteAtTotalLimit() throws Exception {
+        AsyncConnectionPool pool = new AsyncConnectionPool(1, 5);
+        lease(pool, "a");
+        NHttpClientConnection conn = openConnection();
+        pool.connected("a", conn);
+        pool.release(conn);
+
+        TestRequest other = lease(pool, "b");
+
+        assertTrue(other.granted);
+        verify(conn).close();
+        assertEquals(0, pool.getIdleCount("a"));
+        assertEquals(1, pool.getAllocatedCount());
+
+        // the close event of the evicted connection does not free the slot twice
+        pool.connectionClosed(conn);
+        assertEquals(1, pool.getAllocatedCount());
+    }
+
+    @Test
+    public void closedConnectionFreesSlotAtTotalLimit() throws Exception {
+        AsyncConnectionPool pool = new AsyncConnectionPool(1, 5);
+        lease(pool, "a");
+        NHttpClientConnection conn = openConnection();
+        pool.connected("a", conn);
+
+        TestRequest other = lease(pool, "b");
+        assertFalse(other.granted);
+
+        pool.connectionClosed(conn);
+
+        assertTrue(other.granted);
+        assertEquals(1, pool.getAllocatedCount());
+    }
+
+    @Test
+    public void closesExpiredIdleConnections() throws Exception {
+        AsyncConnectionPool pool = new AsyncConnectionPool(10, 5);
+        lease(pool, "a");
+        NHttpClientConnection conn = openConnection();
+        pool.connected("a", conn);
+        pool.release(conn);
+
+        pool.closeExpired(System.currentTimeMillis());
+        verify(conn, never()).close();
+        assertEquals(1, pool.getIdleCount("a"));
+
+        pool.closeExpired(System.currentTimeMillis() + AsyncConnectionPool.DEFAULT_KEEP_ALIVE);
+        verify(conn).close();
+        assertEquals(0, pool.getIdleCount("a"));
+        assertEquals(0, pool.getAllocatedCount());
+    }
+
+    @Test
+    public void honoursRouteConnectionPolicies() throws Exception {
+        AsyncConnectionPool pool = new AsyncConnectionPool(10, 5);
+        pool.setRouteConnectionPolicies("localhost=1/0");
+
+        lease(pool, "a");
+        NHttpClientConnection conn = openConnection();
+        pool.connected("a", conn);
+        assertFalse(lease(pool, "a").granted);
+
+        // a keep-alive time of 0 closes connections instead of pooling them
+        pool.release(conn);
+        verify(conn).close();
+        assertEquals(0, pool.getIdleCount("a"));
+    }
+
+    @Test
+    public void failsQueuedRequestAfterItsDeadline() throws Exception {
+        AsyncConnectionPool pool = new AsyncConnectionPool(1, 1);
+        lease(pool, "a");
+
+        TestRequest queued = new TestRequest("a", System.currentTimeMillis() + 1000);
+        pool.lease(queued);
+
+        pool.closeExpired(System.currentTimeMillis());
+        assertNull(queued.failure);
+
+        pool.closeExpired(System.currentTimeMillis() + 1000);
+        assertTrue(queued.failure instanceof ConnectionPoolTimeoutException);
+        assertEquals(0, pool.getPendingCount());
+        assertFalse(pool.cancel(queued));
+    }
+
+    private static TestRequest lease(AsyncConnectionPool pool, String route) {
+        TestRequest request = new TestRequest(route, 0);
+        pool.lease(request);
+        return request;
+    }
+
+    private static NHttpClientConnection openConnection() {
+        NHttpClientConnection conn = mock(NHttpClientConnection.class);
+        when(conn.isOpen()).thenReturn(true);
+        return conn;
+    }
+
+    private static class TestRequest implements AsyncConnectionPool.PoolRequest {
+        private final String route;
+        private final long deadline;
+        private boolean granted;
+        private NHttpClientConnection leased;
+        private IOException failure;
+
+        public TestRequest(String route, long deadline) {
+            this.route = route;
+            this.deadline = deadline;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public String getHostName() {
+            return "localhost";
+        }
+
+        public int getPort() {
+            return 80;
+        }
+
+        public long getLeaseDeadline() {
+            return deadline;
+        }
+
+        public void connectionLeased(NHttpClientConnection conn) {
+            leased = conn;
+        }
+
+        public void connectionGranted() {
+            granted = true;
+        }
+
+        public void leaseFailed(IOException e) {
+            failure = e;
+        }
+    }
+}
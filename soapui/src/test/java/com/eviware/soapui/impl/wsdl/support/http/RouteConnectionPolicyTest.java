@@ -0,0 +1,65 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.http;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RouteConnectionPolicyTest {
+
+    @Test
+    public void parsesLimitsAndKeepAlive() {
+        Map<String, RouteConnectionPolicy> policies = RouteConnectionPolicy
+                .parse("Api.Example.com:8443=50/30; localhost=10\nslow.example.com=/0");
+
+        assertEquals(3, policies.size());
+        assertEquals(50, policies.get("api.example.com:8443").getMaxConnections());
+        assertEquals(30, policies.get("api.example.com:8443").getKeepAliveSeconds());
+        assertEquals(10, policies.get("localhost").getMaxConnections());
+        assertEquals(RouteConnectionPolicy.DEFAULT, policies.get("localhost").getKeepAliveSeconds());
+        assertEquals(RouteConnectionPolicy.DEFAULT, policies.get("slow.example.com").getMaxConnections());
+        assertEquals(0, policies.get("slow.example.com").getKeepAliveSeconds());
+    }
+
+    @Test
+    public void skipsInvalidEntries() {
+        Map<String, RouteConnectionPolicy> policies = RouteConnectionPolicy
+                .parse("nohost;=5;a=x;b=0;c=-3/10;d=5/-2;ok=4");
+
+        assertEquals(1, policies.size());
+        assertEquals(4, policies.get("ok").getMaxConnections());
+        assertTrue(RouteConnectionPolicy.parse("").isEmpty());
+        assertTrue(RouteConnectionPolicy.parse(null).isEmpty());
+    }
+
+    @Test
+    public void prefersPortSpecificPolicy() {
+        Map<String, RouteConnectionPolicy> policies = RouteConnectionPolicy.parse("host=5;host:443=7");
+
+        assertEquals(7, RouteConnectionPolicy.find(policies, "HOST", 443).getMaxConnections());
+        assertEquals(5, RouteConnectionPolicy.find(policies, "host", 80).getMaxConnections());
+        assertSame(policies.get("host"), RouteConnectionPolicy.find(policies, "host", 8080));
+        assertNull(RouteConnectionPolicy.find(policies, "other", 80));
+    }
+}
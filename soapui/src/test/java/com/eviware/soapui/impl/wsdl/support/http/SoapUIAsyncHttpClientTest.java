@@ -0,0 +1,303 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.http;
+
+import com.eviware.soapui.impl.wsdl.submit.transports.http.ResponseBodyBuffer;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.ResponseBodyBufferEntity;
+import com.eviware.soapui.impl.wsdl.submit.transports.http.support.methods.ExtendedGetMethod;
+import org.apache.http.HttpResponse;
+import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SoapUIAsyncHttpClientTest {
+    private SoapUIAsyncHttpClient client;
+    private TestServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        client = new SoapUIAsyncHttpClient(10, 2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.shutdown();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void reusesPooledConnection() throws Exception {
+        server = new TestServer(Integer.MAX_VALUE, 0);
+
+        for (int c = 0; c < 3; c++) {
+            assertEquals("OK", send(createMethod()));
+        }
+
+        assertEquals(1, server.accepted.get());
+        assertEquals(1, client.getConnectionPool().getIdleCount("http://127.0.0.1:" + server.getPort()));
+    }
+
+    @Test
+    public void queuesRequestsOverTheRouteLimit() throws Exception {
+        server = new TestServer(Integer.MAX_VALUE, 100);
+
+        final CountDownLatch latch = new CountDownLatch(6);
+        final List<Object> results = Collections.synchronizedList(new ArrayList<Object>());
+        for (int c = 0; c < 6; c++) {
+            client.execute(createMethod(), new BasicHttpContext(), new SoapUIAsyncHttpClient.ResponseCallback() {
+                public void completed(HttpResponse response) {
+                    results.add(response.getStatusLine().getStatusCode());
+                    latch.countDown();
+                }
+
+                public void failed(IOException e) {
+                    results.add(e);
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(Collections.nCopies(6, 200), results);
+        assertEquals(2, server.accepted.get());
+        assertEquals(2, server.maxOpen.get());
+    }
+
+    @Test
+    public void resendsRequestOnStaleConnection() throws Exception {
+        // the server closes each connection when the second request arrives on it
+        server = new TestServer(1, 0);
+
+        assertEquals("OK", send(createMethod()));
+        assertEquals("OK", send(createMethod()));
+
+        assertEquals(2, server.accepted.get());
+    }
+
+    @Test
+    public void abortsRequest() throws Exception {
+        server = new TestServer(0, 0);
+
+        final ExtendedGetMethod method = createMethod();
+        new Thread(new Runnable() {
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                method.abort();
+            }
+        }).start();
+
+        try {
+            send(method);
+            fail("Request should have been aborted");
+        } catch (InterruptedIOException e) {
+            assertEquals("Request aborted", e.getMessage());
+        }
+
+        // the slot is freed when the reactor has processed the shut down connection
+        long deadline = System.currentTimeMillis() + 5000;
+        while (client.getConnectionPool().getAllocatedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, client.getConnectionPool().getAllocatedCount());
+    }
+
+    @Test
+    public void timesOutWaitingForResponse() throws Exception {
+        server = new TestServer(0, 0);
+
+        ExtendedGetMethod method = createMethod();
+        method.getParams().setIntParameter(CoreConnectionPNames.SO_TIMEOUT, 300);
+
+        try {
+            send(method);
+            fail("Request should have timed out");
+        } catch (SocketTimeoutException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void spillsResponseBodiesOverStreamingThreshold() throws Exception {
+        server = new TestServer(Integer.MAX_VALUE, 0);
+        client.setResponseStreamingThreshold(1);
+
+        HttpResponse response = client.execute(createMethod(), new BasicHttpContext());
+        ResponseBodyBuffer buffer = ((ResponseBodyBufferEntity) response.getEntity()).getBuffer();
+        try {
+            assertTrue(buffer.isSpilled());
+            assertEquals("OK", EntityUtils.toString(response.getEntity()));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void resolvesHostBeforeQueueing() throws Exception {
+        ExtendedGetMethod method = new ExtendedGetMethod();
+        method.setURI(URI.create("http://unknown-host.invalid/test"));
+
+        try {
+            client.execute(method, new BasicHttpContext(), null);
+            fail("Host should not have been resolved");
+        } catch (UnknownHostException e) {
+            assertEquals(0, client.getConnectionPool().getPendingCount());
+        }
+    }
+
+    private ExtendedGetMethod createMethod() {
+        ExtendedGetMethod method = new ExtendedGetMethod();
+        method.setURI(URI.create("http://127.0.0.1:" + server.getPort() + "/test"));
+        return method;
+    }
+
+    private String send(ExtendedGetMethod method) throws Exception {
+        HttpResponse response = client.execute(method, new BasicHttpContext());
+        return EntityUtils.toString(response.getEntity());
+    }
+
+    /**
+     * Answers the specified number of requests per connection, then closes the connection on the next one
+     */
+
+    private static class TestServer implements Runnable {
+        private final ServerSocket serverSocket;
+        private final int responsesPerConnection;
+        private final long delay;
+        private final AtomicInteger accepted = new AtomicInteger();
+        private final AtomicInteger open = new AtomicInteger();
+        private final AtomicInteger maxOpen = new AtomicInteger();
+
+        public TestServer(int responsesPerConnection, long delay) throws IOException {
+            this.responsesPerConnection = responsesPerConnection;
+            this.delay = delay;
+            serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+
+            Thread thread = new Thread(this, "Async HTTP test server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        public int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    final Socket socket = serverSocket.accept();
+                    accepted.incrementAndGet();
+                    int count = open.incrementAndGet();
+                    if (count > maxOpen.get()) {
+                        maxOpen.set(count);
+                    }
+
+                    Thread thread = new Thread(new Runnable() {
+                        public void run() {
+                            try {
+                                serve(socket);
+                            } catch (Exception e) {
+                                // connection closed by the client
+                            } finally {
+                                open.decrementAndGet();
+                            }
+                        }
+                    });
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) throws Exception {
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "ISO-8859-1"));
+                OutputStream out = socket.getOutputStream();
+                for (int c = 0; ; c++) {
+                    if (!readRequest(reader)) {
+                        return;
+                    }
+
+                    if (c >= responsesPerConnection) {
+                        if (responsesPerConnection == 0) {
+                            // never answer, the client has to abort or time out
+                            reader.read();
+                        }
+                        return;
+                    }
+
+                    Thread.sleep(delay);
+                    out.write("HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\nContent-Length: 2\r\n\r\nOK"
+                            .getBytes("ISO-8859-1"));
+                    out.flush();
+                }
+            } finally {
+                socket.close();
+            }
+        }
+
+        private boolean readRequest(BufferedReader reader) throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return false;
+            }
+
+            while (line != null && line.length() > 0) {
+                line = reader.readLine();
+            }
+
+            return true;
+        }
+
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
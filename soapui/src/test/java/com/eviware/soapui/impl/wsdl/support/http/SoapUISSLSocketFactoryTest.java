@@ -0,0 +1,54 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.http;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class SoapUISSLSocketFactoryTest {
+
+    @Test
+    public void replacesFactoryWhenKeystoreChanges() throws Exception {
+        File keyStore = File.createTempFile("soapui-keystore-", ".jks");
+        try {
+            String path = keyStore.getAbsolutePath();
+            int count = SoapUISSLSocketFactory.getCachedFactoryCount();
+
+            SoapUISSLSocketFactory factory = SoapUISSLSocketFactory.getInstance(path, "secret");
+            assertSame(factory, SoapUISSLSocketFactory.getInstance(path, "secret"));
+
+            SoapUISSLSocketFactory otherPassword = SoapUISSLSocketFactory.getInstance(path, "other");
+            assertNotSame(factory, otherPassword);
+
+            keyStore.setLastModified(keyStore.lastModified() - 10000);
+            SoapUISSLSocketFactory modified = SoapUISSLSocketFactory.getInstance(path, "other");
+            assertNotSame(otherPassword, modified);
+            assertSame(modified, SoapUISSLSocketFactory.getInstance(path, "other"));
+
+            // one entry per keystore path
+            assertEquals(count + 1, SoapUISSLSocketFactory.getCachedFactoryCount());
+        } finally {
+            keyStore.delete();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.support.soap;
+
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SoapEnvelopeScanTest {
+    private static final String SOAP11_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+
+    @Test
+    public void findsFirstBodyChild() throws Exception {
+        SoapEnvelopeScan scan = SoapEnvelopeScan.scan("<s:Envelope xmlns:s=\"" + SOAP11_NS + "\"><s:Header><h:x xmlns:h=\"urn:h\"/></s:Header>"
+                + "<s:Body><m:getQuote xmlns:m=\"urn:quotes\"><symbol>ABC</symbol></m:getQuote><unclosed></s:Body>");
+
+        assertEquals(SOAP11_NS, scan.getEnvelopeNamespace());
+        assertTrue(scan.hasBody());
+        assertEquals(new QName("urn:quotes", "getQuote"), scan.getContentElementName());
+    }
+
+    @Test
+    public void handlesEmptyBodyAndMissingEnvelope() throws Exception {
+        SoapEnvelopeScan scan = SoapEnvelopeScan.scan("<s:Envelope xmlns:s=\"" + SOAP11_NS + "\"><s:Body/></s:Envelope>");
+        assertTrue(scan.hasBody());
+        assertNull(scan.getContentElementName());
+
+        scan = SoapEnvelopeScan.scan("<getQuote/>");
+        assertNull(scan.getEnvelopeNamespace());
+        assertFalse(scan.hasBody());
+    }
+
+    @Test
+    public void returnsNullForMalformedContent() throws Exception {
+        assertNull(SoapEnvelopeScan.scan(""));
+        assertNull(SoapEnvelopeScan.scan("<s:Envelope xmlns:s=\"" + SOAP11_NS + "\"><s:Body"));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.impl.wsdl.support.wsdl;
+
+import com.eviware.soapui.impl.wsdl.submit.WsdlMessageExchange;
+import org.apache.commons.io.FileUtils;
+import org.apache.xmlbeans.XmlError;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.wsdl.BindingOperation;
+import javax.xml.namespace.QName;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class CompiledWsdlMessageTest {
+    private static final String SOAP11_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+
+    private static final String DOC_LITERAL_WSDL = "<definitions xmlns=\"http://schemas.xmlsoap.org/wsdl/\" "
+            + "xmlns:soap=\"http://schemas.xmlsoap.org/wsdl/soap/\" xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" "
+            + "xmlns:tns=\"urn:quotes\" targetNamespace=\"urn:quotes\">"
+            + "<types><xs:schema targetNamespace=\"urn:quotes\" elementFormDefault=\"qualified\">"
+            + "<xs:element name=\"getQuote\"><xs:complexType><xs:sequence>"
+            + "<xs:element name=\"symbol\" type=\"xs:string\"/></xs:sequence></xs:complexType></xs:element>"
+            + "<xs:element name=\"getQuoteResponse\"><xs:complexType><xs:sequence>"
+            + "<xs:element name=\"price\" type=\"xs:decimal\"/></xs:sequence></xs:complexType></xs:element>"
+            + "</xs:schema></types>"
+            + "<message name=\"getQuoteRequest\"><part name=\"parameters\" element=\"tns:getQuote\"/></message>"
+            + "<message name=\"getQuoteResponse\"><part name=\"parameters\" element=\"tns:getQuoteResponse\"/></message>"
+            + "<portType name=\"Quotes\"><operation name=\"getQuote\"><input message=\"tns:getQuoteRequest\"/>"
+            + "<output message=\"tns:getQuoteResponse\"/></operation></portType>"
+            + "<binding name=\"QuotesBinding\" type=\"tns:Quotes\">"
+            + "<soap:binding style=\"document\" transport=\"http://schemas.xmlsoap.org/soap/http\"/>"
+            + "<operation name=\"getQuote\"><soap:operation soapAction=\"urn:getQuote\"/>"
+            + "<input><soap:body use=\"literal\"/></input><output><soap:body use=\"literal\"/></output></operation>"
+            + "</binding></definitions>";
+
+    private static final String SOAP_ENCODED_WSDL = "<definitions xmlns=\"http://schemas.xmlsoap.org/wsdl/\" "
+            + "xmlns:soap=\"http://schemas.xmlsoap.org/wsdl/soap/\" xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" "
+            + "xmlns:tns=\"urn:quotes\" targetNamespace=\"urn:quotes\">"
+            + "<types><xs:schema targetNamespace=\"urn:quotes\"><xs:simpleType name=\"price\">"
+            + "<xs:restriction base=\"xs:decimal\"/></xs:simpleType></xs:schema></types>"
+            + "<message name=\"getQuoteRequest\"><part name=\"symbol\" type=\"xs:string\"/></message>"
+            + "<message name=\"getQuoteResponse\"><part name=\"price\" type=\"tns:price\"/></message>"
+            + "<portType name=\"Quotes\"><operation name=\"getQuote\"><input message=\"tns:getQuoteRequest\"/>"
+            + "<output message=\"tns:getQuoteResponse\"/></operation></portType>"
+            + "<binding name=\"QuotesBinding\" type=\"tns:Quotes\">"
+            + "<soap:binding style=\"rpc\" transport=\"http://schemas.xmlsoap.org/soap/http\"/>"
+            + "<operation name=\"getQuote\"><soap:operation soapAction=\"urn:getQuote\"/>"
+            + "<input><soap:body use=\"encoded\" namespace=\"urn:quotes\" "
+            + "encodingStyle=\"http://schemas.xmlsoap.org/soap/encoding/\"/></input>"
+            + "<output><soap:body use=\"encoded\" namespace=\"urn:quotes\" "
+            + "encodingStyle=\"http://schemas.xmlsoap.org/soap/encoding/\"/></output></operation>"
+            + "</binding></definitions>";
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("compiled-wsdl", "");
+        directory.delete();
+        directory.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Test
+    public void docLiteralResponseErrorsAreTheSameWithCompiledMessage() throws Exception {
+        String response = envelope("<q:getQuoteResponse xmlns:q=\"urn:quotes\"><q:price>cheap</q:price>"
+                + "</q:getQuoteResponse><q:extra xmlns:q=\"urn:quotes\"/>");
+
+        WsdlContext wsdlContext = createContext("doc-literal.wsdl", DOC_LITERAL_WSDL);
+        List<String> compiling = validateResponse(wsdlContext, response);
+        List<String> compiled = validateResponse(wsdlContext, response);
+        List<String> recompiled = validateResponse(createContext("doc-literal-2.wsdl", DOC_LITERAL_WSDL), response);
+
+        // the invalid price and the unexpected element
+        assertTrue(compiling.toString(), compiling.size() >= 2);
+        assertTrue(compiling.toString(), compiling.contains("Invalid element [{urn:quotes}extra] in SOAP Body"));
+        assertEquals(compiling, compiled);
+        assertEquals(compiling, recompiled);
+
+        assertEquals(Arrays.asList("Missing message part with name [{urn:quotes}getQuoteResponse]"),
+                validateResponse(wsdlContext, envelope("<q:getQuote xmlns:q=\"urn:quotes\"/>")));
+        assertTrue(validateResponse(wsdlContext, envelope("<q:getQuoteResponse xmlns:q=\"urn:quotes\">"
+                + "<q:price>1.5</q:price></q:getQuoteResponse>")).isEmpty());
+    }
+
+    @Test
+    public void docLiteralPartsAreResolvedOnce() throws Exception {
+        WsdlContext wsdlContext = createContext("doc-literal.wsdl", DOC_LITERAL_WSDL);
+        BindingOperation bindingOperation = getBindingOperation(wsdlContext);
+
+        CompiledWsdlMessage message = wsdlContext.getCompiledMessage(bindingOperation, true);
+        assertSame(message, wsdlContext.getCompiledMessage(bindingOperation, true));
+        assertFalse(message.isSoapEncoded());
+        assertFalse(message.isRpc());
+        assertEquals(1, message.getBodyParts().length);
+
+        CompiledWsdlMessage.CompiledPart part = message.getBodyParts()[0];
+        assertEquals(new QName("urn:quotes", "getQuoteResponse"), part.getElementType().getContainerField()
+                .getName());
+        assertEquals(new QName("urn:quotes", "getQuote"), wsdlContext.getCompiledMessage(bindingOperation, false)
+                .getBodyParts()[0].getElementType().getContainerField().getName());
+    }
+
+    @Test
+    public void soapEncodedResponseErrorsAreTheSameWithCompiledMessage() throws Exception {
+        String response = envelope("<q:getQuoteResponse xmlns:q=\"urn:quotes\"><price>cheap</price>"
+                + "</q:getQuoteResponse>");
+
+        WsdlContext wsdlContext = createContext("soap-encoded.wsdl", SOAP_ENCODED_WSDL);
+        List<String> expected = Arrays.asList("Validation of SOAP-Encoded messages not supported");
+        assertEquals(expected, validateResponse(wsdlContext, response));
+        assertEquals(expected, validateResponse(wsdlContext, response));
+
+        CompiledWsdlMessage message = wsdlContext.getCompiledMessage(getBindingOperation(wsdlContext), true);
+        assertTrue(message.isSoapEncoded());
+        assertTrue(message.isRpc());
+        assertEquals("urn:quotes@getQuoteResponse", message.getRpcWrapperName());
+        assertEquals(new QName("urn:quotes", "price"), message.getBodyParts()[0].getType().getName());
+    }
+
+    private WsdlContext createContext(String fileName, String wsdl) throws Exception {
+        File file = new File(directory, fileName);
+        FileUtils.writeStringToFile(file, wsdl, "UTF-8");
+        WsdlContext wsdlContext = new WsdlContext(file.toURI().toURL().toString());
+        wsdlContext.load();
+        return wsdlContext;
+    }
+
+    private static BindingOperation getBindingOperation(WsdlContext wsdlContext) throws Exception {
+        return wsdlContext.getDefinition().getBinding(new QName("urn:quotes", "QuotesBinding"))
+                .getBindingOperation("getQuote", null, null);
+    }
+
+    private static List<String> validateResponse(WsdlContext wsdlContext, String response) throws Exception {
+        List<XmlError> errors = new ArrayList<XmlError>();
+        new WsdlValidator(wsdlContext).validateMessage(mock(WsdlMessageExchange.class), response,
+                getBindingOperation(wsdlContext), errors, true);
+
+        List<String> messages = new ArrayList<String>();
+        for (XmlError error : errors) {
+            messages.add(error.getMessage());
+        }
+        return messages;
+    }
+
+    private static String envelope(String body) {
+        return "<s:Envelope xmlns:s=\"" + SOAP11_NS + "\"><s:Body>" + body + "</s:Body></s:Envelope>";
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.support.xsd;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.xmlbeans.SchemaTypeSystem;
+import org.apache.xmlbeans.XmlBeans;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaTypeSystemCacheTest {
+    private static final String SCHEMA = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" "
+            + "targetNamespace=\"urn:test\" elementFormDefault=\"qualified\">"
+            + "<xs:element name=\"order\"><xs:complexType><xs:sequence>"
+            + "<xs:element name=\"quantity\" type=\"xs:int\"/>"
+            + "</xs:sequence></xs:complexType></xs:element></xs:schema>";
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("schema-cache", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Test
+    public void storedTypeSystemIsLoadedAgain() throws Exception {
+        List<XmlObject> schemas = parseSchemas(SCHEMA);
+        SchemaTypeSystemCache cache = new SchemaTypeSystemCache(directory);
+        String key = SchemaTypeSystemCache.createKey(schemas, false);
+
+        assertNull(cache.load(key));
+        cache.save(key, XmlBeans.compileXsd(schemas.toArray(new XmlObject[1]), XmlBeans.getBuiltinTypeSystem(),
+                new XmlOptions()));
+
+        SchemaTypeSystem loaded = cache.load(key);
+        assertNotNull(loaded);
+        assertEquals("int", loaded.findElement(new QName("urn:test", "order")).getType().getElementProperties()[0]
+                .getType().getName().getLocalPart());
+        assertEquals(1, directory.list().length);
+    }
+
+    @Test
+    public void saveRemovesLeastRecentlyUsedEntriesBeyondLimit() throws Exception {
+        SchemaTypeSystemCache cache = new SchemaTypeSystemCache(directory, 2, 0);
+        long now = System.currentTimeMillis();
+        File oldest = createEntry("oldest", now - 30000);
+        File recent = createEntry("recent", now - 10000);
+
+        List<XmlObject> schemas = parseSchemas(SCHEMA);
+        String key = SchemaTypeSystemCache.createKey(schemas, false);
+        cache.save(key, XmlBeans.compileXsd(schemas.toArray(new XmlObject[1]), XmlBeans.getBuiltinTypeSystem(),
+                new XmlOptions()));
+
+        assertFalse(oldest.exists());
+        assertTrue(recent.exists());
+        assertNotNull(cache.load(key));
+    }
+
+    @Test
+    public void pruneRemovesExpiredAndAbandonedEntries() throws Exception {
+        SchemaTypeSystemCache cache = new SchemaTypeSystemCache(directory, 0, 60000);
+        long now = System.currentTimeMillis();
+        File expired = createEntry("expired", now - 120000);
+        File used = createEntry("used", now - 1000);
+        File abandoned = createEntry("key.1234.tmp", now - 2 * 60 * 60 * 1000);
+        File saving = createEntry("key.5678.tmp", now - 1000);
+
+        cache.prune(null);
+
+        assertFalse(expired.exists());
+        assertTrue(used.exists());
+        assertFalse(abandoned.exists());
+        assertTrue(saving.exists());
+    }
+
+    @Test
+    public void keyChangesWithSchemaContent() throws Exception {
+        String key = SchemaTypeSystemCache.createKey(parseSchemas(SCHEMA), false);
+
+        assertEquals(key, SchemaTypeSystemCache.createKey(parseSchemas(SCHEMA), false));
+        assertFalse(key.equals(SchemaTypeSystemCache.createKey(parseSchemas(SCHEMA.replace("xs:int", "xs:long")),
+                false)));
+        assertFalse(key.equals(SchemaTypeSystemCache.createKey(parseSchemas(SCHEMA), true)));
+    }
+
+    private File createEntry(String name, long lastModified) {
+        File entry = new File(directory, name);
+        assertTrue(entry.mkdirs());
+        assertTrue(entry.setLastModified(lastModified));
+        return entry;
+    }
+
+    private static List<XmlObject> parseSchemas(String... schemas) throws Exception {
+        List<XmlObject> result = new ArrayList<XmlObject>();
+        for (String schema : schemas) {
+            result.add(XmlObject.Factory.parse(schema));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.testcase;
+
+import com.eviware.soapui.model.settings.Settings;
+import com.eviware.soapui.model.testsuite.TestCase;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestCaseSchedulerTest {
+
+    @Test
+    public void limitsConcurrentTestCases() throws Exception {
+        TestCaseScheduler scheduler = new TestCaseScheduler(2);
+        assertTrue(scheduler.isLimited());
+
+        scheduler.acquire();
+        scheduler.acquire();
+        assertEquals(0, scheduler.getAvailableSlots());
+
+        scheduler.release();
+        assertEquals(1, scheduler.getAvailableSlots());
+    }
+
+    @Test
+    public void zeroMeansNoLimit() throws Exception {
+        TestCaseScheduler scheduler = new TestCaseScheduler(0);
+        assertFalse(scheduler.isLimited());
+
+        for (int c = 0; c < 1000; c++) {
+            scheduler.acquire();
+        }
+    }
+
+    @Test
+    public void ordersLongestFirstWithUntimedTestCasesAhead() {
+        TestCase shortOne = mockTestCase(100);
+        TestCase untimed = mockTestCase(0);
+        TestCase longOne = mockTestCase(5000);
+        TestCase otherShortOne = mockTestCase(100);
+
+        List<TestCase> ordered = TestCaseScheduler.orderLongestFirst(Arrays.asList(shortOne, untimed, longOne,
+                otherShortOne));
+
+        assertEquals(Arrays.asList(untimed, longOne, shortOne, otherShortOne), ordered);
+    }
+
+    private static TestCase mockTestCase(long lastRunTime) {
+        Settings settings = mock(Settings.class);
+        when(settings.getLong(TestCaseScheduler.LAST_RUN_TIME_SETTING, 0)).thenReturn(lastRunTime);
+
+        TestCase testCase = mock(TestCase.class);
+        when(testCase.getSettings()).thenReturn(settings);
+        return testCase;
+    }
+}
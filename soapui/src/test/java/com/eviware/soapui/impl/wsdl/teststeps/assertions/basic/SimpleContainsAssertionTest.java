@@ -0,0 +1,59 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.impl.wsdl.teststeps.assertions.basic;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SimpleContainsAssertionTest {
+
+    @Test
+    public void findsTokenInStream() throws Exception {
+        assertTrue(SimpleContainsAssertion.containsToken(new StringReader("<a><b>value</b></a>"), "<b>value", false));
+        assertTrue(SimpleContainsAssertion.containsToken(new StringReader("aaab"), "aab", false));
+        assertFalse(SimpleContainsAssertion.containsToken(new StringReader("<a><b>value</b></a>"), "<c>", false));
+    }
+
+    @Test
+    public void ignoresCaseWhenAsked() throws Exception {
+        assertTrue(SimpleContainsAssertion.containsToken(new StringReader("Hello World"), "WORLD", true));
+        assertFalse(SimpleContainsAssertion.containsToken(new StringReader("Hello World"), "WORLD", false));
+    }
+
+    @Test
+    public void treatsCrLfAsLf() throws Exception {
+        assertTrue(SimpleContainsAssertion.containsToken(new StringReader("line1\r\nline2"), "line1\nline2", false));
+        assertTrue(SimpleContainsAssertion.containsToken(new StringReader("a\rb"), "a\rb", false));
+        assertTrue(SimpleContainsAssertion.containsToken(new StringReader("end\r"), "end\r", false));
+        assertFalse(SimpleContainsAssertion.containsToken(new StringReader("a\r\nb"), "a\r\nb", false));
+    }
+
+    @Test
+    public void findsTokenAcrossReadBoundaries() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int c = 0; c < 8190; c++) {
+            content.append('x');
+        }
+        content.append("token");
+
+        assertTrue(SimpleContainsAssertion.containsToken(new StringReader(content.toString()), "xtoken", false));
+    }
+}
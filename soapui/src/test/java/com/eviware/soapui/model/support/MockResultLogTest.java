@@ -0,0 +1,77 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.model.support;
+
+import com.eviware.soapui.model.mock.MockResult;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class MockResultLogTest {
+
+    @Test
+    public void keepsOnlyTheMostRecentResults() {
+        MockResultLog log = new MockResultLog(3);
+        MockResult[] results = addResults(log, 5);
+
+        assertEquals(5, log.getCount());
+        assertNull(log.get(1));
+        assertSame(results[2], log.get(2));
+        assertSame(results[4], log.get(4));
+        assertNull(log.get(5));
+
+        log.setCapacity(2);
+        assertNull(log.get(2));
+        assertSame(results[3], log.get(3));
+        assertSame(results[4], log.get(4));
+
+        log.clear();
+        assertNull(log.get(4));
+        assertEquals(5, log.getCount());
+    }
+
+    @Test
+    public void keepsSampledResultsWithBodies() {
+        MockResultLog log = new MockResultLog(10);
+        log.setSamplePercentage(20);
+        MockResult[] results = addResults(log, 10);
+
+        int sampled = 0;
+        for (int c = 0; c < results.length; c++) {
+            if (log.get(c) == results[c]) {
+                sampled++;
+            } else {
+                assertTrue(log.get(c) instanceof MockResultSummary);
+            }
+        }
+
+        assertEquals(2, sampled);
+    }
+
+    private static MockResult[] addResults(MockResultLog log, int count) {
+        MockResult[] results = new MockResult[count];
+        for (int c = 0; c < count; c++) {
+            results[c] = mock(MockResult.class);
+            log.add(results[c]);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+package com.eviware.soapui.monitor;
+
+import com.eviware.soapui.support.SpillFiles;
+import com.eviware.soapui.support.Tools;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MockCaptureBufferTest {
+
+    @Test
+    public void readsContentSpanningSeveralChunks() throws Exception {
+        byte[] content = createContent(MockCaptureBuffer.CHUNK_SIZE * 2 + 100);
+        MockCaptureBuffer buffer = new MockCaptureBuffer(0);
+        buffer.write(content[0]);
+        buffer.write(content, 1, content.length - 1);
+
+        assertFalse(buffer.isSpilled());
+        assertEquals(content.length, buffer.size());
+        assertArrayEquals(content, readAll(buffer));
+        assertArrayEquals(content, readAll(buffer));
+
+        buffer.release();
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void spillsToFileBeyondThreshold() throws Exception {
+        byte[] content = createContent(5000);
+        MockCaptureBuffer buffer = new MockCaptureBuffer(4096);
+        buffer.write(content, 0, 4000);
+        assertFalse(buffer.isSpilled());
+
+        buffer.write(content, 4000, 1000);
+        assertTrue(buffer.isSpilled());
+        assertArrayEquals(content, readAll(buffer));
+
+        File file = buffer.getFile();
+        assertEquals(SpillFiles.getDirectory(), file.getParentFile());
+
+        buffer.release();
+        assertFalse(file.exists());
+    }
+
+    private static byte[] readAll(MockCaptureBuffer buffer) throws Exception {
+        InputStream in = buffer.getInputStream();
+        try {
+            return Tools.readAll(in, Tools.READ_ALL).toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] createContent(int length) {
+        byte[] content = new byte[length];
+        for (int c = 0; c < length; c++) {
+            content[c] = (byte) (c * 31);
+        }
+        return content;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.report;
+
+import com.eviware.soapui.model.project.Project;
+import com.eviware.soapui.model.testsuite.TestCase;
+import com.eviware.soapui.model.testsuite.TestRunner.Status;
+import com.eviware.soapui.model.testsuite.TestSuite;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StreamingJUnitReportCollectorTest {
+    private File folder;
+
+    @Before
+    public void setUp() throws Exception {
+        folder = File.createTempFile("junit-reports", "");
+        folder.delete();
+        folder.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : folder.listFiles()) {
+            file.delete();
+        }
+        folder.delete();
+    }
+
+    @Test
+    public void writesReportWhenTestSuiteIsFinished() throws Exception {
+        TestSuite testSuite = mockTestSuite("Suite 1");
+        StreamingJUnitReportCollector collector = new StreamingJUnitReportCollector(folder.getPath());
+
+        collector.addTestCaseResult(mockTestCase(testSuite, "Passing"), Status.FINISHED, 1500, null);
+        TestCase failing = mockTestCase(testSuite, "Failing");
+        collector.addFailedStep(failing, "Request", new String[]{"Response was <empty>"}, null);
+        collector.addTestCaseResult(failing, Status.FAILED, 500, "Request failed");
+
+        assertFalse(new File(folder, "TEST-Suite_1.xml").exists());
+        collector.finishTestSuite(testSuite);
+
+        Element report = parse(new File(folder, "TEST-Suite_1.xml"));
+        assertEquals("Project.Suite 1", report.getAttribute("name"));
+        assertEquals("2", report.getAttribute("tests"));
+        assertEquals("1", report.getAttribute("failures"));
+        assertEquals("2.0", report.getAttribute("time"));
+
+        NodeList testCases = report.getElementsByTagName("testcase");
+        assertEquals(2, testCases.getLength());
+        Element failure = (Element) ((Element) testCases.item(1)).getElementsByTagName("failure").item(0);
+        assertEquals("Request failed", failure.getAttribute("message"));
+        assertTrue(failure.getTextContent().contains("Response was <empty>"));
+
+        List<String> files = collector.saveReports(folder.getPath());
+        assertEquals(1, files.size());
+        assertEquals(1, folder.listFiles().length);
+    }
+
+    @Test
+    public void truncatesFailureText() throws Exception {
+        TestSuite testSuite = mockTestSuite("Suite");
+        StreamingJUnitReportCollector collector = new StreamingJUnitReportCollector(folder.getPath(), 0, 100);
+
+        TestCase testCase = mockTestCase(testSuite, "Failing");
+        for (int c = 0; c < 100; c++) {
+            collector.addFailedStep(testCase, "Request " + c, new String[]{"Assertion failed"}, null);
+        }
+        collector.addTestCaseResult(testCase, Status.FAILED, 10, "Failed");
+        collector.saveReports(folder.getPath());
+
+        Element failure = (Element) parse(new File(folder, "TEST-Suite.xml")).getElementsByTagName("failure").item(0);
+        assertTrue(failure.getTextContent().length() < 150);
+        assertTrue(failure.getTextContent().endsWith("[truncated]"));
+    }
+
+    private static Element parse(File file) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file).getDocumentElement();
+    }
+
+    private static TestSuite mockTestSuite(String name) {
+        Project project = mock(Project.class);
+        when(project.getName()).thenReturn("Project");
+
+        TestSuite testSuite = mock(TestSuite.class);
+        when(testSuite.getName()).thenReturn(name);
+        when(testSuite.getProject()).thenReturn(project);
+        return testSuite;
+    }
+
+    private static TestCase mockTestCase(TestSuite testSuite, String name) {
+        TestCase testCase = mock(TestCase.class);
+        when(testCase.getName()).thenReturn(name);
+        when(testCase.getTestSuite()).thenReturn(testSuite);
+        return testCase;
+    }
+}
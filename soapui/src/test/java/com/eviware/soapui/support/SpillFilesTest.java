@@ -0,0 +1,57 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpillFilesTest {
+    @Test
+    public void createsFilesInLockedProcessDirectory() throws Exception {
+        File file = SpillFiles.createTempFile("soapui-test-");
+        try {
+            File directory = SpillFiles.getDirectory();
+            assertTrue(file.getParentFile().equals(directory));
+            assertTrue(new File(directory, SpillFiles.LOCK_FILE).exists());
+
+            // the directory of the running process survives a sweep
+            SpillFiles.sweep(directory.getParentFile());
+            assertTrue(file.exists());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void sweepsDirectoriesLeftByOtherRuns() throws Exception {
+        File root = SpillFiles.getDirectory().getParentFile();
+        File stale = new File(root, "run-stale-test");
+        File staleFile = new File(stale, "soapui-response-1.tmp");
+        assertTrue(stale.mkdirs());
+        assertTrue(staleFile.createNewFile());
+        assertTrue(new File(stale, SpillFiles.LOCK_FILE).createNewFile());
+
+        SpillFiles.sweep(root);
+        assertFalse(staleFile.exists());
+        assertFalse(stale.exists());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support.scripting.groovy;
+
+import groovy.lang.Binding;
+import groovy.lang.Script;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class GroovyScriptClassCacheTest {
+
+    private GroovyScriptClassCache cache;
+    private ClassLoader parentClassLoader;
+
+    @Before
+    public void setUp() {
+        cache = new GroovyScriptClassCache(2);
+        parentClassLoader = getClass().getClassLoader();
+    }
+
+    @Test
+    public void compilesIdenticalScriptsOnlyOnce() {
+        Object first = compile("return 1");
+        Object second = compile("return 1");
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void scriptInstancesUseTheirOwnBinding() {
+        Class<? extends Script> scriptClass = cache.getScriptClass(parentClassLoader, "return value * 2");
+
+        Binding firstBinding = new Binding();
+        firstBinding.setVariable("value", 1);
+        Binding secondBinding = new Binding();
+        secondBinding.setVariable("value", 5);
+
+        assertThat(InvokerHelper.createScript(scriptClass, firstBinding).run(), is((Object) 2));
+        assertThat(InvokerHelper.createScript(scriptClass, secondBinding).run(), is((Object) 10));
+    }
+
+    @Test
+    public void removedScriptIsRecompiled() {
+        Object first = compile("return 1");
+        cache.remove(parentClassLoader, "return 1");
+
+        assertThat(cache.size(), is(0));
+        assertThat(compile("return 1"), is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedScript() {
+        Object first = compile("return 1");
+        Object second = compile("return 2");
+        compile("return 1");
+        compile("return 3");
+
+        assertThat(cache.size(), is(2));
+        assertThat(compile("return 1"), is(sameInstance(first)));
+        assertThat(compile("return 2"), is(not(sameInstance(second))));
+    }
+
+    @Test
+    public void evictsScriptsOfCollectedClassLoaders() throws Exception {
+        ClassLoader classLoader = new URLClassLoader(new URL[0], parentClassLoader);
+        WeakReference<ClassLoader> classLoaderReference = new WeakReference<ClassLoader>(classLoader);
+        cache.getScriptClass(classLoader, "return 1");
+        assertThat(cache.size(), is(1));
+
+        classLoader = null;
+        for (int c = 0; c < 50 && classLoaderReference.get() != null; c++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertThat(classLoaderReference.get(), is(nullValue()));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void disabledCacheKeepsNothing() {
+        GroovyScriptClassCache disabled = new GroovyScriptClassCache(0);
+        disabled.getScriptClass(parentClassLoader, "return 1");
+
+        assertThat(disabled.isEnabled(), is(false));
+        assertThat(disabled.size(), is(0));
+    }
+
+    private Object compile(String scriptText) {
+        return cache.getScriptClass(parentClassLoader, scriptText);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support.xml;
+
+import com.eviware.soapui.model.propertyexpansion.PropertyExpansionContext;
+import com.eviware.soapui.model.testsuite.TestCaseRunContext;
+import org.apache.xmlbeans.XmlObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ParsedContentCacheTest {
+    private static final String CONTENT = "<a><!-- comment --><b>value</b></a>";
+
+    @Test
+    public void reusesDocumentParsedFromEqualContent() throws Exception {
+        ParsedContentCache cache = new ParsedContentCache();
+        XmlObject xmlObject = cache.get(CONTENT, false);
+
+        assertSame(xmlObject, cache.get(new String(CONTENT), false));
+    }
+
+    @Test
+    public void parsesChangedContentAgain() throws Exception {
+        ParsedContentCache cache = new ParsedContentCache();
+        XmlObject xmlObject = cache.get(CONTENT, false);
+        XmlObject changed = cache.get(CONTENT.replace("value", "other"), false);
+
+        assertNotSame(xmlObject, changed);
+        assertEquals("other", XmlUtils.selectFirstNodeValue(changed, "a/b"));
+    }
+
+    @Test
+    public void keepsDocumentsWithoutCommentsApart() throws Exception {
+        ParsedContentCache cache = new ParsedContentCache();
+        XmlObject withComments = cache.get(CONTENT, false);
+        XmlObject withoutComments = cache.get(CONTENT, true);
+
+        assertNotSame(withComments, withoutComments);
+        assertEquals(-1, withoutComments.xmlText().indexOf("comment"));
+        assertSame(withComments, cache.get(CONTENT, false));
+    }
+
+    @Test
+    public void evictsOldestDocument() throws Exception {
+        ParsedContentCache cache = new ParsedContentCache();
+        XmlObject first = cache.get("<a>0</a>", false);
+        for (int c = 1; c <= ParsedContentCache.SIZE; c++) {
+            cache.get("<a>" + c + "</a>", false);
+        }
+
+        assertNotSame(first, cache.get("<a>0</a>", false));
+    }
+
+    @Test
+    public void cachesOnlyInTestCaseRunContexts() throws Exception {
+        PropertyExpansionContext context = mock(PropertyExpansionContext.class);
+        XmlObject xmlObject = ParsedContentCache.getXmlObject(context, CONTENT, false);
+
+        assertNotSame(xmlObject, ParsedContentCache.getXmlObject(context, CONTENT, false));
+        verify(context, never()).setProperty(anyString(), anyObject());
+    }
+
+    @Test
+    public void releasesCacheOfContext() throws Exception {
+        TestCaseRunContext context = mock(TestCaseRunContext.class);
+        ParsedContentCache.getXmlObject(context, CONTENT, false);
+        verify(context).setProperty(anyString(), anyObject());
+
+        ParsedContentCache.release(context);
+        verify(context).removeProperty(ParsedContentCache.PARSEDCONTENTCACHE_PROPERTY);
+    }
+}
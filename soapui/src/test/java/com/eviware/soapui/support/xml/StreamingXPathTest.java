@@ -0,0 +1,94 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support.xml;
+
+import org.junit.Test;
+import org.w3c.dom.Node;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class StreamingXPathTest {
+    private static final String NS = "declare namespace ns='urn:orders';\n";
+    private static final String ORDERS = "<ns:orders xmlns:ns='urn:orders'>"
+            + "<ns:order id='1'><ns:item>a</ns:item><ns:item>b<x/>c</ns:item></ns:order>"
+            + "<ns:order id='2'><!--note-->text<ns:item sku='s2'>d</ns:item></ns:order>"
+            + "</ns:orders>";
+
+    @Test
+    public void rejectsUnsupportedExpressions() throws Exception {
+        assertNull(StreamingXPath.compile("count(//a)"));
+        assertNull(StreamingXPath.compile("//a[1]"));
+        assertNull(StreamingXPath.compile("$this/a"));
+        assertNull(StreamingXPath.compile("//a | //b"));
+        assertNull(StreamingXPath.compile("//undeclared:a"));
+        assertNull(StreamingXPath.compile("//a[text()='x']/b"));
+        assertNull(StreamingXPath.compile("//a//@id"));
+        assertNotNull(StreamingXPath.compile(NS + "/ns:orders/*[@id = \"1\"]/ns:item/text()"));
+    }
+
+    @Test
+    public void selectsElementsWithPredicates() throws Exception {
+        List<StreamingXPath.Match> matches = select(NS + "//ns:order[@id='1']/ns:item", false);
+        assertEquals(2, matches.size());
+        assertEquals(Node.ELEMENT_NODE, matches.get(0).getNodeType());
+        assertEquals("a", matches.get(0).getValue());
+        assertEquals("b", matches.get(1).getValue());
+
+        matches = select(NS + "//ns:item[text()='c']", false);
+        assertEquals(1, matches.size());
+        assertEquals("b", matches.get(0).getValue());
+
+        assertEquals(0, select(NS + "//ns:item[@sku='s1']", false).size());
+        assertEquals(1, select(NS + "//ns:item[@sku]", false).size());
+        assertEquals(0, select("//item", false).size());
+    }
+
+    @Test
+    public void selectsAttributesAndText() throws Exception {
+        List<StreamingXPath.Match> matches = select(NS + "/ns:orders/ns:order/@id", false);
+        assertEquals(2, matches.size());
+        assertEquals(Node.ATTRIBUTE_NODE, matches.get(1).getNodeType());
+        assertEquals("2", matches.get(1).getValue());
+
+        matches = select(NS + "//ns:item/text()", false);
+        assertEquals(4, matches.size());
+        assertEquals("c", matches.get(2).getValue());
+    }
+
+    @Test
+    public void treatsCommentsLikeXmlBeans() throws Exception {
+        assertNull(select(NS + "//ns:order[@id='2']", false).get(0).getValue());
+        assertEquals("text", select(NS + "//ns:order[@id='2']", true).get(0).getValue());
+    }
+
+    @Test
+    public void stopsAfterMaxMatches() throws Exception {
+        List<StreamingXPath.Match> matches = StreamingXPath.compile(NS + "//ns:item").select(
+                ORDERS.substring(0, ORDERS.indexOf("<ns:item>b")), false, 1);
+        assertEquals(1, matches.size());
+        assertEquals("a", matches.get(0).getValue());
+    }
+
+    private List<StreamingXPath.Match> select(String xpath, boolean stripComments) throws Exception {
+        return StreamingXPath.compile(xpath).select(ORDERS, stripComments, 0);
+    }
+}
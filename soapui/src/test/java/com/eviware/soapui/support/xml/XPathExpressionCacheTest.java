@@ -0,0 +1,60 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.support.xml;
+
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.apache.xmlbeans.impl.store.Path;
+import org.apache.xmlbeans.impl.store.Query;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class XPathExpressionCacheTest {
+
+    @Test
+    public void optionsSelectCachedDelegates() throws Exception {
+        XmlOptions options = XPathExpressionCache.getInstance().getOptions();
+
+        assertEquals(CachedXPathDelegate.class.getName(), options.get(Path.PATH_DELEGATE_INTERFACE));
+        assertEquals(CachedXQueryDelegate.class.getName(), options.get(Query.QUERY_DELEGATE_INTERFACE));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedExpressions() throws Exception {
+        XPathExpressionCache cache = new XPathExpressionCache(2);
+        cache.put("a", "compiled a");
+        cache.put("b", "compiled b");
+        cache.get("a");
+        cache.put("c", "compiled c");
+
+        assertEquals(2, cache.size());
+        assertEquals("compiled a", cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void selectsPathsEvaluatedByXmlBeans() throws Exception {
+        XmlObject xml = XmlObject.Factory.parse("<in xmlns='http://www.example.org/TestService/'><name>a</name>"
+                + "<name>b</name></in>");
+        String path = "declare namespace tes='http://www.example.org/TestService/';\n$this/tes:in/tes:name";
+
+        assertEquals(2, XPathExpressionCache.getInstance().selectPath(xml, path).length);
+    }
+}
@@ -17,13 +17,16 @@
 package com.eviware.soapui.tools;
 
 import com.eviware.soapui.impl.wsdl.WsdlProject;
+import com.eviware.soapui.model.testsuite.TestCase;
 import com.eviware.soapui.support.Tools;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class TestCaseRunnerTest {
 
@@ -72,6 +75,17 @@ public class TestCaseRunnerTest {
         assertEquals("/dev/test", runner.getAbsoluteOutputFolder(project));
     }
 
+    @Test
+    public void testMaxErrorsIsUnlimitedUnlessSpecified() throws Exception {
+        SoapUITestCaseRunner runner = new SoapUITestCaseRunner();
+        runner.initFromCommandLine(new String[]{"-J", projectFilePath}, false);
+        assertEquals(0, runner.getMaxErrors());
+
+        runner = new SoapUITestCaseRunner();
+        runner.initFromCommandLine(new String[]{"-J", "-m", "3", projectFilePath}, false);
+        assertEquals(3, runner.getMaxErrors());
+    }
+
     @Test
     public void testInvalidTestCaseWithValidTestSuiteName() throws Exception {
         SoapUITestCaseRunner runner = new SoapUITestCaseRunner();
@@ -108,6 +122,29 @@ public class TestCaseRunnerTest {
         assertFalse(failed);
     }
 
+    @Test
+    public void testTestSuiteRunLeavesOtherTestSuitesUnloaded() throws Exception {
+        SoapUITestCaseRunner runner = new SoapUITestCaseRunner();
+        runner.setTestSuite("TestSuite 2");
+        WsdlProject project = new WsdlProject(projectFilePath);
+
+        assertTrue(runner.selectTestCases(project).isEmpty());
+        assertTrue(project.getTestSuiteByName("TestSuite 2").isTestCasesLoaded());
+        assertFalse(project.getTestSuiteByName("Test Suite").isTestCasesLoaded());
+    }
+
+    @Test
+    public void testTestCaseRunLeavesOtherTestSuitesUnloaded() throws Exception {
+        SoapUITestCaseRunner runner = new SoapUITestCaseRunner();
+        runner.setTestCase("TestCase 1");
+        WsdlProject project = new WsdlProject(projectFilePath);
+
+        List<TestCase> testCases = runner.selectTestCases(project);
+        assertEquals(1, testCases.size());
+        assertEquals("TestSuite 2", testCases.get(0).getTestSuite().getName());
+        assertFalse(project.getTestSuiteByName("Test Suite").isTestCasesLoaded());
+    }
+
     @Test
     public void testTestCaseRunner() throws Exception {
         SoapUITestCaseRunner runner = new SoapUITestCaseRunner();
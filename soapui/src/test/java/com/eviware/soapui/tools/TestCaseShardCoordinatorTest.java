@@ -0,0 +1,176 @@
+/*
+ * Copyright 2004-2014 SmartBear Software
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon as they will be approved by the European Commission - subsequent
+ * versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the Licence is
+ * distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the Licence for the specific language governing permissions and limitations
+ * under the Licence.
+*/
+
+
+package com.eviware.soapui.tools;
+
+import com.eviware.soapui.model.project.Project;
+import com.eviware.soapui.model.testsuite.TestCase;
+import com.eviware.soapui.model.testsuite.TestRunner.Status;
+import com.eviware.soapui.model.testsuite.TestStepResult.TestStepStatus;
+import com.eviware.soapui.model.testsuite.TestSuite;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class TestCaseShardCoordinatorTest {
+
+    @Test
+    public void escapesFieldsInMessages() {
+        String line = TestCaseShardProtocol.encode(TestCaseShardProtocol.STEP, "a\tb", "line1\r\nline2", "c:\\temp", null);
+
+        assertEquals(-1, line.indexOf('\n'));
+        assertArrayEquals(new String[]{"STEP", "a\tb", "line1\r\nline2", "c:\\temp", ""},
+                TestCaseShardProtocol.decode(line));
+    }
+
+    @Test
+    public void streamsResultsOfWorkersToListener() throws Exception {
+        TestCase testCase = mockTestCase("Suite", "Case");
+        TestCaseShardCoordinator.ShardListener listener = mock(TestCaseShardCoordinator.ShardListener.class);
+
+        TestCaseShardCoordinator coordinator = new TestCaseShardCoordinator(Arrays.asList(testCase), listener, "secret");
+        try {
+            Socket socket = new Socket("localhost", coordinator.start(0, false));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), "UTF-8");
+
+            TestCaseShardProtocol.send(writer, TestCaseShardProtocol.READY, "secret");
+            assertArrayEquals(new String[]{"RUN", "0", "0", "Suite", "Case"},
+                    TestCaseShardProtocol.decode(reader.readLine()));
+
+            TestCaseShardProtocol.send(writer, TestCaseShardProtocol.STEP, "Request", "FAILED", "12", null, "oops");
+            TestCaseShardProtocol.send(writer, TestCaseShardProtocol.FINISHED, "FAILED", "15", "Step failed");
+            assertEquals("STOP", reader.readLine());
+            socket.close();
+
+            coordinator.awaitCompletion();
+        } finally {
+            coordinator.stop();
+        }
+
+        verify(listener).stepFinished(testCase, "Request", TestStepStatus.FAILED, 12, new String[]{"oops"}, null);
+        verify(listener).testCaseFinished(testCase, Status.FAILED, 15, "Step failed");
+    }
+
+    @Test
+    public void failsTestCaseWhenWorkerDisconnects() throws Exception {
+        TestCase testCase = mockTestCase("Suite", "Case");
+        TestCaseShardCoordinator.ShardListener listener = mock(TestCaseShardCoordinator.ShardListener.class);
+
+        TestCaseShardCoordinator coordinator = new TestCaseShardCoordinator(Arrays.asList(testCase), listener, "secret");
+        try {
+            Socket socket = new Socket("localhost", coordinator.start(0, false));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+
+            TestCaseShardProtocol.send(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"),
+                    TestCaseShardProtocol.READY, "secret");
+            reader.readLine();
+            socket.close();
+
+            coordinator.awaitCompletion();
+        } finally {
+            coordinator.stop();
+        }
+
+        verify(listener).testCaseFinished(testCase, Status.FAILED, 0, "Worker disconnected while running TestCase");
+    }
+
+    @Test
+    public void rejectsWorkersWithWrongToken() throws Exception {
+        TestCase testCase = mockTestCase("Suite", "Case");
+        TestCaseShardCoordinator.ShardListener listener = mock(TestCaseShardCoordinator.ShardListener.class);
+
+        TestCaseShardCoordinator coordinator = new TestCaseShardCoordinator(Arrays.asList(testCase), listener, "secret");
+        try {
+            Socket socket = new Socket("localhost", coordinator.start(0, false));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+
+            TestCaseShardProtocol.send(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"),
+                    TestCaseShardProtocol.READY, "guess");
+            assertNull(reader.readLine());
+            socket.close();
+
+            assertEquals(1, coordinator.getPendingTestCases());
+        } finally {
+            coordinator.stop();
+        }
+
+        verifyZeroInteractions(listener);
+    }
+
+    @Test
+    public void acceptsOnlyLocalWorkersUnlessRemote() throws Exception {
+        TestCaseShardCoordinator coordinator = new TestCaseShardCoordinator(Arrays.<TestCase>asList(),
+                mock(TestCaseShardCoordinator.ShardListener.class), "secret");
+        try {
+            int port = coordinator.start(0, false);
+            for (NetworkInterface networkInterface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
+                    if (!address.isLoopbackAddress()) {
+                        assertFalse(canConnect(address, port));
+                    }
+                }
+            }
+
+            assertTrue(canConnect(InetAddress.getByName("127.0.0.1"), port));
+        } finally {
+            coordinator.stop();
+        }
+    }
+
+    private static boolean canConnect(InetAddress address, int port) {
+        try {
+            new Socket(address, port).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static TestCase mockTestCase(String suiteName, String caseName) {
+        Project project = mock(Project.class);
+        TestSuite testSuite = mock(TestSuite.class);
+        TestCase testCase = mock(TestCase.class);
+
+        when(testSuite.getProject()).thenReturn(project);
+        when(testSuite.getName()).thenReturn(suiteName);
+        when(project.getIndexOfTestSuite(testSuite)).thenReturn(0);
+        when(testSuite.getIndexOfTestCase(testCase)).thenReturn(0);
+        when(testCase.getTestSuite()).thenReturn(testSuite);
+        when(testCase.getName()).thenReturn(caseName);
+        return testCase;
+    }
+}